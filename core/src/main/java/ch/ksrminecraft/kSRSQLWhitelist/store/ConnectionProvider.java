@@ -0,0 +1,25 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Liefert JDBC-Verbindungen für einen {@link WhitelistStore}.
+ *
+ * Schreibzugriffe laufen immer über {@link #openWrite()}. Reine Lesezugriffe
+ * dürfen über {@link #openRead()} z. B. auf eine Replica umgeleitet werden.
+ */
+public interface ConnectionProvider {
+
+    Connection openWrite() throws SQLException;
+
+    default Connection openRead() throws SQLException {
+        return openWrite();
+    }
+
+    /**
+     * Wird nach jedem bestätigten Schreibzugriff aufgerufen (Read-after-Write).
+     */
+    default void noteWrite() {
+    }
+}
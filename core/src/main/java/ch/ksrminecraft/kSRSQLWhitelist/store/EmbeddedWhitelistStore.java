@@ -0,0 +1,96 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@link WhitelistStore} auf einer eingebetteten SQLite-Datei.
+ *
+ * Für Einzelserver, die keine Netzwerk-Datenbank brauchen: Lookups sind
+ * lokale Index-Seeks ohne Netzwerk-Roundtrip. Die Namensspalte verwendet
+ * {@code COLLATE NOCASE}, damit Vergleiche wie bei MySQL ohne
+ * Gross-/Kleinschreibung funktionieren.
+ */
+public class EmbeddedWhitelistStore extends JdbcWhitelistStore {
+
+    public EmbeddedWhitelistStore(ConnectionProvider connections, Supplier<StoreSchema> schema) {
+        super(connections, schema);
+    }
+
+    @Override
+    public String engine() {
+        return "embedded";
+    }
+
+    /**
+     * Der SQLite-Treiber setzt keinen SQLState, nur den Fehlercode
+     * {@code SQLITE_CONSTRAINT} (19).
+     */
+    @Override
+    protected boolean isDuplicateKey(SQLException ex) {
+        return ex.getErrorCode() == 19 || super.isDuplicateKey(ex);
+    }
+
+    @Override
+    protected List<String> createTableSql(StoreSchema s) {
+        String table = q(s.table());
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + q(s.columnUUID()) + " TEXT NOT NULL PRIMARY KEY, "
+                        + q(s.columnName()) + " TEXT COLLATE NOCASE)",
+                "CREATE INDEX IF NOT EXISTS " + q("idx_" + s.table() + "_name") + " ON " + table
+                        + " (" + q(s.columnName()) + ")"
+        );
+    }
+
+    @Override
+    protected List<String> createBlockTableSql(StoreSchema s) {
+        String table = q(s.blockTable());
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + "\"uuid\" TEXT NOT NULL PRIMARY KEY, "
+                        + "\"player_name\" TEXT, "
+                        + "\"reason\" TEXT, "
+                        + "\"blocked_until\" INTEGER NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS " + q("idx_" + s.blockTable() + "_blocked_until") + " ON " + table
+                        + " (\"blocked_until\")"
+        );
+    }
+
+    @Override
+    protected List<String> createChangeTableSql(StoreSchema s) {
+        String table = q(s.changeTable());
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + "\"seq\" INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "\"origin\" TEXT NOT NULL, "
+                        + "\"type\" TEXT NOT NULL, "
+                        + "\"uuid\" TEXT, "
+                        + "\"name\" TEXT, "
+                        + "\"blocked_until\" INTEGER NOT NULL DEFAULT 0, "
+                        + "\"created_at\" INTEGER NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS " + q("idx_" + s.changeTable() + "_created_at") + " ON " + table
+                        + " (\"created_at\")"
+        );
+    }
+
+    @Override
+    protected List<String> createClusterTablesSql(StoreSchema s) {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + q(s.leaseTable()) + " ("
+                        + "\"name\" TEXT NOT NULL PRIMARY KEY, "
+                        + "\"holder\" TEXT NOT NULL, "
+                        + "\"expires_at\" INTEGER NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS " + q(s.snapshotTable()) + " ("
+                        + "\"id\" INTEGER NOT NULL PRIMARY KEY, "
+                        + "\"version\" INTEGER NOT NULL, "
+                        + "\"change_seq\" INTEGER NOT NULL, "
+                        + "\"row_count\" INTEGER NOT NULL, "
+                        + "\"checksum\" TEXT NOT NULL, "
+                        + "\"created_at\" INTEGER NOT NULL, "
+                        + "\"created_by\" TEXT NOT NULL, "
+                        + "\"data\" BLOB NOT NULL)"
+        );
+    }
+}
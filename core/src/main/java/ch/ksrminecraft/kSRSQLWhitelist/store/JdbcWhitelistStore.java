@@ -0,0 +1,1124 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧰 JdbcWhitelistStore
+ *  ---------------------
+ *  Gemeinsame JDBC-Implementierung von {@link WhitelistStore}.
+ *
+ *  Die Abfragen sind in Standard-SQL geschrieben; alles, was sich zwischen
+ *  den Engines unterscheidet, steckt in überschreibbaren Dialekt-Methoden:
+ *   - Quoting von Bezeichnern
+ *   - Upsert ({@code ON CONFLICT ... DO UPDATE} bzw. {@code ON DUPLICATE KEY UPDATE})
+ *   - Vergleich von Namen ohne Gross-/Kleinschreibung
+ *   - Löschen in begrenzten Blöcken
+ *   - Streaming beim Scannen
+ *   - DDL
+ *
+ *  Die Standardwerte entsprechen PostgreSQL/SQLite; MySQL überschreibt sie.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public abstract class JdbcWhitelistStore implements WhitelistStore {
+
+    /** Maximale Anzahl Zeilen bzw. Parameter-Gruppen pro Bulk-Statement. */
+    protected static final int BULK_CHUNK_SIZE = 500;
+
+    protected final ConnectionProvider connections;
+    private final Supplier<StoreSchema> schema;
+
+    /** Ablaufspalte vorhanden (siehe {@link #ensureExpirySchema(boolean)}). */
+    private volatile boolean expiryAvailable;
+
+    protected JdbcWhitelistStore(ConnectionProvider connections, Supplier<StoreSchema> schema) {
+        this.connections = connections;
+        this.schema = schema;
+    }
+
+    protected StoreSchema schema() {
+        return schema.get();
+    }
+
+    // ------------------------------------------------------------------------
+    // 🗣️ Dialekt
+    // ------------------------------------------------------------------------
+
+    protected String q(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Mehrzeiliger Upsert; bei Konflikt auf {@code key} werden die übrigen Spalten überschrieben.
+     */
+    protected String upsertSql(String table, String key, List<String> columns, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(q(table)).append(" (");
+        appendColumns(sql, columns);
+        sql.append(") VALUES ").append(valueGroups(columns.size(), rows));
+        sql.append(" ON CONFLICT (").append(q(key)).append(") DO UPDATE SET ");
+        String sep = "";
+        for (String column : columns) {
+            if (!column.equals(key)) {
+                sql.append(sep).append(q(column)).append(" = excluded.").append(q(column));
+                sep = ", ";
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Ausdruck für den Namen beim Vergleich mit {@link #nameParam(String)}.
+     * Zusammen müssen beide Gross-/Kleinschreibung ignorieren.
+     */
+    protected String nameKey() {
+        return q(schema().columnName());
+    }
+
+    protected String nameParam(String name) {
+        return name;
+    }
+
+    protected String likeOperator() {
+        return "LIKE";
+    }
+
+    /**
+     * Löscht höchstens {@code limit} Zeilen mit {@code column <= ?}.
+     */
+    protected String purgeSql(String table, String key, String column, int limit) {
+        return "DELETE FROM " + q(table) + " WHERE " + q(key) + " IN (SELECT " + q(key) + " FROM " + q(table)
+                + " WHERE " + q(column) + " <= ? LIMIT " + limit + ")";
+    }
+
+    /**
+     * Bereitet ein Statement für einen speicherschonenden Scan vor.
+     */
+    protected void prepareScan(Connection c, PreparedStatement ps) throws SQLException {
+        ps.setFetchSize(1_000);
+    }
+
+    /**
+     * Erkennt eine Verletzung des Primärschlüssels (SQLState-Klasse 23).
+     */
+    protected boolean isDuplicateKey(SQLException ex) {
+        return ex.getSQLState() != null && ex.getSQLState().startsWith("23");
+    }
+
+    protected abstract List<String> createTableSql(StoreSchema s);
+
+    protected abstract List<String> createBlockTableSql(StoreSchema s);
+
+    /**
+     * Änderungs-Log mit automatisch vergebener, aufsteigender {@code seq}.
+     */
+    protected abstract List<String> createChangeTableSql(StoreSchema s);
+
+    protected abstract List<String> createClusterTablesSql(StoreSchema s);
+
+    // ------------------------------------------------------------------------
+    // 🧱 Schema
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void ensureSchema() throws SQLException {
+        executeAll(createTableSql(schema()));
+    }
+
+    @Override
+    public void ensureBlockSchema() throws SQLException {
+        executeAll(createBlockTableSql(schema()));
+    }
+
+    @Override
+    public void ensureInvalidationSchema() throws SQLException {
+        executeAll(createChangeTableSql(schema()));
+    }
+
+    @Override
+    public void ensureClusterSchema() throws SQLException {
+        executeAll(createClusterTablesSql(schema()));
+    }
+
+    private void executeAll(List<String> statements) throws SQLException {
+        try (Connection c = connections.openWrite();
+             Statement st = c.createStatement()) {
+            for (String sql : statements) {
+                st.execute(sql);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔍 Lookups
+    // ------------------------------------------------------------------------
+
+    @Override
+    public LoginResult checkLogins(Map<UUID, String> logins) throws SQLException {
+        StoreSchema s = schema();
+        String table = q(s.table());
+        String colUUID = q(s.columnUUID());
+        String colName = q(s.columnName());
+
+        Map<UUID, Boolean> out = new HashMap<>();
+        List<Entry> matched = new ArrayList<>();
+        Map<UUID, String> fixedFrom = new HashMap<>();
+        if (logins.isEmpty()) {
+            return new LoginResult(out, matched, fixedFrom);
+        }
+
+        // Gespeichert sein kann die UUID mit oder ohne Bindestriche
+        Map<String, UUID> byStoredForm = new HashMap<>();
+        for (UUID uuid : logins.keySet()) {
+            String dashed = uuid.toString();
+            byStoredForm.put(dashed, uuid);
+            byStoredForm.put(dashed.replace("-", ""), uuid);
+        }
+
+        // Korrekturen werden gesammelt und danach gebündelt über openWrite() geschrieben
+        List<String[]> fixes = new ArrayList<>();
+        List<String[]> renames = new ArrayList<>();
+        List<UUID> attach = new ArrayList<>();
+
+        try (Connection c = connections.openRead()) {
+            Map<UUID, String> storedUUIDs = new HashMap<>();
+            Map<UUID, String> storedNames = new HashMap<>();
+
+            String selectByUUIDs = "SELECT " + colUUID + ", " + colName + " FROM " + table
+                    + " WHERE " + colUUID + " IN (" + placeholders(byStoredForm.size()) + ")";
+            try (PreparedStatement ps = c.prepareStatement(selectByUUIDs)) {
+                int i = 1;
+                for (String form : byStoredForm.keySet()) {
+                    ps.setString(i++, form);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String found = rs.getString(1);
+                        UUID uuid = found == null ? null : byStoredForm.get(found.toLowerCase(Locale.ROOT));
+                        if (uuid != null) {
+                            storedUUIDs.put(uuid, found);
+                            storedNames.put(uuid, rs.getString(2));
+                        }
+                    }
+                }
+            }
+
+            for (Map.Entry<UUID, String> found : storedUUIDs.entrySet()) {
+                UUID uuid = found.getKey();
+                String uuidDashed = uuid.toString();
+                String name = logins.get(uuid);
+
+                if (found.getValue().length() == 32) {
+                    fixes.add(new String[]{uuidDashed, found.getValue()});
+                    fixedFrom.put(uuid, found.getValue());
+                }
+                if (!name.equals(storedNames.get(uuid))) {
+                    renames.add(new String[]{name, uuidDashed});
+                }
+
+                matched.add(new Entry(uuidDashed, name));
+                out.put(uuid, true);
+            }
+
+            // Nicht per UUID gefunden → Einträge nur mit Namen prüfen
+            Map<String, UUID> missingByName = new HashMap<>();
+            for (Map.Entry<UUID, String> login : logins.entrySet()) {
+                if (!out.containsKey(login.getKey())) {
+                    missingByName.put(login.getValue().toLowerCase(Locale.ROOT), login.getKey());
+                }
+            }
+
+            if (!missingByName.isEmpty()) {
+                String selectByNamesNoUUID = "SELECT " + colName + " FROM " + table
+                        + " WHERE " + nameKey() + " IN (" + placeholders(missingByName.size()) + ")"
+                        + " AND (" + colUUID + " IS NULL OR " + colUUID + " = '')";
+
+                try (PreparedStatement ps = c.prepareStatement(selectByNamesNoUUID)) {
+                    int i = 1;
+                    for (UUID uuid : missingByName.values()) {
+                        ps.setString(i++, nameParam(logins.get(uuid)));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String found = rs.getString(1);
+                            UUID uuid = found == null ? null : missingByName.get(found.toLowerCase(Locale.ROOT));
+                            if (uuid != null && !attach.contains(uuid)) {
+                                attach.add(uuid);
+                            }
+                        }
+                    }
+                }
+
+                for (UUID uuid : attach) {
+                    matched.add(new Entry(uuid.toString(), logins.get(uuid)));
+                    out.put(uuid, true);
+                }
+            }
+        }
+
+        if (!fixes.isEmpty() || !renames.isEmpty() || !attach.isEmpty()) {
+            String fixUUID = "UPDATE " + table + " SET " + colUUID + " = ? WHERE " + colUUID + " = ?";
+            String updateSetName = "UPDATE " + table + " SET " + colName + " = ? WHERE " + colUUID + " = ?";
+            String updateAttachUUID = "UPDATE " + table + " SET " + colUUID + " = ? WHERE " + nameKey() + " = ?"
+                    + " AND (" + colUUID + " IS NULL OR " + colUUID + " = '')";
+
+            try (Connection c = connections.openWrite();
+                 PreparedStatement fix = c.prepareStatement(fixUUID);
+                 PreparedStatement rename = c.prepareStatement(updateSetName);
+                 PreparedStatement up = c.prepareStatement(updateAttachUUID)) {
+
+                // Reihenfolge wichtig: zuerst UUID korrigieren, dann Namen über die korrigierte UUID setzen
+                for (String[] f : fixes) {
+                    fix.setString(1, f[0]);
+                    fix.setString(2, f[1]);
+                    fix.addBatch();
+                }
+                if (!fixes.isEmpty()) {
+                    fix.executeBatch();
+                }
+
+                for (String[] r : renames) {
+                    rename.setString(1, r[0]);
+                    rename.setString(2, r[1]);
+                    rename.addBatch();
+                }
+                if (!renames.isEmpty()) {
+                    rename.executeBatch();
+                }
+
+                for (UUID uuid : attach) {
+                    up.setString(1, uuid.toString());
+                    up.setString(2, nameParam(logins.get(uuid)));
+                    up.addBatch();
+                }
+                if (!attach.isEmpty()) {
+                    up.executeBatch();
+                }
+            }
+            connections.noteWrite();
+        }
+
+        for (UUID uuid : logins.keySet()) {
+            out.putIfAbsent(uuid, false);
+        }
+        return new LoginResult(out, matched, fixedFrom);
+    }
+
+    @Override
+    public boolean existsByName(String name) throws SQLException {
+        StoreSchema s = schema();
+        String sql = "SELECT 1 FROM " + q(s.table()) + " WHERE " + nameKey() + " = ? LIMIT 1";
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, nameParam(name));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Override
+    public boolean existsByUUID(String uuid) throws SQLException {
+        StoreSchema s = schema();
+        String col = q(s.columnUUID());
+        String sql = "SELECT 1 FROM " + q(s.table()) + " WHERE " + col + " = ? OR REPLACE(" + col + ", '-', '') = ? LIMIT 1";
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, uuid);
+            ps.setString(2, uuid.replace("-", ""));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Override
+    public Set<String> findExistingNames(Collection<String> names) throws SQLException {
+        StoreSchema s = schema();
+        Set<String> out = new HashSet<>();
+        List<String> all = new ArrayList<>(names);
+
+        try (Connection c = connections.openRead()) {
+            for (int from = 0; from < all.size(); from += BULK_CHUNK_SIZE) {
+                List<String> chunk = all.subList(from, Math.min(all.size(), from + BULK_CHUNK_SIZE));
+                String sql = "SELECT " + q(s.columnName()) + " FROM " + q(s.table())
+                        + " WHERE " + nameKey() + " IN (" + placeholders(chunk.size()) + ")";
+
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setString(i + 1, nameParam(chunk.get(i)));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String found = rs.getString(1);
+                            if (found != null) {
+                                out.add(found.toLowerCase(Locale.ROOT));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    // ------------------------------------------------------------------------
+    // ✍️ Schreiben
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void apply(List<Change> changes) throws SQLException {
+        StoreSchema s = schema();
+        boolean withExpiry = expiryAvailable && s.columnExpires() != null;
+
+        try (Connection c = connections.openWrite()) {
+            c.setAutoCommit(false);
+            try {
+                int from = 0;
+                while (from < changes.size()) {
+                    ChangeType type = changes.get(from).type();
+                    int to = from;
+                    while (to < changes.size() && changes.get(to).type() == type && to - from < BULK_CHUNK_SIZE) {
+                        to++;
+                    }
+                    List<Change> run = changes.subList(from, to);
+
+                    String sql = switch (type) {
+                        case UPSERT -> upsertSql(s.table(), s.columnUUID(), withExpiry
+                                ? List.of(s.columnUUID(), s.columnName(), s.columnExpires())
+                                : List.of(s.columnUUID(), s.columnName()), run.size());
+                        case DELETE_UUID -> "DELETE FROM " + q(s.table()) + " WHERE " + q(s.columnUUID())
+                                + " IN (" + placeholders(run.size()) + ")";
+                        case DELETE_NAME -> "DELETE FROM " + q(s.table()) + " WHERE " + nameKey()
+                                + " IN (" + placeholders(run.size()) + ")";
+                    };
+
+                    try (PreparedStatement ps = c.prepareStatement(sql)) {
+                        int i = 1;
+                        for (Change change : run) {
+                            switch (type) {
+                                case UPSERT -> {
+                                    ps.setString(i++, change.uuid());
+                                    ps.setString(i++, change.name());
+                                    if (withExpiry) {
+                                        // Erneutes Hinzufügen ohne Dauer entfristet den Eintrag
+                                        if (change.expiresAt() > 0) {
+                                            ps.setLong(i++, change.expiresAt());
+                                        } else {
+                                            ps.setNull(i++, Types.BIGINT);
+                                        }
+                                    }
+                                }
+                                case DELETE_UUID -> ps.setString(i++, change.uuid());
+                                case DELETE_NAME -> ps.setString(i++, nameParam(change.name()));
+                            }
+                        }
+                        ps.executeUpdate();
+                    }
+                    from = to;
+                }
+                c.commit();
+                connections.noteWrite();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📜 Auflisten & Scannen
+    // ------------------------------------------------------------------------
+
+    private String nameFilter(String prefix) {
+        String col = q(schema().columnName());
+        return " WHERE " + col + " IS NOT NULL AND " + col + " <> ''"
+                + (hasPrefix(prefix) ? " AND " + col + " " + likeOperator() + " ? ESCAPE '!'" : "");
+    }
+
+    @Override
+    public List<String> listNames() throws SQLException {
+        StoreSchema s = schema();
+        String sql = "SELECT DISTINCT " + q(s.columnName()) + " FROM " + q(s.table()) + nameFilter(null);
+
+        List<String> out = new ArrayList<>();
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.add(rs.getString(1));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public List<String> listNamesPage(String afterName, String prefix, int limit) throws SQLException {
+        StoreSchema s = schema();
+        String col = q(s.columnName());
+
+        StringBuilder sql = new StringBuilder("SELECT DISTINCT " + col + " FROM " + q(s.table()) + nameFilter(prefix));
+        if (afterName != null) {
+            sql.append(" AND ").append(col).append(" > ?");
+        }
+        sql.append(" ORDER BY ").append(col).append(" LIMIT ?");
+
+        List<String> out = new ArrayList<>();
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql.toString())) {
+            int i = 1;
+            if (hasPrefix(prefix)) {
+                ps.setString(i++, likePrefix(prefix));
+            }
+            if (afterName != null) {
+                ps.setString(i++, afterName);
+            }
+            ps.setInt(i, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(rs.getString(1));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public String findNameAtOffset(String prefix, int offset) throws SQLException {
+        StoreSchema s = schema();
+        String col = q(s.columnName());
+        String sql = "SELECT DISTINCT " + col + " FROM " + q(s.table()) + nameFilter(prefix)
+                + " ORDER BY " + col + " LIMIT 1 OFFSET ?";
+
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            if (hasPrefix(prefix)) {
+                ps.setString(i++, likePrefix(prefix));
+            }
+            ps.setInt(i, offset);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    @Override
+    public int countNames(String prefix) throws SQLException {
+        StoreSchema s = schema();
+        String sql = "SELECT COUNT(DISTINCT " + q(s.columnName()) + ") FROM " + q(s.table()) + nameFilter(prefix);
+
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            if (hasPrefix(prefix)) {
+                ps.setString(1, likePrefix(prefix));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Trifft die UUID wie {@link #checkLogins(Map)} mit und ohne Bindestriche;
+     * jeder Spieler zählt höchstens einmal.
+     */
+    @Override
+    public int countAmong(Collection<UUID> uuids) throws SQLException {
+        if (uuids.isEmpty()) {
+            return 0;
+        }
+
+        StoreSchema s = schema();
+        List<UUID> all = new ArrayList<>(uuids);
+        Set<String> found = new HashSet<>();
+
+        try (Connection c = connections.openRead()) {
+            for (int from = 0; from < all.size(); from += BULK_CHUNK_SIZE) {
+                List<UUID> chunk = all.subList(from, Math.min(all.size(), from + BULK_CHUNK_SIZE));
+                String sql = "SELECT " + q(s.columnUUID()) + " FROM " + q(s.table()) + " WHERE " + q(s.columnUUID())
+                        + " IN (" + placeholders(chunk.size() * 2) + ")";
+
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    int i = 1;
+                    for (UUID uuid : chunk) {
+                        ps.setString(i++, uuid.toString());
+                        ps.setString(i++, uuid.toString().replace("-", ""));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String stored = rs.getString(1);
+                            if (stored != null) {
+                                found.add(stored.replace("-", "").toLowerCase(Locale.ROOT));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return found.size();
+    }
+
+    @Override
+    public long scan(RowVisitor visitor) throws SQLException, IOException {
+        StoreSchema s = schema();
+        String sql = "SELECT " + q(s.columnUUID()) + ", " + q(s.columnName()) + " FROM " + q(s.table());
+
+        long rows = 0;
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            prepareScan(c, ps);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    visitor.accept(rs.getString(1), rs.getString(2));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public long scanRange(String fromInclusive, String toExclusive, RowVisitor visitor) throws SQLException, IOException {
+        StoreSchema s = schema();
+        StringBuilder sql = new StringBuilder("SELECT " + q(s.columnUUID()) + ", " + q(s.columnName())
+                + " FROM " + q(s.table()) + " WHERE " + q(s.columnUUID()) + " IS NOT NULL");
+        if (fromInclusive != null) {
+            sql.append(" AND ").append(q(s.columnUUID())).append(" >= ?");
+        }
+        if (toExclusive != null) {
+            sql.append(" AND ").append(q(s.columnUUID())).append(" < ?");
+        }
+
+        long rows = 0;
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            prepareScan(c, ps);
+            int i = 1;
+            if (fromInclusive != null) {
+                ps.setString(i++, fromInclusive);
+            }
+            if (toExclusive != null) {
+                ps.setString(i, toExclusive);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    visitor.accept(rs.getString(1), rs.getString(2));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    // ------------------------------------------------------------------------
+    // 🌳 Bucket-Digests
+    // ------------------------------------------------------------------------
+    // Standard: per Scan in Java berechnet (PostgreSQL und SQLite haben kein
+    // eingebautes CRC32). MySQL rechnet direkt in der Datenbank.
+
+    @Override
+    public Map<Integer, BucketDigest> bucketDigests(int buckets) throws SQLException {
+        long[] rows = new long[buckets];
+        long[] hashes = new long[buckets];
+        try {
+            scan((uuid, name) -> {
+                if (WhitelistStore.isValidEntry(uuid, name)) {
+                    int b = WhitelistStore.bucketOf(uuid, buckets);
+                    rows[b]++;
+                    hashes[b] ^= WhitelistStore.rowHash(uuid, name);
+                }
+            });
+        } catch (IOException ex) {
+            throw new SQLException(ex);
+        }
+
+        Map<Integer, BucketDigest> out = new HashMap<>();
+        for (int b = 0; b < buckets; b++) {
+            if (rows[b] > 0) {
+                out.put(b, new BucketDigest(rows[b], hashes[b]));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public List<Entry> scanBuckets(Collection<Integer> selected, int buckets) throws SQLException {
+        Set<Integer> wanted = new HashSet<>(selected);
+        List<Entry> out = new ArrayList<>();
+        try {
+            scan((uuid, name) -> {
+                if (WhitelistStore.isValidEntry(uuid, name) && wanted.contains(WhitelistStore.bucketOf(uuid, buckets))) {
+                    out.add(new Entry(uuid, name));
+                }
+            });
+        } catch (IOException ex) {
+            throw new SQLException(ex);
+        }
+        return out;
+    }
+
+    // ------------------------------------------------------------------------
+    // ⏳ Befristete Einträge
+    // ------------------------------------------------------------------------
+
+    /**
+     * {@code ADD COLUMN} mit {@code BIGINT NULL} funktioniert in MySQL,
+     * PostgreSQL und SQLite gleich. Schlägt es fehl, weil ein anderes Backend
+     * die Spalte gerade angelegt hat, gilt sie nach erneutem Prüfen als
+     * vorhanden. Der Index ist nur eine Beschleunigung: existiert er bereits
+     * (MySQL kennt kein {@code CREATE INDEX IF NOT EXISTS}), wird der Fehler ignoriert.
+     */
+    @Override
+    public boolean ensureExpirySchema(boolean create) throws SQLException {
+        StoreSchema s = schema();
+        if (s.columnExpires() == null) {
+            expiryAvailable = false;
+            return false;
+        }
+
+        try (Connection c = connections.openWrite();
+             Statement st = c.createStatement()) {
+            boolean present = hasColumn(st, s.table(), s.columnExpires());
+            if (!present && create) {
+                try {
+                    st.execute("ALTER TABLE " + q(s.table()) + " ADD COLUMN " + q(s.columnExpires()) + " BIGINT NULL");
+                } catch (SQLException ex) {
+                    if (!hasColumn(st, s.table(), s.columnExpires())) {
+                        throw ex;
+                    }
+                }
+                try {
+                    st.execute("CREATE INDEX " + q("idx_" + s.table() + "_" + s.columnExpires())
+                            + " ON " + q(s.table()) + " (" + q(s.columnExpires()) + ")");
+                } catch (SQLException ignored) {
+                    // Index existiert bereits
+                }
+                present = true;
+            }
+            expiryAvailable = present;
+            return present;
+        }
+    }
+
+    /**
+     * Qualifiziert über einen Alias: SQLite liest einen unbekannten, nicht
+     * qualifizierten Bezeichner in Anführungszeichen sonst als Text-Literal.
+     */
+    private boolean hasColumn(Statement st, String table, String column) {
+        try {
+            st.executeQuery("SELECT t." + q(column) + " FROM " + q(table) + " t WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException missing) {
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, Long> readExpiries() throws SQLException {
+        Map<String, Long> out = new HashMap<>();
+        StoreSchema s = schema();
+        if (!expiryAvailable || s.columnExpires() == null) {
+            return out;
+        }
+
+        String sql = "SELECT " + q(s.columnUUID()) + ", " + q(s.columnExpires()) + " FROM " + q(s.table())
+                + " WHERE " + q(s.columnExpires()) + " IS NOT NULL";
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                if (rs.getString(1) != null) {
+                    out.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Trifft die UUID mit und ohne Bindestriche.
+     */
+    @Override
+    public Set<UUID> deleteExpired(Collection<UUID> uuids, long now) throws SQLException {
+        StoreSchema s = schema();
+        Set<UUID> removed = new HashSet<>();
+        if (uuids.isEmpty() || !expiryAvailable || s.columnExpires() == null) {
+            return removed;
+        }
+
+        List<UUID> all = new ArrayList<>(uuids);
+        try (Connection c = connections.openWrite()) {
+            for (int from = 0; from < all.size(); from += BULK_CHUNK_SIZE) {
+                List<UUID> chunk = all.subList(from, Math.min(all.size(), from + BULK_CHUNK_SIZE));
+                List<UUID> due = new ArrayList<>(presentAmong(c, s, chunk, now));
+                if (due.isEmpty()) {
+                    continue;
+                }
+
+                String sql = "DELETE FROM " + q(s.table()) + " WHERE " + q(s.columnUUID())
+                        + " IN (" + placeholders(due.size() * 2) + ") AND " + q(s.columnExpires()) + " <= ?";
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    int i = 1;
+                    for (UUID uuid : due) {
+                        ps.setString(i++, uuid.toString());
+                        ps.setString(i++, uuid.toString().replace("-", ""));
+                    }
+                    ps.setLong(i, now);
+                    ps.executeUpdate();
+                }
+
+                // Nur was vorher abgelaufen war und jetzt fehlt, wurde hier gelöscht;
+                // ein zwischendurch verlängerter Eintrag steht noch in der Tabelle
+                due.removeAll(presentAmong(c, s, due, null));
+                removed.addAll(due);
+            }
+        }
+        if (!removed.isEmpty()) {
+            connections.noteWrite();
+        }
+        return removed;
+    }
+
+    /**
+     * UUIDs aus {@code uuids}, die in der Tabelle stehen (mit und ohne
+     * Bindestriche); mit {@code expiredAt} nur die bis dahin abgelaufenen.
+     */
+    private Set<UUID> presentAmong(Connection c, StoreSchema s, List<UUID> uuids, Long expiredAt)
+            throws SQLException {
+        Map<String, UUID> byKey = new HashMap<>();
+        for (UUID uuid : uuids) {
+            byKey.put(uuid.toString().replace("-", ""), uuid);
+        }
+
+        String sql = "SELECT " + q(s.columnUUID()) + " FROM " + q(s.table()) + " WHERE " + q(s.columnUUID())
+                + " IN (" + placeholders(uuids.size() * 2) + ")"
+                + (expiredAt != null ? " AND " + q(s.columnExpires()) + " <= ?" : "");
+        Set<UUID> out = new HashSet<>();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            for (UUID uuid : uuids) {
+                ps.setString(i++, uuid.toString());
+                ps.setString(i++, uuid.toString().replace("-", ""));
+            }
+            if (expiredAt != null) {
+                ps.setLong(i, expiredAt);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String stored = rs.getString(1);
+                    UUID uuid = stored == null ? null : byKey.get(stored.replace("-", "").toLowerCase(Locale.ROOT));
+                    if (uuid != null) {
+                        out.add(uuid);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    // ------------------------------------------------------------------------
+    // ⛔ Protected-World-Sperren
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void upsertBlock(UUID uuid, String playerName, String reason, long blockedUntil) throws SQLException {
+        String sql = upsertSql(schema().blockTable(), "uuid",
+                List.of("uuid", "player_name", "reason", "blocked_until"), 1);
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, playerName);
+            ps.setString(3, reason);
+            ps.setLong(4, blockedUntil);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Sperren müssen clusterweit sofort sichtbar sein und werden deshalb
+     * immer über {@link ConnectionProvider#openWrite()} gelesen.
+     */
+    @Override
+    public long findBlockedUntil(UUID uuid) throws SQLException {
+        String sql = "SELECT " + q("blocked_until") + " FROM " + q(schema().blockTable())
+                + " WHERE " + q("uuid") + " = ? LIMIT 1";
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    @Override
+    public int purgeExpiredBlocks(long now, int limit) throws SQLException {
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(purgeSql(schema().blockTable(), "uuid", "blocked_until", limit))) {
+            ps.setLong(1, now);
+            return ps.executeUpdate();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📣 Änderungs-Log
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void publishInvalidations(String origin, List<Invalidation> items) throws SQLException {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO " + q(schema().changeTable()) + " (" + q("origin") + ", " + q("type") + ", "
+                + q("uuid") + ", " + q("name") + ", " + q("blocked_until") + ", " + q("created_at")
+                + ") VALUES (?, ?, ?, ?, ?, ?)";
+        long now = System.currentTimeMillis();
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            for (Invalidation item : items) {
+                ps.setString(1, origin);
+                ps.setString(2, item.type().name());
+                ps.setString(3, item.uuid());
+                ps.setString(4, item.name());
+                ps.setLong(5, item.until());
+                ps.setLong(6, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Das Log wird immer über {@link ConnectionProvider#openWrite()} gelesen,
+     * damit Replica-Verzögerung keine Änderungen zurückhält.
+     */
+    @Override
+    public List<Invalidation> readInvalidations(long afterSeq, Collection<Long> missing, int limit) throws SQLException {
+        String sql = "SELECT " + q("seq") + ", " + q("origin") + ", " + q("type") + ", " + q("uuid") + ", "
+                + q("name") + ", " + q("blocked_until") + " FROM " + q(schema().changeTable())
+                + " WHERE " + q("seq") + " > ?"
+                + (missing.isEmpty() ? "" : " OR " + q("seq") + " IN (" + placeholders(missing.size()) + ")")
+                + " ORDER BY " + q("seq") + " LIMIT " + limit;
+
+        List<Invalidation> out = new ArrayList<>();
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            ps.setLong(i++, afterSeq);
+            for (long seq : missing) {
+                ps.setLong(i++, seq);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    InvalidationType type;
+                    try {
+                        type = InvalidationType.valueOf(rs.getString(3));
+                    } catch (IllegalArgumentException ex) {
+                        // Von einer neueren Plugin-Version geschrieben
+                        continue;
+                    }
+                    out.add(new Invalidation(rs.getLong(1), rs.getString(2), type,
+                            rs.getString(4), rs.getString(5), rs.getLong(6)));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public long latestInvalidationSeq() throws SQLException {
+        String sql = "SELECT COALESCE(MAX(" + q("seq") + "), 0) FROM " + q(schema().changeTable());
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    @Override
+    public int purgeInvalidations(long createdBefore, int limit) throws SQLException {
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(purgeSql(schema().changeTable(), "seq", "created_at", limit))) {
+            ps.setLong(1, createdBefore);
+            return ps.executeUpdate();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 👑 Leader-Lease & Snapshot
+    // ------------------------------------------------------------------------
+
+    @Override
+    public boolean tryAcquireLease(String name, String holder, long now, long ttlMs) throws SQLException {
+        String table = q(schema().leaseTable());
+        String update = "UPDATE " + table + " SET " + q("holder") + " = ?, " + q("expires_at") + " = ?"
+                + " WHERE " + q("name") + " = ? AND (" + q("holder") + " = ? OR " + q("expires_at") + " <= ?)";
+        String insert = "INSERT INTO " + table + " (" + q("name") + ", " + q("holder") + ", " + q("expires_at")
+                + ") VALUES (?, ?, ?)";
+
+        try (Connection c = connections.openWrite()) {
+            try (PreparedStatement ps = c.prepareStatement(update)) {
+                ps.setString(1, holder);
+                ps.setLong(2, now + ttlMs);
+                ps.setString(3, name);
+                ps.setString(4, holder);
+                ps.setLong(5, now);
+                if (ps.executeUpdate() > 0) {
+                    return true;
+                }
+            }
+
+            try (PreparedStatement ps = c.prepareStatement(insert)) {
+                ps.setString(1, name);
+                ps.setString(2, holder);
+                ps.setLong(3, now + ttlMs);
+                ps.executeUpdate();
+                return true;
+            } catch (SQLException ex) {
+                // Zeile existiert bereits → anderer Leader
+                if (isDuplicateKey(ex)) {
+                    return false;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public long leaseExpiresAt(String name) throws SQLException {
+        String sql = "SELECT " + q("expires_at") + " FROM " + q(schema().leaseTable()) + " WHERE " + q("name") + " = ?";
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    @Override
+    public ClusterSnapshot readSnapshotInfo() throws SQLException {
+        String sql = "SELECT " + q("version") + ", " + q("change_seq") + ", " + q("row_count") + ", "
+                + q("checksum") + ", " + q("created_at") + ", " + q("created_by") + " FROM " + q(schema().snapshotTable())
+                + " WHERE " + q("id") + " = 1";
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            return new ClusterSnapshot(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getString(4),
+                    rs.getLong(5), rs.getString(6), null);
+        }
+    }
+
+    @Override
+    public byte[] readSnapshotData(long version) throws SQLException {
+        String sql = "SELECT " + q("data") + " FROM " + q(schema().snapshotTable())
+                + " WHERE " + q("id") + " = 1 AND " + q("version") + " = ?";
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, version);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        }
+    }
+
+    @Override
+    public void publishSnapshot(ClusterSnapshot snapshot) throws SQLException {
+        String sql = upsertSql(schema().snapshotTable(), "id", List.of("id", "version", "change_seq",
+                "row_count", "checksum", "created_at", "created_by", "data"), 1);
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, 1);
+            ps.setLong(2, snapshot.version());
+            ps.setLong(3, snapshot.changeSeq());
+            ps.setInt(4, snapshot.rowCount());
+            ps.setString(5, snapshot.checksum());
+            ps.setLong(6, snapshot.createdAt());
+            ps.setString(7, snapshot.createdBy());
+            ps.setBytes(8, snapshot.data());
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public void touchSnapshot(long version, long changeSeq, long createdAt) throws SQLException {
+        String sql = "UPDATE " + q(schema().snapshotTable()) + " SET " + q("change_seq") + " = ?, "
+                + q("created_at") + " = ? WHERE " + q("id") + " = 1 AND " + q("version") + " = ?";
+
+        try (Connection c = connections.openWrite();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, changeSeq);
+            ps.setLong(2, createdAt);
+            ps.setLong(3, version);
+            ps.executeUpdate();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Hilfsmethoden
+    // ------------------------------------------------------------------------
+
+    protected static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static String valueGroups(int columns, int rows) {
+        return String.join(",", Collections.nCopies(rows, "(" + placeholders(columns) + ")"));
+    }
+
+    private void appendColumns(StringBuilder sql, List<String> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(q(columns.get(i)));
+        }
+    }
+
+    private static boolean hasPrefix(String prefix) {
+        return prefix != null && !prefix.isBlank();
+    }
+
+    /**
+     * Präfix für {@code LIKE ? ESCAPE '!'}; Platzhalterzeichen im Präfix werden maskiert.
+     */
+    public static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+}
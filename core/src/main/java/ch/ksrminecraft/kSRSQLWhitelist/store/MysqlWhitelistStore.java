@@ -0,0 +1,191 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@link WhitelistStore} für MySQL/MariaDB.
+ *
+ * Namen werden über die Spalten-Collation (utf8mb4_unicode_ci) ohne
+ * Gross-/Kleinschreibung verglichen; gescannt wird per Row-Streaming.
+ */
+public class MysqlWhitelistStore extends JdbcWhitelistStore {
+
+    public MysqlWhitelistStore(ConnectionProvider connections, Supplier<StoreSchema> schema) {
+        super(connections, schema);
+    }
+
+    @Override
+    public String engine() {
+        return "mysql";
+    }
+
+    @Override
+    protected String q(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    @Override
+    protected String upsertSql(String table, String key, List<String> columns, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(q(table)).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(q(columns.get(i)));
+        }
+        sql.append(") VALUES ");
+        String group = "(" + placeholders(columns.size()) + ")";
+        for (int r = 0; r < rows; r++) {
+            sql.append(r > 0 ? "," : "").append(group);
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        String sep = "";
+        for (String column : columns) {
+            if (!column.equals(key)) {
+                sql.append(sep).append(q(column)).append(" = VALUES(").append(q(column)).append(")");
+                sep = ", ";
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * MySQL erlaubt kein {@code LIMIT} in einer {@code IN}-Unterabfrage,
+     * dafür direkt im {@code DELETE}.
+     */
+    @Override
+    protected String purgeSql(String table, String key, String column, int limit) {
+        return "DELETE FROM " + q(table) + " WHERE " + q(column) + " <= ? LIMIT " + limit;
+    }
+
+    /**
+     * {@code fetchSize = Integer.MIN_VALUE}: Der Treiber streamt die Zeilen
+     * einzeln, statt das ganze Resultat in den Speicher zu laden.
+     */
+    @Override
+    protected void prepareScan(Connection c, PreparedStatement ps) throws SQLException {
+        ps.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🌳 Bucket-Digests direkt in MySQL
+    // ------------------------------------------------------------------------
+
+    private String validEntryFilter(StoreSchema s) {
+        return " WHERE TRIM(" + q(s.columnUUID()) + ") <> '' AND TRIM(" + q(s.columnName()) + ") <> ''";
+    }
+
+    /**
+     * Eine Aggregat-Abfrage; übertragen werden nur {@code buckets} Zeilen.
+     */
+    @Override
+    public Map<Integer, BucketDigest> bucketDigests(int buckets) throws SQLException {
+        StoreSchema s = schema();
+        String sql = "SELECT CRC32(" + q(s.columnUUID()) + ") % " + buckets + " AS b, COUNT(*), "
+                + "BIT_XOR(CRC32(CONCAT(" + q(s.columnUUID()) + ", '|', " + q(s.columnName()) + "))) "
+                + "FROM " + q(s.table()) + validEntryFilter(s) + " GROUP BY b";
+
+        Map<Integer, BucketDigest> out = new HashMap<>();
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.put(rs.getInt(1), new BucketDigest(rs.getLong(2), rs.getLong(3)));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public List<Entry> scanBuckets(Collection<Integer> selected, int buckets) throws SQLException {
+        List<Entry> out = new ArrayList<>();
+        if (selected.isEmpty()) {
+            return out;
+        }
+
+        StoreSchema s = schema();
+        String sql = "SELECT " + q(s.columnUUID()) + ", " + q(s.columnName()) + " FROM " + q(s.table())
+                + validEntryFilter(s) + " AND CRC32(" + q(s.columnUUID()) + ") % " + buckets
+                + " IN (" + placeholders(selected.size()) + ")";
+
+        try (Connection c = connections.openRead();
+             PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            prepareScan(c, ps);
+            int i = 1;
+            for (int bucket : selected) {
+                ps.setInt(i++, bucket);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new Entry(rs.getString(1), rs.getString(2)));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    protected List<String> createTableSql(StoreSchema s) {
+        return List.of("CREATE TABLE IF NOT EXISTS " + q(s.table()) + " ("
+                + q(s.columnUUID()) + " varchar(36) NOT NULL,"
+                + q(s.columnName()) + " varchar(100) DEFAULT NULL,"
+                + "PRIMARY KEY (" + q(s.columnUUID()) + "),"
+                + "KEY `idx_user` (" + q(s.columnName()) + ")"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;");
+    }
+
+    @Override
+    protected List<String> createBlockTableSql(StoreSchema s) {
+        return List.of("CREATE TABLE IF NOT EXISTS " + q(s.blockTable()) + " ("
+                + "`uuid` varchar(36) NOT NULL,"
+                + "`player_name` varchar(100) DEFAULT NULL,"
+                + "`reason` varchar(255) DEFAULT NULL,"
+                + "`blocked_until` bigint NOT NULL,"
+                + "PRIMARY KEY (`uuid`),"
+                + "KEY `idx_blocked_until` (`blocked_until`)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;");
+    }
+
+    @Override
+    protected List<String> createChangeTableSql(StoreSchema s) {
+        return List.of("CREATE TABLE IF NOT EXISTS " + q(s.changeTable()) + " ("
+                + "`seq` bigint NOT NULL AUTO_INCREMENT,"
+                + "`origin` varchar(64) NOT NULL,"
+                + "`type` varchar(16) NOT NULL,"
+                + "`uuid` varchar(36) DEFAULT NULL,"
+                + "`name` varchar(100) DEFAULT NULL,"
+                + "`blocked_until` bigint NOT NULL DEFAULT 0,"
+                + "`created_at` bigint NOT NULL,"
+                + "PRIMARY KEY (`seq`),"
+                + "KEY `idx_created_at` (`created_at`)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;");
+    }
+
+    @Override
+    protected List<String> createClusterTablesSql(StoreSchema s) {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + q(s.leaseTable()) + " ("
+                        + "`name` varchar(64) NOT NULL,"
+                        + "`holder` varchar(64) NOT NULL,"
+                        + "`expires_at` bigint NOT NULL,"
+                        + "PRIMARY KEY (`name`)"
+                        + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;",
+                "CREATE TABLE IF NOT EXISTS " + q(s.snapshotTable()) + " ("
+                        + "`id` int NOT NULL,"
+                        + "`version` bigint NOT NULL,"
+                        + "`change_seq` bigint NOT NULL,"
+                        + "`row_count` int NOT NULL,"
+                        + "`checksum` varchar(64) NOT NULL,"
+                        + "`created_at` bigint NOT NULL,"
+                        + "`created_by` varchar(64) NOT NULL,"
+                        + "`data` longblob NOT NULL,"
+                        + "PRIMARY KEY (`id`)"
+                        + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;");
+    }
+}
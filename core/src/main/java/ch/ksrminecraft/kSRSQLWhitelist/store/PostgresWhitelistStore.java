@@ -0,0 +1,116 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * {@link WhitelistStore} für PostgreSQL.
+ *
+ * PostgreSQL vergleicht Texte mit Gross-/Kleinschreibung; Namen werden daher
+ * über {@code lower(name)} (mit passendem Ausdrucksindex) und {@code ILIKE}
+ * verglichen. Ein Cursor-Scan braucht eine offene Transaktion.
+ */
+public class PostgresWhitelistStore extends JdbcWhitelistStore {
+
+    public PostgresWhitelistStore(ConnectionProvider connections, Supplier<StoreSchema> schema) {
+        super(connections, schema);
+    }
+
+    @Override
+    public String engine() {
+        return "postgresql";
+    }
+
+    @Override
+    protected String nameKey() {
+        return "lower(" + q(schema().columnName()) + ")";
+    }
+
+    @Override
+    protected String nameParam(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected String likeOperator() {
+        return "ILIKE";
+    }
+
+    /**
+     * Der Treiber holt Zeilen nur blockweise, wenn Autocommit aus ist.
+     * Der Pool setzt Autocommit bei der Rückgabe der Verbindung zurück.
+     */
+    @Override
+    protected void prepareScan(Connection c, PreparedStatement ps) throws SQLException {
+        c.setAutoCommit(false);
+        ps.setFetchSize(1_000);
+    }
+
+    @Override
+    protected List<String> createTableSql(StoreSchema s) {
+        String table = q(s.table());
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + q(s.columnUUID()) + " varchar(36) NOT NULL PRIMARY KEY, "
+                        + q(s.columnName()) + " varchar(100))",
+                "CREATE INDEX IF NOT EXISTS " + q("idx_" + s.table() + "_name") + " ON " + table
+                        + " (" + q(s.columnName()) + ")",
+                "CREATE INDEX IF NOT EXISTS " + q("idx_" + s.table() + "_name_lower") + " ON " + table
+                        + " (lower(" + q(s.columnName()) + "))"
+        );
+    }
+
+    @Override
+    protected List<String> createBlockTableSql(StoreSchema s) {
+        String table = q(s.blockTable());
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + "\"uuid\" varchar(36) NOT NULL PRIMARY KEY, "
+                        + "\"player_name\" varchar(100), "
+                        + "\"reason\" varchar(255), "
+                        + "\"blocked_until\" bigint NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS " + q("idx_" + s.blockTable() + "_blocked_until") + " ON " + table
+                        + " (\"blocked_until\")"
+        );
+    }
+
+    @Override
+    protected List<String> createChangeTableSql(StoreSchema s) {
+        String table = q(s.changeTable());
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + "\"seq\" bigserial PRIMARY KEY, "
+                        + "\"origin\" varchar(64) NOT NULL, "
+                        + "\"type\" varchar(16) NOT NULL, "
+                        + "\"uuid\" varchar(36), "
+                        + "\"name\" varchar(100), "
+                        + "\"blocked_until\" bigint NOT NULL DEFAULT 0, "
+                        + "\"created_at\" bigint NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS " + q("idx_" + s.changeTable() + "_created_at") + " ON " + table
+                        + " (\"created_at\")"
+        );
+    }
+
+    @Override
+    protected List<String> createClusterTablesSql(StoreSchema s) {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + q(s.leaseTable()) + " ("
+                        + "\"name\" varchar(64) NOT NULL PRIMARY KEY, "
+                        + "\"holder\" varchar(64) NOT NULL, "
+                        + "\"expires_at\" bigint NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS " + q(s.snapshotTable()) + " ("
+                        + "\"id\" integer NOT NULL PRIMARY KEY, "
+                        + "\"version\" bigint NOT NULL, "
+                        + "\"change_seq\" bigint NOT NULL, "
+                        + "\"row_count\" integer NOT NULL, "
+                        + "\"checksum\" varchar(64) NOT NULL, "
+                        + "\"created_at\" bigint NOT NULL, "
+                        + "\"created_by\" varchar(64) NOT NULL, "
+                        + "\"data\" bytea NOT NULL)"
+        );
+    }
+}
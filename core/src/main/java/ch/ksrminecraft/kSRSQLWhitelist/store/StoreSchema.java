@@ -0,0 +1,18 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+/**
+ * Tabellen- und Spaltennamen, mit denen ein {@link WhitelistStore} arbeitet.
+ *
+ * @param table         Whitelist-Tabelle
+ * @param columnUUID    Spalte mit der UUID (PRIMARY KEY)
+ * @param columnName    Spalte mit dem Spielernamen
+ * @param blockTable    Tabelle für Protected-World-Sperren
+ * @param changeTable   Änderungs-Log für die Cache-Invalidierung zwischen Backends
+ * @param leaseTable    Leader-Leases für clusterweit koordinierte Aufgaben
+ * @param snapshotTable Komprimierter Whitelist-Snapshot des Resync-Leaders
+ * @param columnExpires Optionale Spalte mit dem Ablaufzeitpunkt befristeter Einträge
+ *                      (Epoch-Millis); {@code null} = befristete Einträge aus
+ */
+public record StoreSchema(String table, String columnUUID, String columnName, String blockTable,
+                          String changeTable, String leaseTable, String snapshotTable, String columnExpires) {
+}
@@ -0,0 +1,339 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧱 WhitelistStore
+ *  -----------------
+ *  Speicher-Schnittstelle für die zentrale Whitelist und die
+ *  Protected-World-Sperren. Die Implementierungen kennen nur JDBC und sind
+ *  unabhängig von Bukkit/Paper.
+ *
+ *  Implementierungen:
+ *   - {@link MysqlWhitelistStore}    – MySQL/MariaDB (Standard)
+ *   - {@link PostgresWhitelistStore} – PostgreSQL
+ *   - {@link EmbeddedWhitelistStore} – eingebettete SQLite-Datei für
+ *                                      Einzelserver ohne Netzwerk-Datenbank
+ *
+ *  Auswahl über {@code storage.type} in der config.yml.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public interface WhitelistStore {
+
+    /**
+     * Ein Whitelist-Eintrag (UUID wie gespeichert, Spielername).
+     */
+    record Entry(String uuid, String name) {
+    }
+
+    enum ChangeType {
+        UPSERT, DELETE_UUID, DELETE_NAME
+    }
+
+    /**
+     * Eine Schreiboperation; mehrere werden geordnet in einer Transaktion angewendet.
+     *
+     * @param expiresAt Nur bei {@link ChangeType#UPSERT}: Ablaufzeitpunkt eines
+     *                  befristeten Eintrags, {@code 0} = unbefristet
+     */
+    record Change(ChangeType type, String uuid, String name, long expiresAt) {
+
+        public Change(ChangeType type, String uuid, String name) {
+            this(type, uuid, name, 0L);
+        }
+    }
+
+    /**
+     * Ergebnis einer Login-Prüfung.
+     *
+     * @param whitelisted UUID → steht auf der Whitelist
+     * @param matched     Gefundene Einträge mit aktuellem Login-Namen (zum Spiegeln in den lokalen Cache)
+     * @param fixedFrom   UUID → ursprünglich gespeicherte 32-stellige Form, die korrigiert wurde
+     */
+    record LoginResult(Map<UUID, Boolean> whitelisted, List<Entry> matched, Map<UUID, String> fixedFrom) {
+    }
+
+    enum InvalidationType {
+        UPSERT, DELETE_UUID, DELETE_NAME, BLOCK
+    }
+
+    /**
+     * Ein Eintrag im Änderungs-Log.
+     *
+     * @param seq          Fortlaufende Nummer (beim Veröffentlichen ignoriert)
+     * @param origin       Kennung des Backends, das die Änderung geschrieben hat
+     * @param until        Bei {@link InvalidationType#BLOCK} das Sperrende, bei
+     *                     {@link InvalidationType#UPSERT} der Ablauf eines befristeten
+     *                     Eintrags; sonst bzw. unbefristet {@code 0}
+     */
+    record Invalidation(long seq, String origin, InvalidationType type, String uuid, String name,
+                        long until) {
+    }
+
+    /**
+     * Metadaten und Inhalt des gemeinsamen Whitelist-Snapshots.
+     *
+     * @param version   Wird erhöht, sobald sich der Inhalt ändert
+     * @param changeSeq Höchste seq im Änderungs-Log vor dem Erstellen
+     * @param checksum  Inhalts-Prüfsumme (gleiches Format wie sync_meta.source_watermark)
+     * @param data      Komprimierter Inhalt; {@code null}, wenn nur Metadaten gelesen wurden
+     */
+    record ClusterSnapshot(long version, long changeSeq, int rowCount, String checksum, long createdAt,
+                           String createdBy, byte[] data) {
+    }
+
+    /**
+     * Zusammenfassung eines Hash-Buckets für den Abgleich mit dem lokalen Cache.
+     *
+     * @param rows Anzahl Einträge
+     * @param hash XOR der {@link #rowHash(String, String)} aller Einträge
+     */
+    record BucketDigest(long rows, long hash) {
+    }
+
+    /**
+     * Empfänger für gestreamte Zeilen.
+     */
+    @FunctionalInterface
+    interface RowVisitor {
+        void accept(String uuid, String name) throws IOException;
+    }
+
+    /** Kurzname der Engine (für Logs und /whitelist stats). */
+    String engine();
+
+    // ------------------------------------------------------------------------
+    // 🧱 Schema
+    // ------------------------------------------------------------------------
+
+    void ensureSchema() throws SQLException;
+
+    void ensureBlockSchema() throws SQLException;
+
+    void ensureInvalidationSchema() throws SQLException;
+
+    void ensureClusterSchema() throws SQLException;
+
+    // ------------------------------------------------------------------------
+    // 🔍 Lookups
+    // ------------------------------------------------------------------------
+
+    /**
+     * Prüft mehrere Logins mit einer Abfrage. Gefundene Einträge werden dabei
+     * korrigiert (32-stellige UUID → mit Bindestrichen, neuer Name, nachgetragene
+     * UUID bei Einträgen nur mit Namen).
+     *
+     * @param logins UUID → Login-Name
+     */
+    LoginResult checkLogins(Map<UUID, String> logins) throws SQLException;
+
+    boolean existsByName(String name) throws SQLException;
+
+    boolean existsByUUID(String uuid) throws SQLException;
+
+    /**
+     * @return die bereits vorhandenen Namen (klein geschrieben)
+     */
+    Set<String> findExistingNames(Collection<String> names) throws SQLException;
+
+    // ------------------------------------------------------------------------
+    // ✍️ Schreiben
+    // ------------------------------------------------------------------------
+
+    /**
+     * Wendet alle Änderungen geordnet in einer Transaktion an. Alle
+     * Operationen sind idempotent.
+     */
+    void apply(List<Change> changes) throws SQLException;
+
+    // ------------------------------------------------------------------------
+    // 📜 Auflisten & Scannen
+    // ------------------------------------------------------------------------
+
+    List<String> listNames() throws SQLException;
+
+    /**
+     * Keyset-Pagination über die Namen.
+     *
+     * @param afterName Letzter Name der vorherigen Seite oder {@code null}
+     * @param prefix    Optionaler Präfix-Filter oder {@code null}
+     */
+    List<String> listNamesPage(String afterName, String prefix, int limit) throws SQLException;
+
+    String findNameAtOffset(String prefix, int offset) throws SQLException;
+
+    int countNames(String prefix) throws SQLException;
+
+    int countAmong(Collection<UUID> uuids) throws SQLException;
+
+    /**
+     * Liest alle Einträge zeilenweise, ohne das ganze Resultat im Speicher zu halten.
+     *
+     * @return Anzahl Zeilen
+     */
+    long scan(RowVisitor visitor) throws SQLException, IOException;
+
+    /**
+     * Wie {@link #scan(RowVisitor)}, aber nur für UUIDs im Bereich
+     * {@code [fromInclusive, toExclusive)} gemäss Sortierung der Datenbank.
+     * {@code null} steht für ein offenes Ende. Aneinandergrenzende Bereiche
+     * decken jede Zeile genau einmal ab (ausser UUID {@code NULL}).
+     */
+    long scanRange(String fromInclusive, String toExclusive, RowVisitor visitor) throws SQLException, IOException;
+
+    // ------------------------------------------------------------------------
+    // 🌳 Bucket-Digests (Abgleich ohne Vollkopie)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Digest pro Bucket über alle gültigen Einträge (UUID und Name gesetzt).
+     * Buckets ohne Einträge fehlen in der Map.
+     */
+    Map<Integer, BucketDigest> bucketDigests(int buckets) throws SQLException;
+
+    /**
+     * Liest alle gültigen Einträge der angegebenen Buckets.
+     */
+    List<Entry> scanBuckets(Collection<Integer> selected, int buckets) throws SQLException;
+
+    /**
+     * Bucket eines Eintrags: {@code CRC32(uuid) % buckets} (UTF-8).
+     * Entspricht {@code CRC32(uuid) % n} in MySQL.
+     */
+    static int bucketOf(String uuid, int buckets) {
+        CRC32 crc = new CRC32();
+        crc.update(uuid.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % buckets);
+    }
+
+    /**
+     * Hash eines Eintrags: {@code CRC32(uuid + "|" + name)} (UTF-8).
+     * Entspricht {@code CRC32(CONCAT(uuid, '|', name))} in MySQL.
+     */
+    static long rowHash(String uuid, String name) {
+        CRC32 crc = new CRC32();
+        crc.update((uuid + "|" + name).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    static boolean isValidEntry(String uuid, String name) {
+        return uuid != null && !uuid.isBlank() && name != null && !name.isBlank();
+    }
+
+    // ------------------------------------------------------------------------
+    // ⏳ Befristete Einträge
+    // ------------------------------------------------------------------------
+
+    /**
+     * Prüft, ob die Ablaufspalte ({@link StoreSchema#columnExpires()}) existiert,
+     * und legt sie samt Index an, falls sie fehlt und {@code create} gesetzt
+     * ist. Solange sie fehlt, schreibt {@link #apply(List)} keine
+     * Ablaufzeitpunkte.
+     *
+     * @return {@code true}, wenn die Spalte verfügbar ist
+     */
+    boolean ensureExpirySchema(boolean create) throws SQLException;
+
+    /**
+     * Alle befristeten Einträge: UUID (wie gespeichert) → Ablaufzeitpunkt.
+     * Liest nur Zeilen mit gesetzter Ablaufspalte (Index), keinen Vollscan.
+     */
+    Map<String, Long> readExpiries() throws SQLException;
+
+    /**
+     * Löscht die Einträge der UUIDs, sofern sie zu {@code now} noch
+     * abgelaufen sind – verlängerte oder entfristete Einträge bleiben.
+     * Ohne Ablaufspalte wird nichts gelöscht.
+     *
+     * @return UUIDs, deren Eintrag dabei tatsächlich gelöscht wurde
+     */
+    Set<UUID> deleteExpired(Collection<UUID> uuids, long now) throws SQLException;
+
+    // ------------------------------------------------------------------------
+    // ⛔ Protected-World-Sperren
+    // ------------------------------------------------------------------------
+
+    void upsertBlock(UUID uuid, String playerName, String reason, long blockedUntil) throws SQLException;
+
+    /**
+     * @return Ablaufzeitpunkt der Sperre oder {@code 0}, wenn keine existiert
+     */
+    long findBlockedUntil(UUID uuid) throws SQLException;
+
+    /**
+     * Löscht höchstens {@code limit} abgelaufene Sperren.
+     *
+     * @return Anzahl gelöschter Zeilen
+     */
+    int purgeExpiredBlocks(long now, int limit) throws SQLException;
+
+    // ------------------------------------------------------------------------
+    // 📣 Änderungs-Log (Cache-Invalidierung zwischen Backends)
+    // ------------------------------------------------------------------------
+
+    void publishInvalidations(String origin, List<Invalidation> items) throws SQLException;
+
+    /**
+     * Liest Einträge mit {@code seq > afterSeq} sowie die ausdrücklich
+     * nachgefragten Nummern {@code missing}, aufsteigend nach {@code seq}.
+     */
+    List<Invalidation> readInvalidations(long afterSeq, Collection<Long> missing, int limit) throws SQLException;
+
+    /**
+     * @return höchste vergebene Nummer oder {@code 0}, wenn das Log leer ist
+     */
+    long latestInvalidationSeq() throws SQLException;
+
+    /**
+     * Löscht höchstens {@code limit} Einträge, die vor {@code createdBefore} geschrieben wurden.
+     *
+     * @return Anzahl gelöschter Zeilen
+     */
+    int purgeInvalidations(long createdBefore, int limit) throws SQLException;
+
+    // ------------------------------------------------------------------------
+    // 👑 Leader-Lease & Snapshot
+    // ------------------------------------------------------------------------
+
+    /**
+     * Übernimmt oder verlängert die Lease {@code name}, wenn sie frei,
+     * abgelaufen oder bereits im Besitz von {@code holder} ist.
+     *
+     * @return {@code true}, wenn {@code holder} jetzt Leader ist
+     */
+    boolean tryAcquireLease(String name, String holder, long now, long ttlMs) throws SQLException;
+
+    /**
+     * @return Ablaufzeitpunkt der Lease {@code name} oder {@code 0}, wenn sie nie vergeben wurde
+     */
+    long leaseExpiresAt(String name) throws SQLException;
+
+    /**
+     * @return Metadaten ohne {@code data} oder {@code null}, wenn noch kein Snapshot existiert
+     */
+    ClusterSnapshot readSnapshotInfo() throws SQLException;
+
+    /**
+     * @return Inhalt des Snapshots oder {@code null}, wenn inzwischen eine andere Version gespeichert ist
+     */
+    byte[] readSnapshotData(long version) throws SQLException;
+
+    void publishSnapshot(ClusterSnapshot snapshot) throws SQLException;
+
+    /**
+     * Aktualisiert Zeitpunkt und {@code changeSeq} eines unveränderten Snapshots.
+     */
+    void touchSnapshot(long version, long changeSeq, long createdAt) throws SQLException;
+}
@@ -0,0 +1,227 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  📥 BulkWhitelistImporter
+ *  ------------------------
+ *  Fügt viele Spieler auf einmal zur Whitelist hinzu
+ *  (/whitelist add a b c, /whitelist import &lt;datei&gt;).
+ *
+ *  Ablauf:
+ *   1. Namen prüfen und doppelte entfernen
+ *   2. Bereits vorhandene Namen mit wenigen {@code IN (...)}-Abfragen aussortieren
+ *   3. Mojang-UUIDs parallel auflösen (begrenzte Parallelität + Rate-Limit)
+ *   4. Alle neuen Einträge per mehrzeiligem INSERT schreiben
+ *   5. Lokale Fallback-Datenbank gesammelt aktualisieren
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class BulkWhitelistImporter {
+
+    private static final Pattern VALID_NAME = Pattern.compile("^[A-Za-z0-9_]{3,16}$");
+    private static final Set<String> HEADER_NAMES = Set.of(
+            "name", "names", "user", "username", "player", "playername", "minecraft_username");
+
+    private final WhitelistPlatform plugin;
+    private final WhitelistService service;
+
+    public BulkWhitelistImporter(WhitelistPlatform plugin, WhitelistService service) {
+        this.plugin = plugin;
+        this.service = service;
+    }
+
+    // ------------------------------------------------------------------------
+    // 📄 Datei einlesen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Liest Spielernamen aus einer Datei im Plugin-Ordner.
+     *
+     * Unterstützt werden einfache Listen (ein Name pro Zeile) und CSV-Dateien
+     * (Trennzeichen Komma, Semikolon oder Tab); verwendet wird die erste Spalte.
+     * Leere Zeilen, Kommentare (#) und eine Kopfzeile werden ignoriert.
+     *
+     * @throws IOException Wenn die Datei fehlt oder ausserhalb des Plugin-Ordners liegt
+     */
+    public List<String> readNames(String fileName) throws IOException {
+        Path dataFolder = plugin.getDataFolder().toPath().toAbsolutePath().normalize();
+        Path file = dataFolder.resolve(fileName).normalize();
+
+        if (!file.startsWith(dataFolder)) {
+            throw new IOException("Import file must be inside the plugin folder: " + fileName);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("Import file not found: " + dataFolder.relativize(file));
+        }
+
+        List<String> names = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+
+                String column = trimmed.split("[,;\\t]", 2)[0].strip().replace("\"", "");
+                if (first && HEADER_NAMES.contains(column.toLowerCase(Locale.ROOT))) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+
+                if (!column.isEmpty()) {
+                    names.add(column);
+                }
+            }
+        }
+        return names;
+    }
+
+    // ------------------------------------------------------------------------
+    // 🚀 Import
+    // ------------------------------------------------------------------------
+
+    /**
+     * Fügt alle Namen zur Whitelist hinzu.
+     *
+     * @param names      Spielernamen (Duplikate und ungültige Namen erlaubt)
+     * @param knownUUIDs Bereits bekannte UUIDs (z. B. Online-Spieler), ohne Mojang-Abfrage
+     * @param progress   Empfänger für Fortschrittsmeldungen
+     */
+    public Result importNames(Collection<String> names, Map<String, UUID> knownUUIDs,
+                              Consumer<String> progress) throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+
+        // 1) Namen prüfen, Duplikate (case-insensitive) entfernen
+        Map<String, String> unique = new LinkedHashMap<>();
+        List<String> invalid = new ArrayList<>();
+        for (String raw : names) {
+            String name = raw.strip();
+            if (!VALID_NAME.matcher(name).matches()) {
+                invalid.add(name);
+                continue;
+            }
+            unique.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+        }
+
+        // 2) Bereits vorhandene Namen aussortieren
+        Set<String> existing = service.findExistingNames(unique.values());
+        List<String> toResolve = new ArrayList<>();
+        List<LocalFallbackDatabase.WhitelistEntry> resolved = new ArrayList<>();
+
+        for (Map.Entry<String, String> entry : unique.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                continue;
+            }
+            UUID known = knownUUIDs.get(entry.getKey());
+            if (known != null) {
+                resolved.add(new LocalFallbackDatabase.WhitelistEntry(known.toString(), entry.getValue()));
+            } else {
+                toResolve.add(entry.getValue());
+            }
+        }
+
+        if (!toResolve.isEmpty()) {
+            progress.accept("Resolving " + toResolve.size() + " Mojang profile(s)...");
+        }
+
+        // 3) UUIDs parallel auflösen
+        ConcurrentLinkedQueue<LocalFallbackDatabase.WhitelistEntry> found = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> unknown = new ConcurrentLinkedQueue<>();
+        resolveProfiles(toResolve, found, unknown, progress);
+        resolved.addAll(found);
+        invalid.addAll(unknown);
+
+        // 4) + 5) Mehrzeiliger INSERT und gesammeltes lokales Update
+        service.addAll(resolved);
+
+        long elapsedMs = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+        plugin.getLogger().info("[KSR-SQL-Whitelist] Bulk import finished: " + resolved.size() + " added, "
+                + existing.size() + " already whitelisted, " + invalid.size() + " invalid/unknown in " + elapsedMs + "ms.");
+
+        return new Result(resolved.size(), existing.size(), invalid, elapsedMs, unique.size());
+    }
+
+    private void resolveProfiles(List<String> names,
+                                 ConcurrentLinkedQueue<LocalFallbackDatabase.WhitelistEntry> found,
+                                 ConcurrentLinkedQueue<String> unknown,
+                                 Consumer<String> progress) throws InterruptedException {
+        if (names.isEmpty()) {
+            return;
+        }
+
+        int parallelism = Math.max(1, plugin.getSettings().getInt("import.parallelism", 4));
+        double requestsPerSecond = Math.max(0.1, plugin.getSettings().getDouble("import.requests-per-second", 10.0));
+        int progressEvery = Math.max(1, plugin.getSettings().getInt("import.progress-every", 50));
+
+        Semaphore slots = new Semaphore(parallelism);
+        TokenBucket rateLimit = new TokenBucket(requestsPerSecond, parallelism);
+        AtomicInteger done = new AtomicInteger();
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String name : names) {
+            slots.acquire();
+            rateLimit.acquire();
+
+            futures.add(plugin.getExecutor().fork(() -> {
+                try {
+                    String uuid = service.fetchUUIDFromMojang(name);
+                    if (uuid == null) {
+                        unknown.add(name);
+                    } else {
+                        found.add(new LocalFallbackDatabase.WhitelistEntry(uuid, name));
+                    }
+                } finally {
+                    slots.release();
+
+                    int count = done.incrementAndGet();
+                    if (count % progressEvery == 0 && count < names.size()) {
+                        double seconds = Math.max(0.001, (System.nanoTime() - start) / 1_000_000_000.0);
+                        progress.accept(String.format(Locale.ROOT, "Resolved %d/%d profiles (%.1f/s)",
+                                count, names.size(), count / seconds));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Ergebnis
+    // ------------------------------------------------------------------------
+
+    public record Result(int added, int alreadyWhitelisted, List<String> invalid, long elapsedMs, int processed) {
+
+        public double namesPerSecond() {
+            return processed * 1000.0 / Math.max(1L, elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  👑 ClusterResyncCoordinator
+ *  ---------------------------
+ *  Koordiniert den Resync des lokalen Fallback-Caches zwischen mehreren
+ *  Backends, damit nicht jedes Backend die ganze Whitelist-Tabelle scannt.
+ *
+ *  Ablauf pro Resync:
+ *   - Wer die Lease {@code resync} (Tabelle {@code cluster.lease-table})
+ *     erhält, ist Leader: Er scannt die Tabelle, ersetzt seinen Cache und
+ *     legt einen GZIP-komprimierten, versionierten Snapshot in
+ *     {@code cluster.snapshot-table} ab. Die Version steigt nur, wenn sich
+ *     der Inhalt geändert hat.
+ *   - Alle anderen sind Follower: Sie warten auf den Snapshot der laufenden
+ *     Runde (erstellt nach der Lease-Übernahme), laden ihn nur, wenn seine
+ *     Version bzw. Prüfsumme nicht schon dem lokalen Stand entspricht, und
+ *     spielen danach alle Einträge des Änderungs-Logs seit dem Snapshot nach.
+ *   - Ist kein brauchbarer Snapshot vorhanden (zu alt für das Log, fehlt,
+ *     Leader nach {@code cluster.follower-wait-seconds} nicht fertig,
+ *     Fehler), wird wie bisher direkt bzw. per Buckets abgeglichen.
+ *
+ *  Ist der Snapshot noch aktuell (Prüfsumme aus den Bucket-Digests gleich),
+ *  liest der Leader nur die abweichenden Buckets statt der ganzen Tabelle.
+ *
+ *  Ohne Invalidierungs-Bus ({@code invalidation.*}) oder mit
+ *  {@code cluster.enabled: false} scannt jedes Backend selbst.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class ClusterResyncCoordinator {
+
+    private static final String LEASE_NAME = "resync";
+
+    private static final int SNAPSHOT_MAGIC = 0x4B535253; // "KSRS"
+    private static final short SNAPSHOT_FORMAT = 1;
+
+    private final WhitelistPlatform plugin;
+    private final Database database;
+    private final WhitelistService service;
+    private final InvalidationBus bus;
+
+    private volatile boolean schemaReady;
+
+    /** Zuletzt übernommene Snapshot-Version; -1 = noch keine. */
+    private volatile long appliedVersion = -1L;
+    private volatile String lastRole = "none";
+
+    private final LongAdder leaderRuns = new LongAdder();
+    private final LongAdder snapshotDownloads = new LongAdder();
+    private final LongAdder snapshotSkips = new LongAdder();
+    private final LongAdder directScans = new LongAdder();
+
+    public ClusterResyncCoordinator(WhitelistPlatform plugin, Database database, WhitelistService service,
+                                    InvalidationBus bus) {
+        this.plugin = plugin;
+        this.database = database;
+        this.service = service;
+        this.bus = bus;
+    }
+
+    /**
+     * Führt einen Resync aus – als Leader, als Follower oder direkt – und
+     * lädt danach die Ablaufzeitpunkte befristeter Einträge neu.
+     */
+    public void resync() throws SQLException {
+        resyncCache();
+        service.getTimedWhitelist().reload();
+    }
+
+    private void resyncCache() throws SQLException {
+        if (!plugin.getSettings().getBoolean("cluster.enabled", true) || !bus.isEnabled()) {
+            scanDirectly();
+            return;
+        }
+
+        WhitelistStore store = database.store();
+        if (!schemaReady) {
+            store.ensureInvalidationSchema();
+            store.ensureClusterSchema();
+            schemaReady = true;
+        }
+
+        long leaseMs = TimeUnit.SECONDS.toMillis(
+                Math.max(30L, plugin.getSettings().getLong("cluster.lease-seconds", 600L)));
+        if (store.tryAcquireLease(LEASE_NAME, bus.getOrigin(), System.currentTimeMillis(), leaseMs)) {
+            runAsLeader(store);
+        } else if (!runAsFollower(store, leaseMs)) {
+            scanDirectly();
+        }
+    }
+
+    private void scanDirectly() throws SQLException {
+        lastRole = "direct";
+        directScans.increment();
+        service.syncMysqlToLocalFallback();
+    }
+
+    // ------------------------------------------------------------------------
+    // 👑 Leader
+    // ------------------------------------------------------------------------
+
+    private void runAsLeader(WhitelistStore store) throws SQLException {
+        lastRole = "leader";
+        leaderRuns.increment();
+        service.getOutbox().drainNow();
+
+        // Vor dem Scan lesen: Änderungen während des Scans werden so von
+        // den Followern sicher (und idempotent) nachgespielt
+        long changeSeq = store.latestInvalidationSeq();
+        WhitelistStore.ClusterSnapshot current = store.readSnapshotInfo();
+
+        // Unveränderte Tabelle: nur Bucket-Digests lesen statt voll zu scannen
+        if (current != null && service.resyncBuckets() > 0
+                && service.getLocalDatabase().getLastSync() != null) {
+            Map<Integer, WhitelistStore.BucketDigest> digests = service.readBucketDigests();
+            if (current.checksum().equals(WhitelistService.bucketWatermark(digests))) {
+                WhitelistService.SyncReport report = service.syncChangedBuckets(digests);
+                if (report != null) {
+                    store.touchSnapshot(current.version(), changeSeq, System.currentTimeMillis());
+                    appliedVersion = current.version();
+                    plugin.getLogger().info("Resync leader: whitelist unchanged, snapshot v" + current.version()
+                            + " kept, local cache " + report.format() + ".");
+                    return;
+                }
+            }
+        }
+
+        List<LocalFallbackDatabase.WhitelistEntry> entries = service.readAllEntries();
+        String checksum = WhitelistService.contentDigest(entries);
+        service.replaceLocalFallback(entries, checksum);
+
+        long now = System.currentTimeMillis();
+
+        if (current != null && checksum.equals(current.checksum())) {
+            store.touchSnapshot(current.version(), changeSeq, now);
+            appliedVersion = current.version();
+            plugin.getLogger().info("Resync leader: whitelist unchanged (" + entries.size()
+                    + " entries), snapshot v" + current.version() + " kept.");
+            return;
+        }
+
+        long version = current == null ? 1L : current.version() + 1L;
+        byte[] data;
+        try {
+            data = encode(entries);
+        } catch (IOException ex) {
+            throw new SQLException("Could not encode whitelist snapshot", ex);
+        }
+        store.publishSnapshot(new WhitelistStore.ClusterSnapshot(version, changeSeq, entries.size(), checksum,
+                now, bus.getOrigin(), data));
+        appliedVersion = version;
+
+        plugin.getLogger().info(String.format(Locale.ROOT,
+                "Resync leader: published snapshot v%d (%d entries, %d KiB).",
+                version, entries.size(), data.length / 1024));
+    }
+
+    // ------------------------------------------------------------------------
+    // 📥 Follower
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return {@code false}, wenn kein brauchbarer Snapshot vorhanden ist
+     */
+    private boolean runAsFollower(WhitelistStore store, long leaseMs) throws SQLException {
+        WhitelistStore.ClusterSnapshot info = awaitCurrentSnapshot(store, leaseMs);
+        long retentionMs = TimeUnit.MINUTES.toMillis(
+                Math.max(1L, plugin.getSettings().getLong("invalidation.retention-minutes", 1_500L)));
+
+        // Nur verwenden, wenn das Änderungs-Log alle späteren Änderungen noch enthält
+        if (info == null || info.createdAt() < System.currentTimeMillis() - retentionMs) {
+            return false;
+        }
+
+        lastRole = "follower";
+        service.getOutbox().drainNow();
+
+        LocalFallbackDatabase.SyncMeta local = service.getLocalDatabase().getLastSync();
+        boolean upToDate = info.version() == appliedVersion
+                || (local != null && info.checksum().equals(local.sourceWatermark()));
+
+        if (upToDate) {
+            snapshotSkips.increment();
+        } else {
+            byte[] data = store.readSnapshotData(info.version());
+            if (data == null) {
+                // Der Leader hat gerade eine neue Version gespeichert
+                return false;
+            }
+
+            List<LocalFallbackDatabase.WhitelistEntry> entries;
+            try {
+                entries = decode(data);
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Whitelist snapshot v" + info.version() + " is unreadable: " + ex.getMessage());
+                return false;
+            }
+            service.replaceLocalFallback(entries, info.checksum());
+            appliedVersion = info.version();
+            snapshotDownloads.increment();
+        }
+
+        int replayed = replayChanges(store, info.changeSeq());
+        plugin.getLogger().info("Resync follower: " + (upToDate ? "snapshot v" + info.version() + " already applied"
+                : "applied snapshot v" + info.version() + " (" + info.rowCount() + " entries)")
+                + ", replayed " + replayed + " later change(s).");
+        return true;
+    }
+
+    /**
+     * Liefert den Snapshot erst, wenn er nach der Lease-Übernahme des
+     * aktuellen Leaders erstellt wurde. Ein älterer stammt aus einer früheren
+     * Runde und kennt Änderungen nicht, die direkt in MySQL (ohne
+     * Änderungs-Log) gemacht wurden – genau die soll der Resync aber finden.
+     *
+     * @return {@code null}, wenn der Leader weg oder nach
+     *         {@code cluster.follower-wait-seconds} nicht fertig ist
+     */
+    private WhitelistStore.ClusterSnapshot awaitCurrentSnapshot(WhitelistStore store, long leaseMs)
+            throws SQLException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(
+                Math.max(0L, plugin.getSettings().getLong("cluster.follower-wait-seconds", 60L)));
+        while (true) {
+            WhitelistStore.ClusterSnapshot info = store.readSnapshotInfo();
+            long leaseExpiresAt = store.leaseExpiresAt(LEASE_NAME);
+            if (info != null && info.createdAt() >= leaseExpiresAt - leaseMs) {
+                return info;
+            }
+
+            long now = System.currentTimeMillis();
+            if (leaseExpiresAt <= now || now >= deadline) {
+                return null;
+            }
+            try {
+                Thread.sleep(1_000L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Spielt alle Log-Einträge nach {@code afterSeq} in den lokalen Cache ein,
+     * auch die eigenen – der Snapshot kennt sie noch nicht.
+     */
+    private int replayChanges(WhitelistStore store, long afterSeq) throws SQLException {
+        int replayed = 0;
+        long seq = afterSeq;
+        List<WhitelistStore.Invalidation> rows;
+        do {
+            rows = store.readInvalidations(seq, List.of(), 500);
+            for (WhitelistStore.Invalidation row : rows) {
+                seq = Math.max(seq, row.seq());
+                switch (row.type()) {
+                    case UPSERT -> service.applyRemoteUpsert(row.uuid(), row.name(), row.until());
+                    case DELETE_UUID -> {
+                        UUID uuid = Uuids.parse(row.uuid());
+                        if (uuid != null) {
+                            service.applyRemoteDeleteByUUID(uuid);
+                        }
+                    }
+                    case DELETE_NAME -> service.applyRemoteDeleteByName(row.name());
+                    case BLOCK -> {
+                        continue;
+                    }
+                }
+                replayed++;
+            }
+        } while (rows.size() >= 500);
+        return replayed;
+    }
+
+    // ------------------------------------------------------------------------
+    // 📦 Snapshot-Format
+    // ------------------------------------------------------------------------
+    // GZIP( int MAGIC | short FORMAT | int count | count × (UTF uuid, UTF name) )
+
+    static byte[] encode(List<LocalFallbackDatabase.WhitelistEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(1_024, entries.size() * 24));
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeShort(SNAPSHOT_FORMAT);
+            out.writeInt(entries.size());
+            for (LocalFallbackDatabase.WhitelistEntry entry : entries) {
+                out.writeUTF(entry.uuid());
+                out.writeUTF(entry.name());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<LocalFallbackDatabase.WhitelistEntry> decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("bad magic");
+            }
+            short format = in.readShort();
+            if (format != SNAPSHOT_FORMAT) {
+                throw new IOException("unsupported format " + format);
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("negative entry count");
+            }
+
+            List<LocalFallbackDatabase.WhitelistEntry> entries = new ArrayList<>(Math.min(count, 1 << 20));
+            for (int i = 0; i < count; i++) {
+                entries.add(new LocalFallbackDatabase.WhitelistEntry(in.readUTF(), in.readUTF()));
+            }
+            return entries;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public String format() {
+        return String.format(Locale.ROOT,
+                "last role %s, applied v%d, leader runs %d, downloads %d, skipped %d, direct scans %d",
+                lastRole, appliedVersion, leaderRuns.sum(), snapshotDownloads.sum(), snapshotSkips.sum(),
+                directScans.sum());
+    }
+}
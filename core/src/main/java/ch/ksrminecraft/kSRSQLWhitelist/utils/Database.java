@@ -0,0 +1,570 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.ConnectionProvider;
+import ch.ksrminecraft.kSRSQLWhitelist.store.EmbeddedWhitelistStore;
+import ch.ksrminecraft.kSRSQLWhitelist.store.MysqlWhitelistStore;
+import ch.ksrminecraft.kSRSQLWhitelist.store.PostgresWhitelistStore;
+import ch.ksrminecraft.kSRSQLWhitelist.store.StoreSchema;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🗄️ Database
+ *  ------------
+ *  Diese Klasse verwaltet die Verbindung zur zentralen Datenbank für das
+ *  KSR-SQL-Whitelist-Plugin. Die Engine wird über {@code storage.type}
+ *  gewählt (mysql, postgresql oder embedded); die SQL-Abfragen selbst
+ *  stecken im passenden {@link WhitelistStore}.
+ *
+ *  Hauptfunktionen:
+ *   - Connection-Pool (HikariCP) gemäss Konfiguration ({@code mysql.pool.*})
+ *   - Optionale Read-Replicas ({@code mysql.replicas}) mit eigenem Pool je
+ *     Replica; reine Lesezugriffe werden reihum auf gesunde Replicas verteilt
+ *   - Nach einem Schreibzugriff bleiben Lesezugriffe für
+ *     {@code mysql.read-after-write-ms} auf dem Primary (Replikationsverzögerung)
+ *   - Erstellung der Whitelist-Tabelle, falls sie noch nicht existiert
+ *   - Zugriff auf konfigurierbare Tabellen- und Spaltennamen
+ *
+ *  💡 Besonderheit:
+ *   Über die Felder {@code mysql.column_uuid} und {@code mysql.column_name}
+ *   kann in der config.yml definiert werden, wie die Spalten in der Datenbank heissen.
+ *   Dadurch ist das Plugin flexibel gegenüber unterschiedlichen Datenbankschemata.
+ *
+ *  Wichtig:
+ *   Die UUID-Spalte wird als PRIMARY KEY angelegt, damit
+ *   {@code ON DUPLICATE KEY UPDATE} im WhitelistService korrekt funktioniert.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class Database {
+
+    /** Hauptinstanz des Plugins (Zugriff auf Config, Logger, etc.). */
+    private final WhitelistPlatform plugin;
+
+    /** Connection-Pool; wird beim ersten Zugriff erstellt. */
+    private volatile HikariDataSource dataSource;
+
+    /** Konfigurierte Read-Replicas (leer = alles über den Primary). */
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /** Zeitpunkt des letzten Schreibzugriffs auf den Primary. */
+    private volatile long lastWriteAt;
+
+    private final LongAdder primaryReads = new LongAdder();
+
+    /** Gewählte Engine ({@code storage.type}). */
+    private final String engine;
+    private final WhitelistStore store;
+
+    /**
+     * Konstruktor.
+     *
+     * @param plugin Hauptinstanz des KSR-SQL-Whitelist-Plugins
+     */
+    public Database(WhitelistPlatform plugin) {
+        this.plugin = plugin;
+        this.engine = plugin.getSettings().getString("storage.type", "mysql").trim().toLowerCase(Locale.ROOT);
+
+        ConnectionProvider connections = new ConnectionProvider() {
+            @Override
+            public Connection openWrite() throws SQLException {
+                return openConnection();
+            }
+
+            @Override
+            public Connection openRead() throws SQLException {
+                return openReadConnection();
+            }
+
+            @Override
+            public void noteWrite() {
+                Database.this.noteWrite();
+            }
+        };
+        this.store = switch (engine) {
+            case "postgresql", "postgres" -> new PostgresWhitelistStore(connections, this::schema);
+            case "embedded", "sqlite" -> new EmbeddedWhitelistStore(connections, this::schema);
+            default -> new MysqlWhitelistStore(connections, this::schema);
+        };
+
+        int index = 0;
+        for (Map<?, ?> raw : store instanceof EmbeddedWhitelistStore
+                ? List.<Map<?, ?>>of()
+                : plugin.getSettings().getMapList("mysql.replicas")) {
+            Object host = raw.get("host");
+            if (host == null || host.toString().isBlank()) {
+                continue;
+            }
+            index++;
+            replicas.add(new Replica("replica-" + index + " (" + host + ")", raw));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔌 Verbindung zur Datenbank herstellen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Leiht eine Verbindung aus dem Connection-Pool aus.
+     *
+     * Die Verbindung muss (z. B. per try-with-resources) geschlossen werden,
+     * damit sie in den Pool zurückkehrt. Ist MySQL nicht erreichbar, schlägt
+     * der Aufruf nach {@code mysql.pool.connection-timeout-ms} fehl.
+     *
+     * @return Aktive {@link Connection} zur Datenbank
+     * @throws SQLException Wenn keine Verbindung verfügbar ist
+     */
+    public Connection openConnection() throws SQLException {
+        return pool().getConnection();
+    }
+
+    /**
+     * Leiht eine Verbindung für reine Lesezugriffe aus.
+     *
+     * Reihenfolge:
+     *  - keine Replicas konfiguriert oder kürzlich geschrieben → Primary
+     *  - sonst reihum die nächste gesunde Replica
+     *  - schlägt eine Replica fehl, wird sie für {@code mysql.replica-retry-ms}
+     *    übersprungen und die nächste versucht; zuletzt der Primary
+     *
+     * Auf dieser Verbindung darf nicht geschrieben werden.
+     */
+    public Connection openReadConnection() throws SQLException {
+        if (!replicas.isEmpty() && !isReadAfterWriteWindow()) {
+            long now = System.currentTimeMillis();
+            int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (replica.unhealthyUntil > now) {
+                    continue;
+                }
+                try {
+                    Connection c = replica.pool().getConnection();
+                    replica.markHealthy();
+                    return c;
+                } catch (SQLException ex) {
+                    replica.markFailed(ex);
+                }
+            }
+        }
+
+        primaryReads.increment();
+        return openConnection();
+    }
+
+    /**
+     * Muss nach jedem bestätigten Schreibzugriff aufgerufen werden, damit
+     * unmittelbar folgende Lesezugriffe (Read-after-Write) den Primary sehen.
+     */
+    public void noteWrite() {
+        lastWriteAt = System.currentTimeMillis();
+    }
+
+    private boolean isReadAfterWriteWindow() {
+        long window = plugin.getSettings().getLong("mysql.read-after-write-ms", 5_000L);
+        return System.currentTimeMillis() - lastWriteAt < window;
+    }
+
+    private HikariDataSource pool() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (this) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = createPool();
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    private HikariDataSource createPool() {
+        if (store instanceof EmbeddedWhitelistStore) {
+            return createEmbeddedPool();
+        }
+        return createPool("KSR-Whitelist-" + store.engine(),
+                req("mysql.host"),
+                plugin.getSettings().getInt("mysql.port", defaultPort()),
+                req("mysql.database"),
+                req("mysql.user"),
+                req("mysql.password"),
+                false);
+    }
+
+    private int defaultPort() {
+        return store instanceof PostgresWhitelistStore ? 5432 : 3306;
+    }
+
+    private HikariDataSource createPool(String poolName, String host, int port, String db,
+                                        String user, String password, boolean readOnly) {
+        boolean useSSL = plugin.getSettings().getBoolean("mysql.useSSL", false);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setReadOnly(readOnly);
+
+        if (store instanceof PostgresWhitelistStore) {
+            config.setDriverClassName("org.postgresql.Driver");
+            config.setJdbcUrl("jdbc:postgresql://" + host + ":" + port + "/" + db
+                    + "?ssl=" + useSSL + "&ApplicationName=KSR-SQL-Whitelist");
+        } else {
+            String serverTimezone = plugin.getSettings().getString("mysql.serverTimezone", "UTC");
+
+            String params = String.join("&",
+                    "useUnicode=true",
+                    "characterEncoding=UTF-8",
+                    "useSSL=" + useSSL,
+                    "serverTimezone=" + serverTimezone
+            );
+            // Explizit: am Velocity-Proxy sieht der DriverManager den geshadeten Treiber sonst nicht
+            config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+            config.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + db + "?" + params);
+
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+
+        config.setMaximumPoolSize(Math.max(1, plugin.getSettings().getInt("mysql.pool.maximum-pool-size", 10)));
+        config.setMinimumIdle(Math.max(0, plugin.getSettings().getInt("mysql.pool.minimum-idle", 2)));
+        config.setConnectionTimeout(Math.max(250L, plugin.getSettings().getLong("mysql.pool.connection-timeout-ms", 5_000L)));
+        config.setValidationTimeout(Math.max(250L, plugin.getSettings().getLong("mysql.pool.validation-timeout-ms", 2_000L)));
+        config.setIdleTimeout(plugin.getSettings().getLong("mysql.pool.idle-timeout-ms", 600_000L));
+        config.setMaxLifetime(plugin.getSettings().getLong("mysql.pool.max-lifetime-ms", 1_800_000L));
+        config.setKeepaliveTime(plugin.getSettings().getLong("mysql.pool.keepalive-ms", 300_000L));
+
+        // Plugin soll auch starten, wenn MySQL gerade nicht erreichbar ist
+        config.setInitializationFailTimeout(-1);
+
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Pool für die eingebettete SQLite-Datei ({@code storage.embedded.file}).
+     * WAL erlaubt parallele Leser neben einem Schreiber.
+     */
+    private HikariDataSource createEmbeddedPool() {
+        String file = plugin.getSettings().getString("storage.embedded.file", "whitelist-store.db");
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("KSR-Whitelist-embedded");
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl("jdbc:sqlite:" + new File(plugin.getDataFolder(), file).getAbsolutePath());
+        config.setMaximumPoolSize(Math.max(1, plugin.getSettings().getInt("storage.embedded.pool-size", 4)));
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(Math.max(250L, plugin.getSettings().getLong("mysql.pool.connection-timeout-ms", 5_000L)));
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        config.addDataSourceProperty("busy_timeout",
+                String.valueOf(plugin.getSettings().getInt("fallback.busy-timeout-ms", 5_000)));
+        config.setInitializationFailTimeout(-1);
+
+        return new HikariDataSource(config);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧱 Store
+    // ------------------------------------------------------------------------
+
+    /**
+     * Der zur Engine passende {@link WhitelistStore}.
+     */
+    public WhitelistStore store() {
+        return store;
+    }
+
+    private StoreSchema schema() {
+        return new StoreSchema(
+                plugin.getSettings().getString("mysql.table", "mysql_whitelist"),
+                columnUUID(),
+                columnName(),
+                plugin.getSettings().getString("protected-worlds.block-table", "ksr_protected_world_blocks"),
+                plugin.getSettings().getString("invalidation.table", "ksr_whitelist_changes"),
+                plugin.getSettings().getString("cluster.lease-table", "ksr_cluster_lease"),
+                plugin.getSettings().getString("cluster.snapshot-table", "ksr_whitelist_snapshot"),
+                plugin.getSettings().getBoolean("timed-whitelist.enabled", false)
+                        ? plugin.getSettings().getString("mysql.column_expires", "expires_at")
+                        : null);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🩺 Verbindungsprüfung & Pool-Verwaltung
+    // ------------------------------------------------------------------------
+
+    /**
+     * Prüft, ob MySQL erreichbar ist und eine gültige Verbindung liefert.
+     *
+     * @throws SQLException Wenn keine gültige Verbindung hergestellt werden kann
+     */
+    public void ping() throws SQLException {
+        int timeoutSeconds = Math.max(1, plugin.getSettings().getInt("mysql.pool.validation-timeout-ms", 2_000) / 1000);
+        try (Connection c = openConnection()) {
+            if (!c.isValid(timeoutSeconds)) {
+                throw new SQLException("MySQL connection is not valid");
+            }
+        }
+    }
+
+    /**
+     * Füllt den Pool vor, indem bis zu {@code count} Verbindungen gleichzeitig
+     * ausgeliehen und geprüft werden. So zahlt nach einem Ausfall nicht der
+     * erste Spieler den Verbindungsaufbau.
+     *
+     * @return Anzahl erfolgreich geprüfter Verbindungen
+     */
+    public int prewarm(int count) {
+        List<Connection> borrowed = new ArrayList<>();
+        int target = Math.min(count, pool().getMaximumPoolSize());
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection c = openConnection();
+                borrowed.add(c);
+                c.isValid(1);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.FINE, "Pool pre-warm stopped early", e);
+        } finally {
+            for (Connection c : borrowed) {
+                try {
+                    c.close();
+                } catch (SQLException ignored) {
+                    // Rückgabe in den Pool darf nicht fehlschlagen
+                }
+            }
+        }
+        return borrowed.size();
+    }
+
+    /**
+     * Momentaufnahme des Pools für /whitelist stats.
+     */
+    public String formatPoolStats() {
+        return formatPoolStats(dataSource);
+    }
+
+    /**
+     * Eine Zeile pro Replica für /whitelist stats (leer ohne Replicas).
+     */
+    public List<String> formatReplicaStats() {
+        List<String> lines = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Replica replica : replicas) {
+            String state = replica.unhealthyUntil > now
+                    ? "unhealthy (retry in " + (replica.unhealthyUntil - now) / 1000L + "s)"
+                    : "healthy";
+            lines.add(replica.name + ": " + state + ", reads " + replica.reads.sum()
+                    + ", failures " + replica.failures.sum() + ", pool " + formatPoolStats(replica.dataSource));
+        }
+        if (!replicas.isEmpty()) {
+            lines.add("primary reads " + primaryReads.sum()
+                    + (isReadAfterWriteWindow() ? " (read-after-write window active)" : ""));
+        }
+        return lines;
+    }
+
+    private static String formatPoolStats(HikariDataSource ds) {
+        if (ds == null) {
+            return "not started";
+        }
+        HikariPoolMXBean bean = ds.getHikariPoolMXBean();
+        if (bean == null) {
+            return "starting";
+        }
+        return String.format(Locale.ROOT, "active %d, idle %d, total %d/%d, waiting %d",
+                bean.getActiveConnections(), bean.getIdleConnections(), bean.getTotalConnections(),
+                ds.getMaximumPoolSize(), bean.getThreadsAwaitingConnection());
+    }
+
+    /**
+     * Schliesst den Pool und alle offenen Verbindungen (beim Deaktivieren).
+     */
+    public void close() {
+        HikariDataSource ds = dataSource;
+        dataSource = null;
+        if (ds != null) {
+            ds.close();
+        }
+        for (Replica replica : replicas) {
+            replica.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🪞 Read-Replica
+    // ------------------------------------------------------------------------
+
+    /**
+     * Eine Read-Replica mit eigenem (read-only) Pool. Nicht angegebene Werte
+     * (port, database, user, password) werden vom Primary übernommen.
+     */
+    private final class Replica {
+
+        private final String name;
+        private final Map<?, ?> settings;
+        private volatile HikariDataSource dataSource;
+
+        private volatile long unhealthyUntil;
+        private int consecutiveFailures;
+
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        Replica(String name, Map<?, ?> settings) {
+            this.name = name;
+            this.settings = settings;
+        }
+
+        HikariDataSource pool() {
+            HikariDataSource ds = dataSource;
+            if (ds == null) {
+                synchronized (this) {
+                    ds = dataSource;
+                    if (ds == null) {
+                        ds = createPool("KSR-Whitelist-" + name.replaceAll("[^A-Za-z0-9-]", ""),
+                                setting("host", req("mysql.host")),
+                                Integer.parseInt(setting("port", String.valueOf(plugin.getSettings().getInt("mysql.port", defaultPort())))),
+                                setting("database", req("mysql.database")),
+                                setting("user", req("mysql.user")),
+                                setting("password", req("mysql.password")),
+                                true);
+                        dataSource = ds;
+                    }
+                }
+            }
+            return ds;
+        }
+
+        private String setting(String key, String fallback) {
+            Object value = settings.get(key);
+            return value == null ? fallback : value.toString();
+        }
+
+        synchronized void markHealthy() {
+            reads.increment();
+            consecutiveFailures = 0;
+            unhealthyUntil = 0;
+        }
+
+        synchronized void markFailed(SQLException ex) {
+            failures.increment();
+            consecutiveFailures++;
+
+            long base = Math.max(100L, plugin.getSettings().getLong("mysql.replica-retry-ms", 10_000L));
+            long delay = Math.min(base * 8, base << Math.min(3, consecutiveFailures - 1));
+            unhealthyUntil = System.currentTimeMillis() + delay;
+
+            plugin.getLogger().warning("Read replica " + name + " failed, using other replicas/primary for "
+                    + delay / 1000L + "s: " + ex.getMessage());
+        }
+
+        void close() {
+            HikariDataSource ds = dataSource;
+            dataSource = null;
+            if (ds != null) {
+                ds.close();
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ⚙️ Tabellen- und Spaltennamen aus der Config lesen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Liefert den konfigurierten Tabellennamen.
+     *
+     * @return Tabellenname (z. B. "mysql_whitelist")
+     */
+    public String table() {
+        return req("mysql.table");
+    }
+
+    /**
+     * Liefert den Spaltennamen für die UUID.
+     * Standardwert: {@code UUID}
+     *
+     * @return Name der Spalte, die die UUID speichert
+     */
+    public String columnUUID() {
+        return plugin.getSettings().getString("mysql.column_uuid", "UUID");
+    }
+
+    /**
+     * Liefert den Spaltennamen für den Spielernamen.
+     * Standardwert: {@code user}
+     *
+     * @return Name der Spalte, die den Spielernamen enthält
+     */
+    public String columnName() {
+        return plugin.getSettings().getString("mysql.column_name", "user");
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧱 Sicherstellen, dass die Tabelle existiert
+    // ------------------------------------------------------------------------
+
+    /**
+     * Erstellt die Whitelist-Tabelle, falls sie noch nicht existiert.
+     *
+     * Diese Methode nutzt die aktuell in der Config definierten Spaltennamen.
+     * Sie wird typischerweise beim Plugin-Start aufgerufen.
+     *
+     * Wichtige Designentscheidung:
+     * - Die UUID-Spalte ist PRIMARY KEY
+     * - Der Spielername erhält einen normalen Index
+     *
+     * Beispielhafte SQL-Struktur (MySQL; die anderen Engines legen
+     * die Tabelle analog an, siehe {@code store}-Paket):
+     * <pre>
+     * CREATE TABLE IF NOT EXISTS `mysql_whitelist` (
+     *   `UUID` varchar(36) NOT NULL,
+     *   `user` varchar(100) DEFAULT NULL,
+     *   PRIMARY KEY (`UUID`),
+     *   KEY `idx_user` (`user`)
+     * ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+     * </pre>
+     *
+     * @throws SQLException Falls die SQL-Ausführung fehlschlägt
+     */
+    public void ensureTable() throws SQLException {
+        store.ensureSchema();
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Hilfsmethode
+    // ------------------------------------------------------------------------
+
+    /**
+     * Liest einen String-Wert aus der Config und stellt sicher, dass er vorhanden ist.
+     * Wenn der Wert fehlt, wird eine {@link NullPointerException} mit Pfadangabe geworfen.
+     *
+     * @param path Pfad in der Config (z. B. "mysql.host")
+     * @return Wert aus der Config
+     */
+    private String req(String path) {
+        return Objects.requireNonNull(plugin.getSettings().getString(path, null), path);
+    }
+}
\ No newline at end of file
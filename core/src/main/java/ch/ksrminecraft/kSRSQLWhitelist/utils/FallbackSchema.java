@@ -0,0 +1,161 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧬 FallbackSchema
+ *  -----------------
+ *  Versionierte Schema-Migrationen für die lokale SQLite-Fallback-Datei.
+ *
+ *  Die aktuelle Version steht in {@code PRAGMA user_version}. Beim Start
+ *  werden alle noch fehlenden Migrationen der Reihe nach ausgeführt – jede
+ *  in einer eigenen Transaktion zusammen mit dem Hochsetzen der Version.
+ *  Bricht eine Migration ab, bleibt die Datei auf der vorherigen Version.
+ *
+ *  Neue Migrationen werden nur hinten angehängt, bestehende nie verändert.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public final class FallbackSchema {
+
+    /** Ausdruck für die normalisierte UUID (klein, ohne Bindestriche). */
+    static final String UUID_NORM_EXPR = "lower(replace(uuid, '-', ''))";
+
+    /**
+     * Alle Migrationen; Index 0 entspricht Version 1.
+     */
+    private static final List<String[]> MIGRATIONS = List.of(
+
+            // v1: Ursprüngliche Tabellen (bestehende Installationen haben sie bereits)
+            new String[]{
+                    "CREATE TABLE IF NOT EXISTS whitelist_cache (uuid TEXT, name TEXT, PRIMARY KEY (uuid))",
+                    "CREATE TABLE IF NOT EXISTS whitelist_outbox ("
+                            + "seq INTEGER PRIMARY KEY AUTOINCREMENT, "
+                            + "op TEXT NOT NULL, "
+                            + "uuid TEXT, "
+                            + "name TEXT, "
+                            + "created_at INTEGER NOT NULL, "
+                            + "attempts INTEGER NOT NULL DEFAULT 0, "
+                            + "last_error TEXT)"
+            },
+
+            // v2: Indizes, damit Fallback-Logins Index-Seeks statt Table-Scans sind
+            new String[]{
+                    "ALTER TABLE whitelist_cache ADD COLUMN uuid_norm TEXT GENERATED ALWAYS AS ("
+                            + UUID_NORM_EXPR + ") VIRTUAL",
+                    "CREATE INDEX IF NOT EXISTS idx_whitelist_cache_uuid_norm_v2 ON whitelist_cache (uuid_norm)",
+                    "CREATE INDEX IF NOT EXISTS idx_whitelist_cache_name_v2 ON whitelist_cache (name COLLATE NOCASE)"
+            },
+
+            // v3: Metadaten zum letzten Resync
+            new String[]{
+                    "CREATE TABLE IF NOT EXISTS sync_meta ("
+                            + "id INTEGER PRIMARY KEY CHECK (id = 1), "
+                            + "last_sync_at INTEGER NOT NULL, "
+                            + "row_count INTEGER NOT NULL, "
+                            + "source_watermark TEXT)"
+            },
+
+            // v4: Befristete Einträge (0 = unbefristet)
+            new String[]{
+                    "ALTER TABLE whitelist_outbox ADD COLUMN expires_at INTEGER NOT NULL DEFAULT 0",
+                    "CREATE TABLE IF NOT EXISTS whitelist_expiry ("
+                            + "uuid TEXT PRIMARY KEY, "
+                            + "expires_at INTEGER NOT NULL)"
+            },
+
+            // v5: Outbox-Einträge, die MySQL dauerhaft ablehnt (Datenfehler)
+            new String[]{
+                    "CREATE TABLE IF NOT EXISTS whitelist_outbox_dead ("
+                            + "seq INTEGER PRIMARY KEY, "
+                            + "op TEXT NOT NULL, "
+                            + "uuid TEXT, "
+                            + "name TEXT, "
+                            + "created_at INTEGER NOT NULL, "
+                            + "expires_at INTEGER NOT NULL DEFAULT 0, "
+                            + "attempts INTEGER NOT NULL, "
+                            + "last_error TEXT, "
+                            + "dead_at INTEGER NOT NULL)"
+            }
+    );
+
+    private FallbackSchema() {
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.size();
+    }
+
+    /**
+     * Bringt die Datei auf den neuesten Stand.
+     *
+     * @return Version vor der Migration
+     */
+    public static int migrate(Connection c, Logger logger) throws SQLException {
+        int current = currentVersion(c);
+
+        if (current > latestVersion()) {
+            logger.warning("Fallback database schema v" + current + " is newer than this plugin (v"
+                    + latestVersion() + "). Continuing without migration.");
+            return current;
+        }
+
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try (Statement st = c.createStatement()) {
+            for (int version = current + 1; version <= latestVersion(); version++) {
+                try {
+                    for (String sql : MIGRATIONS.get(version - 1)) {
+                        st.execute(sql);
+                    }
+                    st.execute("PRAGMA user_version = " + version);
+                    c.commit();
+                } catch (SQLException ex) {
+                    c.rollback();
+                    throw new SQLException("Fallback schema migration to v" + version + " failed", ex);
+                }
+                logger.info("Fallback database migrated to schema v" + version + ".");
+            }
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+        return current;
+    }
+
+    private static int currentVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Legt eine Cache-Tabelle im aktuellen Schema an (z. B. die Schattentabelle
+     * beim Resync). Muss bei Schema-Änderungen an {@code whitelist_cache}
+     * mitgezogen werden.
+     *
+     * Indexnamen sind in SQLite dateiweit eindeutig und bleiben beim Umbenennen
+     * einer Tabelle erhalten; deshalb erhalten sie ein Generationssuffix.
+     */
+    static void createCacheTable(Connection c, String table, String generation) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "uuid TEXT, "
+                    + "name TEXT, "
+                    + "uuid_norm TEXT GENERATED ALWAYS AS (" + UUID_NORM_EXPR + ") VIRTUAL, "
+                    + "PRIMARY KEY (uuid))");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_whitelist_cache_uuid_norm_" + generation
+                    + " ON " + table + " (uuid_norm)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_whitelist_cache_name_" + generation
+                    + " ON " + table + " (name COLLATE NOCASE)");
+        }
+    }
+}
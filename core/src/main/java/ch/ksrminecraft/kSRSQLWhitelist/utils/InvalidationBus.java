@@ -0,0 +1,314 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  📣 InvalidationBus
+ *  ------------------
+ *  Verteilt Whitelist-Änderungen und Protected-World-Sperren zwischen
+ *  mehreren Backends desselben Clusters innert Millisekunden statt erst
+ *  beim nächsten Resync.
+ *
+ *  Ablauf:
+ *   - Nach jeder übertragenen Änderung schreibt ein Backend eine Zeile in
+ *     das Änderungs-Log ({@code invalidation.table}) in der zentralen
+ *     Datenbank.
+ *   - Alle Backends lesen das Log alle {@code invalidation.poll-interval-ms}
+ *     ab der zuletzt gesehenen {@code seq} und übernehmen fremde Änderungen
+ *     in L1-Cache und Fallback-Datei. Entfernte Spieler werden gekickt.
+ *
+ *  Nummern, die beim Lesen übersprungen wurden (parallele Transaktionen
+ *  committen nicht zwingend in seq-Reihenfolge), werden eine Weile
+ *  gezielt nachgefragt. Alte Zeilen werden regelmässig gelöscht.
+ *
+ *  Bei {@code storage.type: embedded} gibt es normalerweise nur ein
+ *  Backend; der Bus bleibt dann aus, ausser mehrere Server auf demselben
+ *  Host teilen sich die Datei ({@code storage.embedded.shared}).
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class InvalidationBus {
+
+    /** Obergrenze für gleichzeitig nachgefragte Lücken. */
+    private static final int MAX_TRACKED_GAPS = 500;
+
+    private final WhitelistPlatform plugin;
+    private final Database database;
+
+    private final boolean enabled;
+    private final String origin;
+    private final int batchSize;
+    private final long gapTimeoutMs;
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile boolean schemaReady;
+    private volatile boolean failing;
+
+    /** Höchste gesehene seq; nur innerhalb von {@link #poll()} geschrieben. */
+    private volatile long lastSeq;
+    /** Übersprungene seq → Zeitpunkt, ab dem nicht mehr nachgefragt wird. */
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public InvalidationBus(WhitelistPlatform plugin, Database database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.enabled = plugin.getSettings().getBoolean("invalidation.enabled", true)
+                && (!"embedded".equals(database.store().engine())
+                    || plugin.getSettings().getBoolean("storage.embedded.shared", false));
+
+        String serverId = plugin.getSettings().getString("invalidation.server-id", "");
+        this.origin = serverId == null || serverId.isBlank()
+                ? UUID.randomUUID().toString().substring(0, 8)
+                : serverId.trim();
+        this.batchSize = Math.max(1, plugin.getSettings().getInt("invalidation.batch-size", 500));
+        this.gapTimeoutMs = Math.max(0L, plugin.getSettings().getLong("invalidation.gap-timeout-ms", 10_000L));
+    }
+
+    public void start() {
+        if (!enabled) {
+            plugin.getLogger().info("Cross-server cache invalidation is disabled.");
+            return;
+        }
+
+        long pollMs = Math.max(50L, plugin.getSettings().getLong("invalidation.poll-interval-ms", 500L));
+        plugin.getExecutor().tickAtFixedRate(this::triggerPoll, pollMs, TimeUnit.MILLISECONDS);
+
+        long purgeMinutes = Math.max(1L, plugin.getSettings().getLong("invalidation.purge-interval-minutes", 10L));
+        plugin.getExecutor().scheduleAtFixedRate(PluginExecutor.Lane.RESYNC, this::purge,
+                purgeMinutes, purgeMinutes, TimeUnit.MINUTES);
+
+        plugin.getLogger().info("Started cross-server cache invalidation (server id " + origin
+                + ", every " + pollMs + "ms).");
+    }
+
+    // ------------------------------------------------------------------------
+    // 📤 Veröffentlichen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Veröffentlicht bereits übertragene Whitelist-Änderungen. Fehler werden
+     * nur geloggt: Die Änderung selbst ist gespeichert, andere Backends
+     * übernehmen sie spätestens beim nächsten Resync.
+     */
+    public void publishChanges(List<WhitelistStore.Change> changes) {
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+
+        List<WhitelistStore.Invalidation> items = changes.stream()
+                .map(change -> new WhitelistStore.Invalidation(0L, origin, switch (change.type()) {
+                    case UPSERT -> WhitelistStore.InvalidationType.UPSERT;
+                    case DELETE_UUID -> WhitelistStore.InvalidationType.DELETE_UUID;
+                    case DELETE_NAME -> WhitelistStore.InvalidationType.DELETE_NAME;
+                }, change.uuid(), change.name(), change.expiresAt()))
+                .toList();
+        publish(items);
+    }
+
+    public void publishBlock(UUID uuid, String playerName, long blockedUntil) {
+        if (!enabled) {
+            return;
+        }
+        publish(List.of(new WhitelistStore.Invalidation(0L, origin, WhitelistStore.InvalidationType.BLOCK,
+                uuid.toString(), playerName, blockedUntil)));
+    }
+
+    private void publish(List<WhitelistStore.Invalidation> items) {
+        try {
+            database.store().publishInvalidations(origin, items);
+            published.add(items.size());
+        } catch (SQLException ex) {
+            errors.increment();
+            plugin.getLogger().warning("Could not publish " + items.size()
+                    + " cache invalidation(s) to other servers: " + ex.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📥 Empfangen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Startet höchstens einen Poll gleichzeitig auf einem eigenen virtuellen
+     * Thread. In der Lane RESYNC würde ein langer Resync die Invalidierungen
+     * sonst um Minuten verzögern oder sie aus der Warteschlange drängen.
+     */
+    private void triggerPoll() {
+        if (plugin.isMysqlUnavailable() || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getExecutor().fork(() -> {
+            poll();
+            return null;
+        }).exceptionally(ex -> {
+            polling.set(false);
+            return null;
+        });
+    }
+
+    private void poll() {
+        try {
+            WhitelistStore store = database.store();
+
+            if (!schemaReady) {
+                store.ensureInvalidationSchema();
+                // Ältere Änderungen sind bereits im Resync beim Start enthalten
+                lastSeq = store.latestInvalidationSeq();
+                schemaReady = true;
+            }
+
+            List<WhitelistStore.Invalidation> rows;
+            do {
+                long now = System.currentTimeMillis();
+                gaps.values().removeIf(deadline -> deadline <= now);
+
+                rows = store.readInvalidations(lastSeq, gaps.keySet(), batchSize);
+                for (WhitelistStore.Invalidation row : rows) {
+                    track(row.seq(), now);
+                    if (!origin.equals(row.origin())) {
+                        received.increment();
+                        apply(row);
+                    }
+                }
+            } while (rows.size() >= batchSize);
+
+            if (failing) {
+                failing = false;
+                plugin.getLogger().info("Cross-server cache invalidation resumed.");
+            }
+        } catch (Exception ex) {
+            errors.increment();
+            if (!failing) {
+                failing = true;
+                plugin.getLogger().log(Level.WARNING,
+                        "Polling cross-server cache invalidations failed: " + ex.getMessage(), ex);
+            }
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    /**
+     * Merkt sich die höchste gesehene seq und die dabei übersprungenen Nummern.
+     */
+    private void track(long seq, long now) {
+        if (gaps.remove(seq) != null || seq <= lastSeq) {
+            return;
+        }
+        long skipped = seq - lastSeq - 1;
+        if (lastSeq > 0 && skipped > 0 && gaps.size() + skipped <= MAX_TRACKED_GAPS) {
+            for (long missing = lastSeq + 1; missing < seq; missing++) {
+                gaps.put(missing, now + gapTimeoutMs);
+            }
+        }
+        lastSeq = seq;
+    }
+
+    private void apply(WhitelistStore.Invalidation row) {
+        try {
+            switch (row.type()) {
+                case UPSERT -> plugin.getWhitelistService().applyRemoteUpsert(row.uuid(), row.name(), row.until());
+                case DELETE_UUID -> {
+                    UUID uuid = Uuids.parse(row.uuid());
+                    if (uuid != null) {
+                        plugin.getWhitelistService().applyRemoteDeleteByUUID(uuid);
+                        kickRemoved(uuid, null);
+                    }
+                }
+                case DELETE_NAME -> {
+                    plugin.getWhitelistService().applyRemoteDeleteByName(row.name());
+                    kickRemoved(null, row.name());
+                }
+                case BLOCK -> {
+                    UUID uuid = Uuids.parse(row.uuid());
+                    if (uuid != null) {
+                        plugin.getProtectedAccessBlockService().applyRemoteBlock(uuid, row.until());
+                    }
+                }
+            }
+            applied.increment();
+        } catch (SQLException ex) {
+            errors.increment();
+            plugin.getLogger().warning("Could not apply cache invalidation #" + row.seq()
+                    + " from server " + row.origin() + ": " + ex.getMessage());
+        }
+    }
+
+    private void kickRemoved(UUID uuid, String name) {
+        if (!plugin.getSettings().getBoolean("invalidation.kick-removed", true)) {
+            return;
+        }
+        plugin.kickPlayer(uuid, name, "You have been removed from our whitelist");
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧹 Aufräumen
+    // ------------------------------------------------------------------------
+
+    private void purge() {
+        if (plugin.isMysqlUnavailable() || !schemaReady) {
+            return;
+        }
+
+        long retentionMinutes = Math.max(1L, plugin.getSettings().getLong("invalidation.retention-minutes", 1_500L));
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+
+        int total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = database.store().purgeInvalidations(cutoff, batchSize);
+                total += deleted;
+            } while (deleted >= batchSize);
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("Failed to purge old cache invalidations: " + ex.getMessage());
+        }
+
+        if (total > 0) {
+            plugin.getLogger().fine("Purged " + total + " old cache invalidation(s).");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Kennung dieses Backends (auch Lease-Halter beim Cluster-Resync).
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public String format() {
+        if (!enabled) {
+            return "disabled";
+        }
+        return String.format(Locale.ROOT,
+                "server id %s, last seq %d, published %d, received %d, applied %d, pending gaps %d, errors %d",
+                origin, lastSeq, published.sum(), received.sum(), applied.sum(), gaps.size(), errors.sum());
+    }
+}
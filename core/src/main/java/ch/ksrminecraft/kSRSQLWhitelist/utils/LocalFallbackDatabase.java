@@ -0,0 +1,720 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.JdbcWhitelistStore;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+import org.sqlite.SQLiteConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+
+/**
+ * Lokale SQLite-Fallback-Datenbank für die Whitelist.
+ *
+ * Zweck:
+ * - Hält eine lokale Kopie der SQL-Whitelist vor
+ * - Kann bei Ausfall der Hauptdatenbank für Join-Prüfungen genutzt werden
+ *
+ * Die Datei läuft im WAL-Modus: Leser warten nie auf Schreiber. Ein Resync
+ * baut eine Schattentabelle auf und tauscht sie per Umbenennung ein
+ * (siehe {@link #replaceAll(List, String)}).
+ */
+public class LocalFallbackDatabase {
+
+    private static final String CACHE_TABLE = "whitelist_cache";
+    private static final String SHADOW_TABLE = "whitelist_cache_new";
+    private static final String RETIRED_TABLE = "whitelist_cache_old";
+
+    /** Zeilen pro Commit beim Aufbau der Schattentabelle. */
+    private static final int SHADOW_CHUNK_SIZE = 1_000;
+
+    private final WhitelistPlatform plugin;
+    private final File dbFile;
+
+    /**
+     * Serialisiert {@link #replaceAll} und {@link #replaceBuckets}: beide teilen
+     * sich die Schattentabelle bzw. den Tausch, ein zweiter Resync (geplanter,
+     * Health-Probe, /whitelist resync) würde sonst die Schattentabelle des ersten löschen.
+     */
+    private final ReentrantLock replaceLock = new ReentrantLock();
+
+    /** Zuletzt gelesene bzw. geschriebene sync_meta-Zeile (für /whitelist stats). */
+    private volatile SyncMeta lastSync;
+
+    public LocalFallbackDatabase(WhitelistPlatform plugin) {
+        this.plugin = plugin;
+        String fileName = plugin.getSettings().getString("fallback.file", "fallback-whitelist.db");
+        this.dbFile = new File(plugin.getDataFolder(), fileName);
+    }
+
+    public Connection openConnection() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(plugin.getSettings().getInt("fallback.busy-timeout-ms", 5_000));
+        return config.createConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+    }
+
+    /**
+     * Bringt das Schema per {@link FallbackSchema} auf den neuesten Stand und
+     * räumt Reste eines abgebrochenen Resyncs auf.
+     */
+    public void ensureTable() throws SQLException {
+        replaceLock.lock();
+        try (Connection c = openConnection();
+             Statement st = c.createStatement()) {
+            FallbackSchema.migrate(c, plugin.getLogger());
+
+            st.execute("DROP TABLE IF EXISTS " + SHADOW_TABLE);
+            st.execute("DROP TABLE IF EXISTS " + RETIRED_TABLE);
+        } finally {
+            replaceLock.unlock();
+        }
+        lastSync = readSyncMeta();
+    }
+
+    /**
+     * Ersetzt den kompletten Cache durch einen neuen Stand.
+     *
+     * 1. Der neue Stand wird in {@code whitelist_cache_new} aufgebaut – in
+     *    kleinen Transaktionen, damit andere Schreiber nie lange warten
+     * 2. Zwei {@code ALTER TABLE ... RENAME} in einer Transaktion tauschen die
+     *    Tabellen; das kostet unabhängig von der Grösse gleich viel
+     * 3. Die alte Tabelle wird danach gelöscht
+     *
+     * Zeitpunkt, Zeilenzahl und {@code sourceWatermark} landen in der
+     * Tabelle {@code sync_meta} – in derselben Transaktion wie der Tausch.
+     *
+     * Bricht der Server vorher ab, bleibt der bisherige Cache vollständig
+     * erhalten und die halbfertige Schattentabelle wird beim nächsten Start verworfen.
+     */
+    public void replaceAll(List<WhitelistEntry> entries, String sourceWatermark) throws SQLException {
+        replaceAll(entries, () -> sourceWatermark);
+    }
+
+    /**
+     * Wie {@link #replaceAll(List, String)}, aber für Einträge, die erst
+     * während des Aufbaus eintreffen (z. B. aus einem parallelen Scan). Das
+     * Wasserzeichen wird erst nach dem letzten Eintrag abgefragt.
+     *
+     * Wirft {@code entries} eine RuntimeException, bleibt der bisherige Cache erhalten.
+     */
+    public void replaceAll(Iterable<WhitelistEntry> entries, Supplier<String> sourceWatermark) throws SQLException {
+        replaceLock.lock();
+        try {
+            replaceAllLocked(entries, sourceWatermark);
+        } finally {
+            replaceLock.unlock();
+        }
+    }
+
+    private void replaceAllLocked(Iterable<WhitelistEntry> entries, Supplier<String> sourceWatermark)
+            throws SQLException {
+        long start = System.nanoTime();
+        long count = 0;
+
+        try (Connection c = openConnection();
+             Statement st = c.createStatement()) {
+
+            // 1) Schattentabelle aufbauen
+            st.execute("DROP TABLE IF EXISTS " + SHADOW_TABLE);
+            FallbackSchema.createCacheTable(c, SHADOW_TABLE, Long.toString(System.currentTimeMillis(), 36));
+
+            c.setAutoCommit(false);
+            try (PreparedStatement ins = c.prepareStatement(
+                    "INSERT OR REPLACE INTO " + SHADOW_TABLE + " (uuid, name) VALUES (?, ?)")) {
+                int pending = 0;
+                for (WhitelistEntry entry : entries) {
+                    ins.setString(1, entry.uuid());
+                    ins.setString(2, entry.name());
+                    ins.addBatch();
+                    count++;
+
+                    if (++pending == SHADOW_CHUNK_SIZE) {
+                        ins.executeBatch();
+                        c.commit();
+                        pending = 0;
+                    }
+                }
+                ins.executeBatch();
+                c.commit();
+            } catch (SQLException | RuntimeException ex) {
+                c.rollback();
+                throw ex;
+            }
+            long built = System.nanoTime();
+            String watermark = sourceWatermark.get();
+
+            // 2) Atomarer Tausch
+            try {
+                st.execute("ALTER TABLE " + CACHE_TABLE + " RENAME TO " + RETIRED_TABLE);
+                st.execute("ALTER TABLE " + SHADOW_TABLE + " RENAME TO " + CACHE_TABLE);
+
+                long syncedAt = System.currentTimeMillis();
+                try (PreparedStatement meta = c.prepareStatement(
+                        "INSERT OR REPLACE INTO sync_meta (id, last_sync_at, row_count, source_watermark) "
+                                + "VALUES (1, ?, (SELECT COUNT(*) FROM " + CACHE_TABLE + "), ?)")) {
+                    meta.setLong(1, syncedAt);
+                    meta.setString(2, watermark);
+                    meta.executeUpdate();
+                }
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+            long swapped = System.nanoTime();
+            lastSync = new SyncMeta(System.currentTimeMillis(), count, watermark);
+
+            // 3) Alte Tabelle entsorgen
+            c.setAutoCommit(true);
+            st.execute("DROP TABLE IF EXISTS " + RETIRED_TABLE);
+
+            plugin.getLogger().fine(String.format(Locale.ROOT,
+                    "Fallback cache rebuilt: %d rows, build %dms, swap %dms, cleanup %dms",
+                    count,
+                    (built - start) / 1_000_000L,
+                    (swapped - built) / 1_000_000L,
+                    (System.nanoTime() - swapped) / 1_000_000L));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🌳 Bucket-Abgleich
+    // ------------------------------------------------------------------------
+
+    /**
+     * Digest pro Bucket über den lokalen Cache – gleich berechnet wie
+     * {@link WhitelistStore#bucketDigests(int)} auf der Hauptdatenbank.
+     */
+    public Map<Integer, WhitelistStore.BucketDigest> bucketDigests(int buckets) throws SQLException {
+        long[] rows = new long[buckets];
+        long[] hashes = new long[buckets];
+        try {
+            streamEntries((uuid, name) -> {
+                if (WhitelistStore.isValidEntry(uuid, name)) {
+                    int b = WhitelistStore.bucketOf(uuid, buckets);
+                    rows[b]++;
+                    hashes[b] ^= WhitelistStore.rowHash(uuid, name);
+                }
+            });
+        } catch (IOException ex) {
+            throw new SQLException(ex);
+        }
+
+        Map<Integer, WhitelistStore.BucketDigest> out = new HashMap<>();
+        for (int b = 0; b < buckets; b++) {
+            if (rows[b] > 0) {
+                out.put(b, new WhitelistStore.BucketDigest(rows[b], hashes[b]));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Ersetzt nur die Einträge der angegebenen Buckets durch {@code entries}
+     * und schreibt {@code sync_meta} – alles in einer Transaktion. Die übrigen
+     * Buckets bleiben unberührt.
+     *
+     * @return Anzahl gelöschter lokaler Zeilen
+     */
+    public int replaceBuckets(Collection<Integer> selected, int buckets, List<WhitelistEntry> entries,
+                              String sourceWatermark) throws SQLException {
+        replaceLock.lock();
+        try {
+            return replaceBucketsLocked(new HashSet<>(selected), buckets, entries, sourceWatermark);
+        } finally {
+            replaceLock.unlock();
+        }
+    }
+
+    private int replaceBucketsLocked(Set<Integer> wanted, int buckets, List<WhitelistEntry> entries,
+                                     String sourceWatermark) throws SQLException {
+        try (Connection c = openConnection()) {
+            // Betroffene lokale Zeilen bestimmen (der Cache kennt keine Bucket-Spalte)
+            List<String> stale = new ArrayList<>();
+            try (PreparedStatement ps = c.prepareStatement("SELECT uuid FROM " + CACHE_TABLE);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String uuid = rs.getString(1);
+                    if (uuid == null || wanted.contains(WhitelistStore.bucketOf(uuid, buckets))) {
+                        stale.add(uuid);
+                    }
+                }
+            }
+
+            c.setAutoCommit(false);
+            try (PreparedStatement del = c.prepareStatement("DELETE FROM " + CACHE_TABLE + " WHERE uuid = ?");
+                 PreparedStatement delNull = c.prepareStatement("DELETE FROM " + CACHE_TABLE + " WHERE uuid IS NULL");
+                 PreparedStatement ins = c.prepareStatement(
+                         "INSERT OR REPLACE INTO " + CACHE_TABLE + " (uuid, name) VALUES (?, ?)");
+                 PreparedStatement meta = c.prepareStatement(
+                         "INSERT OR REPLACE INTO sync_meta (id, last_sync_at, row_count, source_watermark) "
+                                 + "VALUES (1, ?, (SELECT COUNT(*) FROM " + CACHE_TABLE + "), ?)")) {
+
+                for (String uuid : stale) {
+                    if (uuid != null) {
+                        del.setString(1, uuid);
+                        del.addBatch();
+                    }
+                }
+                del.executeBatch();
+                if (stale.contains(null)) {
+                    delNull.executeUpdate();
+                }
+
+                for (WhitelistEntry entry : entries) {
+                    ins.setString(1, entry.uuid());
+                    ins.setString(2, entry.name());
+                    ins.addBatch();
+                }
+                ins.executeBatch();
+
+                meta.setLong(1, System.currentTimeMillis());
+                meta.setString(2, sourceWatermark);
+                meta.executeUpdate();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+
+            lastSync = readSyncMeta(c);
+            return stale.size();
+        }
+    }
+
+    /**
+     * Aktualisiert nur Zeitpunkt und Wasserzeichen – wenn der Abgleich keine
+     * abweichenden Buckets gefunden hat.
+     */
+    public void touchSyncMeta(String sourceWatermark) throws SQLException {
+        try (Connection c = openConnection();
+             PreparedStatement meta = c.prepareStatement(
+                     "INSERT OR REPLACE INTO sync_meta (id, last_sync_at, row_count, source_watermark) "
+                             + "VALUES (1, ?, (SELECT COUNT(*) FROM " + CACHE_TABLE + "), ?)")) {
+            meta.setLong(1, System.currentTimeMillis());
+            meta.setString(2, sourceWatermark);
+            meta.executeUpdate();
+            lastSync = readSyncMeta(c);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ⏳ Befristete Einträge
+    // ------------------------------------------------------------------------
+
+    /**
+     * Liest alle lokal bekannten Ablaufzeitpunkte (für den Start ohne MySQL).
+     */
+    public Map<UUID, Long> readExpiries() throws SQLException {
+        Map<UUID, Long> out = new HashMap<>();
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT uuid, expires_at FROM whitelist_expiry");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                try {
+                    out.put(UUID.fromString(rs.getString("uuid")), rs.getLong("expires_at"));
+                } catch (IllegalArgumentException ignored) {
+                    // Ungültige Zeile überspringen
+                }
+            }
+        }
+        return out;
+    }
+
+    public void putExpiry(UUID uuid, long expiresAt) throws SQLException {
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT OR REPLACE INTO whitelist_expiry (uuid, expires_at) VALUES (?, ?)")) {
+            ps.setString(1, uuid.toString());
+            ps.setLong(2, expiresAt);
+            ps.executeUpdate();
+        }
+    }
+
+    public void removeExpiries(Collection<UUID> uuids) throws SQLException {
+        if (uuids.isEmpty()) {
+            return;
+        }
+        try (Connection c = openConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM whitelist_expiry WHERE uuid = ?")) {
+                for (UUID uuid : uuids) {
+                    ps.setString(1, uuid.toString());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Entfernt abgelaufene Einträge samt Ablaufzeitpunkt in einer Transaktion.
+     */
+    public void deleteExpired(Collection<UUID> uuids) throws SQLException {
+        if (uuids.isEmpty()) {
+            return;
+        }
+        try (Connection c = openConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement cache = c.prepareStatement("DELETE FROM " + CACHE_TABLE + " WHERE uuid_norm = ?");
+                 PreparedStatement expiry = c.prepareStatement("DELETE FROM whitelist_expiry WHERE uuid = ?")) {
+                for (UUID uuid : uuids) {
+                    cache.setString(1, uuid.toString().replace("-", ""));
+                    cache.addBatch();
+                    expiry.setString(1, uuid.toString());
+                    expiry.addBatch();
+                }
+                cache.executeBatch();
+                expiry.executeBatch();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Ersetzt alle Ablaufzeitpunkte (nach einem Resync aus MySQL).
+     */
+    public void replaceExpiries(Map<UUID, Long> expiries) throws SQLException {
+        try (Connection c = openConnection()) {
+            c.setAutoCommit(false);
+            try (Statement clear = c.createStatement();
+                 PreparedStatement ps = c.prepareStatement(
+                         "INSERT OR REPLACE INTO whitelist_expiry (uuid, expires_at) VALUES (?, ?)")) {
+                clear.executeUpdate("DELETE FROM whitelist_expiry");
+                for (Map.Entry<UUID, Long> entry : expiries.entrySet()) {
+                    ps.setString(1, entry.getKey().toString());
+                    ps.setLong(2, entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    public boolean isWhitelisted(UUID uuid, String name) throws SQLException {
+        String uuidDashed = uuid.toString();
+        String uuidRaw = uuidDashed.replace("-", "");
+
+        // Index-Seek über die normalisierte UUID (idx ... uuid_norm)
+        String sqlByUuid = """
+                SELECT name FROM whitelist_cache
+                WHERE uuid_norm = ?
+                LIMIT 1
+                """;
+
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(sqlByUuid)) {
+            ps.setString(1, uuidRaw);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    // Namen lokal aktuell halten (nur wenn er sich geändert hat)
+                    if (!name.equals(rs.getString("name"))) {
+                        try (PreparedStatement up = c.prepareStatement(
+                                "UPDATE whitelist_cache SET name = ? WHERE uuid_norm = ?")) {
+                            up.setString(1, name);
+                            up.setString(2, uuidRaw);
+                            up.executeUpdate();
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+
+        String sqlByName = """
+                SELECT 1 FROM whitelist_cache
+                WHERE name = ? COLLATE NOCASE
+                LIMIT 1
+                """;
+
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(sqlByName)) {
+            ps.setString(1, name);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    // UUID nachziehen
+                    try (PreparedStatement up = c.prepareStatement(
+                            "UPDATE whitelist_cache SET uuid = ? WHERE name = ? COLLATE NOCASE")) {
+                        up.setString(1, uuidDashed);
+                        up.setString(2, name);
+                        up.executeUpdate();
+                    }
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public void upsert(UUID uuid, String name) throws SQLException {
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT OR REPLACE INTO whitelist_cache (uuid, name) VALUES (?, ?)")) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, name);
+            ps.executeUpdate();
+        }
+    }
+
+    public void upsert(String uuid, String name) throws SQLException {
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT OR REPLACE INTO whitelist_cache (uuid, name) VALUES (?, ?)")) {
+            ps.setString(1, uuid);
+            ps.setString(2, name);
+            ps.executeUpdate();
+        }
+    }
+
+    public void upsertAll(List<WhitelistEntry> entries) throws SQLException {
+        try (Connection c = openConnection()) {
+            c.setAutoCommit(false);
+
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT OR REPLACE INTO whitelist_cache (uuid, name) VALUES (?, ?)")) {
+                for (WhitelistEntry entry : entries) {
+                    ps.setString(1, entry.uuid());
+                    ps.setString(2, entry.name());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            c.commit();
+        }
+    }
+
+    /**
+     * @return UUID des lokal bekannten Eintrags mit diesem Namen oder {@code null}
+     */
+    public UUID findUuidByName(String name) throws SQLException {
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT uuid FROM whitelist_cache WHERE name = ? COLLATE NOCASE LIMIT 1")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Uuids.parse(rs.getString("uuid")) : null;
+            }
+        }
+    }
+
+    public Set<String> findExistingNames(Collection<String> names) throws SQLException {
+        Set<String> out = new HashSet<>();
+        if (names.isEmpty()) {
+            return out;
+        }
+
+        String sql = "SELECT name FROM whitelist_cache WHERE name COLLATE NOCASE IN ("
+                + String.join(",", Collections.nCopies(names.size(), "?")) + ")";
+
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            for (String name : names) {
+                ps.setString(i++, name);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(rs.getString("name").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return out;
+    }
+
+    public int deleteByUUID(UUID uuid) throws SQLException {
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement("DELETE FROM whitelist_cache WHERE uuid_norm = ?")) {
+            ps.setString(1, uuid.toString().replace("-", ""));
+            return ps.executeUpdate();
+        }
+    }
+
+    public int deleteByName(String name) throws SQLException {
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement("DELETE FROM whitelist_cache WHERE name = ? COLLATE NOCASE")) {
+            ps.setString(1, name);
+            return ps.executeUpdate();
+        }
+    }
+
+    public List<String> listWhitelistedNames() throws SQLException {
+        List<String> out = new ArrayList<>();
+
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement("""
+                     SELECT DISTINCT name
+                     FROM whitelist_cache
+                     WHERE name IS NOT NULL AND name <> ''
+                     ORDER BY name COLLATE NOCASE
+                     """);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                out.add(rs.getString("name"));
+            }
+        }
+
+        return out;
+    }
+
+    public long streamEntries(WhitelistService.EntryVisitor visitor) throws SQLException, IOException {
+        long rows = 0;
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT uuid, name FROM whitelist_cache",
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(500);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    visitor.accept(rs.getString("uuid"), rs.getString("name"));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    public List<String> listWhitelistedNamesPage(String afterName, String prefix, int limit) throws SQLException {
+        boolean filtered = prefix != null && !prefix.isBlank();
+        String sql = "SELECT DISTINCT name FROM whitelist_cache "
+                + "WHERE name IS NOT NULL AND name <> ''"
+                + (afterName != null ? " AND name > ? COLLATE NOCASE" : "")
+                + (filtered ? " AND name LIKE ? ESCAPE '!'" : "")
+                + " ORDER BY name COLLATE NOCASE LIMIT ?";
+
+        List<String> out = new ArrayList<>();
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            if (afterName != null) {
+                ps.setString(i++, afterName);
+            }
+            if (filtered) {
+                ps.setString(i++, JdbcWhitelistStore.likePrefix(prefix));
+            }
+            ps.setInt(i, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(rs.getString("name"));
+                }
+            }
+        }
+        return out;
+    }
+
+    public String findNameAtOffset(String prefix, int offset) throws SQLException {
+        boolean filtered = prefix != null && !prefix.isBlank();
+        String sql = "SELECT DISTINCT name FROM whitelist_cache "
+                + "WHERE name IS NOT NULL AND name <> ''"
+                + (filtered ? " AND name LIKE ? ESCAPE '!'" : "")
+                + " ORDER BY name COLLATE NOCASE LIMIT 1 OFFSET ?";
+
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            if (filtered) {
+                ps.setString(i++, JdbcWhitelistStore.likePrefix(prefix));
+            }
+            ps.setInt(i, offset);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("name") : null;
+            }
+        }
+    }
+
+    public int countWhitelistedNames(String prefix) throws SQLException {
+        boolean filtered = prefix != null && !prefix.isBlank();
+        String sql = "SELECT COUNT(DISTINCT name) FROM whitelist_cache "
+                + "WHERE name IS NOT NULL AND name <> ''"
+                + (filtered ? " AND name LIKE ? ESCAPE '!'" : "");
+
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            if (filtered) {
+                ps.setString(1, JdbcWhitelistStore.likePrefix(prefix));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    public int countWhitelistedAmong(Collection<UUID> uuids) throws SQLException {
+        if (uuids.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(uuids.size(), "?"));
+        try (Connection c = openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT COUNT(*) FROM whitelist_cache WHERE uuid_norm IN (" + placeholders + ")")) {
+            int i = 1;
+            for (UUID uuid : uuids) {
+                ps.setString(i++, uuid.toString().replace("-", ""));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Liefert die Metadaten des letzten erfolgreichen Resyncs oder {@code null}.
+     */
+    public SyncMeta readSyncMeta() throws SQLException {
+        try (Connection c = openConnection()) {
+            return readSyncMeta(c);
+        }
+    }
+
+    private static SyncMeta readSyncMeta(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                     "SELECT last_sync_at, row_count, source_watermark FROM sync_meta WHERE id = 1");
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            return new SyncMeta(rs.getLong("last_sync_at"), rs.getLong("row_count"), rs.getString("source_watermark"));
+        }
+    }
+
+    public SyncMeta getLastSync() {
+        return lastSync;
+    }
+
+    public record WhitelistEntry(String uuid, String name) {}
+
+    public record SyncMeta(long lastSyncAt, long rowCount, String sourceWatermark) {}
+}
\ No newline at end of file
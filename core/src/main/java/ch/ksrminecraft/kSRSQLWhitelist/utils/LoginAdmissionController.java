@@ -0,0 +1,147 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🚦 LoginAdmissionController
+ *  ---------------------------
+ *  Adaptive Zugangskontrolle für MySQL-Abfragen während des Logins.
+ *
+ *  Problem:
+ *   Ist MySQL langsam (aber nicht down), stauen sich alle
+ *   AsyncPlayerPreLoginEvent-Threads vor der Datenbank und machen die
+ *   Situation mit jeder weiteren Abfrage schlimmer.
+ *
+ *  Lösung (AIMD):
+ *   - Es dürfen nur {@code limit} Login-Abfragen gleichzeitig an MySQL gehen
+ *   - Jede schnelle, erfolgreiche Abfrage erhöht das Limit additiv (+1 pro Fenster)
+ *   - Jede langsame oder fehlgeschlagene Abfrage senkt es multiplikativ
+ *   - Logins über dem Limit werden aus der lokalen Fallback-Datenbank beantwortet
+ *   - Ist der gesamte Rückstau extrem, wird der Login mit "Server busy" abgelehnt
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class LoginAdmissionController {
+
+    private final boolean enabled;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final int rejectBacklog;
+
+    /** Aktuelles adaptives Limit; nur unter {@code this} verändert. */
+    private volatile double limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public LoginAdmissionController(WhitelistPlatform plugin) {
+        this.enabled = plugin.getSettings().getBoolean("admission.enabled", true);
+        this.minLimit = Math.max(1, plugin.getSettings().getInt("admission.min-limit", 1));
+        this.maxLimit = Math.max(minLimit, plugin.getSettings().getInt("admission.max-limit", 16));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(1L, plugin.getSettings().getLong("admission.target-latency-ms", 250L)));
+        this.backoffRatio = Math.min(0.99, Math.max(0.1,
+                plugin.getSettings().getDouble("admission.backoff-ratio", 0.75)));
+        this.rejectBacklog = Math.max(1, plugin.getSettings().getInt("admission.reject-backlog", 200));
+
+        int initial = plugin.getSettings().getInt("admission.initial-limit", 8);
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initial));
+    }
+
+    // ------------------------------------------------------------------------
+    // 📥 Gesamter Login-Rückstau
+    // ------------------------------------------------------------------------
+
+    /**
+     * Meldet einen neuen Login an. Liefert {@code false}, wenn der Rückstau
+     * so gross ist, dass der Login sofort mit "Server busy" abgelehnt werden soll.
+     * In jedem Fall muss danach {@link #leave()} aufgerufen werden.
+     */
+    public boolean enter() {
+        int current = backlog.incrementAndGet();
+        if (enabled && current > rejectBacklog) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void leave() {
+        backlog.decrementAndGet();
+    }
+
+    // ------------------------------------------------------------------------
+    // 🗄️ MySQL-Slots
+    // ------------------------------------------------------------------------
+
+    /**
+     * Versucht, einen MySQL-Slot für eine Login-Prüfung zu reservieren.
+     *
+     * @return {@code true}, wenn die Abfrage an MySQL gehen darf;
+     *         {@code false}, wenn lokal beantwortet werden soll
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            inFlight.incrementAndGet();
+            admitted.increment();
+            return true;
+        }
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gibt einen MySQL-Slot frei und passt das Limit anhand der gemessenen
+     * Latenz an.
+     *
+     * @param latencyNanos Dauer der Abfrage
+     * @param success      {@code false}, wenn MySQL einen Fehler geliefert hat
+     */
+    public void release(long latencyNanos, boolean success) {
+        inFlight.decrementAndGet();
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!success || latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public String format() {
+        return String.format(Locale.ROOT,
+                "limit %.1f (%d-%d), in-flight %d, backlog %d, admitted %d, shed %d, rejected %d",
+                limit, (int) minLimit, (int) maxLimit, inFlight.get(), backlog.get(),
+                admitted.sum(), shed.sum(), rejected.sum());
+    }
+}
@@ -0,0 +1,185 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  📦 LoginLookupBatcher
+ *  ---------------------
+ *  Bündelt gleichzeitige Login-Prüfungen zu einer einzigen MySQL-Abfrage.
+ *
+ *  Ablauf:
+ *   - Die erste Prüfung eines Zeitfensters wird zum "Leader" und wartet
+ *     {@code batching.window-ms} (oder bis {@code batching.max-batch-size} erreicht ist)
+ *   - Alle Prüfungen, die in dieser Zeit eintreffen, landen im selben Fenster
+ *   - Der Leader löst das ganze Fenster mit einem {@code WHERE uuid IN (...)} auf
+ *   - Mehrere Prüfungen für dieselbe UUID (z. B. Reconnect-Spam) teilen sich
+ *     ein einziges Ergebnis
+ *
+ *  Es werden keine zusätzlichen Threads benötigt: Der Leader ist der ohnehin
+ *  blockierende Login-Thread.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class LoginLookupBatcher {
+
+    private final WhitelistService service;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long waitTimeoutMs;
+
+    private final Object lock = new Object();
+    private Window current;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    public LoginLookupBatcher(WhitelistPlatform plugin, WhitelistService service) {
+        this.service = service;
+        this.enabled = plugin.getSettings().getBoolean("batching.enabled", true);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0L, plugin.getSettings().getLong("batching.window-ms", 5L)));
+        this.maxBatchSize = Math.max(1, plugin.getSettings().getInt("batching.max-batch-size", 100));
+        this.waitTimeoutMs = Math.max(100L, plugin.getSettings().getLong("batching.wait-timeout-ms", 10_000L));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prüft die UUID im aktuellen Zeitfenster. Blockiert, bis das Fenster
+     * aufgelöst wurde.
+     */
+    public boolean lookup(UUID uuid, String name) throws SQLException {
+        lookups.increment();
+
+        Window window;
+        CompletableFuture<Boolean> result;
+        boolean leader = false;
+
+        synchronized (lock) {
+            if (current == null) {
+                current = new Window();
+                leader = true;
+            }
+            window = current;
+
+            Pending pending = window.entries.get(uuid);
+            if (pending == null) {
+                pending = new Pending(name, new CompletableFuture<>());
+                window.entries.put(uuid, pending);
+                if (window.entries.size() >= maxBatchSize) {
+                    lock.notifyAll();
+                }
+            } else {
+                coalesced.increment();
+            }
+            result = pending.future;
+
+            if (leader) {
+                collect(window);
+            }
+        }
+
+        if (leader) {
+            flush(window);
+        }
+
+        return await(result);
+    }
+
+    /**
+     * Wartet (unter {@link #lock}) bis das Fenster voll oder abgelaufen ist
+     * und schliesst es danach für neue Prüfungen.
+     */
+    private void collect(Window window) {
+        long deadline = System.nanoTime() + windowNanos;
+        try {
+            while (window.entries.size() < maxBatchSize) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (current == window) {
+                current = null;
+            }
+        }
+    }
+
+    private void flush(Window window) {
+        batches.increment();
+        largestBatch.accumulateAndGet(window.entries.size(), Math::max);
+
+        Map<UUID, String> logins = new LinkedHashMap<>();
+        window.entries.forEach((uuid, pending) -> logins.put(uuid, pending.name));
+
+        try {
+            Map<UUID, Boolean> resolved = service.isWhitelistedBatch(logins);
+            window.entries.forEach((uuid, pending) ->
+                    pending.future.complete(resolved.getOrDefault(uuid, false)));
+        } catch (Throwable t) {
+            window.entries.values().forEach(pending -> pending.future.completeExceptionally(t));
+        }
+    }
+
+    private boolean await(CompletableFuture<Boolean> result) throws SQLException {
+        try {
+            return result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sql) {
+                throw sql;
+            }
+            throw new SQLException("Batched whitelist lookup failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new SQLException("Batched whitelist lookup timed out after " + waitTimeoutMs + "ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for batched whitelist lookup", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public String format() {
+        long total = lookups.sum();
+        long queries = batches.sum();
+        double avg = queries == 0 ? 0.0 : (double) (total - coalesced.sum()) / queries;
+        return String.format(Locale.ROOT,
+                "%s, lookups %d, queries %d (saved %d), coalesced %d, avg batch %.1f, max batch %d",
+                enabled ? "enabled" : "disabled", total, queries, Math.max(0, total - queries),
+                coalesced.sum(), avg, largestBatch.get());
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Interne Datenklassen
+    // ------------------------------------------------------------------------
+
+    private static final class Window {
+        private final Map<UUID, Pending> entries = new LinkedHashMap<>();
+    }
+
+    private record Pending(String name, CompletableFuture<Boolean> future) {}
+}
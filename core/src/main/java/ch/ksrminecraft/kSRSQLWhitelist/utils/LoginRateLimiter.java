@@ -0,0 +1,166 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.net.InetAddress;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🛑 LoginRateLimiter
+ *  -------------------
+ *  Begrenzt Verbindungsversuche pro IP-Adresse und pro UUID, bevor beim
+ *  Login irgendeine Datenbank- oder Sperr-Abfrage läuft. Reconnect-Schleifen
+ *  und Bot-Fluten erzeugen so keine MySQL-Last mehr.
+ *
+ *  - Je Schlüssel ein lock-freier {@link TokenBucket}; die Maps sind
+ *    {@link ConcurrentHashMap}s (intern gestreift), ein Treffer kostet
+ *    also kein Lock.
+ *  - Zuerst wird die IP geprüft, dann die UUID. Wer an der IP scheitert,
+ *    verbraucht kein UUID-Token.
+ *  - Volle Buckets verhalten sich wie neue und werden regelmässig
+ *    verworfen. Zusätzlich ist die Anzahl Schlüssel je Map auf
+ *    {@code login-rate-limit.max-entries} begrenzt; darüber werden neue
+ *    Schlüssel nicht mehr begrenzt (die Zugangskontrolle schützt MySQL
+ *    dann weiterhin).
+ *
+ *  Hinter einem Proxy ohne IP-Weiterleitung teilen sich alle Spieler eine
+ *  Adresse – dann {@code login-rate-limit.per-ip.enabled: false} setzen.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class LoginRateLimiter {
+
+    /**
+     * Ergebnis einer Prüfung.
+     */
+    public enum Verdict {
+        ALLOWED, LIMITED_BY_IP, LIMITED_BY_UUID
+    }
+
+    private final WhitelistPlatform plugin;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final Limit<InetAddress> byAddress;
+    private final Limit<UUID> byUUID;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    public LoginRateLimiter(WhitelistPlatform plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getSettings().getBoolean("login-rate-limit.enabled", true);
+        this.maxEntries = Math.max(100, plugin.getSettings().getInt("login-rate-limit.max-entries", 50_000));
+        this.byAddress = new Limit<>("login-rate-limit.per-ip", 0.5, 5);
+        this.byUUID = new Limit<>("login-rate-limit.per-uuid", 0.2, 3);
+    }
+
+    /**
+     * Startet das regelmässige Verwerfen voller Buckets.
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long sweepSeconds = Math.max(1L, plugin.getSettings().getLong("login-rate-limit.sweep-interval-seconds", 30L));
+        plugin.getExecutor().tickAtFixedRate(this::sweep, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔐 Prüfen
+    // ------------------------------------------------------------------------
+
+    /**
+     * @param address Adresse des Clients (darf {@code null} sein)
+     */
+    public Verdict tryAcquire(InetAddress address, UUID uuid) {
+        if (!enabled) {
+            return Verdict.ALLOWED;
+        }
+        if (address != null && !byAddress.tryAcquire(address)) {
+            return Verdict.LIMITED_BY_IP;
+        }
+        if (uuid != null && !byUUID.tryAcquire(uuid)) {
+            return Verdict.LIMITED_BY_UUID;
+        }
+        allowed.increment();
+        return Verdict.ALLOWED;
+    }
+
+    private void sweep() {
+        byAddress.sweep();
+        byUUID.sweep();
+    }
+
+    // ------------------------------------------------------------------------
+    // 🪣 Buckets je Schlüsseltyp
+    // ------------------------------------------------------------------------
+
+    private final class Limit<K> {
+
+        private final boolean active;
+        private final double ratePerSecond;
+        private final int burst;
+
+        private final Map<K, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final LongAdder shed = new LongAdder();
+
+        Limit(String path, double defaultRate, int defaultBurst) {
+            double rate = plugin.getSettings().getDouble(path + ".rate-per-second", defaultRate);
+            this.active = plugin.getSettings().getBoolean(path + ".enabled", true) && rate > 0;
+            this.ratePerSecond = rate;
+            this.burst = Math.max(1, plugin.getSettings().getInt(path + ".burst", defaultBurst));
+        }
+
+        boolean tryAcquire(K key) {
+            if (!active) {
+                return true;
+            }
+
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxEntries) {
+                    untracked.increment();
+                    return true;
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(ratePerSecond, burst));
+            }
+
+            if (bucket.tryAcquire()) {
+                return true;
+            }
+            shed.increment();
+            return false;
+        }
+
+        void sweep() {
+            buckets.values().removeIf(TokenBucket::isFull);
+        }
+
+        String format() {
+            if (!active) {
+                return "off";
+            }
+            return String.format(Locale.ROOT, "%.2f/s burst %d, tracked %d, shed %d",
+                    ratePerSecond, burst, buckets.size(), shed.sum());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public String format() {
+        if (!enabled) {
+            return "disabled";
+        }
+        return String.format(Locale.ROOT, "per ip: %s | per uuid: %s | allowed %d, untracked %d",
+                byAddress.format(), byUUID.format(), allowed.sum(), untracked.sum());
+    }
+}
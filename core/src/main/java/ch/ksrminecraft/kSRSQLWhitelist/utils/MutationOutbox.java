@@ -0,0 +1,551 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  📮 MutationOutbox
+ *  -----------------
+ *  Dauerhafte Warteschlange für Whitelist-Änderungen (add/remove).
+ *
+ *  Ablauf:
+ *   - Eine Änderung wird in EINER SQLite-Transaktion in den lokalen Cache
+ *     und in die Tabelle {@code whitelist_outbox} geschrieben → der Befehl
+ *     kehrt sofort zurück, auch wenn MySQL langsam oder down ist
+ *   - Ein einzelner Hintergrund-Worker (Lane "outbox") überträgt die
+ *     Einträge in Reihenfolge (seq) und in Batches nach MySQL
+ *   - Schlägt das fehl, bleibt alles in der Outbox und wird mit
+ *     exponentiellem Backoff erneut versucht
+ *   - Lehnt MySQL einen Eintrag selbst ab (Datenfehler statt
+ *     Verbindungsfehler), wird er nach {@code outbox.max-attempts}
+ *     Versuchen nach {@code whitelist_outbox_dead} verschoben, damit er
+ *     die nachfolgenden Änderungen nicht blockiert
+ *   - Bei {@code handleMysqlRecovery()} wird sofort nachgezogen
+ *
+ *  Da die Outbox in derselben Datei wie der Cache liegt, überlebt sie
+ *  auch Server-Neustarts.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class MutationOutbox {
+
+    /**
+     * Art der Änderung.
+     */
+    public enum Op {
+        UPSERT,
+        DELETE_UUID,
+        DELETE_NAME
+    }
+
+    /**
+     * Ein Eintrag der Outbox.
+     *
+     * @param expiresAt Nur bei {@link Op#UPSERT}: Ablauf eines befristeten
+     *                  Eintrags, {@code 0} = unbefristet
+     */
+    public record Mutation(long seq, Op op, String uuid, String name, long expiresAt) {}
+
+    /** Nutzen die Indizes auf uuid_norm bzw. name (siehe {@link FallbackSchema}). */
+    private static final String DELETE_CACHE_BY_UUID =
+            "DELETE FROM whitelist_cache WHERE uuid_norm = lower(replace(?, '-', ''))";
+    private static final String DELETE_CACHE_BY_NAME =
+            "DELETE FROM whitelist_cache WHERE name = ? COLLATE NOCASE";
+
+    private final WhitelistPlatform plugin;
+    private final WhitelistService service;
+    private final LocalFallbackDatabase localDb;
+
+    private final int batchSize;
+    private final long retryBaseMs;
+    private final long retryMaxMs;
+    private final int maxAttempts;
+
+    /** Serialisiert das Übertragen (Hintergrund-Worker und Resync). */
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AtomicBoolean workerRunning = new AtomicBoolean();
+    private final AtomicBoolean retryScheduled = new AtomicBoolean();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder drained = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public MutationOutbox(WhitelistPlatform plugin, WhitelistService service, LocalFallbackDatabase localDb) {
+        this.plugin = plugin;
+        this.service = service;
+        this.localDb = localDb;
+        this.batchSize = Math.max(1, plugin.getSettings().getInt("outbox.batch-size", 200));
+        this.retryBaseMs = Math.max(100L, plugin.getSettings().getLong("outbox.retry-base-ms", 1_000L));
+        this.retryMaxMs = Math.max(retryBaseMs, plugin.getSettings().getLong("outbox.retry-max-ms", 60_000L));
+        this.maxAttempts = Math.max(1, plugin.getSettings().getInt("outbox.max-attempts", 5));
+    }
+
+    /**
+     * Startet den periodischen Worker. Offene Einträge aus einem früheren
+     * Serverlauf werden dabei mitgezählt und übertragen.
+     */
+    public void start() {
+        try {
+            pending.set(countPending());
+        } catch (SQLException e) {
+            plugin.getLogger().warning("[KSR-SQL-Whitelist] Could not read whitelist outbox: " + e.getMessage());
+        }
+
+        long intervalSeconds = Math.max(1L, plugin.getSettings().getLong("outbox.drain-interval-seconds", 30L));
+        plugin.getExecutor().scheduleAtFixedRate(PluginExecutor.Lane.OUTBOX, () -> {
+            if (pending.get() > 0 && !retryScheduled.get()) {
+                requestDrain();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+
+        if (pending.get() > 0) {
+            plugin.getLogger().info("[KSR-SQL-Whitelist] " + pending.get() + " pending whitelist change(s) in outbox.");
+            requestDrain();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📥 Änderungen einreihen
+    // ------------------------------------------------------------------------
+
+    public void enqueueUpserts(List<LocalFallbackDatabase.WhitelistEntry> entries) throws SQLException {
+        enqueueUpserts(entries, 0L);
+    }
+
+    /**
+     * @param expiresAt Ablaufzeitpunkt (Epoch-Millis) für alle Einträge,
+     *                  {@code 0} = unbefristet
+     */
+    public void enqueueUpserts(List<LocalFallbackDatabase.WhitelistEntry> entries, long expiresAt) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (Connection c = localDb.openConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement cache = c.prepareStatement(
+                    "INSERT OR REPLACE INTO whitelist_cache (uuid, name) VALUES (?, ?)");
+                 PreparedStatement outbox = c.prepareStatement(
+                         "INSERT INTO whitelist_outbox (op, uuid, name, created_at, expires_at) VALUES (?, ?, ?, ?, ?)")) {
+                long now = System.currentTimeMillis();
+                for (LocalFallbackDatabase.WhitelistEntry entry : entries) {
+                    cache.setString(1, entry.uuid());
+                    cache.setString(2, entry.name());
+                    cache.addBatch();
+
+                    outbox.setString(1, Op.UPSERT.name());
+                    outbox.setString(2, entry.uuid());
+                    outbox.setString(3, entry.name());
+                    outbox.setLong(4, now);
+                    outbox.setLong(5, Math.max(0L, expiresAt));
+                    outbox.addBatch();
+                }
+                cache.executeBatch();
+                outbox.executeBatch();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+
+        enqueued(entries.size());
+    }
+
+    /**
+     * Entfernt die UUID aus dem lokalen Cache und reiht die Löschung für MySQL ein.
+     *
+     * @return Anzahl lokal entfernter Einträge
+     */
+    public int enqueueDeleteByUUID(UUID uuid) throws SQLException {
+        return enqueueDelete(Op.DELETE_UUID, DELETE_CACHE_BY_UUID, uuid.toString());
+    }
+
+    /**
+     * Entfernt den Namen aus dem lokalen Cache und reiht die Löschung für MySQL ein.
+     *
+     * @return Anzahl lokal entfernter Einträge
+     */
+    public int enqueueDeleteByName(String name) throws SQLException {
+        return enqueueDelete(Op.DELETE_NAME, DELETE_CACHE_BY_NAME, name);
+    }
+
+    private int enqueueDelete(Op op, String cacheSql, String key) throws SQLException {
+        int affected;
+        try (Connection c = localDb.openConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement cache = c.prepareStatement(cacheSql);
+                 PreparedStatement outbox = c.prepareStatement(
+                         "INSERT INTO whitelist_outbox (op, uuid, name, created_at) VALUES (?, ?, ?, ?)")) {
+                cache.setString(1, key);
+                affected = cache.executeUpdate();
+
+                outbox.setString(1, op.name());
+                outbox.setString(2, op == Op.DELETE_UUID ? key : null);
+                outbox.setString(3, op == Op.DELETE_NAME ? key : null);
+                outbox.setLong(4, System.currentTimeMillis());
+                outbox.executeUpdate();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+
+        enqueued(1);
+        return affected;
+    }
+
+    private void enqueued(int count) {
+        enqueued.add(count);
+        pending.addAndGet(count);
+        requestDrain();
+    }
+
+    // ------------------------------------------------------------------------
+    // 📤 Nach MySQL übertragen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Stösst den Hintergrund-Worker an. Läuft er bereits, arbeitet er die neuen
+     * Einträge in seiner nächsten Runde mit ab.
+     */
+    public void requestDrain() {
+        drainRequested.set(true);
+        if (!workerRunning.compareAndSet(false, true)) {
+            return;
+        }
+
+        plugin.getExecutor().run(PluginExecutor.Lane.OUTBOX, this::runWorker).exceptionally(ex -> {
+            workerRunning.set(false);
+            scheduleRetry();
+            return null;
+        });
+    }
+
+    private void runWorker() {
+        try {
+            while (drainRequested.getAndSet(false)) {
+                drainLock.lock();
+                try {
+                    drainBatches();
+                } catch (SQLException ex) {
+                    failedAttempts.increment();
+                    consecutiveFailures.incrementAndGet();
+                    // Datenfehler wurden bereits pro Eintrag gemeldet; MySQL selbst ist erreichbar
+                    if (isConnectivityError(ex)) {
+                        plugin.handleMysqlFailure("Could not flush whitelist outbox to MySQL, will retry.", ex);
+                    }
+                    scheduleRetry();
+                    return;
+                } finally {
+                    drainLock.unlock();
+                }
+            }
+        } finally {
+            workerRunning.set(false);
+            // Während des Abschlusses eingetroffene Änderungen nicht verlieren
+            if (drainRequested.get() && !retryScheduled.get()) {
+                requestDrain();
+            }
+        }
+    }
+
+    /**
+     * Überträgt alle offenen Einträge sofort im aufrufenden Thread.
+     * Wird vor einem Resync verwendet, damit MySQL bereits alle lokalen
+     * Änderungen kennt.
+     */
+    public void drainNow() throws SQLException {
+        drainLock.lock();
+        try {
+            drainBatches();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drainBatches() throws SQLException {
+        while (true) {
+            List<Mutation> batch = loadBatch();
+            if (batch.isEmpty()) {
+                pending.set(0);
+                consecutiveFailures.set(0);
+                return;
+            }
+
+            try {
+                service.applyMutations(batch);
+            } catch (SQLException ex) {
+                if (isConnectivityError(ex)) {
+                    markAttempt(batch, ex);
+                    throw ex;
+                }
+                // Der Batch ist zurückgerollt: einzeln übertragen, um den abgelehnten Eintrag zu finden
+                drainOneByOne(batch);
+                continue;
+            }
+
+            long lastSeq = batch.get(batch.size() - 1).seq();
+            removeUpTo(lastSeq);
+
+            drained.add(batch.size());
+            pending.updateAndGet(p -> Math.max(0, p - batch.size()));
+            consecutiveFailures.set(0);
+            plugin.handleMysqlRecovery();
+        }
+    }
+
+    /**
+     * Überträgt den Batch Eintrag für Eintrag in Reihenfolge. Beim ersten
+     * abgelehnten Eintrag wird abgebrochen (die Reihenfolge bleibt erhalten),
+     * ausser er hat {@code outbox.max-attempts} erreicht und wird verschoben.
+     */
+    private void drainOneByOne(List<Mutation> batch) throws SQLException {
+        for (Mutation m : batch) {
+            try {
+                service.applyMutations(List.of(m));
+            } catch (SQLException ex) {
+                int attempts = markAttempt(m, ex);
+                if (isConnectivityError(ex) || attempts < maxAttempts) {
+                    plugin.getLogger().warning("[KSR-SQL-Whitelist] MySQL rejected outbox change #" + m.seq()
+                            + " (" + m.op() + ", attempt " + attempts + "/" + maxAttempts + "): " + ex.getMessage());
+                    throw ex;
+                }
+                moveToDeadLetter(m);
+                deadLettered.increment();
+                plugin.getLogger().severe("[KSR-SQL-Whitelist] Outbox change #" + m.seq() + " (" + m.op()
+                        + " uuid=" + m.uuid() + ", name=" + m.name() + ") rejected " + attempts
+                        + " times, moved to whitelist_outbox_dead: " + ex.getMessage());
+            }
+            removeUpTo(m.seq());
+            drained.increment();
+            pending.updateAndGet(p -> Math.max(0, p - 1));
+        }
+        consecutiveFailures.set(0);
+        plugin.handleMysqlRecovery();
+    }
+
+    /**
+     * Verbindungsfehler (SQLState-Klasse 08, transiente oder
+     * wiederherstellbare Fehler) gegenüber Fehlern, mit denen MySQL einen
+     * Eintrag selbst ablehnt.
+     */
+    static boolean isConnectivityError(SQLException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientException
+                    || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleRetry() {
+        if (!retryScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        int failures = Math.min(20, Math.max(1, consecutiveFailures.get()));
+        long delay = Math.min(retryMaxMs, retryBaseMs << Math.min(16, failures - 1));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+
+        plugin.getExecutor().schedule(PluginExecutor.Lane.OUTBOX, () -> {
+            retryScheduled.set(false);
+            requestDrain();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔁 Nach Resync
+    // ------------------------------------------------------------------------
+
+    /**
+     * Spielt alle noch nicht übertragenen Änderungen erneut in den lokalen
+     * Cache ein. Nötig, wenn der Cache gerade komplett aus MySQL ersetzt wurde,
+     * MySQL die Änderungen aber noch nicht kennt.
+     */
+    public void reapplyPendingToCache() throws SQLException {
+        List<Mutation> all = new ArrayList<>();
+        try (Connection c = localDb.openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT seq, op, uuid, name, expires_at FROM whitelist_outbox ORDER BY seq");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                all.add(read(rs));
+            }
+        }
+        if (all.isEmpty()) {
+            return;
+        }
+
+        try (Connection c = localDb.openConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement upsert = c.prepareStatement(
+                    "INSERT OR REPLACE INTO whitelist_cache (uuid, name) VALUES (?, ?)");
+                 PreparedStatement delUUID = c.prepareStatement(DELETE_CACHE_BY_UUID);
+                 PreparedStatement delName = c.prepareStatement(DELETE_CACHE_BY_NAME)) {
+                for (Mutation m : all) {
+                    switch (m.op()) {
+                        case UPSERT -> {
+                            upsert.setString(1, m.uuid());
+                            upsert.setString(2, m.name());
+                            upsert.executeUpdate();
+                        }
+                        case DELETE_UUID -> {
+                            delUUID.setString(1, m.uuid());
+                            delUUID.executeUpdate();
+                        }
+                        case DELETE_NAME -> {
+                            delName.setString(1, m.name());
+                            delName.executeUpdate();
+                        }
+                    }
+                }
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+
+        plugin.getLogger().info("[KSR-SQL-Whitelist] Re-applied " + all.size()
+                + " pending outbox change(s) to the local cache.");
+    }
+
+    // ------------------------------------------------------------------------
+    // 🗄️ SQLite-Zugriff
+    // ------------------------------------------------------------------------
+
+    private List<Mutation> loadBatch() throws SQLException {
+        List<Mutation> out = new ArrayList<>();
+        try (Connection c = localDb.openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT seq, op, uuid, name, expires_at FROM whitelist_outbox ORDER BY seq LIMIT ?")) {
+            ps.setInt(1, batchSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(read(rs));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Mutation read(ResultSet rs) throws SQLException {
+        return new Mutation(rs.getLong("seq"), Op.valueOf(rs.getString("op")),
+                rs.getString("uuid"), rs.getString("name"), rs.getLong("expires_at"));
+    }
+
+    private void removeUpTo(long seq) throws SQLException {
+        try (Connection c = localDb.openConnection();
+             PreparedStatement ps = c.prepareStatement("DELETE FROM whitelist_outbox WHERE seq <= ?")) {
+            ps.setLong(1, seq);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * @return Anzahl Versuche inklusive diesem
+     */
+    private int markAttempt(Mutation m, SQLException cause) throws SQLException {
+        try (Connection c = localDb.openConnection()) {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "UPDATE whitelist_outbox SET attempts = attempts + 1, last_error = ? WHERE seq = ?")) {
+                ps.setString(1, cause.getMessage());
+                ps.setLong(2, m.seq());
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement("SELECT attempts FROM whitelist_outbox WHERE seq = ?")) {
+                ps.setLong(1, m.seq());
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        }
+    }
+
+    private void moveToDeadLetter(Mutation m) throws SQLException {
+        try (Connection c = localDb.openConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement copy = c.prepareStatement(
+                    "INSERT OR REPLACE INTO whitelist_outbox_dead "
+                            + "(seq, op, uuid, name, created_at, expires_at, attempts, last_error, dead_at) "
+                            + "SELECT seq, op, uuid, name, created_at, expires_at, attempts, last_error, ? "
+                            + "FROM whitelist_outbox WHERE seq = ?");
+                 PreparedStatement delete = c.prepareStatement("DELETE FROM whitelist_outbox WHERE seq = ?")) {
+                copy.setLong(1, System.currentTimeMillis());
+                copy.setLong(2, m.seq());
+                copy.executeUpdate();
+                delete.setLong(1, m.seq());
+                delete.executeUpdate();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    private void markAttempt(List<Mutation> batch, SQLException cause) {
+        try (Connection c = localDb.openConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "UPDATE whitelist_outbox SET attempts = attempts + 1, last_error = ? WHERE seq BETWEEN ? AND ?")) {
+            ps.setString(1, cause.getMessage());
+            ps.setLong(2, batch.get(0).seq());
+            ps.setLong(3, batch.get(batch.size() - 1).seq());
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("[KSR-SQL-Whitelist] Could not update outbox attempts: " + ex.getMessage());
+        }
+    }
+
+    private long countPending() throws SQLException {
+        try (Connection c = localDb.openConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM whitelist_outbox");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public long pendingCount() {
+        return pending.get();
+    }
+
+    public String format() {
+        return String.format(Locale.ROOT, "pending %d, enqueued %d, drained %d, failed attempts %d, dead-lettered %d%s",
+                pending.get(), enqueued.sum(), drained.sum(), failedAttempts.sum(), deadLettered.sum(),
+                retryScheduled.get() ? " (retry scheduled)" : "");
+    }
+}
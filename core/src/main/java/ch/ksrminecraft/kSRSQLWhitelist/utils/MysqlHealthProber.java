@@ -0,0 +1,126 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🩺 MysqlHealthProber
+ *  --------------------
+ *  Erkennt im Hintergrund, wann MySQL nach einem Ausfall wieder erreichbar ist.
+ *
+ *  Solange das Plugin im Fallback-Modus ist, wird MySQL mit exponentiellem
+ *  Backoff (plus Jitter) angepingt. Sobald der Ping gelingt:
+ *   1. Connection-Pool vorwärmen
+ *   2. Outbox übertragen und lokalen Cache neu synchronisieren
+ *   3. Abgelaufene Sperren bereinigen
+ *   4. Fallback-Modus verlassen ({@code handleMysqlRecovery()})
+ *
+ *  Dadurch bemerken nicht erst die nächsten Spieler beim Login, dass MySQL
+ *  wieder da ist – und sie treffen auf warme Verbindungen.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class MysqlHealthProber {
+
+    private final WhitelistPlatform plugin;
+    private final Database database;
+
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final int prewarmConnections;
+
+    private final AtomicBoolean active = new AtomicBoolean();
+    private final AtomicInteger attempt = new AtomicInteger();
+    private volatile long nextProbeAt;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder recoveries = new LongAdder();
+
+    public MysqlHealthProber(WhitelistPlatform plugin, Database database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.initialDelayMs = Math.max(100L, plugin.getSettings().getLong("mysql.probe.initial-delay-ms", 1_000L));
+        this.maxDelayMs = Math.max(initialDelayMs, plugin.getSettings().getLong("mysql.probe.max-delay-ms", 60_000L));
+        this.prewarmConnections = Math.max(0, plugin.getSettings().getInt("mysql.probe.prewarm-connections",
+                plugin.getSettings().getInt("mysql.pool.minimum-idle", 2)));
+    }
+
+    /**
+     * Startet das Probing, falls es nicht bereits läuft. Wird beim Wechsel in
+     * den Fallback-Modus aufgerufen.
+     */
+    public void start() {
+        if (!active.compareAndSet(false, true)) {
+            return;
+        }
+        attempt.set(0);
+        scheduleNext();
+    }
+
+    private void scheduleNext() {
+        int n = attempt.getAndIncrement();
+        long delay = Math.min(maxDelayMs, initialDelayMs << Math.min(16, n));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        nextProbeAt = System.currentTimeMillis() + delay;
+
+        // Bei voller Lane erneut planen, sonst bliebe active gesetzt und es gäbe keine Probe mehr
+        plugin.getExecutor().schedule(PluginExecutor.Lane.RESYNC, this::probe, delay, TimeUnit.MILLISECONDS,
+                this::scheduleNext);
+    }
+
+    private void probe() {
+        // Wurde MySQL zwischenzeitlich anderweitig als gesund erkannt (z. B. Login), ist nichts zu tun
+        if (!plugin.isMysqlUnavailable()) {
+            active.set(false);
+            return;
+        }
+
+        probes.increment();
+        try {
+            database.ping();
+        } catch (Exception e) {
+            plugin.getLogger().fine("MySQL health probe #" + attempt.get() + " failed: " + e.getMessage());
+            scheduleNext();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            int warmed = database.prewarm(prewarmConnections);
+            plugin.getResyncCoordinator().resync();
+            plugin.getProtectedAccessBlockService().purgeExpired();
+
+            active.set(false);
+            recoveries.increment();
+            plugin.handleMysqlRecovery();
+
+            plugin.getLogger().info("MySQL recovered after " + attempt.get() + " probe(s): pool pre-warmed ("
+                    + warmed + " connection(s)), local cache resynchronized in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms.");
+        } catch (Exception e) {
+            plugin.getLogger().warning("MySQL answered the health probe, but the catch-up resync failed: "
+                    + e.getMessage());
+            scheduleNext();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public String format() {
+        if (!active.get()) {
+            return String.format(Locale.ROOT, "idle, probes %d, recoveries %d", probes.sum(), recoveries.sum());
+        }
+        long inMs = Math.max(0L, nextProbeAt - System.currentTimeMillis());
+        return String.format(Locale.ROOT, "probing (attempt %d, next in %.1fs), probes %d, recoveries %d",
+                attempt.get(), inMs / 1000.0, probes.sum(), recoveries.sum());
+    }
+}
@@ -0,0 +1,324 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧵 ParallelFullResync
+ *  ---------------------
+ *  Liest die zentrale Whitelist-Tabelle für einen vollen Resync über
+ *  mehrere Verbindungen gleichzeitig.
+ *
+ *  - Der UUID-Schlüsselraum wird an Hex-Präfixen in
+ *    {@code fallback.resync.parallelism} lückenlose Bereiche geteilt; jeder
+ *    Bereich wird auf einem eigenen virtuellen Thread mit eigener
+ *    Verbindung gelesen ({@link WhitelistStore#scanRange}).
+ *  - Die Leser geben Blöcke von {@value #CHUNK_SIZE} Einträgen über eine
+ *    begrenzte Queue weiter. Genau ein Schreiber (der aufrufende Thread)
+ *    übernimmt sie – direkt in die Schattentabelle des lokalen Caches oder
+ *    in eine Liste für den Cluster-Snapshot.
+ *  - Schlägt ein Leser fehl, wird der ganze Resync abgebrochen; der
+ *    bisherige Cache bleibt erhalten.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+final class ParallelFullResync {
+
+    /** Einträge pro Block zwischen Leser und Schreiber. */
+    private static final int CHUNK_SIZE = 1_000;
+
+    /** Obergrenze für gleichzeitige Leser (256 Hex-Präfixe). */
+    static final int MAX_PARALLELISM = 16;
+
+    /** Markiert das Ende eines Lesers in der Queue (Vergleich per Identität). */
+    private static final List<LocalFallbackDatabase.WhitelistEntry> END = new ArrayList<>(0);
+
+    /**
+     * Ergebnis eines Laufs.
+     *
+     * @param rows       übernommene Einträge
+     * @param watermark  Prüfsumme wie {@link WhitelistService#contentDigest(List)}
+     * @param durationMs Dauer in Millisekunden
+     */
+    record Result(long rows, String watermark, long durationMs) {
+    }
+
+    private final WhitelistPlatform plugin;
+    private final WhitelistStore store;
+    private final int parallelism;
+
+    ParallelFullResync(WhitelistPlatform plugin, WhitelistStore store, int parallelism) {
+        this.plugin = plugin;
+        this.store = store;
+        this.parallelism = Math.max(1, Math.min(MAX_PARALLELISM, parallelism));
+    }
+
+    // ------------------------------------------------------------------------
+    // 🚀 Einstieg
+    // ------------------------------------------------------------------------
+
+    /**
+     * Ersetzt den lokalen Cache, während die Leser noch lesen.
+     */
+    Result replaceInto(LocalFallbackDatabase localDb) throws SQLException {
+        long start = System.nanoTime();
+        Merge merge = start();
+        try {
+            localDb.replaceAll(merge, merge::watermark);
+        } catch (ReaderFailed ex) {
+            throw merge.failure();
+        } finally {
+            merge.close();
+        }
+        return merge.result(start);
+    }
+
+    /**
+     * Liest alle gültigen Einträge in eine Liste (für den Cluster-Snapshot).
+     */
+    List<LocalFallbackDatabase.WhitelistEntry> readAll() throws SQLException {
+        long start = System.nanoTime();
+        Merge merge = start();
+        List<LocalFallbackDatabase.WhitelistEntry> entries = new ArrayList<>();
+        try {
+            for (LocalFallbackDatabase.WhitelistEntry entry : merge) {
+                entries.add(entry);
+            }
+        } catch (ReaderFailed ex) {
+            throw merge.failure();
+        } finally {
+            merge.close();
+        }
+        merge.result(start);
+        return entries;
+    }
+
+    private Merge start() {
+        List<String> bounds = boundaries(parallelism);
+        Merge merge = new Merge(bounds.size() + 1);
+
+        for (int i = 0; i <= bounds.size(); i++) {
+            String from = i == 0 ? null : bounds.get(i - 1);
+            String to = i == bounds.size() ? null : bounds.get(i);
+            plugin.getExecutor().fork(() -> merge.read(from, to)).whenComplete((rows, ex) -> {
+                if (ex != null) {
+                    // Nur wenn der Leser gar nicht gestartet werden konnte
+                    merge.readerFailed(ex);
+                }
+            });
+        }
+        return merge;
+    }
+
+    /**
+     * Grenzen zwischen den Bereichen als zweistellige Hex-Präfixe, z. B.
+     * {@code [40, 80, c0]} für 4 Leser. Erster und letzter Bereich sind
+     * offen, damit auch Gross-/Sonderschreibweisen genau einmal erfasst werden.
+     */
+    static List<String> boundaries(int parallelism) {
+        List<String> out = new ArrayList<>();
+        for (int i = 1; i < parallelism; i++) {
+            out.add(String.format(Locale.ROOT, "%02x", i * 256 / parallelism));
+        }
+        return out;
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔀 Zusammenführen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Queue zwischen den Lesern und dem einen Schreiber. Als Iterable
+     * liefert sie alle Einträge in Ankunftsreihenfolge und führt dabei
+     * Anzahl und Prüfsumme nach.
+     */
+    private final class Merge implements Iterable<LocalFallbackDatabase.WhitelistEntry> {
+
+        private final BlockingQueue<List<LocalFallbackDatabase.WhitelistEntry>> queue;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private int openReaders;
+
+        private long rows;
+        private long digest;
+
+        Merge(int readers) {
+            this.queue = new ArrayBlockingQueue<>(readers * 4);
+            this.openReaders = readers;
+        }
+
+        // 📖 Leser-Seite (ein virtueller Thread pro Bereich)
+
+        private Long read(String from, String to) {
+            RangeReader reader = new RangeReader();
+            long start = System.nanoTime();
+            long scanned = 0;
+            try {
+                scanned = store.scanRange(from, to, reader);
+                reader.flush();
+            } catch (Exception ex) {
+                failure.compareAndSet(null, ex);
+            } finally {
+                finish();
+            }
+
+            plugin.getLogger().fine(String.format(Locale.ROOT, "Resync range [%s, %s): %d rows in %dms",
+                    from == null ? "" : from, to == null ? "" : to, scanned,
+                    (System.nanoTime() - start) / 1_000_000L));
+            return scanned;
+        }
+
+        /**
+         * Sammelt gültige Zeilen eines Bereichs zu Blöcken.
+         */
+        private final class RangeReader implements WhitelistStore.RowVisitor {
+
+            private List<LocalFallbackDatabase.WhitelistEntry> chunk = new ArrayList<>(CHUNK_SIZE);
+
+            @Override
+            public void accept(String uuid, String name) throws IOException {
+                if (!WhitelistStore.isValidEntry(uuid, name)) {
+                    return;
+                }
+                chunk.add(new LocalFallbackDatabase.WhitelistEntry(uuid, name));
+                if (chunk.size() >= CHUNK_SIZE) {
+                    flush();
+                }
+            }
+
+            void flush() throws IOException {
+                if (!chunk.isEmpty()) {
+                    hand(chunk);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        }
+
+        private void readerFailed(Throwable ex) {
+            failure.compareAndSet(null, ex);
+            finish();
+        }
+
+        private void finish() {
+            try {
+                hand(END);
+            } catch (IOException ignored) {
+                // Schreiber ist schon fertig
+            }
+        }
+
+        /**
+         * Wartet auf Platz in der Queue; bricht ab, sobald der Schreiber fertig ist.
+         */
+        private void hand(List<LocalFallbackDatabase.WhitelistEntry> chunk) throws IOException {
+            try {
+                while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    if (closed.get()) {
+                        throw new IOException("resync aborted");
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("resync interrupted", ex);
+            }
+        }
+
+        // ✍️ Schreiber-Seite (aufrufender Thread)
+
+        @Override
+        public Iterator<LocalFallbackDatabase.WhitelistEntry> iterator() {
+            return new Iterator<>() {
+                private Iterator<LocalFallbackDatabase.WhitelistEntry> current = List.<LocalFallbackDatabase.WhitelistEntry>of().iterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext()) {
+                        if (openReaders == 0) {
+                            return false;
+                        }
+                        List<LocalFallbackDatabase.WhitelistEntry> next = take();
+                        if (next == END) {
+                            openReaders--;
+                            if (failure.get() != null) {
+                                throw new ReaderFailed();
+                            }
+                        } else {
+                            current = next.iterator();
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public LocalFallbackDatabase.WhitelistEntry next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    LocalFallbackDatabase.WhitelistEntry entry = current.next();
+                    rows++;
+                    digest ^= WhitelistStore.rowHash(entry.uuid(), entry.name());
+                    return entry;
+                }
+            };
+        }
+
+        private List<LocalFallbackDatabase.WhitelistEntry> take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, ex);
+                throw new ReaderFailed();
+            }
+        }
+
+        String watermark() {
+            return rows + ":" + Long.toHexString(digest);
+        }
+
+        SQLException failure() {
+            Throwable ex = failure.get();
+            return ex instanceof SQLException sql ? sql : new SQLException("Parallel resync failed", ex);
+        }
+
+        /**
+         * Gibt blockierte Leser frei (nach Erfolg oder Abbruch).
+         */
+        void close() {
+            closed.set(true);
+            queue.clear();
+        }
+
+        Result result(long start) {
+            long durationMs = (System.nanoTime() - start) / 1_000_000L;
+            plugin.getLogger().fine(String.format(Locale.ROOT,
+                    "Parallel full resync: %d rows over %d connections in %dms (%d rows/s).",
+                    rows, parallelism, durationMs, durationMs == 0 ? rows : rows * 1_000L / durationMs));
+            return new Result(rows, watermark(), durationMs);
+        }
+    }
+
+    /**
+     * Bricht den Schreiber ab, wenn ein Leser fehlgeschlagen ist.
+     */
+    private static final class ReaderFailed extends RuntimeException {
+        ReaderFailed() {
+            super(null, null, false, false);
+        }
+    }
+}
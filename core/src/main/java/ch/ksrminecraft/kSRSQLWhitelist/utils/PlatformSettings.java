@@ -0,0 +1,34 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  ⚙️ PlatformSettings
+ *  ------------------
+ *  Lesender Zugriff auf die Plugin-Konfiguration. Die Schlüssel sind auf
+ *  allen Plattformen gleich ({@code mysql.host}, {@code cache.l1.ttl-seconds}, ...);
+ *  Paper liest sie aus der config.yml, der Proxy aus config.properties.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public interface PlatformSettings {
+
+    String getString(String path, String def);
+
+    int getInt(String path, int def);
+
+    long getLong(String path, long def);
+
+    double getDouble(String path, double def);
+
+    boolean getBoolean(String path, boolean def);
+
+    /**
+     * Liste von Abschnitten (z. B. {@code mysql.replicas}); leer, wenn nicht gesetzt.
+     */
+    List<Map<?, ?>> getMapList(String path);
+}
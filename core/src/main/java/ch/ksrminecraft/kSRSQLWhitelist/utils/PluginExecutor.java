@@ -0,0 +1,329 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧵 PluginExecutor
+ *  ------------------
+ *  Plugin-eigener Executor für sämtliche blockierende Arbeit (JDBC, HTTP).
+ *
+ *  Statt den gemeinsamen Async-Pool des Servers zu nutzen, läuft jede Aufgabe
+ *  auf einem eigenen virtuellen Thread. Die Parallelität wird pro Bereich
+ *  ({@link Lane}) über einen Bulkhead begrenzt, damit z. B. ein langsamer
+ *  Resync oder eine hängende Mojang-API keine Login-Prüfungen verdrängt.
+ *
+ *  Pro Lane konfigurierbar (executor.&lt;lane&gt;.*):
+ *   - max-concurrent   → gleichzeitig laufende Aufgaben
+ *   - max-queued       → maximal wartende Aufgaben, danach wird abgelehnt
+ *   - queue-timeout-ms → maximale Wartezeit auf einen freien Platz
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class PluginExecutor {
+
+    /**
+     * Getrennte Bereiche mit eigenem Concurrency-Limit.
+     */
+    public enum Lane {
+        LOGIN("login", 16, 256, 5_000),
+        COMMAND("commands", 4, 64, 30_000),
+        HTTP("http", 4, 128, 30_000),
+        RESYNC("resync", 2, 8, 60_000),
+        OUTBOX("outbox", 1, 16, 60_000);
+
+        private final String configKey;
+        private final int defaultMaxConcurrent;
+        private final int defaultMaxQueued;
+        private final long defaultQueueTimeoutMs;
+
+        Lane(String configKey, int defaultMaxConcurrent, int defaultMaxQueued, long defaultQueueTimeoutMs) {
+            this.configKey = configKey;
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+            this.defaultMaxQueued = defaultMaxQueued;
+            this.defaultQueueTimeoutMs = defaultQueueTimeoutMs;
+        }
+
+        public String configKey() {
+            return configKey;
+        }
+    }
+
+    private final WhitelistPlatform plugin;
+    private final ExecutorService virtualThreads;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Lane, Bulkhead> bulkheads = new EnumMap<>(Lane.class);
+
+    public PluginExecutor(WhitelistPlatform plugin) {
+        this.plugin = plugin;
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("KSR-Whitelist-", 0).factory());
+
+        // Der Scheduler übergibt nur an virtuelle Threads und blockiert selbst nie.
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("KSR-Whitelist-Scheduler").daemon(true).factory());
+
+        for (Lane lane : Lane.values()) {
+            String base = "executor." + lane.configKey() + ".";
+            int maxConcurrent = Math.max(1, plugin.getSettings().getInt(base + "max-concurrent", lane.defaultMaxConcurrent));
+            int maxQueued = Math.max(0, plugin.getSettings().getInt(base + "max-queued", lane.defaultMaxQueued));
+            long queueTimeoutMs = Math.max(0L, plugin.getSettings().getLong(base + "queue-timeout-ms", lane.defaultQueueTimeoutMs));
+            bulkheads.put(lane, new Bulkhead(lane, maxConcurrent, maxQueued, queueTimeoutMs));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🚀 Aufgaben ausführen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Führt eine Aufgabe asynchron auf einem virtuellen Thread aus.
+     * Wird der Bulkhead der Lane überlastet, schlägt das Future mit einer
+     * {@link RejectedExecutionException} fehl.
+     */
+    public <T> CompletableFuture<T> submit(Lane lane, Callable<T> task) {
+        return fork(() -> call(lane, task));
+    }
+
+    /**
+     * Wie {@link #submit(Lane, Callable)}, aber für Aufgaben ohne Rückgabewert.
+     */
+    public CompletableFuture<Void> run(Lane lane, Runnable task) {
+        return submit(lane, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Führt eine Aufgabe direkt im aufrufenden Thread aus, aber unter dem
+     * Concurrency-Limit der Lane. Gedacht für Threads, die ohnehin schon
+     * blockieren dürfen (z. B. AsyncPlayerPreLoginEvent) oder für verschachtelte
+     * Aufrufe in eine andere Lane (z. B. HTTP innerhalb eines Commands).
+     */
+    public <T> T call(Lane lane, Callable<T> task) throws Exception {
+        return bulkheads.get(lane).call(task);
+    }
+
+    /**
+     * Startet eine Teilaufgabe einer bereits zugelassenen Aufgabe auf einem
+     * eigenen virtuellen Thread, ohne erneut gegen ein Lane-Limit zu zählen.
+     * So kann z. B. ein Command mehrere Abfragen parallel auffächern, ohne
+     * sich selbst Plätze in der eigenen Lane wegzunehmen.
+     */
+    public <T> CompletableFuture<T> fork(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            virtualThreads.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    // ------------------------------------------------------------------------
+    // ⏱️ Zeitgesteuerte Aufgaben
+    // ------------------------------------------------------------------------
+
+    public ScheduledFuture<?> schedule(Lane lane, Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(() -> dispatchScheduled(lane, task), delay, unit);
+    }
+
+    /**
+     * Wie {@link #schedule(Lane, Runnable, long, TimeUnit)}, ruft aber
+     * {@code onRejected} auf, wenn die Lane die Aufgabe ablehnt (Bulkhead voll
+     * oder Warte-Timeout). So können sich selbst neu planende Aufgaben nicht
+     * durch eine einzige Ablehnung für immer ausfallen.
+     */
+    public ScheduledFuture<?> schedule(Lane lane, Runnable task, long delay, TimeUnit unit, Runnable onRejected) {
+        return scheduler.schedule(() -> run(lane, task).exceptionally(ex -> {
+            if (ex instanceof RejectedExecutionException) {
+                plugin.getLogger().warning("Scheduled " + lane.configKey() + " task was rejected, rescheduling: "
+                        + ex.getMessage());
+                onRejected.run();
+            } else {
+                plugin.getLogger().log(Level.WARNING,
+                        "Scheduled " + lane.configKey() + " task failed: " + ex.getMessage(), ex);
+            }
+            return null;
+        }), delay, unit);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Lane lane, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return scheduler.scheduleAtFixedRate(() -> dispatchScheduled(lane, task), initialDelay, period, unit);
+    }
+
+    /**
+     * Führt eine sehr kurze, nicht blockierende Aufgabe (z. B. das Vorrücken
+     * eines {@link TimingWheel}) direkt auf dem Scheduler-Thread aus, ohne
+     * Umweg über eine Lane. Für JDBC/HTTP nicht geeignet.
+     */
+    public ScheduledFuture<?> tickAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        return scheduler.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.WARNING, "Scheduled tick failed: " + t.getMessage(), t);
+            }
+        }, period, period, unit);
+    }
+
+    private void dispatchScheduled(Lane lane, Runnable task) {
+        run(lane, task).exceptionally(ex -> {
+            plugin.getLogger().log(Level.WARNING,
+                    "Scheduled " + lane.configKey() + " task failed: " + ex.getMessage(), ex);
+            return null;
+        });
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    /**
+     * Momentaufnahme aller Lanes für /whitelist stats.
+     */
+    public List<LaneStats> snapshot() {
+        List<LaneStats> out = new ArrayList<>();
+        for (Bulkhead b : bulkheads.values()) {
+            out.add(new LaneStats(
+                    b.lane,
+                    b.active.get(),
+                    b.maxConcurrent,
+                    b.queued.get(),
+                    b.maxQueued,
+                    b.completed.sum(),
+                    b.failed.sum(),
+                    b.rejected.sum()
+            ));
+        }
+        return out;
+    }
+
+    public record LaneStats(Lane lane, int active, int maxConcurrent, int queued, int maxQueued,
+                            long completed, long failed, long rejected) {
+
+        public String format() {
+            return String.format(Locale.ROOT, "%-8s active %d/%d, queued %d/%d, done %d, failed %d, rejected %d",
+                    lane.configKey(), active, maxConcurrent, queued, maxQueued, completed, failed, rejected);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🛑 Shutdown
+    // ------------------------------------------------------------------------
+
+    /**
+     * Stoppt den Scheduler, lässt laufende Aufgaben bis zum Timeout auslaufen
+     * und bricht danach die restlichen ab.
+     */
+    public void shutdown(Duration timeout) {
+        scheduler.shutdownNow();
+        virtualThreads.shutdown();
+
+        try {
+            if (!virtualThreads.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                int running = bulkheads.values().stream().mapToInt(b -> b.active.get() + b.queued.get()).sum();
+                plugin.getLogger().warning("Executor did not terminate within " + timeout.toSeconds()
+                        + "s, interrupting " + running + " remaining task(s).");
+                virtualThreads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            virtualThreads.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧱 Bulkhead
+    // ------------------------------------------------------------------------
+
+    private static final class Bulkhead {
+
+        private final Lane lane;
+        private final Semaphore permits;
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final long queueTimeoutMs;
+
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private Bulkhead(Lane lane, int maxConcurrent, int maxQueued, long queueTimeoutMs) {
+            this.lane = lane;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.queueTimeoutMs = queueTimeoutMs;
+        }
+
+        private <T> T call(Callable<T> task) throws Exception {
+            if (!permits.tryAcquire()) {
+                awaitPermit();
+            }
+
+            active.incrementAndGet();
+            try {
+                T result = task.call();
+                completed.increment();
+                return result;
+            } catch (Exception ex) {
+                failed.increment();
+                throw ex;
+            } finally {
+                active.decrementAndGet();
+                permits.release();
+            }
+        }
+
+        private void awaitPermit() throws InterruptedException {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.increment();
+                throw new RejectedExecutionException("Lane '" + lane.configKey() + "' is saturated ("
+                        + maxConcurrent + " running, " + maxQueued + " queued)");
+            }
+
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+
+            if (!acquired) {
+                rejected.increment();
+                throw new RejectedExecutionException("Timed out after " + queueTimeoutMs
+                        + "ms waiting for lane '" + lane.configKey() + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Verwaltet kurzfristige clusterweite Zugriffssperren nach einem unerlaubten
+ * Betreten geschützter Welten.
+ *
+ * Zweck:
+ * - Ein LiteBans-Kick dokumentiert den Vorfall
+ * - Diese Tabelle verhindert zusätzlich direkte Rejoins auf andere Backends
+ *
+ * Speicherung:
+ * - UUID des Spielers
+ * - Spielername
+ * - Grund
+ * - Ablaufzeitpunkt als Unix-Millis
+ *
+ * Aktive Sperren werden zusätzlich lokal gehalten; ein {@link TimingWheel}
+ * entfernt sie genau zum Ablaufzeitpunkt. Abgelaufene Zeilen in der Datenbank werden
+ * regelmässig in kleinen, gedrosselten Blöcken gelöscht.
+ */
+public class ProtectedAccessBlockService {
+
+    private final WhitelistPlatform plugin;
+    private final Database database;
+
+    /** Bekannte aktive Sperren: UUID → blocked_until (Unix-Millis). */
+    private final Map<UUID, Long> activeBlocks = new ConcurrentHashMap<>();
+    private final TimingWheel<UUID> expiryWheel;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder purgedRows = new LongAdder();
+
+    public ProtectedAccessBlockService(WhitelistPlatform plugin, Database database) {
+        this.plugin = plugin;
+        this.database = database;
+
+        long tickMs = Math.max(10L, plugin.getSettings().getLong("protected-worlds.block-cache.tick-ms", 1_000L));
+        int wheelSize = Math.max(8, plugin.getSettings().getInt("protected-worlds.block-cache.wheel-size", 512));
+        this.expiryWheel = new TimingWheel<>(tickMs, wheelSize, activeBlocks::remove);
+    }
+
+    /**
+     * Startet das Vorrücken des Timing Wheels und die regelmässige Bereinigung.
+     */
+    public void start() {
+        long tickMs = Math.max(10L, plugin.getSettings().getLong("protected-worlds.block-cache.tick-ms", 1_000L));
+        plugin.getExecutor().tickAtFixedRate(() -> expiryWheel.advance(System.currentTimeMillis()),
+                tickMs, TimeUnit.MILLISECONDS);
+
+        long purgeMinutes = Math.max(1L, plugin.getSettings().getLong("protected-worlds.purge.interval-minutes", 5L));
+        plugin.getExecutor().scheduleAtFixedRate(PluginExecutor.Lane.RESYNC, this::purgeExpired,
+                purgeMinutes, purgeMinutes, TimeUnit.MINUTES);
+    }
+
+    public void ensureTable() throws SQLException {
+        database.store().ensureBlockSchema();
+    }
+
+    public void upsertBlock(UUID uuid, String playerName, String reason, long blockedUntil) throws SQLException {
+        database.store().upsertBlock(uuid, playerName, reason, blockedUntil);
+        remember(uuid, blockedUntil);
+
+        if (plugin.getInvalidationBus() != null) {
+            plugin.getInvalidationBus().publishBlock(uuid, playerName, blockedUntil);
+        }
+    }
+
+    /**
+     * Übernimmt eine auf einem anderen Backend gesetzte Sperre (siehe {@link InvalidationBus}).
+     */
+    void applyRemoteBlock(UUID uuid, long blockedUntil) {
+        if (blockedUntil > System.currentTimeMillis()) {
+            remember(uuid, blockedUntil);
+        }
+    }
+
+    /**
+     * Sperrt lokal sofort und schreibt die Sperre danach auf der
+     * COMMAND-Lane nach MySQL. Ein erneuter Join auf diesem Server wird damit
+     * schon abgewiesen, bevor der Schreibvorgang bestätigt ist.
+     *
+     * Darf vom Main-Thread aufgerufen werden.
+     */
+    public CompletableFuture<Void> blockAsync(UUID uuid, String playerName, String reason, long blockedUntil) {
+        remember(uuid, blockedUntil);
+        return plugin.getExecutor().run(PluginExecutor.Lane.COMMAND,
+                () -> {
+                    try {
+                        upsertBlock(uuid, playerName, reason, blockedUntil);
+                    } catch (SQLException ex) {
+                        throw new IllegalStateException(ex.getMessage(), ex);
+                    }
+                });
+    }
+
+    public boolean isBlocked(UUID uuid) throws SQLException {
+        // Lokal bekannte Sperre → keine Datenbankabfrage nötig
+        if (isBlockedLocally(uuid)) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        long blockedUntil = database.store().findBlockedUntil(uuid);
+        if (blockedUntil > now) {
+            remember(uuid, blockedUntil);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Prüft nur die lokal bekannten Sperren, ohne Datenbankabfrage – für
+     * Logins, die an MySQL vorbeigeleitet werden.
+     */
+    public boolean isBlockedLocally(UUID uuid) {
+        Long cached = activeBlocks.get(uuid);
+        if (cached != null && cached > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void remember(UUID uuid, long blockedUntil) {
+        activeBlocks.put(uuid, blockedUntil);
+        expiryWheel.schedule(uuid, blockedUntil);
+    }
+
+    /**
+     * Momentaufnahme der aktiven Sperren (Warm-Restart).
+     */
+    public Map<UUID, Long> exportActiveBlocks() {
+        return Map.copyOf(activeBlocks);
+    }
+
+    /**
+     * Übernimmt noch nicht abgelaufene Sperren aus einem Warm-Restart-Snapshot.
+     *
+     * @return Anzahl übernommener Sperren
+     */
+    public int restoreActiveBlocks(Map<UUID, Long> blocks) {
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        for (Map.Entry<UUID, Long> e : blocks.entrySet()) {
+            if (e.getValue() > now) {
+                remember(e.getKey(), e.getValue());
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    public String format() {
+        return String.format(Locale.ROOT, "cached %d (wheel %d), cache hits %d, purged rows %d",
+                activeBlocks.size(), expiryWheel.size(), cacheHits.sum(), purgedRows.sum());
+    }
+
+    /**
+     * Löscht abgelaufene Sperren in Blöcken von {@code protected-worlds.purge.chunk-size}
+     * Zeilen mit kurzer Pause dazwischen. So hält keine einzelne Anweisung
+     * lange Sperren auf Zeilen, die andere Backends gerade verwenden.
+     *
+     * @return Anzahl gelöschter Zeilen
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int chunkSize = Math.max(1, plugin.getSettings().getInt("protected-worlds.purge.chunk-size", 500));
+        long pauseMs = Math.max(0L, plugin.getSettings().getLong("protected-worlds.purge.pause-ms", 50L));
+
+        int total = 0;
+        try {
+            while (true) {
+                int deleted = database.store().purgeExpiredBlocks(now, chunkSize);
+                total += deleted;
+
+                if (deleted < chunkSize) {
+                    break;
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            plugin.getLogger().log(Level.WARNING,
+                    "Failed to purge expired protected-world blocks.", ex);
+        }
+
+        if (total > 0) {
+            purgedRows.add(total);
+            plugin.getLogger().fine("Purged " + total + " expired protected-world block(s).");
+        }
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,351 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🗂️ TieredWhitelistCache
+ *  -----------------------
+ *  Mehrstufige Login-Prüfung:
+ *
+ *   L1 – begrenzter In-Heap-Cache (LRU) mit TTL, eigene TTL für Negativ-Treffer
+ *   L2 – lokale SQLite-Fallback-Datenbank
+ *   L3 – MySQL (über den {@link LoginLookupBatcher})
+ *
+ *  Policies (config.yml → cache.*):
+ *   - read-through: L1-Fehltreffer werden aus L3 geladen und in L1 abgelegt
+ *   - l2.trust-positive: positive L2-Treffer beantworten den Login ohne MySQL
+ *     (Änderungen anderer Backends werden dann erst mit dem Resync sichtbar)
+ *   - refresh-ahead: Positive L1-Einträge werden kurz vor Ablauf im
+ *     Hintergrund neu geladen, der Login erhält sofort den alten Wert
+ *   - write-through: /whitelist add/remove aktualisiert L1 direkt
+ *
+ *  Pro Stufe werden Treffer, Fehltreffer und Latenz gezählt (/whitelist stats).
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class TieredWhitelistCache {
+
+    /**
+     * Lädt eine Entscheidung aus MySQL (L3).
+     */
+    @FunctionalInterface
+    public interface Loader {
+        boolean load(UUID uuid, String name) throws SQLException;
+    }
+
+    public enum Tier {
+        L1, L2, L3
+    }
+
+    private record Decision(boolean whitelisted, String name, long loadedAt, long expiresAt) {
+    }
+
+    /**
+     * Exportierbarer L1-Eintrag (Warm-Restart, siehe {@link WarmRestartSnapshot}).
+     */
+    public record CachedDecision(UUID uuid, boolean whitelisted, String name, long loadedAt, long expiresAt) {
+    }
+
+    private final WhitelistPlatform plugin;
+    private final LocalFallbackDatabase localDb;
+    private final Loader mysqlLoader;
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final boolean refreshAhead;
+    private final long refreshAfterMs;
+    private final boolean trustLocalPositive;
+
+    private final Map<UUID, Decision> l1;
+    private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final TierStats[] stats = {new TierStats(Tier.L1), new TierStats(Tier.L2), new TierStats(Tier.L3)};
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TieredWhitelistCache(WhitelistPlatform plugin, LocalFallbackDatabase localDb, Loader mysqlLoader) {
+        this.plugin = plugin;
+        this.localDb = localDb;
+        this.mysqlLoader = mysqlLoader;
+
+        this.maxEntries = Math.max(0, plugin.getSettings().getInt("cache.l1.max-entries", 10_000));
+        this.ttlMs = Math.max(0L, plugin.getSettings().getLong("cache.l1.ttl-seconds", 60L)) * 1000L;
+        this.negativeTtlMs = Math.max(0L, plugin.getSettings().getLong("cache.l1.negative-ttl-seconds", 10L)) * 1000L;
+        this.refreshAhead = plugin.getSettings().getBoolean("cache.refresh-ahead.enabled", true);
+        double ratio = plugin.getSettings().getDouble("cache.refresh-ahead.ratio", 0.8);
+        this.refreshAfterMs = (long) (ttlMs * Math.min(1.0, Math.max(0.1, ratio)));
+        this.trustLocalPositive = plugin.getSettings().getBoolean("cache.l2.trust-positive", false);
+
+        this.l1 = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Decision> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔍 Lookups
+    // ------------------------------------------------------------------------
+
+    /**
+     * Read-Through über alle Stufen. Fehler von MySQL werden weitergereicht,
+     * damit der Aufrufer wie bisher auf die Fallback-Prüfung ausweichen kann.
+     */
+    public boolean lookup(UUID uuid, String name) throws SQLException {
+        Boolean cached = lookupL1(uuid, name, true);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (trustLocalPositive) {
+            long start = System.nanoTime();
+            boolean local = localDb.isWhitelisted(uuid, name);
+            stats(Tier.L2).record(local, System.nanoTime() - start);
+            if (local) {
+                put(uuid, name, true);
+                return true;
+            }
+        }
+
+        return loadFromMysql(uuid, name);
+    }
+
+    /**
+     * Prüfung ohne MySQL (Fallback-Modus oder Admission-Bypass): L1, dann L2.
+     * Lokale Ergebnisse werden nicht in L1 übernommen, da sie veraltet sein können.
+     */
+    public boolean lookupLocal(UUID uuid, String name) throws SQLException {
+        Boolean cached = lookupL1(uuid, name, false);
+        if (cached != null) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        boolean local = localDb.isWhitelisted(uuid, name);
+        stats(Tier.L2).record(local, System.nanoTime() - start);
+        return local;
+    }
+
+    private Boolean lookupL1(UUID uuid, String name, boolean allowRefresh) {
+        if (maxEntries == 0 || ttlMs == 0) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        Decision decision;
+        synchronized (l1) {
+            decision = l1.get(uuid);
+            if (decision != null && now >= decision.expiresAt()) {
+                l1.remove(uuid);
+                decision = null;
+            }
+        }
+        stats(Tier.L1).record(decision != null, System.nanoTime() - start);
+
+        if (decision == null) {
+            return null;
+        }
+
+        if (allowRefresh && refreshAhead && decision.whitelisted()
+                && now - decision.loadedAt() >= refreshAfterMs) {
+            scheduleRefresh(uuid, name);
+        }
+        return decision.whitelisted();
+    }
+
+    private boolean loadFromMysql(UUID uuid, String name) throws SQLException {
+        long start = System.nanoTime();
+        boolean whitelisted;
+        try {
+            whitelisted = mysqlLoader.load(uuid, name);
+        } catch (SQLException ex) {
+            stats(Tier.L3).record(false, System.nanoTime() - start);
+            throw ex;
+        }
+        stats(Tier.L3).record(whitelisted, System.nanoTime() - start);
+
+        put(uuid, name, whitelisted);
+        return whitelisted;
+    }
+
+    private void scheduleRefresh(UUID uuid, String name) {
+        if (!refreshing.add(uuid)) {
+            return;
+        }
+        // Ist die Login-Lane voll, schliesst die Future sofort mit einem Fehler ab:
+        // der Refresh entfällt und der Eintrag läuft regulär ab
+        plugin.getExecutor().run(PluginExecutor.Lane.LOGIN, () -> {
+            try {
+                loadFromMysql(uuid, name);
+                refreshes.increment();
+            } catch (SQLException ex) {
+                plugin.getLogger().fine("Refresh-ahead for " + name + " failed: " + ex.getMessage());
+            }
+        }).whenComplete((v, ex) -> refreshing.remove(uuid));
+    }
+
+    // ------------------------------------------------------------------------
+    // ✍️ Write-Through
+    // ------------------------------------------------------------------------
+
+    public void onUpserted(List<LocalFallbackDatabase.WhitelistEntry> entries) {
+        for (LocalFallbackDatabase.WhitelistEntry entry : entries) {
+            UUID uuid = Uuids.parse(entry.uuid());
+            if (uuid != null) {
+                put(uuid, entry.name(), true);
+            }
+        }
+    }
+
+    public void onDeleted(UUID uuid) {
+        put(uuid, null, false);
+    }
+
+    public void onDeletedByName(String name) {
+        List<UUID> matches = new ArrayList<>();
+        synchronized (l1) {
+            for (Map.Entry<UUID, Decision> e : l1.entrySet()) {
+                if (e.getValue().name() != null && e.getValue().name().equalsIgnoreCase(name)) {
+                    matches.add(e.getKey());
+                }
+            }
+        }
+        for (UUID uuid : matches) {
+            put(uuid, name, false);
+        }
+    }
+
+    /**
+     * Liefert alle noch gültigen L1-Einträge, älteste zuerst.
+     */
+    public List<CachedDecision> exportL1() {
+        long now = System.currentTimeMillis();
+        List<CachedDecision> out = new ArrayList<>();
+        synchronized (l1) {
+            for (Map.Entry<UUID, Decision> e : l1.entrySet()) {
+                Decision d = e.getValue();
+                if (d.expiresAt() > now) {
+                    out.add(new CachedDecision(e.getKey(), d.whitelisted(), d.name(), d.loadedAt(), d.expiresAt()));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Übernimmt Einträge aus einem Warm-Restart-Snapshot.
+     *
+     * Jeder Eintrag behält den Ablaufzeitpunkt aus dem Snapshot; bereits
+     * abgelaufene Einträge werden verworfen. Da {@code loadedAt} alt ist, lädt
+     * Refresh-Ahead positive Einträge beim ersten Treffer im Hintergrund neu.
+     *
+     * @return Anzahl übernommener Einträge
+     */
+    public int restoreL1(List<CachedDecision> entries) {
+        if (maxEntries == 0 || ttlMs == 0) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        synchronized (l1) {
+            for (CachedDecision d : entries) {
+                if (d.expiresAt() <= now || l1.containsKey(d.uuid())) {
+                    continue;
+                }
+                l1.put(d.uuid(), new Decision(d.whitelisted(), d.name(), d.loadedAt(), d.expiresAt()));
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    public void invalidateAll() {
+        synchronized (l1) {
+            l1.clear();
+        }
+    }
+
+    private void put(UUID uuid, String name, boolean whitelisted) {
+        if (maxEntries == 0 || ttlMs == 0) {
+            return;
+        }
+        long ttl = whitelisted ? ttlMs : negativeTtlMs;
+        synchronized (l1) {
+            if (ttl == 0) {
+                l1.remove(uuid);
+                return;
+            }
+            long now = System.currentTimeMillis();
+            l1.put(uuid, new Decision(whitelisted, name, now, now + ttl));
+        }
+    }
+
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    private TierStats stats(Tier tier) {
+        return stats[tier.ordinal()];
+    }
+
+    public List<String> format() {
+        int size;
+        synchronized (l1) {
+            size = l1.size();
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "L1 size %d/%d, evictions %d, refresh-ahead %d",
+                size, maxEntries, evictions.sum(), refreshes.sum()));
+        for (TierStats tier : stats) {
+            lines.add(tier.format());
+        }
+        return lines;
+    }
+
+    private static final class TierStats {
+        private final Tier tier;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        TierStats(Tier tier) {
+            this.tier = tier;
+        }
+
+        void record(boolean hit, long elapsedNanos) {
+            (hit ? hits : misses).increment();
+            nanos.add(elapsedNanos);
+        }
+
+        String format() {
+            long h = hits.sum();
+            long m = misses.sum();
+            long total = h + m;
+            return String.format(Locale.ROOT, "%s hits %d, misses %d (%.1f%% hit), avg %.2fms",
+                    tier, h, m, total == 0 ? 0.0 : h * 100.0 / total,
+                    total == 0 ? 0.0 : nanos.sum() / 1_000_000.0 / total);
+        }
+    }
+}
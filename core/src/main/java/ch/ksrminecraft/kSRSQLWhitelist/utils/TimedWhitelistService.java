@@ -0,0 +1,438 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  ⏳ TimedWhitelistService
+ *  ------------------------
+ *  Befristete Whitelist-Einträge ({@code /whitelist add <Spieler> 7d}).
+ *
+ *  - Der Ablaufzeitpunkt steht in MySQL in der optionalen Spalte
+ *    {@code mysql.column_expires} (einmalige Migration, siehe README; nur
+ *    mit {@code timed-whitelist.auto-migrate} legt das Plugin sie selbst an)
+ *    und lokal in der Fallback-Tabelle {@code whitelist_expiry}.
+ *  - Alle bekannten Ablaufzeitpunkte liegen zusätzlich im Speicher. Der
+ *    Login prüft nur diese Map – keine zusätzliche Datenbankabfrage.
+ *  - Ein {@link TimingWheel} meldet fällige Einträge genau zum
+ *    Ablaufzeitpunkt; kein Tabellen-Scan. Online-Spieler werden sofort
+ *    gekickt, gelöscht wird gesammelt auf der RESYNC-Lane
+ *    ({@code timed-whitelist.flush-interval-ms}).
+ *  - Gelöscht wird in MySQL nur, wenn der Eintrag dort noch abgelaufen ist;
+ *    ein zwischenzeitlich verlängerter Eintrag bleibt bestehen.
+ *
+ *  Erneutes Hinzufügen ohne Dauer entfristet einen Eintrag.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class TimedWhitelistService {
+
+    /** Dauer wie {@code 30m}, {@code 7d} oder {@code 1w2d12h}. */
+    private static final Pattern DURATION = Pattern.compile("(\\d+)([smhdw])");
+    private static final Pattern DURATION_FULL = Pattern.compile("(\\d+[smhdw])+", Pattern.CASE_INSENSITIVE);
+
+    private final WhitelistPlatform plugin;
+    private final Database database;
+    private final LocalFallbackDatabase localDb;
+    private final TieredWhitelistCache lookupCache;
+
+    private final boolean enabled;
+    private final int batchSize;
+
+    /** Befristete Einträge: UUID → Ablaufzeitpunkt (Epoch-Millis). */
+    private final Map<UUID, Long> expiries = new ConcurrentHashMap<>();
+    /** Abgelaufen, aber noch nicht gelöscht. */
+    private final Set<UUID> due = ConcurrentHashMap.newKeySet();
+    private final TimingWheel<UUID> wheel;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final boolean autoMigrate;
+    private volatile boolean schemaReady;
+    private volatile boolean warnedMissing;
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder kicked = new LongAdder();
+
+    public TimedWhitelistService(WhitelistPlatform plugin, Database database, LocalFallbackDatabase localDb,
+                                 TieredWhitelistCache lookupCache) {
+        this.plugin = plugin;
+        this.database = database;
+        this.localDb = localDb;
+        this.lookupCache = lookupCache;
+        this.enabled = plugin.getSettings().getBoolean("timed-whitelist.enabled", false);
+        this.autoMigrate = plugin.getSettings().getBoolean("timed-whitelist.auto-migrate", false);
+        this.batchSize = Math.max(1, plugin.getSettings().getInt("timed-whitelist.batch-size", 500));
+
+        long tickMs = Math.max(10L, plugin.getSettings().getLong("timed-whitelist.tick-ms", 1_000L));
+        int wheelSize = Math.max(8, plugin.getSettings().getInt("timed-whitelist.wheel-size", 3_600));
+        this.wheel = new TimingWheel<>(tickMs, wheelSize, this::onExpire);
+    }
+
+    /**
+     * Startet das Vorrücken des Timing Wheels und das gesammelte Löschen.
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long tickMs = Math.max(10L, plugin.getSettings().getLong("timed-whitelist.tick-ms", 1_000L));
+        plugin.getExecutor().tickAtFixedRate(() -> wheel.advance(System.currentTimeMillis()),
+                tickMs, TimeUnit.MILLISECONDS);
+
+        long flushMs = Math.max(100L, plugin.getSettings().getLong("timed-whitelist.flush-interval-ms", 5_000L));
+        plugin.getExecutor().scheduleAtFixedRate(PluginExecutor.Lane.RESYNC, this::flush,
+                flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ------------------------------------------------------------------------
+    // 🗄️ Laden
+    // ------------------------------------------------------------------------
+
+    /**
+     * Übernimmt die lokal gespeicherten Ablaufzeitpunkte (vor dem ersten
+     * MySQL-Kontakt, damit auch im Fallback-Betrieb durchgesetzt wird).
+     */
+    public void loadLocal() throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<UUID, Long> entry : localDb.readExpiries().entrySet()) {
+            schedule(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Prüft die Ablaufspalte in MySQL (legt sie nur mit
+     * {@code timed-whitelist.auto-migrate} an) und lädt danach alle Ablaufzeitpunkte.
+     * Fehlt die Spalte, bleibt MySQL trotzdem verfügbar; befristete Einträge
+     * gelten dann nur auf diesem Backend.
+     */
+    public void ensureSchema() throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        if (checkSchema()) {
+            reload();
+        }
+    }
+
+    private boolean checkSchema() {
+        try {
+            schemaReady = database.store().ensureExpirySchema(autoMigrate);
+        } catch (SQLException ex) {
+            schemaReady = false;
+            plugin.getLogger().warning("Expiry column could not be created: " + ex.getMessage());
+            return false;
+        }
+        if (!schemaReady && !warnedMissing) {
+            warnedMissing = true;
+            plugin.getLogger().warning("Expiry column '" + plugin.getSettings().getString("mysql.column_expires", "expires_at")
+                    + "' is missing. Time limits stay local to this server until it is added "
+                    + "(see README) or timed-whitelist.auto-migrate is enabled.");
+        }
+        return schemaReady;
+    }
+
+    /**
+     * Ersetzt die bekannten Ablaufzeitpunkte durch den Stand in MySQL
+     * (nach jedem Resync). Liest nur befristete Zeilen über den Index.
+     */
+    public void reload() throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        if (!schemaReady && !checkSchema()) {
+            return;
+        }
+
+        Map<UUID, Long> remote = new HashMap<>();
+        for (Map.Entry<String, Long> entry : database.store().readExpiries().entrySet()) {
+            UUID uuid = Uuids.parse(entry.getKey());
+            if (uuid != null && entry.getValue() > 0) {
+                remote.put(uuid, entry.getValue());
+            }
+        }
+
+        for (Iterator<UUID> it = expiries.keySet().iterator(); it.hasNext(); ) {
+            UUID uuid = it.next();
+            if (!remote.containsKey(uuid)) {
+                it.remove();
+                wheel.cancel(uuid);
+                due.remove(uuid);
+            }
+        }
+        remote.forEach(this::schedule);
+        localDb.replaceExpiries(remote);
+
+        plugin.getLogger().fine("Loaded " + remote.size() + " time-limited whitelist entry(s).");
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔐 Prüfen und Nachführen
+    // ------------------------------------------------------------------------
+
+    /**
+     * Nur ein Map-Zugriff; wird bei jedem Login geprüft.
+     */
+    public boolean isExpired(UUID uuid) {
+        Long expiresAt = expiries.get(uuid);
+        return expiresAt != null && expiresAt <= System.currentTimeMillis();
+    }
+
+    public boolean hasEntries() {
+        return !expiries.isEmpty();
+    }
+
+    /**
+     * @return Ablaufzeitpunkt oder {@code 0}, wenn unbefristet
+     */
+    public long expiresAt(UUID uuid) {
+        return expiries.getOrDefault(uuid, 0L);
+    }
+
+    /**
+     * Merkt sich einen befristeten Eintrag (lokal hinzugefügt oder von einem
+     * anderen Backend übernommen).
+     */
+    public void track(UUID uuid, long expiresAt) throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        schedule(uuid, expiresAt);
+        localDb.putExpiry(uuid, expiresAt);
+    }
+
+    /**
+     * Vergisst die Befristung (unbefristet hinzugefügt oder gelöscht).
+     */
+    public void untrack(UUID uuid) throws SQLException {
+        if (!enabled || expiries.remove(uuid) == null) {
+            return;
+        }
+        wheel.cancel(uuid);
+        due.remove(uuid);
+        localDb.removeExpiries(List.of(uuid));
+    }
+
+    /**
+     * Nach dem Übertragen der Outbox: Ein befristeter Eintrag, der schon
+     * während des Wartens abgelaufen ist, steht jetzt in MySQL und muss
+     * erneut zum Löschen vorgemerkt werden.
+     */
+    void onApplied(List<WhitelistStore.Change> changes) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (WhitelistStore.Change change : changes) {
+            if (change.type() == WhitelistStore.ChangeType.UPSERT
+                    && change.expiresAt() > 0 && change.expiresAt() <= now) {
+                UUID uuid = Uuids.parse(change.uuid());
+                if (uuid != null) {
+                    schedule(uuid, change.expiresAt());
+                }
+            }
+        }
+    }
+
+    private void schedule(UUID uuid, long expiresAt) {
+        expiries.put(uuid, expiresAt);
+        due.remove(uuid);
+        wheel.schedule(uuid, expiresAt);
+    }
+
+    // ------------------------------------------------------------------------
+    // ⏰ Ablauf
+    // ------------------------------------------------------------------------
+
+    /**
+     * Callback des Timing Wheels (Scheduler-Thread, kein JDBC).
+     */
+    private void onExpire(UUID uuid) {
+        Long expiresAt = expiries.get(uuid);
+        if (expiresAt == null || expiresAt > System.currentTimeMillis()) {
+            return;
+        }
+        expired.increment();
+        due.add(uuid);
+        kick(uuid);
+    }
+
+    private void kick(UUID uuid) {
+        if (!plugin.getSettings().getBoolean("timed-whitelist.kick-online", true)) {
+            return;
+        }
+        String message = plugin.getSettings().getString("kick.whitelist_expired",
+                "&eDein befristeter Whitelist-Zugang ist abgelaufen.");
+        plugin.kickPlayer(uuid, null, message, () -> {
+            if (!isExpired(uuid)) {
+                return false;
+            }
+            kicked.increment();
+            return true;
+        });
+    }
+
+    /**
+     * Löscht fällige Einträge in Blöcken von {@code timed-whitelist.batch-size}.
+     * Ist MySQL nicht erreichbar, bleiben sie vorgemerkt; der Login wird über
+     * {@link #isExpired(UUID)} trotzdem abgewiesen. Dasselbe gilt, solange die
+     * Ablaufspalte fehlt: dann löscht MySQL nichts und die Einträge bleiben fällig.
+     */
+    private void flush() {
+        if (due.isEmpty() || !schemaReady || plugin.isMysqlUnavailable()
+                || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<UUID> batch = new ArrayList<>(batchSize);
+            for (UUID uuid : due) {
+                batch.add(uuid);
+                if (batch.size() >= batchSize) {
+                    flushBatch(batch);
+                    batch.clear();
+                }
+            }
+            flushBatch(batch);
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("Could not remove expired whitelist entries, will retry: " + ex.getMessage());
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Nur was MySQL tatsächlich gelöscht hat, gilt als erledigt und wird
+     * weitergemeldet. Der Rest bleibt fällig: verlängert ihn ein anderer
+     * Knoten, räumt {@link #reload()} nach dem nächsten Resync auf.
+     */
+    private void flushBatch(List<UUID> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Set<UUID> removed = database.store().deleteExpired(batch, now);
+        deleted.add(removed.size());
+
+        List<UUID> done = new ArrayList<>(removed.size());
+        List<WhitelistStore.Change> changes = new ArrayList<>(removed.size());
+        for (UUID uuid : batch) {
+            // Inzwischen verlängert → nicht mehr fällig
+            Long expiresAt = expiries.get(uuid);
+            if (expiresAt != null && expiresAt > now) {
+                due.remove(uuid);
+                continue;
+            }
+            if (!removed.contains(uuid)) {
+                continue;
+            }
+            done.add(uuid);
+            changes.add(new WhitelistStore.Change(WhitelistStore.ChangeType.DELETE_UUID, uuid.toString(), null));
+        }
+
+        localDb.deleteExpired(done);
+        for (UUID uuid : done) {
+            lookupCache.onDeleted(uuid);
+            expiries.remove(uuid);
+            due.remove(uuid);
+        }
+
+        if (!changes.isEmpty() && plugin.getInvalidationBus() != null) {
+            plugin.getInvalidationBus().publishChanges(changes);
+        }
+        if (!done.isEmpty()) {
+            plugin.getLogger().info("Removed " + done.size() + " expired time-limited whitelist entry(s).");
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🕒 Dauer
+    // ------------------------------------------------------------------------
+
+    public static boolean isDuration(String raw) {
+        return raw != null && DURATION_FULL.matcher(raw).matches();
+    }
+
+    /**
+     * Liest eine Dauer wie {@code 7d}, {@code 12h30m} oder {@code 2w}.
+     *
+     * @return Millisekunden
+     * @throws IllegalArgumentException bei ungültiger Eingabe
+     */
+    public static long parseDuration(String raw) {
+        if (!isDuration(raw)) {
+            throw new IllegalArgumentException("Invalid duration: " + raw);
+        }
+        long total = 0;
+        Matcher m = DURATION.matcher(raw.toLowerCase(Locale.ROOT));
+        while (m.find()) {
+            long amount = Long.parseLong(m.group(1));
+            TimeUnit unit = switch (m.group(2)) {
+                case "s" -> TimeUnit.SECONDS;
+                case "m" -> TimeUnit.MINUTES;
+                case "h" -> TimeUnit.HOURS;
+                case "d" -> TimeUnit.DAYS;
+                default -> {
+                    amount *= 7;
+                    yield TimeUnit.DAYS;
+                }
+            };
+            total = Math.addExact(total, unit.toMillis(amount));
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + raw);
+        }
+        return total;
+    }
+
+    public static String formatDuration(long millis) {
+        long seconds = Math.max(0L, millis / 1_000L);
+        long days = seconds / 86_400L;
+        long hours = seconds % 86_400L / 3_600L;
+        long minutes = seconds % 3_600L / 60L;
+
+        StringBuilder sb = new StringBuilder();
+        if (days > 0) sb.append(days).append('d');
+        if (hours > 0) sb.append(hours).append('h');
+        if (minutes > 0 || sb.isEmpty()) sb.append(minutes).append('m');
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // 📊 Metriken
+    // ------------------------------------------------------------------------
+
+    public String format() {
+        if (!enabled) {
+            return "disabled";
+        }
+        return String.format(Locale.ROOT, "tracked %d, scheduled %d, due %d, expired %d, deleted %d, kicked %d%s",
+                expiries.size(), wheel.size(), due.size(), expired.sum(), deleted.sum(), kicked.sum(),
+                schemaReady ? "" : " (column missing)");
+    }
+}
@@ -0,0 +1,121 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  ⏲️ TimingWheel
+ *  --------------
+ *  Hashed Timing Wheel für viele Ablaufzeitpunkte im Speicher.
+ *
+ *  Statt regelmässig alle Einträge nach Abgelaufenen zu durchsuchen, wird
+ *  jeder Eintrag in den "Slot" seines Ablauf-Ticks gelegt. Pro Tick wird nur
+ *  genau ein Slot angeschaut → Kosten hängen von der Anzahl ablaufender
+ *  Einträge ab, nicht von der Gesamtzahl.
+ *
+ *  Einträge, die weiter als eine Umdrehung in der Zukunft liegen, bleiben
+ *  im Slot liegen, bis ihr Zeitpunkt tatsächlich erreicht ist.
+ *
+ *  Thread-sicher; der Callback wird ausserhalb des Locks aufgerufen.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ *
+ * @param <K> Schlüssel (z. B. Spieler-UUID)
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Map<K, Long>> slots;
+    private final Map<K, Integer> slotOf = new HashMap<>();
+    private final Consumer<K> onExpire;
+
+    /** Zuletzt verarbeiteter Tick (Millis / tickMillis). */
+    private long currentTick;
+
+    /**
+     * @param tickMillis Auflösung in Millisekunden
+     * @param wheelSize  Anzahl Slots (eine Umdrehung = tickMillis * wheelSize)
+     * @param onExpire   Wird für jeden abgelaufenen Schlüssel aufgerufen
+     */
+    public TimingWheel(long tickMillis, int wheelSize, Consumer<K> onExpire) {
+        this.tickMillis = Math.max(1L, tickMillis);
+        this.slots = new ArrayList<>(Math.max(1, wheelSize));
+        for (int i = 0; i < Math.max(1, wheelSize); i++) {
+            slots.add(new HashMap<>());
+        }
+        this.onExpire = onExpire;
+        this.currentTick = System.currentTimeMillis() / this.tickMillis;
+    }
+
+    /**
+     * Plant (oder verschiebt) den Ablauf eines Schlüssels.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        removeInternal(key);
+
+        long tick = Math.max(currentTick + 1, ceilDiv(deadlineMillis, tickMillis));
+        int slot = (int) Math.floorMod(tick, (long) slots.size());
+        slots.get(slot).put(key, deadlineMillis);
+        slotOf.put(key, slot);
+    }
+
+    public synchronized boolean cancel(K key) {
+        return removeInternal(key);
+    }
+
+    public synchronized int size() {
+        return slotOf.size();
+    }
+
+    /**
+     * Rückt das Rad bis {@code nowMillis} vor und meldet alle abgelaufenen
+     * Schlüssel an den Callback.
+     */
+    public void advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            // Nach einer langen Pause reicht eine volle Umdrehung
+            long from = Math.max(currentTick + 1, targetTick - slots.size() + 1);
+
+            for (long tick = from; tick <= targetTick; tick++) {
+                Map<K, Long> slot = slots.get((int) Math.floorMod(tick, (long) slots.size()));
+                Iterator<Map.Entry<K, Long>> it = slot.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<K, Long> entry = it.next();
+                    if (entry.getValue() <= nowMillis) {
+                        it.remove();
+                        slotOf.remove(entry.getKey());
+                        expired.add(entry.getKey());
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, targetTick);
+        }
+
+        for (K key : expired) {
+            onExpire.accept(key);
+        }
+    }
+
+    private boolean removeInternal(K key) {
+        Integer slot = slotOf.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        slots.get(slot).remove(key);
+        return true;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+}
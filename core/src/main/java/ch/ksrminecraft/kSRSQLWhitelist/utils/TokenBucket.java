@@ -0,0 +1,97 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🪣 TokenBucket
+ *  --------------
+ *  Lock-freier Token-Bucket für Rate-Limits.
+ *
+ *  Umsetzung:
+ *   Statt "Tokens + letzter Refill" wird nur ein einziger Zeitstempel
+ *   gespeichert: der theoretische Zeitpunkt, zu dem der Bucket wieder voll
+ *   wäre (GCRA). Jede Entnahme schiebt ihn um ein Token-Intervall nach hinten.
+ *   Dadurch reicht ein einzelnes {@link AtomicLong} mit CAS – ohne Locks.
+ *
+ *  Kapazität = maximaler Burst, Rate = nachgefüllte Tokens pro Sekunde.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    /** Zeitpunkt (System.nanoTime), ab dem der Bucket wieder voll ist. */
+    private final AtomicLong fullAt;
+
+    /**
+     * @param tokensPerSecond Nachfüllrate (muss > 0 sein)
+     * @param capacity        Maximale Anzahl Tokens (Burst)
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("tokensPerSecond must be > 0");
+        }
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, capacity);
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Entnimmt ein Token, falls verfügbar.
+     *
+     * @return {@code false}, wenn der Bucket leer ist
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true}, wenn der Bucket wieder voll ist – er verhält sich
+     * dann genau wie ein neu erzeugter und darf verworfen werden
+     */
+    public boolean isFull() {
+        return fullAt.get() - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Entnimmt ein Token und wartet, bis es verfügbar ist. Die Reservierung
+     * erfolgt sofort, damit mehrere Wartende sauber nacheinander drankommen.
+     */
+    public void acquire() throws InterruptedException {
+        long now = System.nanoTime();
+        long next;
+        while (true) {
+            long current = fullAt.get();
+            next = Math.max(current, now) + intervalNanos;
+            if (fullAt.compareAndSet(current, next)) {
+                break;
+            }
+        }
+
+        long waitUntil = next - burstNanos;
+        long remaining;
+        while ((remaining = waitUntil - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
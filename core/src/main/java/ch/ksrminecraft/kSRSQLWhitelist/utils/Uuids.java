@@ -0,0 +1,40 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.util.UUID;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🆔 Uuids
+ *  --------
+ *  Gemeinsames Parsen von UUIDs aus der Whitelist-Tabelle, der lokalen
+ *  Fallback-Datei und dem Invalidierungs-Log. Akzeptiert die Form mit und
+ *  ohne Bindestriche.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+final class Uuids {
+
+    private Uuids() {
+    }
+
+    /**
+     * @return die UUID oder {@code null}, falls {@code raw} leer oder ungültig ist
+     */
+    static UUID parse(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String s = raw.trim();
+        if (s.length() == 32) {
+            s = s.substring(0, 8) + "-" + s.substring(8, 12) + "-" + s.substring(12, 16)
+                    + "-" + s.substring(16, 20) + "-" + s.substring(20);
+        }
+        try {
+            return UUID.fromString(s);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  ♨️ WarmRestartSnapshot
+ *  ----------------------
+ *  Sichert die Laufzeit-Caches beim Stoppen in eine kompakte Binärdatei
+ *  ({@code runtime-state.bin}) und lädt sie beim nächsten Start, noch bevor
+ *  MySQL erreichbar ist. Direkt nach einem Neustart reconnectende Spieler
+ *  treffen so auf einen warmen Login-Cache.
+ *
+ *  Inhalt:
+ *   - L1-Entscheide des {@link TieredWhitelistCache}
+ *   - aktive Protected-World-Sperren
+ *
+ *  Format (Big Endian):
+ *   magic "KSRW" | version u16 | savedAt i64 |
+ *   L1-Anzahl i32 | { uuid 2×i64 | flags u8 | [name UTF] | loadedAt i64 | expiresAt i64 }* |
+ *   Sperren-Anzahl i32 | { uuid 2×i64 | blockedUntil i64 }* |
+ *   CRC32 über alle vorherigen Bytes i32
+ *
+ *  Die Datei wird als ".tmp" geschrieben und atomar umbenannt. Ist sie
+ *  beschädigt, zu alt oder von einer unbekannten Version, wird sie ignoriert.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class WarmRestartSnapshot {
+
+    private static final int MAGIC = 0x4B535257; // "KSRW"
+    private static final int VERSION = 1;
+    private static final String FILE_NAME = "runtime-state.bin";
+
+    private static final int FLAG_WHITELISTED = 1;
+    private static final int FLAG_HAS_NAME = 2;
+
+    private final WhitelistPlatform plugin;
+
+    public WarmRestartSnapshot(WhitelistPlatform plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean isEnabled() {
+        return plugin.getSettings().getBoolean("warm-restart.enabled", true);
+    }
+
+    private Path file() {
+        return plugin.getDataFolder().toPath().resolve(FILE_NAME);
+    }
+
+    // ------------------------------------------------------------------------
+    // 💾 Speichern
+    // ------------------------------------------------------------------------
+
+    public void save(TieredWhitelistCache cache, ProtectedAccessBlockService blocks) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Path target = file();
+        Path tmp = target.resolveSibling(FILE_NAME + ".tmp");
+
+        List<TieredWhitelistCache.CachedDecision> decisions = cache.exportL1();
+        Map<UUID, Long> activeBlocks = blocks.exportActiveBlocks();
+
+        try {
+            Files.createDirectories(target.getParent());
+
+            CRC32 crc = new CRC32();
+            try (OutputStream file = Files.newOutputStream(tmp);
+                 CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 64 * 1024), crc);
+                 DataOutputStream out = new DataOutputStream(checked)) {
+
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeLong(System.currentTimeMillis());
+
+                out.writeInt(decisions.size());
+                for (TieredWhitelistCache.CachedDecision d : decisions) {
+                    writeUUID(out, d.uuid());
+                    int flags = (d.whitelisted() ? FLAG_WHITELISTED : 0) | (d.name() != null ? FLAG_HAS_NAME : 0);
+                    out.writeByte(flags);
+                    if (d.name() != null) {
+                        out.writeUTF(d.name());
+                    }
+                    out.writeLong(d.loadedAt());
+                    out.writeLong(d.expiresAt());
+                }
+
+                out.writeInt(activeBlocks.size());
+                for (Map.Entry<UUID, Long> e : activeBlocks.entrySet()) {
+                    writeUUID(out, e.getKey());
+                    out.writeLong(e.getValue());
+                }
+
+                // Prüfsumme über alles bisher Geschriebene (sie selbst zählt nicht mit)
+                int checksum = (int) crc.getValue();
+                out.writeInt(checksum);
+            }
+
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            plugin.getLogger().info("Saved warm-restart snapshot: " + decisions.size() + " cached decision(s), "
+                    + activeBlocks.size() + " block(s), " + Files.size(target) + " bytes in "
+                    + (System.nanoTime() - start) / 1_000_000L + "ms.");
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Could not save warm-restart snapshot: " + ex.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📥 Laden
+    // ------------------------------------------------------------------------
+
+    /**
+     * Lädt den Snapshot (falls vorhanden und gültig) in die Caches. Die Datei
+     * wird danach gelöscht, damit ein späterer Absturz keinen veralteten
+     * Zustand erneut einspielt.
+     */
+    public void load(TieredWhitelistCache cache, ProtectedAccessBlockService blocks) {
+        Path source = file();
+        if (!isEnabled() || !Files.isRegularFile(source)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] bytes;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+                bytes = in.readAllBytes();
+            }
+
+            if (bytes.length < 4) {
+                throw new IOException("file truncated");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            int stored = ((bytes[bytes.length - 4] & 0xFF) << 24) | ((bytes[bytes.length - 3] & 0xFF) << 16)
+                    | ((bytes[bytes.length - 2] & 0xFF) << 8) | (bytes[bytes.length - 1] & 0xFF);
+            if ((int) crc.getValue() != stored) {
+                throw new IOException("checksum mismatch");
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a warm-restart snapshot");
+            }
+            int version = in.readUnsignedShort();
+            if (version != VERSION) {
+                throw new IOException("unsupported version " + version);
+            }
+
+            long savedAt = in.readLong();
+            long maxAgeMs = Math.max(0L, plugin.getSettings().getLong("warm-restart.max-age-seconds", 600L)) * 1000L;
+            long age = System.currentTimeMillis() - savedAt;
+            if (age > maxAgeMs) {
+                plugin.getLogger().info("Ignoring warm-restart snapshot, it is " + age / 1000L + "s old.");
+                return;
+            }
+
+            int decisionCount = in.readInt();
+            List<TieredWhitelistCache.CachedDecision> decisions = new ArrayList<>(Math.max(0, Math.min(decisionCount, 100_000)));
+            for (int i = 0; i < decisionCount; i++) {
+                UUID uuid = readUUID(in);
+                int flags = in.readUnsignedByte();
+                String name = (flags & FLAG_HAS_NAME) != 0 ? in.readUTF() : null;
+                long loadedAt = in.readLong();
+                long expiresAt = in.readLong();
+                decisions.add(new TieredWhitelistCache.CachedDecision(
+                        uuid, (flags & FLAG_WHITELISTED) != 0, name, loadedAt, expiresAt));
+            }
+
+            int blockCount = in.readInt();
+            Map<UUID, Long> activeBlocks = new HashMap<>();
+            for (int i = 0; i < blockCount; i++) {
+                activeBlocks.put(readUUID(in), in.readLong());
+            }
+
+            int restoredDecisions = cache.restoreL1(decisions);
+            int restoredBlocks = blocks.restoreActiveBlocks(activeBlocks);
+
+            plugin.getLogger().info("Loaded warm-restart snapshot: " + restoredDecisions + "/" + decisionCount
+                    + " cached decision(s), " + restoredBlocks + "/" + blockCount + " block(s) in "
+                    + (System.nanoTime() - start) / 1_000_000L + "ms.");
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Ignoring unreadable warm-restart snapshot: " + ex.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(source);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,173 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  📤 WhitelistExporter
+ *  --------------------
+ *  Exportiert die komplette Whitelist als CSV oder NDJSON in den
+ *  Ordner {@code exports/} des Plugins (/whitelist export &lt;csv|ndjson&gt;).
+ *
+ *  Speicherverbrauch bleibt konstant, egal wie gross die Tabelle ist:
+ *   - MySQL wird per Forward-Only-Cursor gestreamt
+ *   - Jede Zeile wird sofort über einen gepufferten FileChannel geschrieben
+ *   - Die Datei entsteht zuerst als ".part" und wird erst am Ende umbenannt
+ *
+ *  Ist MySQL nicht erreichbar, wird aus der lokalen Fallback-Datenbank exportiert.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class WhitelistExporter {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * Unterstützte Exportformate.
+     */
+    public enum Format {
+        CSV("csv"),
+        NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final WhitelistPlatform plugin;
+    private final WhitelistService service;
+
+    public WhitelistExporter(WhitelistPlatform plugin, WhitelistService service) {
+        this.plugin = plugin;
+        this.service = service;
+    }
+
+    // ------------------------------------------------------------------------
+    // 🚀 Export
+    // ------------------------------------------------------------------------
+
+    public Result export(Format format) throws IOException, SQLException {
+        Path dir = plugin.getDataFolder().toPath().resolve("exports");
+        Files.createDirectories(dir);
+
+        String baseName = "whitelist-" + LocalDateTime.now().format(FILE_STAMP) + "." + format.extension();
+        Path target = dir.resolve(baseName);
+        Path part = dir.resolve(baseName + ".part");
+
+        long start = System.nanoTime();
+        long rows;
+        boolean local = plugin.isMysqlUnavailable();
+
+        try {
+            try {
+                rows = writeFile(part, format, local);
+            } catch (SQLException ex) {
+                if (local) {
+                    throw ex;
+                }
+                plugin.getLogger().warning("[KSR-SQL-Whitelist] MySQL export failed, exporting local fallback instead: "
+                        + ex.getMessage());
+                local = true;
+                rows = writeFile(part, format, true);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+
+        long elapsedMs = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+        Result result = new Result(plugin.getDataFolder().toPath().relativize(target).toString(),
+                rows, Files.size(target), elapsedMs, local);
+
+        plugin.getLogger().info("[KSR-SQL-Whitelist] Exported " + rows + " whitelist entries to "
+                + result.file() + " in " + elapsedMs + "ms" + (local ? " (local fallback)." : "."));
+        return result;
+    }
+
+    private long writeFile(Path file, Format format, boolean local) throws IOException, SQLException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+
+            if (format == Format.CSV) {
+                out.write("uuid,name\n");
+            }
+
+            WhitelistService.EntryVisitor visitor = (uuid, name) -> writeRow(out, format, uuid, name);
+            return local ? service.streamEntriesLocal(visitor) : service.streamEntries(visitor);
+        }
+    }
+
+    private static void writeRow(Writer out, Format format, String uuid, String name) throws IOException {
+        switch (format) {
+            case CSV -> {
+                out.write(csv(uuid));
+                out.write(',');
+                out.write(csv(name));
+                out.write('\n');
+            }
+            case NDJSON -> {
+                out.write("{\"uuid\":");
+                out.write(uuid == null ? "null" : JSONObject.quote(uuid));
+                out.write(",\"name\":");
+                out.write(name == null ? "null" : JSONObject.quote(name));
+                out.write("}\n");
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Ergebnis
+    // ------------------------------------------------------------------------
+
+    public record Result(String file, long rows, long bytes, long elapsedMs, boolean fromLocalFallback) {
+
+        public String format() {
+            return String.format(Locale.ROOT, "%d rows, %.1f KiB in %.2fs (%.0f rows/s)",
+                    rows, bytes / 1024.0, elapsedMs / 1000.0, rows * 1000.0 / elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧩 WhitelistPlatform
+ *  --------------------
+ *  Alles, was die gemeinsamen Dienste vom Plugin brauchen – implementiert
+ *  vom Paper-Plugin und vom Velocity-Proxy.
+ *
+ *  Die Dienste in diesem Modul kennen weder Bukkit noch Velocity; Config,
+ *  Logger, Datenordner, Ausfallzustand und das Kicken von Spielern kommen
+ *  ausschliesslich über diese Schnittstelle.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public interface WhitelistPlatform {
+
+    PlatformSettings getSettings();
+
+    Logger getLogger();
+
+    File getDataFolder();
+
+    PluginExecutor getExecutor();
+
+    // ------------------------------------------------------------------------
+    // 🩺 MySQL-Zustand
+    // ------------------------------------------------------------------------
+
+    boolean isMysqlUnavailable();
+
+    void handleMysqlFailure(String message, Exception exception);
+
+    void handleMysqlRecovery();
+
+    // ------------------------------------------------------------------------
+    // 🧱 Dienste
+    // ------------------------------------------------------------------------
+
+    WhitelistService getWhitelistService();
+
+    ProtectedAccessBlockService getProtectedAccessBlockService();
+
+    InvalidationBus getInvalidationBus();
+
+    ClusterResyncCoordinator getResyncCoordinator();
+
+    // ------------------------------------------------------------------------
+    // 👢 Spieler
+    // ------------------------------------------------------------------------
+
+    /**
+     * Trennt einen Online-Spieler. Darf von jedem Thread aus aufgerufen werden;
+     * die Plattform wechselt bei Bedarf selbst auf den richtigen Thread.
+     *
+     * @param uuid      gesuchter Spieler oder {@code null}, um nach {@code name} zu suchen
+     * @param message   Kick-Nachricht mit {@code &}-Farbcodes
+     * @param stillDue  wird unmittelbar vor dem Kick geprüft; {@code false} bricht ab
+     */
+    void kickPlayer(UUID uuid, String name, String message, BooleanSupplier stillDue);
+
+    default void kickPlayer(UUID uuid, String name, String message) {
+        kickPlayer(uuid, name, message, () -> true);
+    }
+}
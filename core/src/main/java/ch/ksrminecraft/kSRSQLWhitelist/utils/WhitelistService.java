@@ -0,0 +1,700 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+public class WhitelistService {
+
+    /** Maximale Anzahl Zeilen bzw. Parameter-Gruppen pro Bulk-Statement. */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    private final WhitelistPlatform plugin;
+    private final Database db;
+    private final LocalFallbackDatabase localDb;
+    private final LoginLookupBatcher loginBatcher;
+    private final MutationOutbox outbox;
+    private final TieredWhitelistCache lookupCache;
+    private final TimedWhitelistService timed;
+
+    public WhitelistService(WhitelistPlatform plugin, Database db, LocalFallbackDatabase localDb) {
+        this.plugin = plugin;
+        this.db = db;
+        this.localDb = localDb;
+        this.loginBatcher = new LoginLookupBatcher(plugin, this);
+        this.outbox = new MutationOutbox(plugin, this, localDb);
+        this.lookupCache = new TieredWhitelistCache(plugin, localDb, this::isWhitelistedMysql);
+        this.timed = new TimedWhitelistService(plugin, db, localDb, lookupCache);
+    }
+
+    /**
+     * Login-Prüfung über den {@link TieredWhitelistCache} (L1 → L2 → MySQL).
+     * Abgelaufene befristete Einträge werden vorher im Speicher abgewiesen.
+     */
+    public boolean isWhitelisted(UUID uuid, String name) throws SQLException {
+        if (timed.isExpired(uuid)) {
+            return false;
+        }
+        return lookupCache.lookup(uuid, name);
+    }
+
+    /**
+     * Login-Prüfung gegen MySQL. Gleichzeitige Prüfungen werden über den
+     * {@link LoginLookupBatcher} zu einer einzigen Abfrage gebündelt.
+     */
+    private boolean isWhitelistedMysql(UUID uuid, String name) throws SQLException {
+        if (loginBatcher.isEnabled()) {
+            return loginBatcher.lookup(uuid, name);
+        }
+        return isWhitelistedBatch(Map.of(uuid, name)).get(uuid);
+    }
+
+    /**
+     * Löst mehrere Login-Prüfungen mit einem einzigen {@code WHERE uuid IN (...)} auf.
+     *
+     * Verhalten pro Spieler wie bei der Einzelprüfung:
+     * - UUID gefunden → ggf. 32-stellige UUID korrigieren und Namen aktualisieren
+     * - sonst Eintrag nur mit Namen (ohne UUID) → UUID nachtragen
+     *
+     * Updates werden nur geschrieben, wenn sich tatsächlich etwas geändert hat,
+     * und gesammelt als JDBC-Batch ausgeführt.
+     *
+     * @param logins UUID → Login-Name
+     * @return UUID → whitelisted
+     */
+    public Map<UUID, Boolean> isWhitelistedBatch(Map<UUID, String> logins) throws SQLException {
+        WhitelistStore.LoginResult result = db.store().checkLogins(logins);
+
+        for (Map.Entry<UUID, String> fixed : result.fixedFrom().entrySet()) {
+            plugin.getLogger().warning("Fixed malformed UUID for " + logins.get(fixed.getKey())
+                    + " (" + fixed.getValue() + " -> " + fixed.getKey() + ")");
+        }
+
+        if (!result.matched().isEmpty()) {
+            List<LocalFallbackDatabase.WhitelistEntry> mirror = new ArrayList<>(result.matched().size());
+            for (WhitelistStore.Entry entry : result.matched()) {
+                mirror.add(new LocalFallbackDatabase.WhitelistEntry(entry.uuid(), entry.name()));
+            }
+            try {
+                localDb.upsertAll(mirror);
+            } catch (SQLException ex) {
+                plugin.getLogger().warning("Could not update local fallback cache for " + mirror.size() + " player(s): " + ex.getMessage());
+            }
+        }
+
+        return result.whitelisted();
+    }
+
+    public MutationOutbox getOutbox() {
+        return outbox;
+    }
+
+    public LoginLookupBatcher getLoginBatcher() {
+        return loginBatcher;
+    }
+
+    public TieredWhitelistCache getLookupCache() {
+        return lookupCache;
+    }
+
+    public TimedWhitelistService getTimedWhitelist() {
+        return timed;
+    }
+
+    public boolean isWhitelistedLocal(UUID uuid, String name) throws SQLException {
+        if (timed.isExpired(uuid)) {
+            return false;
+        }
+        return lookupCache.lookupLocal(uuid, name);
+    }
+
+    public boolean existsInWhitelist(String playerName) {
+        try {
+            if (existsInWhitelistByName(playerName)) {
+                return true;
+            }
+
+            String uuid = fetchUUIDFromMojang(playerName);
+            return uuid != null && existsInWhitelistByUUID(uuid);
+        } catch (Exception ex) {
+            plugin.getLogger().warning("[KSR-SQL-Whitelist] Whitelist check failed for " + playerName + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    public boolean existsInWhitelistByName(String playerName) throws SQLException {
+        return db.store().existsByName(playerName);
+    }
+
+    public boolean existsInWhitelistByUUID(String uuid) throws SQLException {
+        return db.store().existsByUUID(uuid);
+    }
+
+    /**
+     * Lädt die Registrierungsdaten eines Spielers aus der Registrierungs-Tabelle
+     * der Website (registration.*).
+     *
+     * Die Website-Tabelle liegt immer in MySQL; bei anderen Speicher-Engines
+     * ({@code storage.type}) gibt es keine Registrierungsdaten.
+     *
+     * @return Registrierungsdaten oder {@code null}, wenn kein Eintrag existiert
+     */
+    public RegistrationInfo findRegistration(String playerName) throws SQLException {
+        if (!"mysql".equals(db.store().engine())) {
+            return null;
+        }
+
+        String regTable = plugin.getSettings().getString("registration.table", "registrations");
+        String colUser = plugin.getSettings().getString("registration.column_username", "minecraft_username");
+        String colFirst = plugin.getSettings().getString("registration.column_firstname", "firstname");
+        String colLast = plugin.getSettings().getString("registration.column_lastname", "lastname");
+        String colMail = plugin.getSettings().getString("registration.column_email", "email");
+        String colSchool = plugin.getSettings().getString("registration.column_school", "school");
+        String colCreated = plugin.getSettings().getString("registration.column_created_at", "created_at");
+
+        String sql = "SELECT `" + colFirst + "`, `" + colLast + "`, `" + colMail + "`, `" + colSchool + "`, `" + colCreated + "` " +
+                "FROM `" + regTable + "` WHERE `" + colUser + "` = ? LIMIT 1";
+
+        try (Connection c = db.openReadConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, playerName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+
+                Timestamp ts = rs.getTimestamp(colCreated);
+                return new RegistrationInfo(
+                        rs.getString(colFirst),
+                        rs.getString(colLast),
+                        rs.getString(colMail),
+                        rs.getString(colSchool),
+                        ts != null ? ts.toString().replace("T", " ") : null
+                );
+            }
+        }
+    }
+
+    public record RegistrationInfo(String firstname, String lastname, String email,
+                                   String school, String registeredSince) {}
+
+    /**
+     * Fügt einen Online-Spieler hinzu. Die Änderung landet sofort im lokalen
+     * Cache und wird über die {@link MutationOutbox} nach MySQL übertragen.
+     */
+    public void addOrUpdateOnline(UUID uuid, String name) throws SQLException {
+        addOrUpdateOnline(uuid, name, 0L);
+    }
+
+    /**
+     * @param expiresAt Ablaufzeitpunkt (Epoch-Millis), {@code 0} = unbefristet
+     */
+    public void addOrUpdateOnline(UUID uuid, String name, long expiresAt) throws SQLException {
+        List<LocalFallbackDatabase.WhitelistEntry> entries = List.of(
+                new LocalFallbackDatabase.WhitelistEntry(uuid.toString(), name));
+        outbox.enqueueUpserts(entries, expiresAt);
+        lookupCache.onUpserted(entries);
+        trackExpiry(uuid, expiresAt);
+    }
+
+    /**
+     * Fügt einen Offline-Spieler anhand seines Namens hinzu (UUID via Mojang).
+     * Die Existenzprüfung läuft gegen den lokalen Cache, damit ein langsames
+     * MySQL den Befehl nicht blockiert.
+     */
+    public void addOfflineName(String name) throws SQLException {
+        addOfflineName(name, 0L);
+    }
+
+    /**
+     * @param expiresAt Ablaufzeitpunkt (Epoch-Millis), {@code 0} = unbefristet.
+     *                  Ein bestehender Eintrag wird dabei neu befristet.
+     */
+    public void addOfflineName(String name, long expiresAt) throws SQLException {
+        // Bestehende Einträge nur überspringen, wenn keine Befristung zu setzen oder aufzuheben ist
+        if (expiresAt == 0) {
+            UUID known = localDb.findUuidByName(name);
+            if (known != null && timed.expiresAt(known) == 0) {
+                return;
+            }
+        }
+
+        String uuid = fetchUUIDFromMojang(name);
+        if (uuid == null) {
+            plugin.getLogger().warning("[KSR-SQL-Whitelist] Could not find Mojang UUID for player '" + name + "'.");
+            throw new SQLException("Player '" + name + "' is not a valid Mojang account.");
+        }
+
+        List<LocalFallbackDatabase.WhitelistEntry> entries = List.of(new LocalFallbackDatabase.WhitelistEntry(uuid, name));
+        outbox.enqueueUpserts(entries, expiresAt);
+        lookupCache.onUpserted(entries);
+        trackExpiry(Uuids.parse(uuid), expiresAt);
+        plugin.getLogger().info("[KSR-SQL-Whitelist] Added Mojang-verified player: " + name + " (" + uuid + ")");
+    }
+
+    String fetchUUIDFromMojang(String playerName) {
+        try {
+            return plugin.getExecutor().call(PluginExecutor.Lane.HTTP, () -> {
+                URL url = new URL("https://api.ashcon.app/mojang/v2/user/" + playerName);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestProperty("User-Agent", "KSR-SQL-Whitelist");
+                conn.setConnectTimeout(4000);
+                conn.setReadTimeout(4000);
+                conn.setRequestMethod("GET");
+
+                if (conn.getResponseCode() != 200) {
+                    return null;
+                }
+
+                try (InputStream is = conn.getInputStream();
+                     Scanner scanner = new Scanner(is).useDelimiter("\\A")) {
+                    String json = scanner.hasNext() ? scanner.next() : "";
+                    if (json.isEmpty()) return null;
+
+                    JSONObject obj = new JSONObject(json);
+                    String rawUUID = obj.optString("uuid", null);
+                    if (rawUUID == null || rawUUID.isEmpty()) return null;
+                    return rawUUID;
+                }
+            });
+        } catch (Exception e) {
+            plugin.getLogger().warning("[KSR-SQL-Whitelist] Failed to fetch UUID for " + playerName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Liefert die bereits auf der Whitelist stehenden Namen (klein geschrieben)
+     * aus der übergebenen Menge. Abfrage in Blöcken à 500 Namen.
+     */
+    public Set<String> findExistingNames(Collection<String> names) throws SQLException {
+        try {
+            return findExistingNamesMysql(names);
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("[KSR-SQL-Whitelist] MySQL name check failed, using local cache: " + ex.getMessage());
+
+            Set<String> out = new HashSet<>();
+            List<String> all = new ArrayList<>(names);
+            for (int from = 0; from < all.size(); from += BULK_CHUNK_SIZE) {
+                out.addAll(localDb.findExistingNames(all.subList(from, Math.min(all.size(), from + BULK_CHUNK_SIZE))));
+            }
+            return out;
+        }
+    }
+
+    private Set<String> findExistingNamesMysql(Collection<String> names) throws SQLException {
+        return db.store().findExistingNames(names);
+    }
+
+    /**
+     * Fügt viele Einträge auf einmal hinzu (lokaler Cache + Outbox in einer
+     * SQLite-Transaktion). MySQL erhält sie gebündelt über {@link #applyMutations(List)}.
+     */
+    public void addAll(List<LocalFallbackDatabase.WhitelistEntry> entries) throws SQLException {
+        outbox.enqueueUpserts(entries);
+        lookupCache.onUpserted(entries);
+        if (timed.hasEntries()) {
+            for (LocalFallbackDatabase.WhitelistEntry entry : entries) {
+                trackExpiry(Uuids.parse(entry.uuid()), 0L);
+            }
+        }
+    }
+
+    private void trackExpiry(UUID uuid, long expiresAt) throws SQLException {
+        if (uuid == null) {
+            return;
+        }
+        if (expiresAt > 0) {
+            timed.track(uuid, expiresAt);
+        } else {
+            timed.untrack(uuid);
+        }
+    }
+
+    /**
+     * Überträgt Outbox-Einträge in einer Transaktion nach MySQL.
+     *
+     * Die Reihenfolge bleibt erhalten: Aufeinanderfolgende Einträge derselben
+     * Art werden zusammengefasst – UPSERTs als mehrzeiliges
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE}, Löschungen als {@code DELETE ... IN (...)}.
+     * Alle Operationen sind idempotent, ein erneutes Übertragen ist also unkritisch.
+     */
+    void applyMutations(List<MutationOutbox.Mutation> mutations) throws SQLException {
+        List<WhitelistStore.Change> changes = new ArrayList<>(mutations.size());
+        for (MutationOutbox.Mutation m : mutations) {
+            WhitelistStore.ChangeType type = switch (m.op()) {
+                case UPSERT -> WhitelistStore.ChangeType.UPSERT;
+                case DELETE_UUID -> WhitelistStore.ChangeType.DELETE_UUID;
+                case DELETE_NAME -> WhitelistStore.ChangeType.DELETE_NAME;
+            };
+            changes.add(new WhitelistStore.Change(type, m.uuid(), m.name(), m.expiresAt()));
+        }
+        db.store().apply(changes);
+        timed.onApplied(changes);
+
+        if (plugin.getInvalidationBus() != null) {
+            plugin.getInvalidationBus().publishChanges(changes);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 📥 Änderungen anderer Backends (siehe InvalidationBus)
+    // ------------------------------------------------------------------------
+    // MySQL ist bereits aktuell; nur L1-Cache und Fallback-Datei werden
+    // nachgeführt, ohne Umweg über die Outbox.
+
+    /**
+     * @param expiresAt Ablauf eines befristeten Eintrags, {@code 0} = unbefristet
+     */
+    void applyRemoteUpsert(String uuid, String name, long expiresAt) throws SQLException {
+        List<LocalFallbackDatabase.WhitelistEntry> entries = List.of(new LocalFallbackDatabase.WhitelistEntry(uuid, name));
+        localDb.upsertAll(entries);
+        lookupCache.onUpserted(entries);
+        trackExpiry(Uuids.parse(uuid), expiresAt);
+    }
+
+    void applyRemoteDeleteByUUID(UUID uuid) throws SQLException {
+        localDb.deleteByUUID(uuid);
+        lookupCache.onDeleted(uuid);
+        timed.untrack(uuid);
+    }
+
+    void applyRemoteDeleteByName(String name) throws SQLException {
+        localDb.deleteByName(name);
+        lookupCache.onDeletedByName(name);
+    }
+
+    /**
+     * Entfernt einen Eintrag per UUID. Die Anzahl bezieht sich auf den lokalen
+     * Cache; die Löschung in MySQL wird in jedem Fall über die Outbox ausgeführt.
+     */
+    public int deleteByUUID(UUID uuid) throws SQLException {
+        int deleted = outbox.enqueueDeleteByUUID(uuid);
+        lookupCache.onDeleted(uuid);
+        timed.untrack(uuid);
+        return deleted;
+    }
+
+    public int deleteByName(String name) throws SQLException {
+        int deleted = outbox.enqueueDeleteByName(name);
+        lookupCache.onDeletedByName(name);
+        return deleted;
+    }
+
+    public List<String> listWhitelistedNames() throws SQLException {
+        return db.store().listNames();
+    }
+
+    /**
+     * Liefert eine Seite von Whitelist-Namen per Keyset-Pagination.
+     *
+     * Statt alle Namen zu laden, wird ab dem letzten Namen der vorherigen Seite
+     * weitergelesen ({@code WHERE name > ? ORDER BY name LIMIT n}). Dadurch kann
+     * der Index auf der Namensspalte direkt genutzt werden.
+     *
+     * @param afterName Letzter Name der vorherigen Seite oder {@code null} für die erste Seite
+     * @param prefix    Optionaler Namensfilter (Präfix) oder {@code null}
+     * @param limit     Maximale Anzahl Namen
+     * @return Namen der Seite, alphabetisch sortiert
+     */
+    public List<String> listWhitelistedNamesPage(String afterName, String prefix, int limit) throws SQLException {
+        return db.store().listNamesPage(afterName, prefix, limit);
+    }
+
+    /**
+     * Liefert den Namen an Position {@code offset} (0-basiert) der sortierten Liste.
+     * Wird als Einstiegspunkt für einen Sprung direkt auf eine spätere Seite genutzt;
+     * danach wird wieder per Keyset weitergelesen.
+     *
+     * @return Name oder {@code null}, wenn die Liste kürzer ist
+     */
+    public String findNameAtOffset(String prefix, int offset) throws SQLException {
+        return db.store().findNameAtOffset(prefix, offset);
+    }
+
+    /**
+     * Zählt die (eindeutigen) Whitelist-Namen, optional gefiltert per Präfix.
+     */
+    public int countWhitelistedNames(String prefix) throws SQLException {
+        return db.store().countNames(prefix);
+    }
+
+    /**
+     * Zählt, wie viele der übergebenen UUIDs (typischerweise die Online-Spieler)
+     * auf der Whitelist stehen. Ein einziger {@code IN (...)}-Query statt einer
+     * Abfrage pro Whitelist-Eintrag.
+     */
+    public int countWhitelistedAmong(Collection<UUID> uuids) throws SQLException {
+        return db.store().countAmong(uuids);
+    }
+
+    /**
+     * Liest alle Whitelist-Einträge zeilenweise und übergibt sie dem Visitor.
+     *
+     * Der Store streamt die Zeilen (MySQL: {@code fetchSize = Integer.MIN_VALUE},
+     * PostgreSQL: Cursor in einer Transaktion), statt das ganze Resultat in den
+     * Speicher zu laden.
+     */
+    public long streamEntries(EntryVisitor visitor) throws SQLException, IOException {
+        return db.store().scan(visitor::accept);
+    }
+
+    public long streamEntriesLocal(EntryVisitor visitor) throws SQLException, IOException {
+        return localDb.streamEntries(visitor);
+    }
+
+    /**
+     * Empfänger für gestreamte Whitelist-Zeilen.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void accept(String uuid, String name) throws IOException;
+    }
+
+    public List<String> listWhitelistedNamesLocal() throws SQLException {
+        return localDb.listWhitelistedNames();
+    }
+
+    public List<String> listWhitelistedNamesPageLocal(String afterName, String prefix, int limit) throws SQLException {
+        return localDb.listWhitelistedNamesPage(afterName, prefix, limit);
+    }
+
+    public String findNameAtOffsetLocal(String prefix, int offset) throws SQLException {
+        return localDb.findNameAtOffset(prefix, offset);
+    }
+
+    public int countWhitelistedNamesLocal(String prefix) throws SQLException {
+        return localDb.countWhitelistedNames(prefix);
+    }
+
+    public int countWhitelistedAmongLocal(Collection<UUID> uuids) throws SQLException {
+        return localDb.countWhitelistedAmong(uuids);
+    }
+
+    /**
+     * Ergebnis eines Resyncs für Log, {@code /whitelist resync} und Stats.
+     *
+     * @param full               ganze Tabelle übertragen statt nur einzelner Buckets
+     * @param bucketsTransferred Anzahl übertragener Buckets (bei {@code full} alle)
+     * @param bucketCount        Anzahl Buckets insgesamt (0 = Bucket-Abgleich aus)
+     * @param rowsTransferred    aus der zentralen Tabelle gelesene Zeilen
+     * @param totalRows          Einträge in der zentralen Tabelle
+     * @param watermark          Prüfsumme des übernommenen Stands
+     * @param durationMs         Dauer in Millisekunden
+     * @param connections        Anzahl gleichzeitig lesender Verbindungen
+     */
+    public record SyncReport(boolean full, int bucketsTransferred, int bucketCount, long rowsTransferred,
+                             long totalRows, String watermark, long durationMs, int connections) {
+
+        public String format() {
+            if (full) {
+                return String.format(Locale.ROOT, "full copy, %d rows over %d connection(s) in %dms",
+                        rowsTransferred, connections, durationMs);
+            }
+            return String.format(Locale.ROOT, "%d/%d buckets, %d of %d rows in %dms",
+                    bucketsTransferred, bucketCount, rowsTransferred, totalRows, durationMs);
+        }
+    }
+
+    private volatile SyncReport lastSyncReport;
+
+    /**
+     * Gleicht den lokalen Fallback-Cache mit der zentralen Tabelle ab. Im
+     * Cluster wird normalerweise der {@link ClusterResyncCoordinator}
+     * verwendet, der nur auf dem Leader scannt.
+     *
+     * Mit {@code fallback.resync.buckets > 0} werden zuerst Digests pro
+     * Bucket verglichen und nur abweichende Buckets übertragen. Eine volle
+     * Kopie gibt es nur beim ersten Sync oder wenn mehr als
+     * {@code fallback.resync.max-changed-ratio} der Buckets abweichen; sie
+     * wird über {@code fallback.resync.parallelism} Verbindungen gelesen.
+     */
+    public SyncReport syncMysqlToLocalFallback() throws SQLException {
+        // Zuerst ausstehende lokale Änderungen übertragen, sonst würden sie
+        // durch den Stand aus MySQL überschrieben
+        outbox.drainNow();
+
+        SyncReport report = null;
+        if (resyncBuckets() > 0 && localDb.getLastSync() != null) {
+            report = syncChangedBuckets(readBucketDigests());
+        }
+        if (report == null && resyncParallelism() > 1) {
+            // Leser schreiben über eine Queue direkt in die Schattentabelle
+            ParallelFullResync.Result result = new ParallelFullResync(plugin, db.store(), resyncParallelism())
+                    .replaceInto(localDb);
+            outbox.reapplyPendingToCache();
+            report = new SyncReport(true, resyncBuckets(), resyncBuckets(), result.rows(), result.rows(),
+                    result.watermark(), result.durationMs(), resyncParallelism());
+        }
+        if (report == null) {
+            long start = System.nanoTime();
+            List<LocalFallbackDatabase.WhitelistEntry> entries = readAllEntries();
+            String watermark = contentDigest(entries);
+            replaceLocalFallback(entries, watermark);
+            report = new SyncReport(true, resyncBuckets(), resyncBuckets(), entries.size(), entries.size(),
+                    watermark, (System.nanoTime() - start) / 1_000_000L, 1);
+        }
+
+        lastSyncReport = report;
+        plugin.getLogger().info("Local whitelist fallback cache synchronized successfully ("
+                + report.format() + ").");
+        return report;
+    }
+
+    /**
+     * Anzahl Buckets für den Abgleich; 0 = immer volle Kopie.
+     */
+    int resyncBuckets() {
+        return Math.max(0, Math.min(65_536, plugin.getSettings().getInt("fallback.resync.buckets", 256)));
+    }
+
+    /**
+     * Anzahl Verbindungen für einen vollen Resync; 1 = eine einzige Abfrage.
+     * Die eingebettete SQLite-Datei wird immer mit einer Verbindung gelesen.
+     */
+    int resyncParallelism() {
+        if ("embedded".equals(db.store().engine())) {
+            return 1;
+        }
+        return Math.max(1, Math.min(ParallelFullResync.MAX_PARALLELISM,
+                plugin.getSettings().getInt("fallback.resync.parallelism", 4)));
+    }
+
+    Map<Integer, WhitelistStore.BucketDigest> readBucketDigests() throws SQLException {
+        return db.store().bucketDigests(resyncBuckets());
+    }
+
+    /**
+     * Überträgt nur die Buckets, deren Digest vom lokalen Cache abweicht.
+     *
+     * @param remote Digests der zentralen Tabelle ({@link #readBucketDigests()})
+     * @return {@code null}, wenn eine volle Kopie günstiger ist
+     */
+    SyncReport syncChangedBuckets(Map<Integer, WhitelistStore.BucketDigest> remote) throws SQLException {
+        long start = System.nanoTime();
+        int buckets = resyncBuckets();
+        Map<Integer, WhitelistStore.BucketDigest> local = localDb.bucketDigests(buckets);
+
+        List<Integer> changed = new ArrayList<>();
+        for (int b = 0; b < buckets; b++) {
+            if (!Objects.equals(remote.get(b), local.get(b))) {
+                changed.add(b);
+            }
+        }
+
+        double maxRatio = plugin.getSettings().getDouble("fallback.resync.max-changed-ratio", 0.5);
+        if (changed.size() > buckets * maxRatio) {
+            return null;
+        }
+
+        String watermark = bucketWatermark(remote);
+        long totalRows = 0;
+        for (WhitelistStore.BucketDigest digest : remote.values()) {
+            totalRows += digest.rows();
+        }
+
+        if (changed.isEmpty()) {
+            localDb.touchSyncMeta(watermark);
+            return new SyncReport(false, 0, buckets, 0, totalRows, watermark,
+                    (System.nanoTime() - start) / 1_000_000L, 1);
+        }
+
+        List<LocalFallbackDatabase.WhitelistEntry> rows = new ArrayList<>();
+        for (WhitelistStore.Entry entry : db.store().scanBuckets(changed, buckets)) {
+            rows.add(new LocalFallbackDatabase.WhitelistEntry(entry.uuid(), entry.name()));
+        }
+        localDb.replaceBuckets(changed, buckets, rows, watermark);
+        outbox.reapplyPendingToCache();
+
+        return new SyncReport(false, changed.size(), buckets, rows.size(), totalRows, watermark,
+                (System.nanoTime() - start) / 1_000_000L, 1);
+    }
+
+    public SyncReport getLastSyncReport() {
+        return lastSyncReport;
+    }
+
+    /**
+     * Liest alle gültigen Einträge (UUID und Name gesetzt) der zentralen
+     * Tabelle, bei {@code fallback.resync.parallelism > 1} über mehrere
+     * Verbindungen ({@link ParallelFullResync}).
+     */
+    List<LocalFallbackDatabase.WhitelistEntry> readAllEntries() throws SQLException {
+        if (resyncParallelism() > 1) {
+            return new ParallelFullResync(plugin, db.store(), resyncParallelism()).readAll();
+        }
+
+        List<LocalFallbackDatabase.WhitelistEntry> entries = new ArrayList<>();
+
+        try {
+            db.store().scan((uuid, name) -> {
+                if (uuid == null || uuid.isBlank()) {
+                    return;
+                }
+                if (name == null || name.isBlank()) {
+                    return;
+                }
+                entries.add(new LocalFallbackDatabase.WhitelistEntry(uuid, name));
+            });
+        } catch (IOException ex) {
+            // Der Visitor selbst wirft nie
+            throw new SQLException(ex);
+        }
+        return entries;
+    }
+
+    /**
+     * Tauscht den lokalen Fallback-Cache aus und spielt noch nicht übertragene
+     * Outbox-Einträge wieder ein.
+     */
+    void replaceLocalFallback(List<LocalFallbackDatabase.WhitelistEntry> entries, String watermark) throws SQLException {
+        localDb.replaceAll(entries, watermark);
+        outbox.reapplyPendingToCache();
+    }
+
+    /**
+     * Reihenfolgeunabhängige Prüfsumme über alle Einträge (XOR der CRC32 je
+     * Zeile plus Anzahl). Dient als Wasserzeichen des MySQL-Stands in sync_meta.
+     */
+    static String contentDigest(List<LocalFallbackDatabase.WhitelistEntry> entries) {
+        long digest = 0;
+        CRC32 crc = new CRC32();
+        for (LocalFallbackDatabase.WhitelistEntry entry : entries) {
+            crc.reset();
+            crc.update((entry.uuid() + "|" + entry.name()).getBytes(StandardCharsets.UTF_8));
+            digest ^= crc.getValue();
+        }
+        return entries.size() + ":" + Long.toHexString(digest);
+    }
+
+    /**
+     * Dieselbe Prüfsumme wie {@link #contentDigest(List)}, aus Bucket-Digests
+     * zusammengesetzt (XOR ist assoziativ).
+     */
+    static String bucketWatermark(Map<Integer, WhitelistStore.BucketDigest> digests) {
+        long rows = 0;
+        long digest = 0;
+        for (WhitelistStore.BucketDigest bucket : digests.values()) {
+            rows += bucket.rows();
+            digest ^= bucket.hash();
+        }
+        return rows + ":" + Long.toHexString(digest);
+    }
+
+    public Database getDatabase() {
+        return db;
+    }
+
+    public LocalFallbackDatabase getLocalDatabase() {
+        return localDb;
+    }
+}
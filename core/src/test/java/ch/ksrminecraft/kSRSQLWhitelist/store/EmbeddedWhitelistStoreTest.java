@@ -0,0 +1,27 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+
+/**
+ * {@link WhitelistStoreConformanceTest} gegen {@link EmbeddedWhitelistStore};
+ * läuft immer, jeder Test mit einer eigenen SQLite-Datei.
+ */
+class EmbeddedWhitelistStoreTest extends WhitelistStoreConformanceTest {
+
+    @TempDir
+    Path dir;
+
+    @Override
+    protected ConnectionProvider openProvider() {
+        String url = "jdbc:sqlite:" + dir.resolve("whitelist-store.db").toAbsolutePath();
+        return () -> DriverManager.getConnection(url);
+    }
+
+    @Override
+    protected WhitelistStore createStore(ConnectionProvider connections, StoreSchema schema) {
+        return new EmbeddedWhitelistStore(connections, () -> schema);
+    }
+}
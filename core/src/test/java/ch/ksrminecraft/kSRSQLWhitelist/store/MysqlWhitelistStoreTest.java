@@ -0,0 +1,29 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.DriverManager;
+
+/**
+ * {@link WhitelistStoreConformanceTest} gegen {@link MysqlWhitelistStore}.
+ *
+ * Läuft nur mit einer erreichbaren Test-Datenbank, z. B.:
+ * {@code mvn -pl core test -Dksr.test.mysql.url=jdbc:mysql://localhost:3306/ksr_test
+ * -Dksr.test.mysql.user=root -Dksr.test.mysql.password=secret}
+ */
+@EnabledIfSystemProperty(named = "ksr.test.mysql.url", matches = ".+")
+class MysqlWhitelistStoreTest extends WhitelistStoreConformanceTest {
+
+    @Override
+    protected ConnectionProvider openProvider() {
+        String url = System.getProperty("ksr.test.mysql.url");
+        String user = System.getProperty("ksr.test.mysql.user", "root");
+        String password = System.getProperty("ksr.test.mysql.password", "");
+        return () -> DriverManager.getConnection(url, user, password);
+    }
+
+    @Override
+    protected WhitelistStore createStore(ConnectionProvider connections, StoreSchema schema) {
+        return new MysqlWhitelistStore(connections, () -> schema);
+    }
+}
@@ -0,0 +1,29 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.DriverManager;
+
+/**
+ * {@link WhitelistStoreConformanceTest} gegen {@link PostgresWhitelistStore}.
+ *
+ * Läuft nur mit einer erreichbaren Test-Datenbank, z. B.:
+ * {@code mvn -pl core test -Dksr.test.postgres.url=jdbc:postgresql://localhost:5432/ksr_test
+ * -Dksr.test.postgres.user=postgres -Dksr.test.postgres.password=secret}
+ */
+@EnabledIfSystemProperty(named = "ksr.test.postgres.url", matches = ".+")
+class PostgresWhitelistStoreTest extends WhitelistStoreConformanceTest {
+
+    @Override
+    protected ConnectionProvider openProvider() {
+        String url = System.getProperty("ksr.test.postgres.url");
+        String user = System.getProperty("ksr.test.postgres.user", "postgres");
+        String password = System.getProperty("ksr.test.postgres.password", "");
+        return () -> DriverManager.getConnection(url, user, password);
+    }
+
+    @Override
+    protected WhitelistStore createStore(ConnectionProvider connections, StoreSchema schema) {
+        return new PostgresWhitelistStore(connections, () -> schema);
+    }
+}
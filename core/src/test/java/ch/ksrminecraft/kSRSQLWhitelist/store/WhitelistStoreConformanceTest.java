@@ -0,0 +1,539 @@
+package ch.ksrminecraft.kSRSQLWhitelist.store;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.BucketDigest;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.Change;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.ChangeType;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.ClusterSnapshot;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.Entry;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.Invalidation;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.InvalidationType;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore.LoginResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧪 WhitelistStoreConformanceTest
+ *  --------------------------------
+ *  Gemeinsame Konformitäts- und Benchmark-Suite für alle
+ *  {@link WhitelistStore}-Implementierungen. Jede Engine liefert nur die
+ *  Verbindung und den Store; alle Erwartungen sind engine-neutral formuliert
+ *  (keine Annahmen über Sortierung oder Collation ausser Gross-/Kleinschreibung).
+ *
+ *  Jeder Test arbeitet auf eigenen Tabellen mit zufälligem Präfix, damit die
+ *  Suite auch gegen eine gemeinsam genutzte Datenbank laufen kann.
+ *
+ *  Benchmarks sind mit {@code @Tag("benchmark")} markiert und laufen nur mit
+ *  {@code mvn -Pbenchmark -pl core test}.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+abstract class WhitelistStoreConformanceTest {
+
+    protected ConnectionProvider connections;
+    protected WhitelistStore store;
+    private StoreSchema schema;
+
+    /** Verbindungen zur getesteten Datenbank. */
+    protected abstract ConnectionProvider openProvider() throws Exception;
+
+    protected abstract WhitelistStore createStore(ConnectionProvider connections, StoreSchema schema);
+
+    @BeforeEach
+    void setUpStore() throws Exception {
+        String prefix = "ksr_test_" + Long.toString(System.nanoTime(), 36);
+        schema = new StoreSchema(prefix + "_whitelist", "UUID", "user", prefix + "_blocks",
+                prefix + "_changes", prefix + "_lease", prefix + "_snapshot", "expires_at");
+        connections = openProvider();
+        store = createStore(connections, schema);
+        store.ensureSchema();
+    }
+
+    @AfterEach
+    void dropTables() throws SQLException {
+        try (Connection c = connections.openWrite();
+             Statement st = c.createStatement()) {
+            for (String table : List.of(schema.table(), schema.blockTable(), schema.changeTable(),
+                    schema.leaseTable(), schema.snapshotTable())) {
+                st.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔍 Lookups
+    // ------------------------------------------------------------------------
+
+    @Test
+    void checkLoginsMatchesAllStoredFormsAndRepairsThem() throws Exception {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        UUID dan = UUID.randomUUID();
+        UUID eve = UUID.randomUUID();
+        String bobUndashed = bob.toString().replace("-", "");
+
+        store.apply(List.of(
+                upsert(alice.toString(), "Alice"),
+                upsert(bobUndashed, "Bob"),
+                upsert("", "Carol"),
+                upsert(dan.toString(), "OldDan")));
+
+        Map<UUID, String> logins = new LinkedHashMap<>();
+        logins.put(alice, "Alice");
+        logins.put(bob, "Bob");
+        logins.put(carol, "carol");
+        logins.put(dan, "Dan");
+        logins.put(eve, "Eve");
+
+        LoginResult result = store.checkLogins(logins);
+
+        assertEquals(Map.of(alice, true, bob, true, carol, true, dan, true, eve, false), result.whitelisted());
+        assertEquals(Map.of(bob, bobUndashed), result.fixedFrom());
+        assertEquals(Set.of(
+                new Entry(alice.toString(), "Alice"),
+                new Entry(bob.toString(), "Bob"),
+                new Entry(carol.toString(), "carol"),
+                new Entry(dan.toString(), "Dan")), new HashSet<>(result.matched()));
+
+        // Korrekturen sind geschrieben: UUID mit Bindestrichen, neuer Name, nachgetragene UUID
+        Map<String, String> rows = readAll();
+        assertEquals(4, rows.size());
+        assertEquals("Bob", rows.get(bob.toString()));
+        assertEquals("Dan", rows.get(dan.toString()));
+        assertTrue("Carol".equalsIgnoreCase(rows.get(carol.toString())));
+
+        LoginResult again = store.checkLogins(logins);
+        assertTrue(again.fixedFrom().isEmpty());
+        assertFalse(again.whitelisted().get(eve));
+        assertTrue(store.checkLogins(Map.of()).whitelisted().isEmpty());
+    }
+
+    @Test
+    void existenceChecksIgnoreCaseAndDashes() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        store.apply(List.of(upsert(uuid.toString().replace("-", ""), "Alice"), upsert(UUID.randomUUID().toString(), "Bob")));
+
+        assertTrue(store.existsByName("ALICE"));
+        assertFalse(store.existsByName("Carol"));
+        assertTrue(store.existsByUUID(uuid.toString()));
+        assertFalse(store.existsByUUID(UUID.randomUUID().toString()));
+        assertEquals(Set.of("alice", "bob"), store.findExistingNames(List.of("alice", "BOB", "carol")));
+    }
+
+    // ------------------------------------------------------------------------
+    // ✍️ Schreiben
+    // ------------------------------------------------------------------------
+
+    @Test
+    void applyKeepsOrderAndIsIdempotent() throws Exception {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        String c = UUID.randomUUID().toString();
+        List<Change> changes = List.of(
+                upsert(a, "Alice"),
+                upsert(b, "Bob"),
+                new Change(ChangeType.DELETE_UUID, a, null),
+                upsert(c, "Carl"),
+                upsert(c, "Carla"),
+                new Change(ChangeType.DELETE_NAME, null, "BOB"));
+
+        store.apply(changes);
+        assertEquals(Map.of(c, "Carla"), readAll());
+
+        store.apply(changes);
+        assertEquals(Map.of(c, "Carla"), readAll());
+    }
+
+    @Test
+    void applyRollsBackOnFailure() throws Exception {
+        String kept = UUID.randomUUID().toString();
+        store.apply(List.of(upsert(kept, "Kept")));
+
+        List<Change> broken = List.of(
+                upsert(UUID.randomUUID().toString(), "Xavier"),
+                new Change(ChangeType.DELETE_UUID, kept, null),
+                upsert(null, "Broken"));
+
+        assertThrows(SQLException.class, () -> store.apply(broken));
+        assertEquals(Map.of(kept, "Kept"), readAll());
+    }
+
+    @Test
+    void applySplitsLargeRunsIntoChunks() throws Exception {
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < JdbcWhitelistStore.BULK_CHUNK_SIZE * 2 + 7; i++) {
+            changes.add(upsert(UUID.randomUUID().toString(), "player" + i));
+        }
+        store.apply(changes);
+
+        assertEquals(changes.size(), store.countNames(null));
+    }
+
+    // ------------------------------------------------------------------------
+    // ⏳ Befristete Einträge
+    // ------------------------------------------------------------------------
+
+    @Test
+    void expiryColumnIsOptInAndDrivesDeleteExpired() throws Exception {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        String c = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+
+        // Ohne Spalte werden Ablaufzeitpunkte ignoriert
+        assertFalse(store.ensureExpirySchema(false));
+        store.apply(List.of(new Change(ChangeType.UPSERT, a, "Alice", now - 1_000)));
+        assertTrue(store.readExpiries().isEmpty());
+        assertTrue(store.deleteExpired(List.of(UUID.fromString(a)), now).isEmpty());
+        assertEquals(Set.of(a), readAll().keySet());
+
+        assertTrue(store.ensureExpirySchema(true));
+        assertTrue(store.ensureExpirySchema(true));
+        assertTrue(store.ensureExpirySchema(false));
+
+        store.apply(List.of(
+                new Change(ChangeType.UPSERT, a, "Alice", now - 1_000),
+                new Change(ChangeType.UPSERT, b, "Bob", now + 60_000),
+                upsert(c, "Carl")));
+        assertEquals(Map.of(a, now - 1_000, b, now + 60_000), store.readExpiries());
+
+        List<UUID> all = List.of(UUID.fromString(a), UUID.fromString(b), UUID.fromString(c));
+        assertEquals(Set.of(UUID.fromString(a)), store.deleteExpired(all, now));
+        assertEquals(Set.of(b, c), readAll().keySet());
+
+        // Erneutes Hinzufügen ohne Dauer entfristet
+        store.apply(List.of(upsert(b, "Bob")));
+        assertTrue(store.readExpiries().isEmpty());
+        assertTrue(store.deleteExpired(all, now + 120_000).isEmpty());
+    }
+
+    // ------------------------------------------------------------------------
+    // 📜 Auflisten & Scannen
+    // ------------------------------------------------------------------------
+
+    @Test
+    void keysetPagingVisitsEveryNameOnce() throws Exception {
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < 57; i++) {
+            changes.add(upsert(UUID.randomUUID().toString(), String.format(Locale.ROOT, "player%02d", i)));
+        }
+        // Gleicher Name zweimal, leerer Name, Präfix mit Platzhalterzeichen
+        changes.add(upsert(UUID.randomUUID().toString(), "player00"));
+        changes.add(upsert(UUID.randomUUID().toString(), ""));
+        changes.add(upsert(UUID.randomUUID().toString(), "a_b1"));
+        changes.add(upsert(UUID.randomUUID().toString(), "axb2"));
+        store.apply(changes);
+
+        List<String> paged = new ArrayList<>();
+        String after = null;
+        while (true) {
+            List<String> page = store.listNamesPage(after, null, 10);
+            if (page.isEmpty()) {
+                break;
+            }
+            paged.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+
+        assertEquals(59, paged.size());
+        assertEquals(new HashSet<>(paged), new HashSet<>(store.listNames()));
+        assertEquals(59, store.countNames(null));
+        assertEquals(paged.get(0), store.findNameAtOffset(null, 0));
+        assertEquals(paged.get(23), store.findNameAtOffset(null, 23));
+        assertNull(store.findNameAtOffset(null, 59));
+
+        assertEquals(57, store.countNames("PLAYER"));
+        assertEquals(List.of("a_b1"), store.listNamesPage(null, "a_", 10));
+        assertEquals(1, store.countNames("a_"));
+        assertEquals("a_b1", store.findNameAtOffset("a_", 0));
+    }
+
+    @Test
+    void countAmongCountsEachPlayerOnce() throws Exception {
+        UUID dashed = UUID.randomUUID();
+        UUID undashed = UUID.randomUUID();
+        UUID both = UUID.randomUUID();
+        store.apply(List.of(
+                upsert(dashed.toString(), "Alice"),
+                upsert(undashed.toString().replace("-", ""), "Bob"),
+                upsert(both.toString(), "Carl"),
+                upsert(both.toString().replace("-", ""), "Carl")));
+
+        assertEquals(3, store.countAmong(List.of(dashed, undashed, both, UUID.randomUUID())));
+        assertEquals(1, store.countAmong(List.of(both)));
+        assertEquals(0, store.countAmong(List.of()));
+    }
+
+    @Test
+    void adjacentScanRangesCoverEveryRowOnce() throws Exception {
+        Map<String, String> expected = insertRandom(300, new Random(43));
+
+        Map<String, String> scanned = new HashMap<>();
+        assertEquals(300, store.scan((uuid, name) -> assertNull(scanned.put(uuid, name))));
+        assertEquals(expected, scanned);
+
+        String[] bounds = {null, "4", "8", "c", null};
+        Map<String, String> ranged = new HashMap<>();
+        long rows = 0;
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            rows += store.scanRange(bounds[i], bounds[i + 1], (uuid, name) -> assertNull(ranged.put(uuid, name)));
+        }
+        assertEquals(300, rows);
+        assertEquals(expected, ranged);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🌳 Bucket-Digests
+    // ------------------------------------------------------------------------
+
+    @Test
+    void bucketDigestsMatchJavaReference() throws Exception {
+        Map<String, String> valid = insertRandom(300, new Random(44));
+        store.apply(List.of(upsert("", "NameOnly"), upsert(UUID.randomUUID().toString(), "")));
+
+        int buckets = 16;
+        long[] rows = new long[buckets];
+        long[] hashes = new long[buckets];
+        for (Map.Entry<String, String> e : valid.entrySet()) {
+            int b = WhitelistStore.bucketOf(e.getKey(), buckets);
+            rows[b]++;
+            hashes[b] ^= WhitelistStore.rowHash(e.getKey(), e.getValue());
+        }
+        Map<Integer, BucketDigest> expected = new HashMap<>();
+        for (int b = 0; b < buckets; b++) {
+            if (rows[b] > 0) {
+                expected.put(b, new BucketDigest(rows[b], hashes[b]));
+            }
+        }
+        assertEquals(expected, store.bucketDigests(buckets));
+
+        Set<Entry> selected = new HashSet<>();
+        for (Map.Entry<String, String> e : valid.entrySet()) {
+            int b = WhitelistStore.bucketOf(e.getKey(), buckets);
+            if (b == 3 || b == 7) {
+                selected.add(new Entry(e.getKey(), e.getValue()));
+            }
+        }
+        assertEquals(selected, new HashSet<>(store.scanBuckets(List.of(3, 7), buckets)));
+        assertTrue(store.scanBuckets(List.of(), buckets).isEmpty());
+    }
+
+    // ------------------------------------------------------------------------
+    // ⛔ Protected-World-Sperren
+    // ------------------------------------------------------------------------
+
+    @Test
+    void blocksCanBeUpsertedAndPurged() throws Exception {
+        store.ensureBlockSchema();
+        UUID active = UUID.randomUUID();
+        UUID expired = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        assertEquals(0L, store.findBlockedUntil(active));
+
+        store.upsertBlock(active, "Alice", "grief", now + 1_000);
+        store.upsertBlock(active, "Alice", "grief again", now + 5_000);
+        store.upsertBlock(expired, "Bob", null, now - 1);
+        assertEquals(now + 5_000, store.findBlockedUntil(active));
+        assertEquals(now - 1, store.findBlockedUntil(expired));
+
+        assertEquals(1, store.purgeExpiredBlocks(now, 10));
+        assertEquals(0L, store.findBlockedUntil(expired));
+        assertEquals(now + 5_000, store.findBlockedUntil(active));
+    }
+
+    // ------------------------------------------------------------------------
+    // 📣 Änderungs-Log
+    // ------------------------------------------------------------------------
+
+    @Test
+    void invalidationLogIsOrderedAndPurgeable() throws Exception {
+        store.ensureInvalidationSchema();
+        assertEquals(0L, store.latestInvalidationSeq());
+
+        String uuid = UUID.randomUUID().toString();
+        store.publishInvalidations("node-a", List.of(
+                new Invalidation(0, null, InvalidationType.UPSERT, uuid, "Alice", 0),
+                new Invalidation(0, null, InvalidationType.DELETE_NAME, null, "Bob", 0),
+                new Invalidation(0, null, InvalidationType.BLOCK, uuid, "Alice", 1234L)));
+        store.publishInvalidations("node-a", List.of());
+
+        List<Invalidation> all = store.readInvalidations(0, List.of(), 10);
+        assertEquals(3, all.size());
+        assertTrue(all.get(0).seq() < all.get(1).seq() && all.get(1).seq() < all.get(2).seq());
+        assertEquals(new Invalidation(all.get(2).seq(), "node-a", InvalidationType.BLOCK, uuid, "Alice", 1234L), all.get(2));
+        assertEquals(all.get(2).seq(), store.latestInvalidationSeq());
+
+        // Lücken werden gezielt nachgelesen
+        List<Invalidation> gap = store.readInvalidations(all.get(1).seq(), List.of(all.get(0).seq()), 10);
+        assertEquals(List.of(all.get(0), all.get(2)), gap);
+        assertEquals(2, store.readInvalidations(0, List.of(), 2).size());
+
+        assertEquals(3, store.purgeInvalidations(System.currentTimeMillis() + 1_000, 10));
+        assertTrue(store.readInvalidations(0, List.of(), 10).isEmpty());
+    }
+
+    // ------------------------------------------------------------------------
+    // 👑 Leader-Lease & Snapshot
+    // ------------------------------------------------------------------------
+
+    @Test
+    void leaseHasSingleHolderUntilItExpires() throws Exception {
+        store.ensureClusterSchema();
+        long now = 1_000_000L;
+        assertEquals(0L, store.leaseExpiresAt("resync"));
+
+        assertTrue(store.tryAcquireLease("resync", "node-a", now, 1_000));
+        assertFalse(store.tryAcquireLease("resync", "node-b", now + 10, 1_000));
+        assertEquals(now + 1_000, store.leaseExpiresAt("resync"));
+        assertTrue(store.tryAcquireLease("resync", "node-a", now + 500, 1_000));
+        assertEquals(now + 1_500, store.leaseExpiresAt("resync"));
+        assertFalse(store.tryAcquireLease("resync", "node-b", now + 1_200, 1_000));
+        assertTrue(store.tryAcquireLease("resync", "node-b", now + 1_600, 1_000));
+        assertFalse(store.tryAcquireLease("resync", "node-a", now + 1_700, 1_000));
+        assertTrue(store.tryAcquireLease("other", "node-a", now + 1_700, 1_000));
+    }
+
+    @Test
+    void snapshotIsVersioned() throws Exception {
+        store.ensureClusterSchema();
+        assertNull(store.readSnapshotInfo());
+
+        byte[] data = {1, 2, 3, 4, 5};
+        store.publishSnapshot(new ClusterSnapshot(1, 10, 5, "abc", 1_000L, "node-a", data));
+
+        ClusterSnapshot info = store.readSnapshotInfo();
+        assertNotNull(info);
+        assertEquals(new ClusterSnapshot(1, 10, 5, "abc", 1_000L, "node-a", null), info);
+        assertArrayEquals(data, store.readSnapshotData(1));
+        assertNull(store.readSnapshotData(2));
+
+        store.touchSnapshot(1, 99, 2_000L);
+        store.touchSnapshot(7, 100, 3_000L);
+        info = store.readSnapshotInfo();
+        assertEquals(99, info.changeSeq());
+        assertEquals(2_000L, info.createdAt());
+
+        byte[] next = {9, 8};
+        store.publishSnapshot(new ClusterSnapshot(2, 120, 2, "def", 4_000L, "node-b", next));
+        assertEquals(2, store.readSnapshotInfo().version());
+        assertNull(store.readSnapshotData(1));
+        assertArrayEquals(next, store.readSnapshotData(2));
+    }
+
+    // ------------------------------------------------------------------------
+    // ⏱️ Benchmark
+    // ------------------------------------------------------------------------
+
+    /**
+     * Schreibt {@code ksr.bench.rows} Einträge (Standard 20 000) und misst
+     * Bulk-Schreiben, Login-Prüfungen einzeln gegen gebündelt, Vollscan und
+     * Bucket-Digests. Die Zeiten werden nur ausgegeben, nicht geprüft.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark() throws Exception {
+        int total = Integer.getInteger("ksr.bench.rows", 20_000);
+        Random random = new Random(45);
+
+        List<Change> changes = new ArrayList<>(total);
+        List<UUID> uuids = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            uuids.add(uuid);
+            changes.add(upsert(uuid.toString(), "player" + i));
+        }
+
+        long start = System.nanoTime();
+        for (int from = 0; from < total; from += 5_000) {
+            store.apply(changes.subList(from, Math.min(total, from + 5_000)));
+        }
+        report("apply " + total + " rows", start);
+
+        int logins = Math.min(1_000, total);
+        start = System.nanoTime();
+        for (int i = 0; i < logins; i++) {
+            UUID uuid = uuids.get(i);
+            assertTrue(store.checkLogins(Map.of(uuid, "player" + i)).whitelisted().get(uuid));
+        }
+        report(logins + " logins, one query each", start);
+
+        start = System.nanoTime();
+        for (int from = 0; from < logins; from += 50) {
+            Map<UUID, String> batch = new HashMap<>();
+            for (int i = from; i < Math.min(logins, from + 50); i++) {
+                batch.put(uuids.get(i), "player" + i);
+            }
+            assertEquals(batch.size(), store.checkLogins(batch).matched().size());
+        }
+        report(logins + " logins, batches of 50", start);
+
+        start = System.nanoTime();
+        assertEquals(total, store.scan((uuid, name) -> {
+        }));
+        report("full scan", start);
+
+        start = System.nanoTime();
+        assertEquals(total, store.bucketDigests(256).values().stream().mapToLong(BucketDigest::rows).sum());
+        report("bucket digests (256)", start);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Hilfsmethoden
+    // ------------------------------------------------------------------------
+
+    protected static Change upsert(String uuid, String name) {
+        return new Change(ChangeType.UPSERT, uuid, name);
+    }
+
+    private Map<String, String> insertRandom(int count, Random random) throws SQLException {
+        Map<String, String> rows = new HashMap<>();
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String uuid = new UUID(random.nextLong(), random.nextLong()).toString();
+            rows.put(uuid, "player" + i);
+            changes.add(upsert(uuid, "player" + i));
+        }
+        store.apply(changes);
+        return rows;
+    }
+
+    private Map<String, String> readAll() throws SQLException, IOException {
+        Map<String, String> rows = new HashMap<>();
+        store.scan(rows::put);
+        return rows;
+    }
+
+    private void report(String what, long startNanos) {
+        System.out.printf(Locale.ROOT, "[%s] %-32s %8.1f ms%n", store.engine(), what,
+                (System.nanoTime() - startNanos) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,140 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lese-Routing von {@link Database} mit einem Primary und einer Replica.
+ *
+ * Braucht zwei getrennte, lokale Datenbank-Instanzen ohne Replikation: eine
+ * Zeile, die nur auf der zweiten Instanz liegt, zeigt so, wohin gelesen wurde.
+ * Beispiel:
+ * {@code mvn -pl core test -Dksr.test.replica.primary=localhost:3306
+ * -Dksr.test.replica.replica=localhost:3307 -Dksr.test.replica.database=ksr_test
+ * -Dksr.test.replica.user=root -Dksr.test.replica.password=secret}
+ * ({@code -Dksr.test.replica.type=postgresql} für PostgreSQL).
+ */
+@EnabledIfSystemProperty(named = "ksr.test.replica.primary", matches = ".+")
+class DatabaseReplicaRoutingTest {
+
+    private static final long READ_AFTER_WRITE_MS = 300L;
+
+    @TempDir
+    File dir;
+
+    private final List<TestPlatform> platforms = new ArrayList<>();
+    private String table;
+
+    @BeforeEach
+    void createTable() {
+        table = "ksr_rr_" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @AfterEach
+    void dropTables() throws Exception {
+        for (TestPlatform platform : platforms) {
+            try (Connection c = platform.getDatabase().openConnection();
+                 Statement st = c.createStatement()) {
+                st.executeUpdate("DROP TABLE IF EXISTS " + table);
+            } finally {
+                platform.close();
+            }
+        }
+    }
+
+    @Test
+    void readsFollowTheReadAfterWriteWindow() throws Exception {
+        String[] replicaAddress = address("ksr.test.replica.replica");
+        TestPlatform primary = platform("primary", address("ksr.test.replica.primary"),
+                List.of(Map.of("host", replicaAddress[0], "port", replicaAddress[1])));
+        TestPlatform replica = platform("replica", replicaAddress, List.of());
+
+        UUID onReplica = UUID.randomUUID();
+        UUID onPrimary = UUID.randomUUID();
+        replica.getDatabase().store().apply(List.of(upsert(onReplica, "ReplicaOnly")));
+
+        // Ohne kürzlichen Schreibzugriff liest der Primary-Knoten von der Replica
+        Thread.sleep(READ_AFTER_WRITE_MS * 2);
+        WhitelistStore store = primary.getDatabase().store();
+        assertTrue(store.existsByUUID(onReplica.toString()));
+
+        // Direkt nach einem Schreibzugriff bleibt das Lesen auf dem Primary
+        store.apply(List.of(upsert(onPrimary, "PrimaryOnly")));
+        assertTrue(store.existsByUUID(onPrimary.toString()));
+        assertFalse(store.existsByUUID(onReplica.toString()));
+
+        // Nach dem Fenster wieder auf der Replica (ohne Replikation fehlt die neue Zeile dort)
+        Thread.sleep(READ_AFTER_WRITE_MS * 2);
+        assertFalse(store.existsByUUID(onPrimary.toString()));
+        assertTrue(store.existsByUUID(onReplica.toString()));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() throws Exception {
+        TestPlatform primary = platform("primary", address("ksr.test.replica.primary"),
+                List.of(Map.of("host", "127.0.0.1", "port", "1")));
+        UUID uuid = UUID.randomUUID();
+        primary.getDatabase().store().apply(List.of(upsert(uuid, "Alice")));
+
+        Thread.sleep(READ_AFTER_WRITE_MS * 2);
+        assertTrue(primary.getDatabase().store().existsByUUID(uuid.toString()));
+        assertTrue(primary.getDatabase().formatReplicaStats().get(0).contains("unhealthy"),
+                String.valueOf(primary.getDatabase().formatReplicaStats()));
+
+        // Solange die Replica gesperrt ist, kostet das Lesen kein Verbindungs-Timeout mehr
+        long start = System.nanoTime();
+        assertTrue(primary.getDatabase().store().existsByUUID(uuid.toString()));
+        assertTrue(System.nanoTime() - start < 250_000_000L);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Hilfsmethoden
+    // ------------------------------------------------------------------------
+
+    private TestPlatform platform(String name, String[] address, List<Map<String, String>> replicas)
+            throws Exception {
+        TestPlatform platform = new TestPlatform(dir, name)
+                .set("storage.type", System.getProperty("ksr.test.replica.type", "mysql").toLowerCase(Locale.ROOT))
+                .set("mysql.host", address[0])
+                .set("mysql.port", address[1])
+                .set("mysql.database", System.getProperty("ksr.test.replica.database", "ksr_test"))
+                .set("mysql.user", System.getProperty("ksr.test.replica.user", "root"))
+                .set("mysql.password", System.getProperty("ksr.test.replica.password", ""))
+                .set("mysql.table", table)
+                .set("mysql.replicas", replicas)
+                .set("mysql.read-after-write-ms", READ_AFTER_WRITE_MS)
+                .set("mysql.replica-retry-ms", 60_000L)
+                .set("mysql.pool.connection-timeout-ms", 500L)
+                .set("fallback.file", "fallback-" + name + ".db");
+        platforms.add(platform.start());
+        return platform;
+    }
+
+    private static String[] address(String property) {
+        String value = System.getProperty(property, "");
+        int colon = value.lastIndexOf(':');
+        return colon < 0
+                ? new String[]{value, System.getProperty("ksr.test.replica.type", "mysql").startsWith("postgres") ? "5432" : "3306"}
+                : new String[]{value.substring(0, colon), value.substring(colon + 1)};
+    }
+
+    private static WhitelistStore.Change upsert(UUID uuid, String name) {
+        return new WhitelistStore.Change(WhitelistStore.ChangeType.UPSERT, uuid.toString(), name);
+    }
+}
@@ -0,0 +1,130 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Zwei Backends auf demselben Host teilen sich eine eingebettete Datenbank
+ * ({@code storage.embedded.shared}); Änderungen auf dem einen müssen über den
+ * {@link InvalidationBus} innert Millisekunden im Cache des anderen ankommen.
+ */
+class InvalidationBusLoopbackTest {
+
+    private static final long POLL_MS = 50L;
+
+    @TempDir
+    File dir;
+
+    private TestPlatform a;
+    private TestPlatform b;
+
+    @BeforeEach
+    void startBackends() throws Exception {
+        a = backend("a");
+        b = backend("b");
+        assertTrue(a.getInvalidationBus().isEnabled());
+        assertTrue(b.getInvalidationBus().isEnabled());
+
+        a.getInvalidationBus().start();
+        b.getInvalidationBus().start();
+        // Der erste Poll merkt sich die aktuelle seq; erst danach veröffentlichen
+        Thread.sleep(POLL_MS * 6);
+    }
+
+    @AfterEach
+    void stopBackends() {
+        if (a != null) {
+            a.close();
+        }
+        if (b != null) {
+            b.close();
+        }
+    }
+
+    @Test
+    void addAndRemoveReachTheOtherBackend() throws Exception {
+        UUID uuid = UUID.randomUUID();
+
+        a.getWhitelistService().addOrUpdateOnline(uuid, "Alice");
+        a.getWhitelistService().getOutbox().drainNow();
+        long added = await("add on b", () -> isWhitelistedLocal(b, uuid, "Alice"));
+        assertTrue(b.getWhitelistService().isWhitelisted(uuid, "Alice"));
+
+        a.getWhitelistService().deleteByUUID(uuid);
+        a.getWhitelistService().getOutbox().drainNow();
+        long removed = await("remove on b", () -> !isWhitelistedLocal(b, uuid, "Alice")
+                && b.kicked.contains(uuid.toString()));
+        assertFalse(a.kicked.contains(uuid.toString()), "own changes must not be applied twice");
+
+        System.out.printf(Locale.ROOT, "invalidation loopback (poll %d ms): add visible after %d ms, remove after %d ms%n",
+                POLL_MS, added, removed);
+    }
+
+    @Test
+    void removeByNameKicksOnTheOtherBackend() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        b.getWhitelistService().addOrUpdateOnline(uuid, "Carol");
+        b.getWhitelistService().getOutbox().drainNow();
+        await("add on a", () -> isWhitelistedLocal(a, uuid, "Carol"));
+
+        b.getWhitelistService().deleteByName("carol");
+        b.getWhitelistService().getOutbox().drainNow();
+        await("remove on a", () -> !isWhitelistedLocal(a, uuid, "Carol") && a.kicked.contains("carol"));
+    }
+
+    @Test
+    void blocksReachTheOtherBackend() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        assertFalse(b.getProtectedAccessBlockService().isBlockedLocally(uuid));
+
+        a.getProtectedAccessBlockService().upsertBlock(uuid, "Bob", "grief", System.currentTimeMillis() + 60_000L);
+        await("block on b", () -> b.getProtectedAccessBlockService().isBlockedLocally(uuid));
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Hilfsmethoden
+    // ------------------------------------------------------------------------
+
+    private TestPlatform backend(String id) throws Exception {
+        return new TestPlatform(dir, id)
+                .set("storage.embedded.shared", true)
+                .set("fallback.file", "fallback-" + id + ".db")
+                .set("invalidation.server-id", id)
+                .set("invalidation.poll-interval-ms", POLL_MS)
+                .start();
+    }
+
+    private static boolean isWhitelistedLocal(TestPlatform platform, UUID uuid, String name) {
+        try {
+            return platform.getWhitelistService().isWhitelistedLocal(uuid, name);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @return Wartezeit in Millisekunden
+     */
+    private static long await(String what, BooleanSupplier condition) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail(what + " not visible after 5s");
+            }
+            Thread.sleep(5);
+        }
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+}
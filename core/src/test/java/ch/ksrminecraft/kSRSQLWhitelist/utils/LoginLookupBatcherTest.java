@@ -0,0 +1,165 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login-Prüfungen über den {@link LoginLookupBatcher} gegen eine eingebettete
+ * Datenbank: Korrektheit bei gleichzeitigen Prüfungen und (mit
+ * {@code -Pbenchmark}) der Vergleich mit einer Abfrage pro Login.
+ */
+class LoginLookupBatcherTest {
+
+    @TempDir
+    File dir;
+
+    private TestPlatform platform;
+
+    @AfterEach
+    void close() {
+        if (platform != null) {
+            platform.close();
+        }
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() throws Exception {
+        platform = new TestPlatform(dir, "batcher")
+                .set("batching.window-ms", 200)
+                .set("batching.max-batch-size", 1_000)
+                .start();
+        List<UUID> whitelisted = insert(platform, 40);
+        LoginLookupBatcher batcher = platform.getWhitelistService().getLoginBatcher();
+
+        // 40 gelistete Spieler, 10 unbekannte und 10 Reconnects desselben Spielers
+        List<UUID> logins = new ArrayList<>(whitelisted);
+        List<UUID> unknown = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            unknown.add(UUID.randomUUID());
+            logins.add(whitelisted.get(0));
+        }
+        logins.addAll(unknown);
+
+        ExecutorService threads = Executors.newFixedThreadPool(logins.size());
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (UUID uuid : logins) {
+                int index = whitelisted.indexOf(uuid);
+                String name = index >= 0 ? "player" + index : "stranger";
+                results.add(threads.submit(() -> {
+                    go.await();
+                    return batcher.lookup(uuid, name);
+                }));
+            }
+            go.countDown();
+
+            for (int i = 0; i < logins.size(); i++) {
+                assertEquals(!unknown.contains(logins.get(i)), results.get(i).get(), "login " + i);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        long lookups = counter(batcher, "lookups");
+        long queries = counter(batcher, "queries");
+        assertEquals(logins.size(), lookups);
+        assertTrue(queries <= 5, "expected a handful of batched queries, got " + batcher.format());
+        assertTrue(counter(batcher, "coalesced") >= 1, batcher.format());
+    }
+
+    /**
+     * Gleiche Last (32 Login-Threads, {@code ksr.bench.logins} Prüfungen auf
+     * {@code ksr.bench.rows} Einträge) einmal mit einer Abfrage pro Login,
+     * einmal gebündelt.
+     */
+    @Test
+    @Tag("benchmark")
+    void batchedVersusPerLoginQueries() throws Exception {
+        int rows = Integer.getInteger("ksr.bench.rows", 20_000);
+        int logins = Integer.getInteger("ksr.bench.logins", 5_000);
+        platform = new TestPlatform(dir, "batcher-bench").withBenchmarkSettings().start();
+        List<UUID> whitelisted = insert(platform, rows);
+        WhitelistService service = platform.getWhitelistService();
+
+        LongAdder perLoginQueries = new LongAdder();
+        long perLogin = runLoad(whitelisted, logins, (uuid, name) -> {
+            perLoginQueries.increment();
+            return service.isWhitelistedBatch(Map.of(uuid, name)).get(uuid);
+        });
+
+        LoginLookupBatcher batcher = service.getLoginBatcher();
+        long batched = runLoad(whitelisted, logins, batcher::lookup);
+
+        System.out.printf(Locale.ROOT, "[%s] %d logins, 32 threads: per-login %d ms (%d queries), batched %d ms (%s)%n",
+                platform.getDatabase().store().engine(), logins, perLogin, perLoginQueries.sum(), batched, batcher.format());
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Hilfsmethoden
+    // ------------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface Check {
+        boolean check(UUID uuid, String name) throws Exception;
+    }
+
+    private static long runLoad(List<UUID> whitelisted, int logins, Check check) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(32);
+        try {
+            long start = System.nanoTime();
+            List<Future<Boolean>> results = new ArrayList<>(logins);
+            for (int i = 0; i < logins; i++) {
+                int index = i % whitelisted.size();
+                UUID uuid = whitelisted.get(index);
+                results.add(threads.submit(() -> check.check(uuid, "player" + index)));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            return (System.nanoTime() - start) / 1_000_000L;
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static List<UUID> insert(TestPlatform platform, int count) throws Exception {
+        List<UUID> uuids = new ArrayList<>(count);
+        List<WhitelistStore.Change> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            changes.add(new WhitelistStore.Change(WhitelistStore.ChangeType.UPSERT, uuid.toString(), "player" + i));
+        }
+        for (int from = 0; from < count; from += 5_000) {
+            platform.getDatabase().store().apply(changes.subList(from, Math.min(count, from + 5_000)));
+        }
+        return uuids;
+    }
+
+    private static long counter(LoginLookupBatcher batcher, String label) {
+        Matcher m = Pattern.compile(label + " (\\d+)").matcher(batcher.format());
+        assertTrue(m.find(), batcher.format());
+        return Long.parseLong(m.group(1));
+    }
+}
@@ -0,0 +1,34 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unterscheidung von Verbindungs- und Datenfehlern beim Übertragen der
+ * Outbox: nur Erstere markieren MySQL als nicht erreichbar.
+ */
+class MutationOutboxTest {
+
+    @Test
+    void connectivityErrorsAreRecognized() {
+        assertTrue(MutationOutbox.isConnectivityError(new SQLException("Communications link failure", "08S01")));
+        assertTrue(MutationOutbox.isConnectivityError(new SQLTransientConnectionException("pool timeout")));
+        assertTrue(MutationOutbox.isConnectivityError(
+                new SQLException("wrapped", null, new SQLException("refused", "08001", new ConnectException()))));
+    }
+
+    @Test
+    void dataErrorsAreNotConnectivityErrors() {
+        assertFalse(MutationOutbox.isConnectivityError(new SQLIntegrityConstraintViolationException("duplicate", "23000")));
+        assertFalse(MutationOutbox.isConnectivityError(new SQLSyntaxErrorException("data too long", "22001")));
+        assertFalse(MutationOutbox.isConnectivityError(new SQLException("unknown")));
+    }
+}
@@ -0,0 +1,165 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import ch.ksrminecraft.kSRSQLWhitelist.store.EmbeddedWhitelistStore;
+import ch.ksrminecraft.kSRSQLWhitelist.store.StoreSchema;
+import ch.ksrminecraft.kSRSQLWhitelist.store.WhitelistStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Voller Resync über mehrere Verbindungen ({@link ParallelFullResync}):
+ * jede gültige Zeile genau einmal, unabhängig von der Anzahl Leser, und
+ * (mit {@code -Pbenchmark}) die Laufzeit gegen die Tabellengrösse.
+ */
+class ParallelFullResyncTest {
+
+    private static final StoreSchema SCHEMA = new StoreSchema("mysql_whitelist", "UUID", "user",
+            "ksr_protected_world_blocks", "ksr_whitelist_changes", "ksr_cluster_lease", "ksr_whitelist_snapshot", null);
+
+    @TempDir
+    File dir;
+
+    private TestPlatform platform;
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        url = "jdbc:sqlite:" + new File(dir, "central.db").getAbsolutePath();
+    }
+
+    @AfterEach
+    void close() {
+        if (platform != null) {
+            platform.close();
+        }
+    }
+
+    @Test
+    void boundariesSplitTheHexKeyspace() {
+        assertEquals(List.of(), ParallelFullResync.boundaries(1));
+        assertEquals(List.of("80"), ParallelFullResync.boundaries(2));
+        assertEquals(List.of("40", "80", "c0"), ParallelFullResync.boundaries(4));
+    }
+
+    @Test
+    void everyReaderCountCopiesEachValidRowOnce() throws Exception {
+        platform = new TestPlatform(dir, "resync").start();
+        WhitelistStore store = new EmbeddedWhitelistStore(() -> DriverManager.getConnection(url), () -> SCHEMA);
+        store.ensureSchema();
+
+        // Normale, gross geschriebene und 32-stellige UUIDs sowie ungültige Zeilen
+        List<WhitelistStore.Change> changes = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            changes.add(upsert(UUID.randomUUID().toString(), "player" + i));
+        }
+        for (int i = 0; i < 20; i++) {
+            changes.add(upsert(UUID.randomUUID().toString().toUpperCase(Locale.ROOT), "upper" + i));
+            changes.add(upsert(UUID.randomUUID().toString().replace("-", ""), "undashed" + i));
+        }
+        changes.add(upsert("", "NameOnly"));
+        changes.add(upsert(UUID.randomUUID().toString(), ""));
+        store.apply(changes);
+
+        String expected = WhitelistService.bucketWatermark(store.bucketDigests(64));
+        LocalFallbackDatabase localDb = platform.getLocalDatabase();
+        for (int parallelism : new int[]{1, 3, 4, 16}) {
+            ParallelFullResync.Result result = new ParallelFullResync(platform, store, parallelism).replaceInto(localDb);
+
+            assertEquals(2_540, result.rows(), "parallelism " + parallelism);
+            assertEquals(expected, result.watermark(), "parallelism " + parallelism);
+            assertEquals(2_540, localDb.countWhitelistedNames(null));
+            assertEquals(expected, localDb.readSyncMeta().sourceWatermark());
+            assertEquals(2_540, new ParallelFullResync(platform, store, parallelism).readAll().size());
+        }
+    }
+
+    @Test
+    void failingReaderKeepsTheExistingCache() throws Exception {
+        platform = new TestPlatform(dir, "resync").start();
+        WhitelistStore store = new EmbeddedWhitelistStore(() -> DriverManager.getConnection(url), () -> SCHEMA) {
+            @Override
+            public long scanRange(String fromInclusive, String toExclusive, RowVisitor visitor)
+                    throws SQLException, IOException {
+                long rows = super.scanRange(fromInclusive, toExclusive, visitor);
+                if ("80".equals(fromInclusive)) {
+                    throw new SQLException("connection lost");
+                }
+                return rows;
+            }
+        };
+        store.ensureSchema();
+
+        List<WhitelistStore.Change> changes = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            changes.add(upsert(UUID.randomUUID().toString(), "player" + i));
+        }
+        store.apply(changes.subList(0, 1_000));
+        new ParallelFullResync(platform, store, 1).replaceInto(platform.getLocalDatabase());
+        assertEquals(1_000, platform.getLocalDatabase().countWhitelistedNames(null));
+
+        store.apply(changes.subList(1_000, 3_000));
+        SQLException ex = assertThrows(SQLException.class,
+                () -> new ParallelFullResync(platform, store, 4).replaceInto(platform.getLocalDatabase()));
+        assertEquals("connection lost", ex.getMessage());
+        assertEquals(1_000, platform.getLocalDatabase().countWhitelistedNames(null));
+    }
+
+    /**
+     * Wanduhrzeit eines vollen Resyncs für die Tabellengrössen aus
+     * {@code ksr.bench.sizes} (Standard 10k, 50k, 100k): einmal über den
+     * seriellen Pfad ({@link WhitelistService#syncMysqlToLocalFallback()}
+     * mit einer Verbindung), dann parallel mit 1–8 Lesern.
+     */
+    @Test
+    @Tag("benchmark")
+    void wallClockAgainstTableSize() throws Exception {
+        platform = new TestPlatform(dir, "resync-bench")
+                .set("mysql.table", "ksr_bench_whitelist")
+                .set("fallback.resync.buckets", 0)
+                .set("fallback.resync.parallelism", 1)
+                .withBenchmarkSettings()
+                .start();
+        WhitelistStore store = platform.getDatabase().store();
+        LocalFallbackDatabase localDb = platform.getLocalDatabase();
+
+        int inserted = 0;
+        for (String raw : System.getProperty("ksr.bench.sizes", "10000,50000,100000").split(",")) {
+            int size = Integer.parseInt(raw.trim());
+            List<WhitelistStore.Change> changes = new ArrayList<>();
+            for (; inserted < size; inserted++) {
+                changes.add(upsert(UUID.randomUUID().toString(), "player" + inserted));
+            }
+            for (int from = 0; from < changes.size(); from += 5_000) {
+                store.apply(changes.subList(from, Math.min(changes.size(), from + 5_000)));
+            }
+
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "[%s] resync %7d rows: serial %5d ms",
+                    store.engine(), size, platform.getWhitelistService().syncMysqlToLocalFallback().durationMs()));
+            for (int parallelism : new int[]{1, 2, 4, 8}) {
+                ParallelFullResync.Result result = new ParallelFullResync(platform, store, parallelism).replaceInto(localDb);
+                assertEquals(size, result.rows());
+                line.append(String.format(Locale.ROOT, ", %d reader(s) %5d ms", parallelism, result.durationMs()));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static WhitelistStore.Change upsert(String uuid, String name) {
+        return new WhitelistStore.Change(WhitelistStore.ChangeType.UPSERT, uuid, name);
+    }
+}
@@ -0,0 +1,228 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🧪 TestPlatform
+ *  ---------------
+ *  {@link WhitelistPlatform} für Tests ohne Paper oder Velocity.
+ *
+ *  - Einstellungen kommen aus einer Map (Standard: {@code storage.type: embedded})
+ *  - Die Dienste werden wie am Velocity-Proxy verdrahtet, aber nicht
+ *    gestartet; Tests rufen z. B. {@link InvalidationBus#start()} selbst auf
+ *  - Kicks werden nur gesammelt ({@link #kicked})
+ *
+ *  Benchmarks können die Engine über System-Properties mit dem Präfix
+ *  {@code ksr.bench.setting.} umstellen, z. B.
+ *  {@code -Dksr.bench.setting.storage.type=mysql -Dksr.bench.setting.mysql.host=localhost}.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+final class TestPlatform implements WhitelistPlatform, AutoCloseable {
+
+    private static final String BENCH_SETTING_PREFIX = "ksr.bench.setting.";
+
+    private final Map<String, Object> values = new HashMap<>();
+    private final PlatformSettings settings = new MapSettings(values);
+    private final File dataFolder;
+    private final Logger logger;
+
+    /** Gekickte Spieler (UUID oder, falls nicht bekannt, Name). */
+    final List<String> kicked = new CopyOnWriteArrayList<>();
+
+    private volatile boolean mysqlUnavailable;
+
+    private PluginExecutor executor;
+    private Database database;
+    private LocalFallbackDatabase localDb;
+    private WhitelistService whitelistService;
+    private ProtectedAccessBlockService protectedAccessBlockService;
+    private InvalidationBus invalidationBus;
+    private ClusterResyncCoordinator resyncCoordinator;
+
+    TestPlatform(File dataFolder, String name) {
+        this.dataFolder = dataFolder;
+        this.logger = Logger.getLogger("KSR-SQL-Whitelist-Test-" + name);
+        this.logger.setLevel(Level.WARNING);
+
+        set("storage.type", "embedded");
+        set("mysql.table", "mysql_whitelist");
+    }
+
+    TestPlatform set(String path, Object value) {
+        values.put(path, value);
+        return this;
+    }
+
+    /**
+     * Übernimmt {@code -Dksr.bench.setting.*} (nur für Benchmarks).
+     */
+    TestPlatform withBenchmarkSettings() {
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(BENCH_SETTING_PREFIX)) {
+                set(key.substring(BENCH_SETTING_PREFIX.length()), System.getProperty(key));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Erstellt alle Dienste und legt die Tabellen an.
+     */
+    TestPlatform start() throws SQLException {
+        executor = new PluginExecutor(this);
+        database = new Database(this);
+        localDb = new LocalFallbackDatabase(this);
+        whitelistService = new WhitelistService(this, database, localDb);
+        protectedAccessBlockService = new ProtectedAccessBlockService(this, database);
+        invalidationBus = new InvalidationBus(this, database);
+        resyncCoordinator = new ClusterResyncCoordinator(this, database, whitelistService, invalidationBus);
+
+        localDb.ensureTable();
+        database.ensureTable();
+        protectedAccessBlockService.ensureTable();
+        return this;
+    }
+
+    Database getDatabase() {
+        return database;
+    }
+
+    LocalFallbackDatabase getLocalDatabase() {
+        return localDb;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown(Duration.ofSeconds(5));
+        }
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 WhitelistPlatform
+    // ------------------------------------------------------------------------
+
+    @Override
+    public PlatformSettings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public File getDataFolder() {
+        return dataFolder;
+    }
+
+    @Override
+    public PluginExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public boolean isMysqlUnavailable() {
+        return mysqlUnavailable;
+    }
+
+    @Override
+    public void handleMysqlFailure(String message, Exception exception) {
+        mysqlUnavailable = true;
+        logger.log(Level.WARNING, message, exception);
+    }
+
+    @Override
+    public void handleMysqlRecovery() {
+        mysqlUnavailable = false;
+    }
+
+    @Override
+    public WhitelistService getWhitelistService() {
+        return whitelistService;
+    }
+
+    @Override
+    public ProtectedAccessBlockService getProtectedAccessBlockService() {
+        return protectedAccessBlockService;
+    }
+
+    @Override
+    public InvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    @Override
+    public ClusterResyncCoordinator getResyncCoordinator() {
+        return resyncCoordinator;
+    }
+
+    @Override
+    public void kickPlayer(UUID uuid, String name, String message, BooleanSupplier stillDue) {
+        if (stillDue.getAsBoolean()) {
+            kicked.add(uuid != null ? uuid.toString() : name);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ⚙️ Einstellungen
+    // ------------------------------------------------------------------------
+
+    private record MapSettings(Map<String, Object> values) implements PlatformSettings {
+
+        @Override
+        public String getString(String path, String def) {
+            Object value = values.get(path);
+            return value == null ? def : value.toString();
+        }
+
+        @Override
+        public int getInt(String path, int def) {
+            Object value = values.get(path);
+            return value == null ? def : value instanceof Number n ? n.intValue() : Integer.parseInt(value.toString());
+        }
+
+        @Override
+        public long getLong(String path, long def) {
+            Object value = values.get(path);
+            return value == null ? def : value instanceof Number n ? n.longValue() : Long.parseLong(value.toString());
+        }
+
+        @Override
+        public double getDouble(String path, double def) {
+            Object value = values.get(path);
+            return value == null ? def : value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString());
+        }
+
+        @Override
+        public boolean getBoolean(String path, boolean def) {
+            Object value = values.get(path);
+            return value == null ? def : Boolean.parseBoolean(value.toString());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Map<?, ?>> getMapList(String path) {
+            Object value = values.get(path);
+            return value instanceof List<?> list ? (List<Map<?, ?>>) list : List.of();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ch.ksrminecraft.kSRSQLWhitelist.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Speichern und Laden des {@link WarmRestartSnapshot}: Inhalt, Prüfsumme und
+ * (mit {@code -Pbenchmark}) die Zeiten für 100 000 Einträge.
+ */
+class WarmRestartSnapshotTest {
+
+    @TempDir
+    File dir;
+
+    private final List<TestPlatform> platforms = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        platforms.forEach(TestPlatform::close);
+    }
+
+    @Test
+    void roundTripRestoresDecisionsAndBlocks() throws Exception {
+        TestPlatform before = platform("before");
+        List<TieredWhitelistCache.CachedDecision> decisions = decisions(500);
+        Map<UUID, Long> blocks = blocks(20);
+        seed(before, decisions, blocks);
+
+        new WarmRestartSnapshot(before).save(before.getWhitelistService().getLookupCache(),
+                before.getProtectedAccessBlockService());
+        Path file = dir.toPath().resolve("runtime-state.bin");
+        assertTrue(Files.isRegularFile(file));
+
+        TestPlatform after = platform("after");
+        new WarmRestartSnapshot(after).load(after.getWhitelistService().getLookupCache(),
+                after.getProtectedAccessBlockService());
+
+        assertEquals(new HashSet<>(decisions), new HashSet<>(after.getWhitelistService().getLookupCache().exportL1()));
+        assertEquals(blocks, after.getProtectedAccessBlockService().exportActiveBlocks());
+        assertFalse(Files.exists(file), "snapshot must be consumed on load");
+    }
+
+    @Test
+    void corruptedSnapshotIsIgnored() throws Exception {
+        TestPlatform before = platform("before");
+        seed(before, decisions(50), blocks(5));
+        new WarmRestartSnapshot(before).save(before.getWhitelistService().getLookupCache(),
+                before.getProtectedAccessBlockService());
+
+        Path file = dir.toPath().resolve("runtime-state.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        TestPlatform after = platform("after");
+        new WarmRestartSnapshot(after).load(after.getWhitelistService().getLookupCache(),
+                after.getProtectedAccessBlockService());
+
+        assertTrue(after.getWhitelistService().getLookupCache().exportL1().isEmpty());
+        assertTrue(after.getProtectedAccessBlockService().exportActiveBlocks().isEmpty());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void saveAndLoadHundredThousandEntries() throws Exception {
+        int entries = Integer.getInteger("ksr.bench.rows", 100_000);
+        TestPlatform before = platform("before");
+        List<TieredWhitelistCache.CachedDecision> decisions = decisions(entries);
+        seed(before, decisions, blocks(1_000));
+
+        WarmRestartSnapshot saving = new WarmRestartSnapshot(before);
+        long start = System.nanoTime();
+        saving.save(before.getWhitelistService().getLookupCache(), before.getProtectedAccessBlockService());
+        long saveMs = (System.nanoTime() - start) / 1_000_000L;
+        long bytes = Files.size(dir.toPath().resolve("runtime-state.bin"));
+
+        TestPlatform after = platform("after");
+        start = System.nanoTime();
+        new WarmRestartSnapshot(after).load(after.getWhitelistService().getLookupCache(),
+                after.getProtectedAccessBlockService());
+        long loadMs = (System.nanoTime() - start) / 1_000_000L;
+
+        assertEquals(entries, after.getWhitelistService().getLookupCache().exportL1().size());
+        System.out.printf(Locale.ROOT, "warm-restart snapshot, %d decisions + 1000 blocks: %d bytes, save %d ms, load %d ms%n",
+                entries, bytes, saveMs, loadMs);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 Hilfsmethoden
+    // ------------------------------------------------------------------------
+
+    private TestPlatform platform(String name) throws Exception {
+        TestPlatform platform = new TestPlatform(dir, name)
+                .set("cache.l1.max-entries", 200_000)
+                .set("fallback.file", "fallback-" + name + ".db")
+                .start();
+        platforms.add(platform);
+        return platform;
+    }
+
+    private static void seed(TestPlatform platform, List<TieredWhitelistCache.CachedDecision> decisions,
+                             Map<UUID, Long> blocks) {
+        assertEquals(decisions.size(), platform.getWhitelistService().getLookupCache().restoreL1(decisions));
+        assertEquals(blocks.size(), platform.getProtectedAccessBlockService().restoreActiveBlocks(blocks));
+    }
+
+    private static List<TieredWhitelistCache.CachedDecision> decisions(int count) {
+        long now = System.currentTimeMillis();
+        List<TieredWhitelistCache.CachedDecision> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Jeder dritte Eintrag negativ und ohne Namen
+            boolean whitelisted = i % 3 != 0;
+            out.add(new TieredWhitelistCache.CachedDecision(UUID.randomUUID(), whitelisted,
+                    whitelisted ? "player" + i : null, now - i, now + 60_000L + i));
+        }
+        return out;
+    }
+
+    private static Map<UUID, Long> blocks(int count) {
+        long now = System.currentTimeMillis();
+        Map<UUID, Long> out = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            out.put(UUID.randomUUID(), now + 600_000L + i);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,49 @@
+package ch.ksrminecraft.kSRSQLWhitelist;
+
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PlatformSettings;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PlatformSettings} über die config.yml. Liest bei jedem Zugriff die
+ * aktuelle Config, damit {@code /whitelist reload} sofort greift.
+ */
+final class BukkitSettings implements PlatformSettings {
+
+    private final KSRSQLWhitelist plugin;
+
+    BukkitSettings(KSRSQLWhitelist plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getString(String path, String def) {
+        return plugin.getConfig().getString(path, def);
+    }
+
+    @Override
+    public int getInt(String path, int def) {
+        return plugin.getConfig().getInt(path, def);
+    }
+
+    @Override
+    public long getLong(String path, long def) {
+        return plugin.getConfig().getLong(path, def);
+    }
+
+    @Override
+    public double getDouble(String path, double def) {
+        return plugin.getConfig().getDouble(path, def);
+    }
+
+    @Override
+    public boolean getBoolean(String path, boolean def) {
+        return plugin.getConfig().getBoolean(path, def);
+    }
+
+    @Override
+    public List<Map<?, ?>> getMapList(String path) {
+        return plugin.getConfig().getMapList(path);
+    }
+}
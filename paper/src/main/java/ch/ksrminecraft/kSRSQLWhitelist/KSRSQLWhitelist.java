@@ -0,0 +1,316 @@
+package ch.ksrminecraft.kSRSQLWhitelist;
+
+import ch.ksrminecraft.kSRSQLWhitelist.listeners.PreLoginListener;
+import ch.ksrminecraft.kSRSQLWhitelist.listeners.WhitelistCommandInterceptor;
+import ch.ksrminecraft.kSRSQLWhitelist.listeners.WorldAccessListener;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.ClusterResyncCoordinator;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.Database;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.InvalidationBus;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.LocalFallbackDatabase;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.LoginAdmissionController;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.LoginRateLimiter;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.MessageUtil;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.MysqlHealthProber;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PlatformSettings;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PluginExecutor;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.ProtectedAccessBlockService;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WarmRestartSnapshot;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistPlatform;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistService;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+
+public class KSRSQLWhitelist extends JavaPlugin implements WhitelistPlatform {
+
+    /** Frühester Resync bzw. neuer Versuch nach einer Ablehnung durch die Lane. */
+    private static final long RESYNC_RETRY_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final PlatformSettings settings = new BukkitSettings(this);
+
+    private Database database;
+    private LocalFallbackDatabase localFallbackDatabase;
+    private WhitelistService whitelistService;
+    private ProtectedAccessBlockService protectedAccessBlockService;
+    private PluginExecutor executor;
+    private LoginAdmissionController loginAdmission;
+    private LoginRateLimiter loginRateLimiter;
+    private MysqlHealthProber healthProber;
+    private WorldAccessListener worldAccessListener;
+    private WarmRestartSnapshot warmRestartSnapshot;
+    private InvalidationBus invalidationBus;
+    private ClusterResyncCoordinator resyncCoordinator;
+
+    private final AtomicBoolean mysqlUnavailable = new AtomicBoolean(false);
+
+    @Override
+    public void onEnable() {
+        saveDefaultConfig();
+
+        if (!getDataFolder().exists()) {
+            getDataFolder().mkdirs();
+        }
+
+        executor = new PluginExecutor(this);
+        loginAdmission = new LoginAdmissionController(this);
+        loginRateLimiter = new LoginRateLimiter(this);
+        database = new Database(this);
+        healthProber = new MysqlHealthProber(this, database);
+        localFallbackDatabase = new LocalFallbackDatabase(this);
+        whitelistService = new WhitelistService(this, database, localFallbackDatabase);
+        protectedAccessBlockService = new ProtectedAccessBlockService(this, database);
+        invalidationBus = new InvalidationBus(this, database);
+        resyncCoordinator = new ClusterResyncCoordinator(this, database, whitelistService, invalidationBus);
+
+        // Laufzeit-Caches vom letzten Stopp übernehmen, bevor MySQL kontaktiert wird
+        warmRestartSnapshot = new WarmRestartSnapshot(this);
+        warmRestartSnapshot.load(whitelistService.getLookupCache(), protectedAccessBlockService);
+
+        try {
+            localFallbackDatabase.ensureTable();
+            whitelistService.getTimedWhitelist().loadLocal();
+            getLogger().info("Local fallback whitelist database ready.");
+        } catch (Exception e) {
+            getLogger().log(Level.SEVERE, "Failed to initialize local fallback database", e);
+        }
+
+        try {
+            database.ensureTable();
+            protectedAccessBlockService.ensureTable();
+            protectedAccessBlockService.purgeExpired();
+            handleMysqlRecovery();
+        } catch (Exception e) {
+            getLogger().log(Level.WARNING,
+                    "MySQL whitelist table could not be reached during startup. Local fallback cache will be used.",
+                    e);
+            mysqlUnavailable.set(true);
+        }
+
+        // Fehlt die Ablaufspalte, bleibt MySQL trotzdem in Betrieb
+        if (!mysqlUnavailable.get()) {
+            try {
+                whitelistService.getTimedWhitelist().ensureSchema();
+            } catch (Exception e) {
+                getLogger().log(Level.WARNING, "Time-limited whitelist entries could not be loaded from MySQL.", e);
+            }
+        }
+
+        if (getConfig().getBoolean("fallback.sync-on-startup", true)) {
+            long jitterMs = TimeUnit.SECONDS.toMillis(
+                    Math.max(0L, getConfig().getLong("fallback.startup-jitter-seconds", 30L)));
+            if (jitterMs > 0) {
+                // Nach einem gemeinsamen Neustart nicht alle Backends gleichzeitig gegen MySQL
+                scheduleStartupResync(ThreadLocalRandom.current().nextLong(jitterMs + 1));
+            } else {
+                try {
+                    resyncCoordinator.resync();
+                    handleMysqlRecovery();
+                } catch (Exception e) {
+                    getLogger().log(Level.WARNING,
+                            "Startup sync MySQL -> local fallback failed. Existing local cache will still be used.",
+                            e);
+                    mysqlUnavailable.set(true);
+                }
+            }
+        }
+
+        loginRateLimiter.start();
+        whitelistService.getOutbox().start();
+        whitelistService.getTimedWhitelist().start();
+        protectedAccessBlockService.start();
+        invalidationBus.start();
+        startFallbackResyncTask();
+
+        if (mysqlUnavailable.get()) {
+            healthProber.start();
+        }
+
+        getServer().getPluginManager().registerEvents(new PreLoginListener(this, whitelistService), this);
+        getServer().getPluginManager().registerEvents(new WhitelistCommandInterceptor(this, whitelistService), this);
+        worldAccessListener = new WorldAccessListener(this);
+        getServer().getPluginManager().registerEvents(worldAccessListener, this);
+
+        if (getCommand("whitelist") != null) {
+            getCommand("whitelist").setTabCompleter(
+                    new ch.ksrminecraft.kSRSQLWhitelist.commands.WhitelistTabCompleter(this)
+            );
+        }
+
+        getLogger().info(getDescription().getName() + " v" + getDescription().getVersion() + " enabled.");
+    }
+
+    @Override
+    public void onDisable() {
+        if (executor != null) {
+            long timeoutSeconds = Math.max(1L, getConfig().getLong("executor.shutdown-timeout-seconds", 10L));
+            executor.shutdown(Duration.ofSeconds(timeoutSeconds));
+        }
+        if (warmRestartSnapshot != null) {
+            warmRestartSnapshot.save(whitelistService.getLookupCache(), protectedAccessBlockService);
+        }
+        if (database != null) {
+            database.close();
+        }
+
+        getLogger().info(getDescription().getName() + " v" + getDescription().getVersion() + " disabled.");
+    }
+
+    /**
+     * Lädt die Config neu und verwirft vorberechnete Welt-/Staff-Entscheide.
+     */
+    @Override
+    public void reloadConfig() {
+        super.reloadConfig();
+        if (worldAccessListener != null) {
+            worldAccessListener.invalidateDecisions();
+        }
+    }
+
+    @Override
+    public PlatformSettings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public void kickPlayer(UUID uuid, String name, String message, BooleanSupplier stillDue) {
+        getServer().getScheduler().runTask(this, () -> {
+            Player online = uuid != null ? getServer().getPlayer(uuid) : getServer().getPlayerExact(name);
+            if (online != null && online.isOnline() && stillDue.getAsBoolean()) {
+                online.kick(MessageUtil.parse(message));
+            }
+        });
+    }
+
+    @Override
+    public WhitelistService getWhitelistService() {
+        return whitelistService;
+    }
+
+    @Override
+    public ProtectedAccessBlockService getProtectedAccessBlockService() {
+        return protectedAccessBlockService;
+    }
+
+    @Override
+    public InvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    @Override
+    public ClusterResyncCoordinator getResyncCoordinator() {
+        return resyncCoordinator;
+    }
+
+    @Override
+    public PluginExecutor getExecutor() {
+        return executor;
+    }
+
+    public LoginAdmissionController getLoginAdmission() {
+        return loginAdmission;
+    }
+
+    public LoginRateLimiter getLoginRateLimiter() {
+        return loginRateLimiter;
+    }
+
+    public MysqlHealthProber getHealthProber() {
+        return healthProber;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    @Override
+    public boolean isMysqlUnavailable() {
+        return mysqlUnavailable.get();
+    }
+
+    private void startFallbackResyncTask() {
+        boolean fallbackEnabled = getConfig().getBoolean("fallback.enabled", true);
+        boolean resyncEnabled = getConfig().getBoolean("fallback.resync.enabled", true);
+        int intervalHours = Math.max(1, getConfig().getInt("fallback.resync.interval-hours", 24));
+
+        if (!fallbackEnabled || !resyncEnabled) {
+            getLogger().info("Fallback whitelist resync task is disabled.");
+            return;
+        }
+
+        scheduleNextResync(TimeUnit.HOURS.toMillis(intervalHours));
+        getLogger().info("Started fallback whitelist resync task (every " + intervalHours + "h).");
+    }
+
+    /**
+     * Erster Resync nach dem Start, im Hintergrund; bis dahin antworten
+     * Warm-Restart-Cache, Fallback-Datei und MySQL direkt.
+     */
+    private void scheduleStartupResync(long delayMs) {
+        executor.schedule(PluginExecutor.Lane.RESYNC, () -> {
+            try {
+                resyncCoordinator.resync();
+                handleMysqlRecovery();
+                getLogger().info("Startup sync MySQL -> local fallback completed.");
+            } catch (Exception e) {
+                handleMysqlFailure("Startup sync MySQL -> local fallback failed. Existing local cache will still be used.", e);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS, () -> scheduleStartupResync(RESYNC_RETRY_MS));
+    }
+
+    /**
+     * Plant den nächsten Resync mit zufälligem Versatz ({@code fallback.resync.jitter-seconds}),
+     * damit nicht alle Backends gleichzeitig starten.
+     */
+    private void scheduleNextResync(long intervalMs) {
+        long jitterMs = TimeUnit.SECONDS.toMillis(Math.max(0L, getConfig().getLong("fallback.resync.jitter-seconds", 300L)));
+        long delay = intervalMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1) : 0L);
+        scheduleResync(Math.max(RESYNC_RETRY_MS, delay), intervalMs);
+    }
+
+    /**
+     * Lehnt die Lane den Resync ab (Bulkhead voll), wird er nach
+     * {@link #RESYNC_RETRY_MS} erneut versucht – sonst endete die Kette.
+     */
+    private void scheduleResync(long delayMs, long intervalMs) {
+        executor.schedule(PluginExecutor.Lane.RESYNC, () -> {
+            try {
+                resyncCoordinator.resync();
+                handleMysqlRecovery();
+                getLogger().info("Scheduled fallback whitelist resync completed successfully.");
+            } catch (Exception e) {
+                handleMysqlFailure("Scheduled fallback whitelist resync failed. Keeping existing local cache.", e);
+            } finally {
+                scheduleNextResync(intervalMs);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS, () -> scheduleResync(RESYNC_RETRY_MS, intervalMs));
+    }
+
+    @Override
+    public void handleMysqlFailure(String message, Exception exception) {
+        if (mysqlUnavailable.compareAndSet(false, true)) {
+            getLogger().log(Level.WARNING, message, exception);
+            // Wiederverbindung im Hintergrund erkennen, nicht erst beim nächsten Login
+            healthProber.start();
+        } else {
+            getLogger().info("MySQL still unavailable, using local whitelist fallback.");
+        }
+    }
+
+    @Override
+    public void handleMysqlRecovery() {
+        if (mysqlUnavailable.compareAndSet(true, false)) {
+            getLogger().info("MySQL connection restored.");
+            // Während des Ausfalls gesammelte Änderungen sofort nachziehen
+            if (whitelistService != null) {
+                whitelistService.getOutbox().requestDrain();
+            }
+        }
+    }
+}
\ No newline at end of file
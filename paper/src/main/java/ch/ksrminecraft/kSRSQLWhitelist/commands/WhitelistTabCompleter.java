@@ -16,10 +16,12 @@ import java.util.*;
  *  Bietet intelligente Tab-Vervollständigung für den /whitelist-Befehl an.
  *
  *  Unterstützte Befehle:
- *   - Subcommands: add, remove, del, rm, list, on, off, reload, info, resync
+ *   - Subcommands: add, remove, del, rm, list, on, off, reload, info, resync, stats, import, export
  *   - Vorschläge:
  *       • Für remove/del/rm → Spieler aus der Whitelist-Datenbank
  *       • Für info → Whitelist-Spieler + aktuell Online-Spieler
+ *       • Für import → .csv/.txt-Dateien im Plugin-Ordner
+ *       • Für export → Formate csv, ndjson
  *
  *  Autor: Timy Liniger (KSR Minecraft)
  *  Projekt: KSR-SQL-Whitelist
@@ -45,7 +47,7 @@ public class WhitelistTabCompleter implements TabCompleter {
         // /whitelist <subcommand>
         // --------------------------------------------------------------
         if (args.length == 1) {
-            List<String> subs = List.of("add", "remove", "rm", "del", "on", "off", "list", "reload", "info", "resync");
+            List<String> subs = List.of("add", "remove", "rm", "del", "on", "off", "list", "reload", "info", "resync", "stats", "import", "export");
             return subs.stream()
                     .filter(s -> s.toLowerCase(Locale.ROOT).startsWith(args[0].toLowerCase(Locale.ROOT)))
                     .toList();
@@ -101,6 +103,28 @@ public class WhitelistTabCompleter implements TabCompleter {
                         .sorted(String.CASE_INSENSITIVE_ORDER)
                         .toList();
             }
+
+            // Format-Vorschläge für export
+            if (sub.equals("export")) {
+                return List.of("csv", "ndjson").stream()
+                        .filter(f -> f.startsWith(args[1].toLowerCase(Locale.ROOT)))
+                        .toList();
+            }
+
+            // Datei-Vorschläge für import
+            if (sub.equals("import")) {
+                String[] files = plugin.getDataFolder().list((dir, name) -> {
+                    String lower = name.toLowerCase(Locale.ROOT);
+                    return lower.endsWith(".csv") || lower.endsWith(".txt");
+                });
+                if (files == null) {
+                    return Collections.emptyList();
+                }
+                return Arrays.stream(files)
+                        .filter(n -> n.toLowerCase(Locale.ROOT).startsWith(args[1].toLowerCase(Locale.ROOT)))
+                        .sorted(String.CASE_INSENSITIVE_ORDER)
+                        .toList();
+            }
         }
 
         // Kein weiterer Vorschlag
@@ -0,0 +1,287 @@
+package ch.ksrminecraft.kSRSQLWhitelist.listeners;
+
+import ch.ksrminecraft.kSRSQLWhitelist.KSRSQLWhitelist;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.LoginAdmissionController;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.LoginRateLimiter;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.MessageUtil;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PluginExecutor;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistService;
+import net.kyori.adventure.text.Component;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  📋 PreLoginListener
+ *  --------------------
+ *  Prüft beim Login eines Spielers:
+ *
+ *   0. Ob IP oder UUID zu viele Verbindungsversuche machen
+ *      ({@link LoginRateLimiter}, noch vor jeder Datenbank-Abfrage)
+ *   1. Ob eine aktuelle clusterweite Protected-World-Sperre aktiv ist
+ *   2. Ob der Spieler auf der Whitelist steht
+ *   3. Ob bei MySQL-Ausfall die lokale Fallback-Whitelist greift
+ *
+ *  Mit {@code proxy.trust-proxy-whitelist} entfällt Schritt 2 und 3: Der
+ *  Velocity-Proxy hat die Whitelist dann bereits beim Login geprüft.
+ *  Abgelaufene befristete Einträge werden trotzdem abgewiesen (Prüfung im
+ *  Speicher, ohne Datenbank), da der Proxy nur beim Netzwerk-Login prüft.
+ *
+ *  MySQL-Abfragen laufen durch den {@link LoginAdmissionController}:
+ *  Über dem adaptiven Limit wird direkt lokal geantwortet (Sperren aus dem
+ *  Speicher, Whitelist aus der Fallback-Datei), bei extremem Rückstau wird
+ *  der Login mit "Server busy" abgelehnt.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class PreLoginListener implements Listener {
+
+    private final KSRSQLWhitelist plugin;
+    private final WhitelistService service;
+
+    public PreLoginListener(KSRSQLWhitelist plugin, WhitelistService service) {
+        this.plugin = plugin;
+        this.service = service;
+    }
+
+    @EventHandler
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (!plugin.getConfig().getBoolean("enabled", true)) {
+            return;
+        }
+
+        // --------------------------------------------------------------
+        // 0) Zu viele Verbindungsversuche → ablehnen, ohne DB-Abfrage
+        // --------------------------------------------------------------
+        LoginRateLimiter.Verdict verdict = plugin.getLoginRateLimiter()
+                .tryAcquire(event.getAddress(), event.getUniqueId());
+        if (verdict != LoginRateLimiter.Verdict.ALLOWED) {
+            plugin.getLogger().fine("Rate limited login of " + event.getName() + " (" + verdict + ").");
+            event.disallow(
+                    AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                    getRateLimitedMessage()
+            );
+            return;
+        }
+
+        LoginAdmissionController admission = plugin.getLoginAdmission();
+
+        // --------------------------------------------------------------
+        // 0b) Extremer Rückstau → sofort "Server busy"
+        // --------------------------------------------------------------
+        try {
+            if (!admission.enter()) {
+                plugin.getLogger().warning("Login backlog too large, rejecting " + event.getName() + " as busy.");
+                event.disallow(
+                        AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                        getServerBusyMessage()
+                );
+                return;
+            }
+
+            // ----------------------------------------------------------
+            // MySQL-Slot frei? Sonst direkt lokal beantworten – die
+            // lokal bekannten Sperren gelten auch dann
+            // ----------------------------------------------------------
+            if (!admission.tryAcquire()) {
+                if (!checkLocalBlock(event)) {
+                    checkLocalFallback(event);
+                }
+                return;
+            }
+
+            long start = System.nanoTime();
+            boolean mysqlHealthy = false;
+            try {
+                mysqlHealthy = checkMysql(event);
+            } finally {
+                admission.release(System.nanoTime() - start, mysqlHealthy);
+            }
+        } finally {
+            admission.leave();
+        }
+    }
+
+    /**
+     * Prüft Sperre und Whitelist gegen MySQL. Bei einem Fehler wird auf die
+     * lokale Fallback-Datenbank ausgewichen.
+     *
+     * @return {@code true}, wenn MySQL fehlerfrei geantwortet hat
+     */
+    private boolean checkMysql(AsyncPlayerPreLoginEvent event) {
+        String playerName = event.getName();
+
+        // --------------------------------------------------------------
+        // 1) Clusterweite kurzfristige Protected-World-Sperre prüfen
+        // --------------------------------------------------------------
+        try {
+            boolean blocked = plugin.getExecutor().call(PluginExecutor.Lane.LOGIN,
+                    () -> plugin.getProtectedAccessBlockService().isBlocked(event.getUniqueId()));
+            if (blocked) {
+                event.disallow(
+                        AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                        getProtectedWorldMessage()
+                );
+                return true;
+            }
+        } catch (Exception ex) {
+            plugin.getLogger().warning("Failed to check protected-world block for " + playerName + ": " + ex.getMessage());
+        }
+
+        // --------------------------------------------------------------
+        // 2) Normale SQL-Whitelist prüfen
+        // --------------------------------------------------------------
+        if (trustsProxy()) {
+            checkExpiredOnly(event);
+            return true;
+        }
+
+        try {
+            boolean whitelisted = plugin.getExecutor().call(PluginExecutor.Lane.LOGIN,
+                    () -> service.isWhitelisted(event.getUniqueId(), playerName));
+
+            // Wenn MySQL wieder funktioniert, Recovery loggen
+            plugin.handleMysqlRecovery();
+
+            if (!whitelisted) {
+                event.disallow(
+                        AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                        getNotWhitelistedMessage()
+                );
+            }
+            return true;
+
+        } catch (Exception mysqlException) {
+            if (mysqlException instanceof RejectedExecutionException) {
+                // Login-Lane ausgelastet: kein MySQL-Ausfall, nur Überlast
+                plugin.getLogger().info("Login lane saturated, answering " + playerName + " from local fallback.");
+            } else {
+                plugin.handleMysqlFailure(
+                        "MySQL whitelist check failed for " + playerName + ". Trying local fallback...",
+                        mysqlException
+                );
+            }
+
+            checkLocalFallback(event);
+            return false;
+        }
+    }
+
+    /**
+     * 1) ohne MySQL: nur die im Speicher bekannten Protected-World-Sperren.
+     *
+     * @return {@code true}, wenn der Login abgelehnt wurde
+     */
+    private boolean checkLocalBlock(AsyncPlayerPreLoginEvent event) {
+        if (!plugin.getProtectedAccessBlockService().isBlockedLocally(event.getUniqueId())) {
+            return false;
+        }
+        event.disallow(
+                AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                getProtectedWorldMessage()
+        );
+        return true;
+    }
+
+    /**
+     * 3) Lokale Fallback-Whitelist – bei MySQL-Ausfall oder wenn die
+     * Zugangskontrolle den Login an MySQL vorbeigeleitet hat.
+     */
+    private void checkLocalFallback(AsyncPlayerPreLoginEvent event) {
+        if (trustsProxy()) {
+            checkExpiredOnly(event);
+            return;
+        }
+
+        String playerName = event.getName();
+
+        try {
+            boolean fallbackWhitelisted = service.isWhitelistedLocal(event.getUniqueId(), playerName);
+
+            if (!fallbackWhitelisted) {
+                event.disallow(
+                        AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                        getNotWhitelistedMessage()
+                );
+            }
+
+        } catch (Exception fallbackException) {
+            plugin.getLogger().log(
+                    java.util.logging.Level.SEVERE,
+                    "Local fallback whitelist check also failed for " + playerName,
+                    fallbackException
+            );
+
+            event.disallow(
+                    AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                    getDatabaseErrorMessage()
+            );
+        }
+    }
+
+    /**
+     * 2) bei {@code proxy.trust-proxy-whitelist}: Ein Spieler kann noch über
+     * den Proxy verbunden sein, wenn sein befristeter Eintrag abläuft, und
+     * danach den Server wechseln.
+     */
+    private void checkExpiredOnly(AsyncPlayerPreLoginEvent event) {
+        if (service.getTimedWhitelist().isExpired(event.getUniqueId())) {
+            event.disallow(
+                    AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                    getNotWhitelistedMessage()
+            );
+        }
+    }
+
+    /**
+     * Nur setzen, wenn das Backend ausschliesslich über den Proxy erreichbar ist.
+     */
+    private boolean trustsProxy() {
+        return plugin.getConfig().getBoolean("proxy.trust-proxy-whitelist", false);
+    }
+
+    private Component getNotWhitelistedMessage() {
+        String raw = plugin.getConfig().getString(
+                "kick.not_whitelisted",
+                "&cYou're not on our whitelist."
+        );
+        return MessageUtil.parse(raw);
+    }
+
+    private Component getDatabaseErrorMessage() {
+        String raw = plugin.getConfig().getString(
+                "kick.db_error",
+                "&cEs gab einen internen Fehler mit der Datenbank."
+        );
+        return MessageUtil.parse(raw);
+    }
+
+    private Component getServerBusyMessage() {
+        String raw = plugin.getConfig().getString(
+                "kick.server_busy",
+                "&eDer Server ist gerade ausgelastet.&r\n&7Bitte versuche es in ein paar Sekunden erneut."
+        );
+        return MessageUtil.parse(raw);
+    }
+
+    private Component getRateLimitedMessage() {
+        String raw = plugin.getConfig().getString(
+                "kick.rate_limited",
+                "&eZu viele Verbindungsversuche.&r\n&7Bitte warte einen Moment und versuche es erneut."
+        );
+        return MessageUtil.parse(raw);
+    }
+
+    private Component getProtectedWorldMessage() {
+        String raw = plugin.getConfig().getString(
+                "messages.protected_world",
+                "&cNope! Du darfst diese Welt nicht betreten."
+        );
+        return MessageUtil.parse(raw);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,781 @@
+package ch.ksrminecraft.kSRSQLWhitelist.listeners;
+
+import ch.ksrminecraft.kSRSQLWhitelist.KSRSQLWhitelist;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.BulkWhitelistImporter;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.LocalFallbackDatabase;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PlayerInfoService;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PluginExecutor;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PluginExecutor.Lane;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.TimedWhitelistService;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistExporter;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistService;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🎮 WhitelistCommandInterceptor
+ *  -------------------------------
+ *  Ersetzt die Vanilla-/whitelist-Kommandos durch SQL-gestützte Logik.
+ *
+ *  Unterstützte Subcommands:
+ *   - add, remove, on, off, list, reload, info, resync, stats, import, export
+ *
+ *  Erweiterung:
+ *   - /whitelist info <Spieler>   → zeigt Mojang-/Skin-Infos + (optional) Registrierungsdaten
+ *   - /whitelist resync           → synchronisiert MySQL manuell mit der lokalen Fallback-Datenbank
+ *   - /whitelist list [Seite] [Filter] → paginierte Liste (Keyset-Pagination)
+ *   - /whitelist stats            → Auslastung der Executor-Lanes
+ *   - /whitelist add a b c        → mehrere Spieler auf einmal (Bulk-Import)
+ *   - /whitelist add <Spieler> 7d → befristet (s, m, h, d, w; kombinierbar)
+ *   - /whitelist import <Datei>   → Namen aus CSV/Textdatei im Plugin-Ordner
+ *   - /whitelist export <csv|ndjson> → gestreamter Export in den Plugin-Ordner
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public class WhitelistCommandInterceptor implements Listener {
+
+    private final KSRSQLWhitelist plugin;
+    private final WhitelistService service;
+    private final PlayerInfoService infoService;
+    private final BulkWhitelistImporter importer;
+    private final WhitelistExporter exporter;
+
+    /**
+     * Letzte angezeigte Listen-Seite pro Sender, um per Keyset weiterzublättern.
+     * Wird beim Verlassen des Servers verworfen (siehe {@link #onQuit}).
+     */
+    private final Map<String, ListCursor> listCursors = new ConcurrentHashMap<>();
+
+    public WhitelistCommandInterceptor(KSRSQLWhitelist plugin, WhitelistService service) {
+        this.plugin = plugin;
+        this.service = service;
+        this.infoService = new PlayerInfoService(plugin);
+        this.importer = new BulkWhitelistImporter(plugin, service);
+        this.exporter = new WhitelistExporter(plugin, service);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🎯 Spielerbefehle (/whitelist ...)
+    // ------------------------------------------------------------------------
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent e) {
+        String raw = e.getMessage().trim();
+        if (!raw.toLowerCase(Locale.ROOT).startsWith("/whitelist")) {
+            return;
+        }
+
+        String[] parts = raw.substring(1).split("\\s+");
+        if (parts.length < 2) {
+            return;
+        }
+
+        String sub = parts[1].toLowerCase(Locale.ROOT);
+        switch (sub) {
+            case "add":
+            case "remove":
+            case "rm":
+            case "del":
+            case "on":
+            case "off":
+            case "list":
+            case "reload":
+            case "info":
+            case "resync":
+            case "stats":
+            case "import":
+            case "export":
+                e.setCancelled(true);
+                dispatch(e.getPlayer(), parts);
+                break;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        listCursors.remove(e.getPlayer().getName());
+    }
+
+    // ------------------------------------------------------------------------
+    // 🖥️ Konsolen-/RCON-Befehle
+    // ------------------------------------------------------------------------
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onServerCommand(ServerCommandEvent e) {
+        String raw = e.getCommand().trim();
+        if (!raw.toLowerCase(Locale.ROOT).startsWith("whitelist")) {
+            return;
+        }
+
+        String[] parts = raw.split("\\s+");
+        if (parts.length < 2) {
+            return;
+        }
+
+        String sub = parts[1].toLowerCase(Locale.ROOT);
+        switch (sub) {
+            case "add":
+            case "remove":
+            case "rm":
+            case "del":
+            case "on":
+            case "off":
+            case "list":
+            case "reload":
+            case "info":
+            case "resync":
+            case "stats":
+            case "import":
+            case "export":
+                e.setCancelled(true);
+                dispatch(e.getSender(), parts);
+                break;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧠 Zentrale Dispatch-Logik
+    // ------------------------------------------------------------------------
+    private void dispatch(CommandSender sender, String[] parts) {
+        String sub = parts[1].toLowerCase(Locale.ROOT);
+
+        switch (sub) {
+
+            // --------------------------------------------------------------
+            // /whitelist add <player> [player...] | <player> <duration>
+            // --------------------------------------------------------------
+            case "add": {
+                if (!has(sender, "KSRSQLWhitelist.add")) {
+                    return;
+                }
+                if (parts.length < 3) {
+                    usage(sender, "whitelist add <player> [player...] | <player> <duration>");
+                    return;
+                }
+
+                // Genau ein Spieler + Dauer (z. B. 7d, 12h30m) → befristet
+                long expiresAt = 0L;
+                if (parts.length == 4 && TimedWhitelistService.isDuration(parts[3])) {
+                    if (!service.getTimedWhitelist().isEnabled()) {
+                        sender.sendMessage(ChatColor.RED + "Time-limited whitelist entries are disabled (timed-whitelist.enabled).");
+                        return;
+                    }
+                    try {
+                        expiresAt = System.currentTimeMillis() + TimedWhitelistService.parseDuration(parts[3]);
+                    } catch (IllegalArgumentException | ArithmeticException ex) {
+                        sender.sendMessage(ChatColor.RED + "Invalid duration: " + parts[3]);
+                        return;
+                    }
+                } else if (parts.length > 3) {
+                    List<String> targets = Arrays.asList(parts).subList(2, parts.length);
+                    async(sender, Lane.COMMAND, () -> runBulkImport(sender, targets));
+                    break;
+                }
+
+                String target = parts[2];
+                long until = expiresAt;
+                String suffix = until > 0
+                        ? " for " + TimedWhitelistService.formatDuration(until - System.currentTimeMillis())
+                        : "";
+                async(sender, Lane.COMMAND, () -> {
+                    try {
+                        Player online = plugin.getServer().getPlayerExact(target);
+                        if (online != null) {
+                            service.addOrUpdateOnline(online.getUniqueId(), online.getName(), until);
+                            sender.sendMessage(ChatColor.GREEN + online.getName() + " is now whitelisted" + suffix + "!");
+                            online.sendMessage(ChatColor.GREEN + "You have been whitelisted" + suffix + "!");
+                        } else {
+                            service.addOfflineName(target, until);
+                            sender.sendMessage(ChatColor.GREEN + target + " is now whitelisted" + suffix
+                                    + " and verified via Mojang!");
+                        }
+                        notifyIfQueued(sender);
+                    } catch (Exception ex) {
+                        sender.sendMessage(ChatColor.RED + "Error while whitelisting player. Check console log.");
+                        plugin.getLogger().log(Level.WARNING, "Error while adding player to whitelist: " + target, ex);
+                    }
+                });
+                break;
+            }
+
+            // --------------------------------------------------------------
+            // /whitelist remove|rm|del <player>
+            // --------------------------------------------------------------
+            case "remove":
+            case "rm":
+            case "del": {
+                if (!has(sender, "KSRSQLWhitelist.del")) {
+                    return;
+                }
+                if (parts.length < 3) {
+                    usage(sender, "whitelist remove <player>");
+                    return;
+                }
+
+                String target = parts[2];
+                async(sender, Lane.COMMAND, () -> {
+                    try {
+                        int affected = 0;
+                        Player online = plugin.getServer().getPlayerExact(target);
+
+                        if (online != null) {
+                            affected = service.deleteByUUID(online.getUniqueId());
+                        }
+                        if (affected == 0) {
+                            service.deleteByName(target);
+                        }
+
+                        // Die Anzahl stammt aus dem lokalen Cache, der veraltet sein kann;
+                        // gelöscht wird in MySQL über die Outbox in jedem Fall
+                        sender.sendMessage(ChatColor.RED + "Removal of " + target + " from the whitelist queued.");
+                        notifyIfQueued(sender);
+                        if (online != null) {
+                            Bukkit.getScheduler().runTask(plugin,
+                                    () -> online.kickPlayer("You have been removed from our whitelist"));
+                        }
+                    } catch (Exception ex) {
+                        sender.sendMessage(ChatColor.RED + "Error while deleting player. Check console log.");
+                        plugin.getLogger().log(Level.WARNING, "Error while removing player from whitelist: " + target, ex);
+                    }
+                });
+                break;
+            }
+
+            // --------------------------------------------------------------
+            // /whitelist on
+            // --------------------------------------------------------------
+            case "on":
+                if (has(sender, "KSRSQLWhitelist.on")) {
+                    plugin.getConfig().set("enabled", true);
+                    plugin.saveConfig();
+                    sender.sendMessage(ChatColor.GREEN + "Whitelist enabled.");
+                }
+                break;
+
+            // --------------------------------------------------------------
+            // /whitelist off
+            // --------------------------------------------------------------
+            case "off":
+                if (has(sender, "KSRSQLWhitelist.off")) {
+                    plugin.getConfig().set("enabled", false);
+                    plugin.saveConfig();
+                    sender.sendMessage(ChatColor.YELLOW + "Whitelist disabled.");
+                }
+                break;
+
+            // --------------------------------------------------------------
+            // /whitelist list
+            // --------------------------------------------------------------
+            case "list": {
+                if (!has(sender, "minecraft.command.whitelist")) {
+                    return;
+                }
+
+                // /whitelist list [page] [filter] – Reihenfolge der Argumente ist egal
+                int requestedPage = 1;
+                String filter = null;
+                for (int i = 2; i < parts.length && i < 4; i++) {
+                    try {
+                        requestedPage = Math.max(1, Integer.parseInt(parts[i]));
+                    } catch (NumberFormatException ex) {
+                        filter = parts[i];
+                    }
+                }
+
+                final int page = requestedPage;
+                final String prefix = filter;
+                async(sender, Lane.COMMAND, () -> {
+                    try {
+                        List<UUID> onlineUUIDs = Bukkit.getOnlinePlayers().stream()
+                                .map(Player::getUniqueId)
+                                .toList();
+
+                        ListPage result;
+                        try {
+                            result = loadListPage(sender, page, prefix, onlineUUIDs, false);
+                        } catch (Exception ex) {
+                            plugin.getLogger().log(Level.WARNING,
+                                    "MySQL whitelist list failed, trying local fallback.", ex);
+                            result = loadListPage(sender, page, prefix, onlineUUIDs, true);
+                        }
+
+                        sender.sendMessage(ChatColor.GRAY + "There are " + result.onlineCount() +
+                                " (of " + result.total() + ") whitelisted players online:");
+
+                        if (result.names().isEmpty()) {
+                            sender.sendMessage(ChatColor.GRAY + "[]");
+                            return;
+                        }
+
+                        Set<String> onlineNames = new HashSet<>();
+                        Bukkit.getOnlinePlayers().forEach(p -> onlineNames.add(p.getName().toLowerCase(Locale.ROOT)));
+
+                        StringBuilder line = new StringBuilder();
+                        for (String name : result.names()) {
+                            if (!line.isEmpty()) {
+                                line.append(ChatColor.GRAY).append(", ");
+                            }
+                            boolean isOnline = onlineNames.contains(name.toLowerCase(Locale.ROOT));
+                            line.append(isOnline ? ChatColor.GREEN : ChatColor.WHITE).append(name);
+                        }
+
+                        sender.sendMessage(ChatColor.YELLOW + "Page " + page + "/" + result.totalPages() +
+                                (prefix != null ? ChatColor.GRAY + " (filter: " + prefix + "*)" : ""));
+                        sender.sendMessage(line.toString());
+
+                        if (page < result.totalPages()) {
+                            String next = "/whitelist list " + (page + 1) + (prefix != null ? " " + prefix : "");
+                            sender.sendMessage(Component.text("» Next page: ", NamedTextColor.GRAY)
+                                    .append(Component.text(next, NamedTextColor.AQUA)
+                                            .clickEvent(ClickEvent.runCommand(next))));
+                        }
+
+                    } catch (Exception ex) {
+                        sender.sendMessage(ChatColor.RED + "Error while listing whitelist. Check console log.");
+                        plugin.getLogger().log(Level.WARNING, "Error while listing whitelist", ex);
+                    }
+                });
+                break;
+            }
+
+            // --------------------------------------------------------------
+            // /whitelist reload
+            // --------------------------------------------------------------
+            case "reload":
+                if (has(sender, "minecraft.command.whitelist")) {
+                    plugin.reloadConfig();
+                    sender.sendMessage(ChatColor.GREEN + "Whitelist configuration reloaded.");
+                }
+                break;
+
+            // --------------------------------------------------------------
+            // /whitelist resync
+            // --------------------------------------------------------------
+            case "resync": {
+                if (!has(sender, "minecraft.command.whitelist")) {
+                    return;
+                }
+
+                async(sender, Lane.RESYNC, () -> {
+                    try {
+                        WhitelistService.SyncReport report = service.syncMysqlToLocalFallback();
+                        service.getTimedWhitelist().reload();
+                        sender.sendMessage(ChatColor.GREEN + "Local fallback whitelist cache resynchronized successfully ("
+                                + report.format() + ").");
+                    } catch (Exception ex) {
+                        sender.sendMessage(ChatColor.RED + "Resync failed. Existing local fallback cache is still kept.");
+                        plugin.getLogger().log(Level.WARNING, "Manual whitelist resync failed", ex);
+                    }
+                });
+                break;
+            }
+
+            // --------------------------------------------------------------
+            // /whitelist info <player>
+            // --------------------------------------------------------------
+            case "info": {
+                if (!has(sender, "minecraft.command.whitelist")) {
+                    return;
+                }
+                if (parts.length < 3) {
+                    usage(sender, "whitelist info <player>");
+                    return;
+                }
+
+                String target = parts[2];
+
+                async(sender, Lane.COMMAND, () -> {
+                    try {
+                        PluginExecutor executor = plugin.getExecutor();
+                        long timeoutMs = Math.max(500L, plugin.getConfig().getLong("info.timeout-ms", 5000L));
+                        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                        boolean regEnabled = plugin.getConfig().getBoolean("registration.enabled", true);
+
+                        // 1) Alle Quellen gleichzeitig starten, gemeinsame Deadline
+                        CompletableFuture<PlayerInfoService.PlayerInfo> infoFuture =
+                                executor.fork(() -> infoService.fetchInfo(target));
+                        CompletableFuture<WhitelistService.RegistrationInfo> regFuture = regEnabled
+                                ? executor.fork(() -> service.findRegistration(target))
+                                : CompletableFuture.completedFuture(null);
+
+                        // Whitelist-Status: zuerst per Name, sonst über die UUID aus dem Profil
+                        // (kein zweiter Ashcon-Aufruf nötig)
+                        CompletableFuture<Boolean> whitelistedFuture = executor
+                                .fork(() -> service.existsInWhitelistByName(target))
+                                .thenCompose(byName -> byName
+                                        ? CompletableFuture.completedFuture(true)
+                                        : infoFuture.thenCompose(profile -> profile == null || profile.uuid == null
+                                                ? CompletableFuture.completedFuture(false)
+                                                : executor.fork(() -> service.existsInWhitelistByUUID(profile.uuid))));
+
+                        // 2) Ergebnisse einsammeln – was bis zur Deadline fehlt, wird als Teilausfall angezeigt
+                        List<String> unavailable = new ArrayList<>();
+                        var info = awaitPart(infoFuture, deadline, "Mojang profile", target, unavailable);
+                        var registration = awaitPart(regFuture, deadline, "Registration", target, unavailable);
+                        Boolean whitelisted = awaitPart(whitelistedFuture, deadline, "Whitelist status", target, unavailable);
+
+                        if (info == null && unavailable.isEmpty()) {
+                            sender.sendMessage(ChatColor.RED + "Player '" + target + "' not found via Mojang API.");
+                            return;
+                        }
+
+                        // 3) Ausgabe
+                        sender.sendMessage(ChatColor.GRAY + "------ Player Info ------");
+
+                        if (info != null) {
+                            boolean online = Bukkit.getPlayerExact(info.name) != null &&
+                                    Bukkit.getPlayerExact(info.name).isOnline();
+
+                            sender.sendMessage(ChatColor.YELLOW + "Name: " + ChatColor.WHITE + info.name);
+                            sender.sendMessage(ChatColor.YELLOW + "UUID: " + ChatColor.WHITE + info.uuid);
+                            sender.sendMessage(ChatColor.YELLOW + "Mojang Account: " +
+                                    (info.verified ? ChatColor.GREEN + "✅ Verified" : ChatColor.RED + "❌ Unknown"));
+                            sender.sendMessage(ChatColor.YELLOW + "Status: " +
+                                    (online ? ChatColor.GREEN + "🟢 Online" : ChatColor.RED + "🔴 Offline"));
+
+                            if (info.createdAt != null && !info.createdAt.equals("—")) {
+                                sender.sendMessage(ChatColor.YELLOW + "Created: " +
+                                        ChatColor.WHITE + info.createdAt.replace("T", " ").replace("Z", ""));
+                            }
+
+                            if (info.history != null && info.history.size() > 1) {
+                                String hist = String.join(" → ", info.history);
+                                sender.sendMessage(ChatColor.YELLOW + "Name History: " + ChatColor.WHITE + hist);
+                            }
+
+                            sender.sendMessage(Component.text("Skin: ", NamedTextColor.YELLOW)
+                                    .append(info.getClickableSkinComponent()));
+                        } else {
+                            sender.sendMessage(ChatColor.YELLOW + "Name: " + ChatColor.WHITE + target);
+                        }
+
+                        if (regEnabled && registration != null && registration.firstname() != null) {
+                            sender.sendMessage(ChatColor.GRAY + "------ Registration Info ------");
+                            sender.sendMessage(ChatColor.YELLOW + "Full Name: " + ChatColor.WHITE + registration.firstname() + " " + registration.lastname());
+                            sender.sendMessage(ChatColor.YELLOW + "School: " + ChatColor.WHITE + (registration.school() != null ? registration.school() : "—"));
+                            sender.sendMessage(ChatColor.YELLOW + "Email: " + ChatColor.WHITE + (registration.email() != null ? registration.email() : "—"));
+                            sender.sendMessage(ChatColor.YELLOW + "Registered: " + ChatColor.WHITE + registration.registeredSince());
+                        }
+
+                        if (whitelisted != null) {
+                            sender.sendMessage(ChatColor.YELLOW + "Whitelisted: " +
+                                    (whitelisted ? ChatColor.GREEN + "✅" : ChatColor.RED + "❌"));
+                        }
+
+                        if (!unavailable.isEmpty()) {
+                            sender.sendMessage(ChatColor.GRAY + "Unavailable: " + String.join(", ", unavailable));
+                        }
+
+                    } catch (Exception ex) {
+                        sender.sendMessage(ChatColor.RED + "Error while fetching info for " + target + ".");
+                        plugin.getLogger().log(Level.WARNING, "Error while fetching whitelist info for " + target, ex);
+                    }
+                });
+                break;
+            }
+
+            // --------------------------------------------------------------
+            // /whitelist import <file>
+            // --------------------------------------------------------------
+            case "import": {
+                if (!has(sender, "KSRSQLWhitelist.add")) {
+                    return;
+                }
+                if (parts.length < 3) {
+                    usage(sender, "whitelist import <file>");
+                    return;
+                }
+
+                String fileName = parts[2];
+                async(sender, Lane.COMMAND, () -> {
+                    List<String> names;
+                    try {
+                        names = importer.readNames(fileName);
+                    } catch (IOException ex) {
+                        sender.sendMessage(ChatColor.RED + ex.getMessage());
+                        return;
+                    }
+
+                    if (names.isEmpty()) {
+                        sender.sendMessage(ChatColor.YELLOW + "No player names found in " + fileName + ".");
+                        return;
+                    }
+
+                    sender.sendMessage(ChatColor.GRAY + "Importing " + names.size() + " name(s) from " + fileName + "...");
+                    runBulkImport(sender, names);
+                });
+                break;
+            }
+
+            // --------------------------------------------------------------
+            // /whitelist export <csv|ndjson>
+            // --------------------------------------------------------------
+            case "export": {
+                if (!has(sender, "minecraft.command.whitelist")) {
+                    return;
+                }
+
+                WhitelistExporter.Format format = parts.length < 3
+                        ? WhitelistExporter.Format.CSV
+                        : WhitelistExporter.Format.parse(parts[2]);
+                if (format == null) {
+                    usage(sender, "whitelist export <csv|ndjson>");
+                    return;
+                }
+
+                async(sender, Lane.RESYNC, () -> {
+                    try {
+                        WhitelistExporter.Result result = exporter.export(format);
+                        sender.sendMessage(ChatColor.GREEN + "Whitelist exported to " + result.file()
+                                + (result.fromLocalFallback() ? ChatColor.YELLOW + " (from local fallback)" : ""));
+                        sender.sendMessage(ChatColor.GRAY + result.format());
+                    } catch (Exception ex) {
+                        sender.sendMessage(ChatColor.RED + "Export failed. Check console log.");
+                        plugin.getLogger().log(Level.WARNING, "Whitelist export failed", ex);
+                    }
+                });
+                break;
+            }
+
+            // --------------------------------------------------------------
+            // /whitelist stats
+            // --------------------------------------------------------------
+            case "stats":
+                if (!has(sender, "minecraft.command.whitelist")) {
+                    return;
+                }
+
+                sender.sendMessage(ChatColor.GRAY + "------ Whitelist Executor ------");
+                for (PluginExecutor.LaneStats stats : plugin.getExecutor().snapshot()) {
+                    sender.sendMessage(ChatColor.YELLOW + stats.format());
+                }
+                sender.sendMessage(ChatColor.GRAY + "------ Login Admission ------");
+                sender.sendMessage(ChatColor.YELLOW + plugin.getLoginAdmission().format());
+                sender.sendMessage(ChatColor.GRAY + "------ Login Rate Limit ------");
+                sender.sendMessage(ChatColor.YELLOW + plugin.getLoginRateLimiter().format());
+                sender.sendMessage(ChatColor.GRAY + "------ Timed Whitelist ------");
+                sender.sendMessage(ChatColor.YELLOW + service.getTimedWhitelist().format());
+                sender.sendMessage(ChatColor.GRAY + "------ Login Batching ------");
+                sender.sendMessage(ChatColor.YELLOW + service.getLoginBatcher().format());
+                sender.sendMessage(ChatColor.GRAY + "------ Lookup Cache ------");
+                for (String line : service.getLookupCache().format()) {
+                    sender.sendMessage(ChatColor.YELLOW + line);
+                }
+                sender.sendMessage(ChatColor.GRAY + "------ MySQL ------");
+                sender.sendMessage(ChatColor.YELLOW + "status " + (plugin.isMysqlUnavailable()
+                        ? ChatColor.RED + "unavailable (local fallback)" : ChatColor.GREEN + "available"));
+                sender.sendMessage(ChatColor.YELLOW + "engine " + plugin.getDatabase().store().engine());
+                sender.sendMessage(ChatColor.YELLOW + "pool " + plugin.getDatabase().formatPoolStats());
+                for (String line : plugin.getDatabase().formatReplicaStats()) {
+                    sender.sendMessage(ChatColor.YELLOW + line);
+                }
+                sender.sendMessage(ChatColor.YELLOW + "probe " + plugin.getHealthProber().format());
+                sender.sendMessage(ChatColor.YELLOW + "invalidation " + plugin.getInvalidationBus().format());
+                sender.sendMessage(ChatColor.YELLOW + "cluster resync " + plugin.getResyncCoordinator().format());
+                LocalFallbackDatabase.SyncMeta lastSync = service.getLocalDatabase().getLastSync();
+                sender.sendMessage(ChatColor.GRAY + "------ Local Fallback ------");
+                sender.sendMessage(ChatColor.YELLOW + (lastSync == null
+                        ? "never synchronized"
+                        : "last sync " + new Timestamp(lastSync.lastSyncAt()) + ", rows " + lastSync.rowCount()
+                        + ", watermark " + lastSync.sourceWatermark()));
+                WhitelistService.SyncReport lastReport = service.getLastSyncReport();
+                if (lastReport != null) {
+                    sender.sendMessage(ChatColor.YELLOW + "last resync " + lastReport.format());
+                }
+                sender.sendMessage(ChatColor.GRAY + "------ Write Outbox ------");
+                sender.sendMessage(ChatColor.YELLOW + service.getOutbox().format());
+                sender.sendMessage(ChatColor.GRAY + "------ Protected World Blocks ------");
+                sender.sendMessage(ChatColor.YELLOW + plugin.getProtectedAccessBlockService().format());
+                break;
+
+            default:
+                usage(sender, "whitelist <add|remove|on|off|list|reload|info|resync|stats|import|export>");
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧵 Asynchrone Ausführung
+    // ------------------------------------------------------------------------
+
+    /**
+     * Führt einen Command-Teil auf dem Plugin-Executor aus. Ist die Lane
+     * ausgelastet, erhält der Sender eine Rückmeldung statt stiller Wartezeit.
+     */
+    private void async(CommandSender sender, Lane lane, Runnable task) {
+        plugin.getExecutor().run(lane, task).exceptionally(ex -> {
+            sender.sendMessage(ChatColor.RED + "The whitelist is busy right now, please try again in a moment.");
+            plugin.getLogger().warning("Rejected /whitelist task on lane '" + lane.configKey() + "': " + ex.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Weist darauf hin, dass eine Änderung erst lokal gespeichert ist und
+     * nach MySQL übertragen wird, sobald die Verbindung wieder steht.
+     */
+    private void notifyIfQueued(CommandSender sender) {
+        if (plugin.isMysqlUnavailable()) {
+            sender.sendMessage(ChatColor.GRAY + "MySQL is currently unreachable – the change was saved locally "
+                    + "and will be synchronized automatically.");
+        }
+    }
+
+    /**
+     * Fügt mehrere Spieler per {@link BulkWhitelistImporter} hinzu und meldet
+     * Fortschritt und Ergebnis an den Sender.
+     */
+    private void runBulkImport(CommandSender sender, List<String> names) {
+        try {
+            Map<String, UUID> onlineUUIDs = new HashMap<>();
+            Bukkit.getOnlinePlayers().forEach(p ->
+                    onlineUUIDs.put(p.getName().toLowerCase(Locale.ROOT), p.getUniqueId()));
+
+            BulkWhitelistImporter.Result result = importer.importNames(names, onlineUUIDs,
+                    msg -> sender.sendMessage(ChatColor.GRAY + msg));
+
+            sender.sendMessage(ChatColor.GREEN + "Bulk import done: " + result.added() + " added, "
+                    + result.alreadyWhitelisted() + " already whitelisted, "
+                    + result.invalid().size() + " invalid/unknown.");
+            notifyIfQueued(sender);
+
+            if (!result.invalid().isEmpty()) {
+                List<String> shown = result.invalid().subList(0, Math.min(20, result.invalid().size()));
+                sender.sendMessage(ChatColor.YELLOW + "Skipped: " + ChatColor.WHITE + String.join(", ", shown)
+                        + (result.invalid().size() > shown.size()
+                        ? ChatColor.GRAY + " (+" + (result.invalid().size() - shown.size()) + " more)" : ""));
+            }
+
+            sender.sendMessage(ChatColor.GRAY + String.format(Locale.ROOT, "Took %.1fs (%.1f names/s)",
+                    result.elapsedMs() / 1000.0, result.namesPerSecond()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            sender.sendMessage(ChatColor.RED + "Bulk import was interrupted.");
+        } catch (Exception ex) {
+            sender.sendMessage(ChatColor.RED + "Error during bulk import. Check console log.");
+            plugin.getLogger().log(Level.WARNING, "Error during bulk whitelist import", ex);
+        }
+    }
+
+    /**
+     * Wartet bis zur gemeinsamen Deadline auf eine Teilabfrage von /whitelist info.
+     * Läuft die Zeit ab oder schlägt die Abfrage fehl, wird die Quelle in
+     * {@code unavailable} vermerkt und {@code null} zurückgegeben.
+     */
+    private <T> T awaitPart(CompletableFuture<T> future, long deadlineNanos, String part,
+                            String target, List<String> unavailable) {
+        try {
+            return future.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            unavailable.add(part + " (timed out)");
+        } catch (ExecutionException ex) {
+            unavailable.add(part + " (failed)");
+            plugin.getLogger().warning("[KSR-SQL-Whitelist] " + part + " lookup failed for " + target + ": "
+                    + ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            unavailable.add(part + " (interrupted)");
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // 📄 Paginierte Whitelist-Liste
+    // ------------------------------------------------------------------------
+
+    /**
+     * Lädt eine Seite der Whitelist per Keyset-Pagination.
+     *
+     * Blättert der Sender zur direkt folgenden Seite, wird beim letzten Namen
+     * der vorherigen Seite weitergelesen. Nur bei einem Sprung auf eine
+     * beliebige Seite wird der Einstiegspunkt einmalig per OFFSET ermittelt.
+     */
+    private ListPage loadListPage(CommandSender sender, int page, String prefix,
+                                  List<UUID> onlineUUIDs, boolean local) throws SQLException {
+        int pageSize = Math.max(1, plugin.getConfig().getInt("list.page-size", 50));
+
+        int total = local ? service.countWhitelistedNamesLocal(prefix) : service.countWhitelistedNames(prefix);
+        int totalPages = Math.max(1, (total + pageSize - 1) / pageSize);
+        int onlineCount = local
+                ? service.countWhitelistedAmongLocal(onlineUUIDs)
+                : service.countWhitelistedAmong(onlineUUIDs);
+
+        String afterName = null;
+        if (page > 1) {
+            ListCursor cursor = listCursors.get(sender.getName());
+            if (cursor != null && cursor.page() == page - 1 && Objects.equals(cursor.prefix(), prefix)) {
+                afterName = cursor.lastName();
+            } else {
+                int anchorOffset = (page - 1) * pageSize - 1;
+                afterName = local
+                        ? service.findNameAtOffsetLocal(prefix, anchorOffset)
+                        : service.findNameAtOffset(prefix, anchorOffset);
+                if (afterName == null) {
+                    return new ListPage(List.of(), total, totalPages, onlineCount);
+                }
+            }
+        }
+
+        List<String> names = local
+                ? service.listWhitelistedNamesPageLocal(afterName, prefix, pageSize)
+                : service.listWhitelistedNamesPage(afterName, prefix, pageSize);
+
+        if (!names.isEmpty()) {
+            listCursors.put(sender.getName(), new ListCursor(prefix, page, names.get(names.size() - 1)));
+        }
+
+        return new ListPage(names, total, totalPages, onlineCount);
+    }
+
+    private record ListCursor(String prefix, int page, String lastName) {}
+
+    private record ListPage(List<String> names, int total, int totalPages, int onlineCount) {}
+
+    // ------------------------------------------------------------------------
+    // 🔒 Berechtigungsprüfung
+    // ------------------------------------------------------------------------
+    private boolean has(CommandSender s, String perm) {
+        return s.hasPermission(perm)
+                || s.hasPermission("KSRSQLWhitelist.*")
+                || s.hasPermission("minecraft.command.whitelist")
+                || s.isOp();
+    }
+
+    // ------------------------------------------------------------------------
+    // 📘 Usage-Hilfe
+    // ------------------------------------------------------------------------
+    private void usage(CommandSender sender, String u) {
+        sender.sendMessage(ChatColor.RED + "Usage: " + ChatColor.WHITE + "/" + u);
+    }
+}
\ No newline at end of file
@@ -13,7 +13,9 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandSendEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 
 import java.util.List;
@@ -22,6 +24,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 /**
@@ -37,6 +41,11 @@ import java.util.regex.Pattern;
  * Verhalten:
  * - mit fallback-world -> Spieler wird dorthin umgeleitet
  * - ohne fallback-world -> LiteBans-Kick + kurzfristige clusterweite Sperre
+ *
+ * Hot Path (Teleport):
+ * - Weltentscheid pro Weltname vorberechnet (bis zum nächsten Config-Reload)
+ * - Staff-Entscheid pro Online-Spieler zwischengespeichert; neu berechnet beim
+ *   Join, bei Permission-/OP-Änderungen (PlayerCommandSendEvent) und nach TTL
  */
 public class WorldAccessListener implements Listener {
 
@@ -64,6 +73,19 @@ public class WorldAccessListener implements Listener {
      */
     private final Set<UUID> handlingInProgress = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Zwischengespeicherter Staff-Entscheid pro Online-Spieler.
+     */
+    private final Map<UUID, StaffDecision> staffDecisions = new ConcurrentHashMap<>();
+
+    /**
+     * Vorberechneter Entscheid "ist geschützte Welt" pro Weltname.
+     */
+    private final Map<String, Boolean> worldDecisions = new ConcurrentHashMap<>();
+
+    private record StaffDecision(boolean allowed, long expiresAt) {
+    }
+
     public WorldAccessListener(KSRSQLWhitelist plugin) {
         this.plugin = plugin;
     }
@@ -110,6 +132,36 @@ public class WorldAccessListener implements Listener {
         }
     }
 
+    /**
+     * Berechnet den Staff-Entscheid vor allen anderen Join-Handlern.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoinPrime(PlayerJoinEvent event) {
+        refreshStaffDecision(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        staffDecisions.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Wird nach jeder Permission-Neuberechnung (z. B. OP-Änderung, Gruppenwechsel
+     * im Permission-Plugin) gesendet – guter Zeitpunkt, den Entscheid zu erneuern.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCommandsResent(PlayerCommandSendEvent event) {
+        refreshStaffDecision(event.getPlayer());
+    }
+
+    /**
+     * Verwirft alle vorberechneten Entscheide (z. B. nach /whitelist reload).
+     */
+    public void invalidateDecisions() {
+        worldDecisions.clear();
+        staffDecisions.clear();
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
@@ -195,11 +247,6 @@ public class WorldAccessListener implements Listener {
             return;
         }
 
-        Player player = event.getPlayer();
-        if (canEnterProtectedWorlds(player)) {
-            return;
-        }
-
         Location to = event.getTo();
         if (to == null || to.getWorld() == null) {
             return;
@@ -210,6 +257,11 @@ public class WorldAccessListener implements Listener {
             return;
         }
 
+        Player player = event.getPlayer();
+        if (canEnterProtectedWorlds(player)) {
+            return;
+        }
+
         event.setCancelled(true);
 
         Location fallback = getFallbackLocation();
@@ -231,10 +283,14 @@ public class WorldAccessListener implements Listener {
     }
 
     /**
-     * Führt die Schutzreaktion aus:
-     * - clusterweiten Kurzblock setzen
-     * - LiteBans-Kick dokumentieren
-     * - notfallmässig lokal kicken, falls der Command fehlschlägt
+     * Führt die Schutzreaktion aus (Main-Thread):
+     * 1. Sperre sofort lokal setzen
+     * 2. clusterweiten Kurzblock asynchron in MySQL schreiben
+     * 3. zurück auf dem Main-Thread: LiteBans-Kick dokumentieren
+     * 4. notfallmässig lokal kicken, falls der Command fehlschlägt
+     *
+     * Der Kick wartet höchstens {@code protected-worlds.punishment.persist-timeout-ms}
+     * auf MySQL, damit eine langsame Datenbank den Kick nicht aufhält.
      */
     private void punishProtectedWorldAccess(Player player, String context) {
         UUID uuid = player.getUniqueId();
@@ -243,55 +299,76 @@ public class WorldAccessListener implements Listener {
             return;
         }
 
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            try {
-                if (!player.isOnline()) {
-                    return;
-                }
-
-                long blockDurationSeconds = plugin.getConfig().getLong(
-                        "protected-worlds.block-duration-seconds",
-                        120L
-                );
-                long blockedUntil = System.currentTimeMillis() + (blockDurationSeconds * 1000L);
-
-                String reason = getPunishmentReason();
-
-                plugin.getProtectedAccessBlockService().upsertBlock(
-                        uuid,
-                        player.getName(),
-                        reason,
-                        blockedUntil
-                );
-
-                String command = buildLiteBansKickCommand(player.getName(), reason);
-                ConsoleCommandSender console = Bukkit.getConsoleSender();
-                boolean success = Bukkit.dispatchCommand(console, command);
-
-                plugin.getLogger().warning(
-                        "Protected world access detected for " + player.getName()
-                                + " (" + uuid + "), context=" + context
-                                + ", executedCommand=\"" + command + "\""
-                                + ", success=" + success
-                                + ", blockedUntil=" + blockedUntil
-                );
-
-                if (!success && player.isOnline()) {
-                    player.kick(getProtectedWorldMessage());
-                }
-
-            } catch (Exception ex) {
-                plugin.getLogger().warning("Failed to handle protected-world punishment for "
-                        + player.getName() + ": " + ex.getMessage());
+        String playerName = player.getName();
+        long blockDurationSeconds = plugin.getConfig().getLong(
+                "protected-worlds.block-duration-seconds",
+                120L
+        );
+        long blockedUntil = System.currentTimeMillis() + (blockDurationSeconds * 1000L);
+        long persistTimeoutMs = Math.max(0L, plugin.getConfig().getLong(
+                "protected-worlds.punishment.persist-timeout-ms",
+                3_000L
+        ));
+
+        String reason = getPunishmentReason();
+
+        plugin.getProtectedAccessBlockService()
+                .blockAsync(uuid, playerName, reason, blockedUntil)
+                .orTimeout(persistTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().warning("Could not persist protected-world block for "
+                                + playerName + " (local block is active): " + rootMessage(error));
+                    }
+
+                    if (!plugin.isEnabled()) {
+                        return;
+                    }
+
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        try {
+                            if (!player.isOnline()) {
+                                return;
+                            }
+
+                            String command = buildLiteBansKickCommand(playerName, reason);
+                            ConsoleCommandSender console = Bukkit.getConsoleSender();
+                            boolean success = Bukkit.dispatchCommand(console, command);
+
+                            plugin.getLogger().warning(
+                                    "Protected world access detected for " + playerName
+                                            + " (" + uuid + "), context=" + context
+                                            + ", executedCommand=\"" + command + "\""
+                                            + ", success=" + success
+                                            + ", blockedUntil=" + blockedUntil
+                                            + ", persisted=" + (error == null)
+                            );
+
+                            if (!success && player.isOnline()) {
+                                player.kick(getProtectedWorldMessage());
+                            }
+
+                        } catch (Exception ex) {
+                            plugin.getLogger().warning("Failed to handle protected-world punishment for "
+                                    + playerName + ": " + ex.getMessage());
+
+                            if (player.isOnline()) {
+                                player.kick(getProtectedWorldMessage());
+                            }
+                        } finally {
+                            Bukkit.getScheduler().runTaskLater(plugin,
+                                    () -> handlingInProgress.remove(uuid), 20L);
+                        }
+                    });
+                });
+    }
 
-                if (player.isOnline()) {
-                    player.kick(getProtectedWorldMessage());
-                }
-            } finally {
-                Bukkit.getScheduler().runTaskLater(plugin,
-                        () -> handlingInProgress.remove(uuid), 20L);
-            }
-        });
+    private static String rootMessage(Throwable error) {
+        Throwable t = error;
+        while (t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t instanceof TimeoutException ? "timed out" : t.getMessage();
     }
 
     private String buildLiteBansKickCommand(String playerName, String reason) {
@@ -323,10 +400,30 @@ public class WorldAccessListener implements Listener {
     }
 
     private boolean canEnterProtectedWorlds(Player player) {
-        return player.hasPermission("whitelist.staff") || player.isOp();
+        StaffDecision decision = staffDecisions.get(player.getUniqueId());
+        if (decision != null && System.currentTimeMillis() < decision.expiresAt()) {
+            return decision.allowed();
+        }
+        return refreshStaffDecision(player);
+    }
+
+    private boolean refreshStaffDecision(Player player) {
+        boolean allowed = player.hasPermission("whitelist.staff") || player.isOp();
+
+        long ttlSeconds = plugin.getConfig().getLong("protected-worlds.staff-cache-ttl-seconds", 300L);
+        long expiresAt = ttlSeconds > 0
+                ? System.currentTimeMillis() + ttlSeconds * 1000L
+                : Long.MAX_VALUE;
+
+        staffDecisions.put(player.getUniqueId(), new StaffDecision(allowed, expiresAt));
+        return allowed;
     }
 
     private boolean isProtectedWorld(String worldName) {
+        return worldDecisions.computeIfAbsent(worldName, this::matchesProtectedPattern);
+    }
+
+    private boolean matchesProtectedPattern(String worldName) {
         List<String> patterns = plugin.getConfig().getStringList("protected-worlds.worlds");
         String normalizedWorld = worldName.toLowerCase(Locale.ROOT);
 
@@ -49,54 +49,56 @@ public class PlayerInfoService {
      * @return PlayerInfo-Objekt oder null, wenn Spieler unbekannt/nicht gefunden
      */
     public PlayerInfo fetchInfo(String playerName) {
+        String lookupName = playerName.trim().toLowerCase(Locale.ROOT);
         try {
-            playerName = playerName.trim().toLowerCase(Locale.ROOT);
-            URL url = new URL("https://api.ashcon.app/mojang/v2/user/" + playerName);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestProperty("User-Agent", "KSR-SQL-Whitelist");
-            conn.setConnectTimeout(4000);
-            conn.setReadTimeout(4000);
-            conn.setRequestMethod("GET");
-
-            if (conn.getResponseCode() != 200) {
-                plugin.getLogger().warning("[KSR-SQL-Whitelist] Ashcon API returned " +
-                        conn.getResponseCode() + " for " + playerName);
-                return null;
-            }
+            return plugin.getExecutor().call(PluginExecutor.Lane.HTTP, () -> {
+                URL url = new URL("https://api.ashcon.app/mojang/v2/user/" + lookupName);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestProperty("User-Agent", "KSR-SQL-Whitelist");
+                conn.setConnectTimeout(4000);
+                conn.setReadTimeout(4000);
+                conn.setRequestMethod("GET");
+
+                if (conn.getResponseCode() != 200) {
+                    plugin.getLogger().warning("[KSR-SQL-Whitelist] Ashcon API returned " +
+                            conn.getResponseCode() + " for " + lookupName);
+                    return null;
+                }
 
-            try (InputStream is = conn.getInputStream();
-                 Scanner scanner = new Scanner(is).useDelimiter("\\A")) {
+                try (InputStream is = conn.getInputStream();
+                     Scanner scanner = new Scanner(is).useDelimiter("\\A")) {
 
-                String json = scanner.hasNext() ? scanner.next() : "";
-                if (json.isEmpty()) return null;
+                    String json = scanner.hasNext() ? scanner.next() : "";
+                    if (json.isEmpty()) return null;
 
-                JSONObject obj = new JSONObject(json);
+                    JSONObject obj = new JSONObject(json);
 
-                String uuid = obj.optString("uuid", null);
-                String username = obj.optString("username", playerName);
-                String createdAt = obj.optString("created_at", "—");
+                    String uuid = obj.optString("uuid", null);
+                    String username = obj.optString("username", lookupName);
+                    String createdAt = obj.optString("created_at", "—");
 
-                List<String> history = new ArrayList<>();
-                if (obj.has("username_history")) {
-                    JSONArray arr = obj.getJSONArray("username_history");
-                    for (int i = 0; i < arr.length(); i++) {
-                        history.add(arr.getJSONObject(i).getString("username"));
+                    List<String> history = new ArrayList<>();
+                    if (obj.has("username_history")) {
+                        JSONArray arr = obj.getJSONArray("username_history");
+                        for (int i = 0; i < arr.length(); i++) {
+                            history.add(arr.getJSONObject(i).getString("username"));
+                        }
                     }
-                }
 
-                String skin = null;
-                if (obj.has("textures")) {
-                    JSONObject textures = obj.getJSONObject("textures");
-                    if (textures.has("skin")) {
-                        skin = textures.getJSONObject("skin").optString("url", null);
+                    String skin = null;
+                    if (obj.has("textures")) {
+                        JSONObject textures = obj.getJSONObject("textures");
+                        if (textures.has("skin")) {
+                            skin = textures.getJSONObject("skin").optString("url", null);
+                        }
                     }
-                }
 
-                return new PlayerInfo(username, uuid, createdAt, history, skin, true);
-            }
+                    return new PlayerInfo(username, uuid, createdAt, history, skin, true);
+                }
+            });
         } catch (Exception e) {
             plugin.getLogger().warning("[KSR-SQL-Whitelist] Failed to fetch Ashcon info for " +
-                    playerName + ": " + e.getMessage());
+                    lookupName + ": " + e.getMessage());
             return null;
         }
     }
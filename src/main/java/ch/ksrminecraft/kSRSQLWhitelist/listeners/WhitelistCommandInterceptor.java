@@ -1,434 +0,0 @@
-package ch.ksrminecraft.kSRSQLWhitelist.listeners;
-
-import ch.ksrminecraft.kSRSQLWhitelist.KSRSQLWhitelist;
-import ch.ksrminecraft.kSRSQLWhitelist.utils.PlayerInfoService;
-import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistService;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
-import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerCommandPreprocessEvent;
-import org.bukkit.event.server.ServerCommandEvent;
-
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.Timestamp;
-import java.util.List;
-import java.util.Locale;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.logging.Level;
-
-/**
- * ----------------------------------------------------------------------------
- *  🎮 WhitelistCommandInterceptor
- *  -------------------------------
- *  Ersetzt die Vanilla-/whitelist-Kommandos durch SQL-gestützte Logik.
- *
- *  Unterstützte Subcommands:
- *   - add, remove, on, off, list, reload, info, resync
- *
- *  Erweiterung:
- *   - /whitelist info <Spieler>   → zeigt Mojang-/Skin-Infos + (optional) Registrierungsdaten
- *   - /whitelist resync           → synchronisiert MySQL manuell mit der lokalen Fallback-Datenbank
- *
- *  Autor: Timy Liniger (KSR Minecraft)
- *  Projekt: KSR-SQL-Whitelist
- * ----------------------------------------------------------------------------
- */
-public class WhitelistCommandInterceptor implements Listener {
-
-    private final KSRSQLWhitelist plugin;
-    private final WhitelistService service;
-    private final PlayerInfoService infoService;
-
-    public WhitelistCommandInterceptor(KSRSQLWhitelist plugin, WhitelistService service) {
-        this.plugin = plugin;
-        this.service = service;
-        this.infoService = new PlayerInfoService(plugin);
-    }
-
-    // ------------------------------------------------------------------------
-    // 🎯 Spielerbefehle (/whitelist ...)
-    // ------------------------------------------------------------------------
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-    public void onPlayerCommand(PlayerCommandPreprocessEvent e) {
-        String raw = e.getMessage().trim();
-        if (!raw.toLowerCase(Locale.ROOT).startsWith("/whitelist")) {
-            return;
-        }
-
-        String[] parts = raw.substring(1).split("\\s+");
-        if (parts.length < 2) {
-            return;
-        }
-
-        String sub = parts[1].toLowerCase(Locale.ROOT);
-        switch (sub) {
-            case "add":
-            case "remove":
-            case "rm":
-            case "del":
-            case "on":
-            case "off":
-            case "list":
-            case "reload":
-            case "info":
-            case "resync":
-                e.setCancelled(true);
-                dispatch(e.getPlayer(), parts);
-                break;
-        }
-    }
-
-    // ------------------------------------------------------------------------
-    // 🖥️ Konsolen-/RCON-Befehle
-    // ------------------------------------------------------------------------
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-    public void onServerCommand(ServerCommandEvent e) {
-        String raw = e.getCommand().trim();
-        if (!raw.toLowerCase(Locale.ROOT).startsWith("whitelist")) {
-            return;
-        }
-
-        String[] parts = raw.split("\\s+");
-        if (parts.length < 2) {
-            return;
-        }
-
-        String sub = parts[1].toLowerCase(Locale.ROOT);
-        switch (sub) {
-            case "add":
-            case "remove":
-            case "rm":
-            case "del":
-            case "on":
-            case "off":
-            case "list":
-            case "reload":
-            case "info":
-            case "resync":
-                e.setCancelled(true);
-                dispatch(e.getSender(), parts);
-                break;
-        }
-    }
-
-    // ------------------------------------------------------------------------
-    // 🧠 Zentrale Dispatch-Logik
-    // ------------------------------------------------------------------------
-    private void dispatch(CommandSender sender, String[] parts) {
-        String sub = parts[1].toLowerCase(Locale.ROOT);
-
-        switch (sub) {
-
-            // --------------------------------------------------------------
-            // /whitelist add <player>
-            // --------------------------------------------------------------
-            case "add": {
-                if (!has(sender, "KSRSQLWhitelist.add")) {
-                    return;
-                }
-                if (parts.length < 3) {
-                    usage(sender, "whitelist add <player>");
-                    return;
-                }
-
-                String target = parts[2];
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    try {
-                        Player online = plugin.getServer().getPlayerExact(target);
-                        if (online != null) {
-                            service.addOrUpdateOnline(online);
-                            sender.sendMessage(ChatColor.GREEN + online.getName() + " is now whitelisted!");
-                            online.sendMessage(ChatColor.GREEN + "You have been whitelisted!");
-                        } else {
-                            service.addOfflineName(target);
-                            sender.sendMessage(ChatColor.GREEN + target + " is now whitelisted and verified via Mojang!");
-                        }
-                    } catch (Exception ex) {
-                        sender.sendMessage(ChatColor.RED + "Error while whitelisting player. Check console log.");
-                        plugin.getLogger().log(Level.WARNING, "Error while adding player to whitelist: " + target, ex);
-                    }
-                });
-                break;
-            }
-
-            // --------------------------------------------------------------
-            // /whitelist remove|rm|del <player>
-            // --------------------------------------------------------------
-            case "remove":
-            case "rm":
-            case "del": {
-                if (!has(sender, "KSRSQLWhitelist.del")) {
-                    return;
-                }
-                if (parts.length < 3) {
-                    usage(sender, "whitelist remove <player>");
-                    return;
-                }
-
-                String target = parts[2];
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    try {
-                        int affected = 0;
-                        Player online = plugin.getServer().getPlayerExact(target);
-
-                        if (online != null) {
-                            affected = service.deleteByUUID(online.getUniqueId());
-                        }
-                        if (affected == 0) {
-                            affected = service.deleteByName(target);
-                        }
-
-                        if (affected > 0) {
-                            sender.sendMessage(ChatColor.RED + target + " is no longer whitelisted!");
-                            if (online != null) {
-                                Bukkit.getScheduler().runTask(plugin,
-                                        () -> online.kickPlayer("You have been removed from our whitelist"));
-                            }
-                        } else {
-                            sender.sendMessage(ChatColor.YELLOW + "No whitelist entry found for " + target + ".");
-                        }
-                    } catch (Exception ex) {
-                        sender.sendMessage(ChatColor.RED + "Error while deleting player. Check console log.");
-                        plugin.getLogger().log(Level.WARNING, "Error while removing player from whitelist: " + target, ex);
-                    }
-                });
-                break;
-            }
-
-            // --------------------------------------------------------------
-            // /whitelist on
-            // --------------------------------------------------------------
-            case "on":
-                if (has(sender, "KSRSQLWhitelist.on")) {
-                    plugin.getConfig().set("enabled", true);
-                    plugin.saveConfig();
-                    sender.sendMessage(ChatColor.GREEN + "Whitelist enabled.");
-                }
-                break;
-
-            // --------------------------------------------------------------
-            // /whitelist off
-            // --------------------------------------------------------------
-            case "off":
-                if (has(sender, "KSRSQLWhitelist.off")) {
-                    plugin.getConfig().set("enabled", false);
-                    plugin.saveConfig();
-                    sender.sendMessage(ChatColor.YELLOW + "Whitelist disabled.");
-                }
-                break;
-
-            // --------------------------------------------------------------
-            // /whitelist list
-            // --------------------------------------------------------------
-            case "list":
-                if (!has(sender, "minecraft.command.whitelist")) {
-                    return;
-                }
-
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    try {
-                        List<String> names;
-                        try {
-                            names = service.listWhitelistedNames();
-                        } catch (Exception ex) {
-                            plugin.getLogger().log(Level.WARNING,
-                                    "MySQL whitelist list failed, trying local fallback.", ex);
-                            names = service.listWhitelistedNamesLocal();
-                        }
-
-                        AtomicInteger onlineCount = new AtomicInteger(0);
-                        names.forEach(name -> {
-                            Player p = plugin.getServer().getPlayerExact(name);
-                            if (p != null && p.isOnline()) {
-                                onlineCount.incrementAndGet();
-                            }
-                        });
-
-                        sender.sendMessage(ChatColor.GRAY + "There are " + onlineCount.get() +
-                                " (of " + names.size() + ") whitelisted players online:");
-
-                        if (names.isEmpty()) {
-                            sender.sendMessage(ChatColor.GRAY + "[]");
-                        } else {
-                            sender.sendMessage(ChatColor.WHITE + String.join(", ", names));
-                        }
-
-                    } catch (Exception ex) {
-                        sender.sendMessage(ChatColor.RED + "Error while listing whitelist. Check console log.");
-                        plugin.getLogger().log(Level.WARNING, "Error while listing whitelist", ex);
-                    }
-                });
-                break;
-
-            // --------------------------------------------------------------
-            // /whitelist reload
-            // --------------------------------------------------------------
-            case "reload":
-                if (has(sender, "minecraft.command.whitelist")) {
-                    plugin.reloadConfig();
-                    sender.sendMessage(ChatColor.GREEN + "Whitelist configuration reloaded.");
-                }
-                break;
-
-            // --------------------------------------------------------------
-            // /whitelist resync
-            // --------------------------------------------------------------
-            case "resync": {
-                if (!has(sender, "minecraft.command.whitelist")) {
-                    return;
-                }
-
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    try {
-                        service.syncMysqlToLocalFallback();
-                        sender.sendMessage(ChatColor.GREEN + "Local fallback whitelist cache resynchronized successfully.");
-                    } catch (Exception ex) {
-                        sender.sendMessage(ChatColor.RED + "Resync failed. Existing local fallback cache is still kept.");
-                        plugin.getLogger().log(Level.WARNING, "Manual whitelist resync failed", ex);
-                    }
-                });
-                break;
-            }
-
-            // --------------------------------------------------------------
-            // /whitelist info <player>
-            // --------------------------------------------------------------
-            case "info": {
-                if (!has(sender, "minecraft.command.whitelist")) {
-                    return;
-                }
-                if (parts.length < 3) {
-                    usage(sender, "whitelist info <player>");
-                    return;
-                }
-
-                String target = parts[2];
-
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    try {
-                        // 1) Whitelist-Status prüfen
-                        boolean whitelisted = service.existsInWhitelist(target);
-
-                        // 2) Mojang-/Ashcon-Daten
-                        var info = infoService.fetchInfo(target);
-                        if (info == null) {
-                            sender.sendMessage(ChatColor.RED + "Player '" + target + "' not found via Mojang API.");
-                            return;
-                        }
-
-                        // 3) Online-Status prüfen
-                        boolean online = Bukkit.getPlayerExact(info.name) != null &&
-                                Bukkit.getPlayerExact(info.name).isOnline();
-
-                        // 4) Registrierungsdaten laden (optional)
-                        String firstname = null;
-                        String lastname = null;
-                        String school = null;
-                        String email = null;
-                        String registeredSince = null;
-
-                        boolean regEnabled = plugin.getConfig().getBoolean("registration.enabled", true);
-                        if (regEnabled) {
-                            try (Connection conn = service.getDatabase().openConnection()) {
-                                String regTable = plugin.getConfig().getString("registration.table", "registrations");
-                                String colUser = plugin.getConfig().getString("registration.column_username", "minecraft_username");
-                                String colFirst = plugin.getConfig().getString("registration.column_firstname", "firstname");
-                                String colLast = plugin.getConfig().getString("registration.column_lastname", "lastname");
-                                String colMail = plugin.getConfig().getString("registration.column_email", "email");
-                                String colSchool = plugin.getConfig().getString("registration.column_school", "school");
-                                String colCreated = plugin.getConfig().getString("registration.column_created_at", "created_at");
-
-                                String sql = "SELECT `" + colFirst + "`, `" + colLast + "`, `" + colMail + "`, `" + colSchool + "`, `" + colCreated + "` " +
-                                        "FROM `" + regTable + "` WHERE `" + colUser + "` = ? LIMIT 1";
-
-                                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                                    ps.setString(1, target);
-                                    try (ResultSet rs = ps.executeQuery()) {
-                                        if (rs.next()) {
-                                            firstname = rs.getString(colFirst);
-                                            lastname = rs.getString(colLast);
-                                            email = rs.getString(colMail);
-                                            school = rs.getString(colSchool);
-                                            Timestamp ts = rs.getTimestamp(colCreated);
-                                            if (ts != null) {
-                                                registeredSince = ts.toString().replace("T", " ");
-                                            }
-                                        }
-                                    }
-                                }
-                            } catch (Exception ex) {
-                                plugin.getLogger().warning("[KSR-SQL-Whitelist] Failed to load registration info for " + target + ": " + ex.getMessage());
-                            }
-                        }
-
-                        // 5) Ausgabe
-                        sender.sendMessage(ChatColor.GRAY + "------ Player Info ------");
-                        sender.sendMessage(ChatColor.YELLOW + "Name: " + ChatColor.WHITE + info.name);
-                        sender.sendMessage(ChatColor.YELLOW + "UUID: " + ChatColor.WHITE + info.uuid);
-                        sender.sendMessage(ChatColor.YELLOW + "Mojang Account: " +
-                                (info.verified ? ChatColor.GREEN + "✅ Verified" : ChatColor.RED + "❌ Unknown"));
-                        sender.sendMessage(ChatColor.YELLOW + "Status: " +
-                                (online ? ChatColor.GREEN + "🟢 Online" : ChatColor.RED + "🔴 Offline"));
-
-                        if (info.createdAt != null && !info.createdAt.equals("—")) {
-                            sender.sendMessage(ChatColor.YELLOW + "Created: " +
-                                    ChatColor.WHITE + info.createdAt.replace("T", " ").replace("Z", ""));
-                        }
-
-                        if (info.history != null && info.history.size() > 1) {
-                            String hist = String.join(" → ", info.history);
-                            sender.sendMessage(ChatColor.YELLOW + "Name History: " + ChatColor.WHITE + hist);
-                        }
-
-                        sender.sendMessage(Component.text("Skin: ", NamedTextColor.YELLOW)
-                                .append(info.getClickableSkinComponent()));
-
-                        if (regEnabled && firstname != null) {
-                            sender.sendMessage(ChatColor.GRAY + "------ Registration Info ------");
-                            sender.sendMessage(ChatColor.YELLOW + "Full Name: " + ChatColor.WHITE + firstname + " " + lastname);
-                            sender.sendMessage(ChatColor.YELLOW + "School: " + ChatColor.WHITE + (school != null ? school : "—"));
-                            sender.sendMessage(ChatColor.YELLOW + "Email: " + ChatColor.WHITE + (email != null ? email : "—"));
-                            sender.sendMessage(ChatColor.YELLOW + "Registered: " + ChatColor.WHITE + registeredSince);
-                        }
-
-                        sender.sendMessage(ChatColor.YELLOW + "Whitelisted: " +
-                                (whitelisted ? ChatColor.GREEN + "✅" : ChatColor.RED + "❌"));
-
-                    } catch (Exception ex) {
-                        sender.sendMessage(ChatColor.RED + "Error while fetching info for " + target + ".");
-                        plugin.getLogger().log(Level.WARNING, "Error while fetching whitelist info for " + target, ex);
-                    }
-                });
-                break;
-            }
-
-            default:
-                usage(sender, "whitelist <add|remove|on|off|list|reload|info|resync>");
-        }
-    }
-
-    // ------------------------------------------------------------------------
-    // 🔒 Berechtigungsprüfung
-    // ------------------------------------------------------------------------
-    private boolean has(CommandSender s, String perm) {
-        return s.hasPermission(perm)
-                || s.hasPermission("KSRSQLWhitelist.*")
-                || s.hasPermission("minecraft.command.whitelist")
-                || s.isOp();
-    }
-
-    // ------------------------------------------------------------------------
-    // 📘 Usage-Hilfe
-    // ------------------------------------------------------------------------
-    private void usage(CommandSender sender, String u) {
-        sender.sendMessage(ChatColor.RED + "Usage: " + ChatColor.WHITE + "/" + u);
-    }
-}
\ No newline at end of file
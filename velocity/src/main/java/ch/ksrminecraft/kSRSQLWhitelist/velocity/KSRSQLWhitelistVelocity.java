@@ -0,0 +1,325 @@
+package ch.ksrminecraft.kSRSQLWhitelist.velocity;
+
+import ch.ksrminecraft.kSRSQLWhitelist.utils.ClusterResyncCoordinator;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.Database;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.InvalidationBus;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.LocalFallbackDatabase;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.MysqlHealthProber;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PlatformSettings;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PluginExecutor;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.ProtectedAccessBlockService;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistPlatform;
+import ch.ksrminecraft.kSRSQLWhitelist.utils.WhitelistService;
+import com.google.inject.Inject;
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.ResultedEvent;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.plugin.Plugin;
+import com.velocitypowered.api.plugin.annotation.DataDirectory;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  🌐 KSRSQLWhitelistVelocity
+ *  --------------------------
+ *  Prüft Whitelist und Protected-World-Sperren einmal beim Login am
+ *  Velocity-Proxy statt bei jedem Serverwechsel auf jedem Backend.
+ *
+ *  Verwendet dieselben Dienste wie das Paper-Plugin (Modul {@code core}):
+ *  {@link WhitelistService} mit mehrstufigem Cache und lokaler
+ *  Fallback-Datei, {@link ProtectedAccessBlockService} für Sperren und den
+ *  {@link InvalidationBus}, über den Änderungen der Backends sofort am
+ *  Proxy ankommen.
+ *
+ *  Befristete Einträge ({@code timed-whitelist.enabled}) werden wie auf den
+ *  Backends im Speicher gegen ihren Ablaufzeitpunkt geprüft; auch die
+ *  lokale Fallback-Antwort lässt einen abgelaufenen Eintrag nie durch.
+ *
+ *  Die Backends dürfen dem Proxy dann vertrauen
+ *  ({@code proxy.trust-proxy-whitelist: true} in deren config.yml) und
+ *  sparen sich die Whitelist-Abfrage pro Serverwechsel.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+@Plugin(
+        id = "ksr-sql-whitelist",
+        name = "KSR-SQL-Whitelist",
+        version = "1.3",
+        description = "SQL-Whitelist am Proxy",
+        authors = {"Timy Liniger"}
+)
+public class KSRSQLWhitelistVelocity implements WhitelistPlatform {
+
+    private static final LegacyComponentSerializer LEGACY_SERIALIZER =
+            LegacyComponentSerializer.legacyAmpersand();
+
+    private final ProxyServer server;
+    private final Path dataDirectory;
+    private final Logger logger = Logger.getLogger("KSR-SQL-Whitelist");
+
+    private VelocityConfig config;
+    private PluginExecutor executor;
+    private Database database;
+    private MysqlHealthProber healthProber;
+    private WhitelistService whitelistService;
+    private ProtectedAccessBlockService protectedAccessBlockService;
+    private InvalidationBus invalidationBus;
+    private ClusterResyncCoordinator resyncCoordinator;
+
+    private final AtomicBoolean mysqlUnavailable = new AtomicBoolean(false);
+
+    @Inject
+    public KSRSQLWhitelistVelocity(ProxyServer server, @DataDirectory Path dataDirectory) {
+        this.server = server;
+        this.dataDirectory = dataDirectory;
+    }
+
+    // ------------------------------------------------------------------------
+    // 🚀 Lebenszyklus
+    // ------------------------------------------------------------------------
+
+    @Subscribe
+    public void onProxyInitialize(ProxyInitializeEvent event) {
+        try {
+            config = VelocityConfig.load(dataDirectory);
+        } catch (Exception ex) {
+            logger.log(Level.SEVERE, "Could not load config.properties, whitelist stays disabled.", ex);
+            return;
+        }
+
+        String engine = config.getString("storage.type", "mysql").toLowerCase(Locale.ROOT);
+        if (!engine.equals("mysql") && !engine.equals("postgresql") && !engine.equals("postgres")) {
+            logger.severe("storage.type '" + engine + "' is not supported on the proxy (use mysql or postgresql).");
+            return;
+        }
+
+        executor = new PluginExecutor(this);
+        database = new Database(this);
+        healthProber = new MysqlHealthProber(this, database);
+        LocalFallbackDatabase localDb = new LocalFallbackDatabase(this);
+        whitelistService = new WhitelistService(this, database, localDb);
+        protectedAccessBlockService = new ProtectedAccessBlockService(this, database);
+        invalidationBus = new InvalidationBus(this, database);
+        resyncCoordinator = new ClusterResyncCoordinator(this, database, whitelistService, invalidationBus);
+
+        try {
+            localDb.ensureTable();
+            whitelistService.getTimedWhitelist().loadLocal();
+        } catch (Exception ex) {
+            logger.log(Level.SEVERE, "Failed to initialize local fallback database", ex);
+        }
+
+        try {
+            database.ensureTable();
+            protectedAccessBlockService.ensureTable();
+            resyncCoordinator.resync();
+        } catch (Exception ex) {
+            logger.log(Level.WARNING,
+                    "Database not reachable during startup. Local fallback cache will be used.", ex);
+            mysqlUnavailable.set(true);
+            healthProber.start();
+        }
+
+        // Ablaufzeitpunkte befristeter Einträge lesen (Spalte nur mit timed-whitelist.auto-migrate anlegen)
+        if (!mysqlUnavailable.get()) {
+            try {
+                whitelistService.getTimedWhitelist().ensureSchema();
+            } catch (Exception ex) {
+                logger.log(Level.WARNING, "Time-limited whitelist entries could not be loaded.", ex);
+            }
+        }
+
+        // Der Proxy schreibt keine Einträge: keine Outbox, kein Löschen abgelaufener
+        // Einträge. Abgelaufene Einträge weist isWhitelisted trotzdem ab.
+        protectedAccessBlockService.start();
+        invalidationBus.start();
+        startResyncTask();
+
+        logger.info("KSR-SQL-Whitelist proxy check enabled (" + database.store().engine() + ").");
+    }
+
+    @Subscribe
+    public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (executor != null) {
+            long timeoutSeconds = Math.max(1L, config.getLong("executor.shutdown-timeout-seconds", 10L));
+            executor.shutdown(Duration.ofSeconds(timeoutSeconds));
+        }
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    private void startResyncTask() {
+        if (!config.getBoolean("fallback.resync.enabled", true)) {
+            return;
+        }
+        long intervalHours = Math.max(1L, config.getLong("fallback.resync.interval-hours", 24L));
+        executor.scheduleAtFixedRate(PluginExecutor.Lane.RESYNC, () -> {
+            try {
+                resyncCoordinator.resync();
+                handleMysqlRecovery();
+            } catch (Exception ex) {
+                handleMysqlFailure("Scheduled fallback whitelist resync failed. Keeping existing local cache.", ex);
+            }
+        }, intervalHours, intervalHours, TimeUnit.HOURS);
+    }
+
+    // ------------------------------------------------------------------------
+    // 🔐 Login
+    // ------------------------------------------------------------------------
+
+    @Subscribe(order = PostOrder.EARLY)
+    public EventTask onLogin(LoginEvent event) {
+        return EventTask.async(() -> check(event));
+    }
+
+    private void check(LoginEvent event) {
+        if (whitelistService == null || !config.getBoolean("enabled", true) || !event.getResult().isAllowed()) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        UUID uuid = player.getUniqueId();
+        String name = player.getUsername();
+
+        // --------------------------------------------------------------
+        // 1) Clusterweite Protected-World-Sperre
+        // --------------------------------------------------------------
+        boolean blocked;
+        try {
+            blocked = protectedAccessBlockService.isBlocked(uuid);
+        } catch (SQLException ex) {
+            logger.warning("Failed to check protected-world block for " + name + ": " + ex.getMessage());
+            blocked = protectedAccessBlockService.isBlockedLocally(uuid);
+        }
+        if (blocked) {
+            deny(event, "messages.protected_world", "&cNope! Du darfst diese Welt nicht betreten.");
+            return;
+        }
+
+        // --------------------------------------------------------------
+        // 2) Whitelist (L1 → MySQL, bei Ausfall lokale Fallback-Datei)
+        // --------------------------------------------------------------
+        boolean whitelisted;
+        try {
+            whitelisted = whitelistService.isWhitelisted(uuid, name);
+            handleMysqlRecovery();
+        } catch (SQLException mysqlException) {
+            handleMysqlFailure("Whitelist check failed for " + name + ". Trying local fallback...", mysqlException);
+            try {
+                whitelisted = whitelistService.isWhitelistedLocal(uuid, name);
+            } catch (SQLException fallbackException) {
+                logger.log(Level.SEVERE, "Local fallback whitelist check also failed for " + name, fallbackException);
+                deny(event, "kick.db_error", "&cEs gab einen internen Fehler mit der Datenbank.");
+                return;
+            }
+        }
+
+        if (!whitelisted) {
+            deny(event, "kick.not_whitelisted", "&cYou're not on our whitelist.");
+        }
+    }
+
+    private void deny(LoginEvent event, String path, String def) {
+        Component message = LEGACY_SERIALIZER.deserialize(config.getString(path, def));
+        event.setResult(ResultedEvent.ComponentResult.denied(message));
+    }
+
+    // ------------------------------------------------------------------------
+    // 🧩 WhitelistPlatform
+    // ------------------------------------------------------------------------
+
+    @Override
+    public PlatformSettings getSettings() {
+        return config;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public File getDataFolder() {
+        return dataDirectory.toFile();
+    }
+
+    @Override
+    public PluginExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public boolean isMysqlUnavailable() {
+        return mysqlUnavailable.get();
+    }
+
+    @Override
+    public void handleMysqlFailure(String message, Exception exception) {
+        if (mysqlUnavailable.compareAndSet(false, true)) {
+            logger.log(Level.WARNING, message, exception);
+            healthProber.start();
+        } else {
+            logger.info("Database still unavailable, using local whitelist fallback.");
+        }
+    }
+
+    @Override
+    public void handleMysqlRecovery() {
+        if (mysqlUnavailable.compareAndSet(true, false)) {
+            logger.info("Database connection restored.");
+        }
+    }
+
+    @Override
+    public WhitelistService getWhitelistService() {
+        return whitelistService;
+    }
+
+    @Override
+    public ProtectedAccessBlockService getProtectedAccessBlockService() {
+        return protectedAccessBlockService;
+    }
+
+    @Override
+    public InvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    @Override
+    public ClusterResyncCoordinator getResyncCoordinator() {
+        return resyncCoordinator;
+    }
+
+    /**
+     * Trennt den Spieler vom ganzen Netzwerk; Velocity erlaubt das von jedem Thread aus.
+     */
+    @Override
+    public void kickPlayer(UUID uuid, String name, String message, BooleanSupplier stillDue) {
+        Optional<Player> online = uuid != null ? server.getPlayer(uuid) : server.getPlayer(name);
+        online.filter(player -> stillDue.getAsBoolean())
+                .ifPresent(player -> player.disconnect(LEGACY_SERIALIZER.deserialize(message)));
+    }
+}
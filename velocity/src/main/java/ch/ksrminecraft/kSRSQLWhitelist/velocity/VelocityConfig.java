@@ -0,0 +1,104 @@
+package ch.ksrminecraft.kSRSQLWhitelist.velocity;
+
+import ch.ksrminecraft.kSRSQLWhitelist.utils.PlatformSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * ----------------------------------------------------------------------------
+ *  ⚙️ VelocityConfig
+ *  -----------------
+ *  Liest {@code config.properties} aus dem Datenordner des Proxy-Plugins.
+ *
+ *  Die Schlüssel entsprechen denen der config.yml des Paper-Plugins
+ *  ({@code mysql.host}, {@code kick.not_whitelisted}, ...), damit beide
+ *  Seiten gleich konfiguriert werden können und die gemeinsamen Dienste
+ *  dieselben Schlüssel lesen. Fehlt die Datei, wird die Vorlage aus dem
+ *  JAR kopiert. Listen wie {@code mysql.replicas} gibt es am Proxy nicht.
+ *
+ *  Autor: Timy Liniger (KSR Minecraft)
+ *  Projekt: KSR-SQL-Whitelist
+ * ----------------------------------------------------------------------------
+ */
+public final class VelocityConfig implements PlatformSettings {
+
+    private static final String FILE_NAME = "config.properties";
+
+    private final Properties values;
+
+    private VelocityConfig(Properties values) {
+        this.values = values;
+    }
+
+    public static VelocityConfig load(Path dataDirectory) throws IOException {
+        Files.createDirectories(dataDirectory);
+        Path file = dataDirectory.resolve(FILE_NAME);
+
+        if (Files.notExists(file)) {
+            try (InputStream defaults = VelocityConfig.class.getResourceAsStream("/" + FILE_NAME)) {
+                if (defaults == null) {
+                    throw new IOException("Default " + FILE_NAME + " missing from plugin JAR");
+                }
+                Files.copy(defaults, file);
+            }
+        }
+
+        Properties values = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            values.load(reader);
+        }
+        return new VelocityConfig(values);
+    }
+
+    @Override
+    public String getString(String path, String def) {
+        String value = values.getProperty(path);
+        return value == null ? def : value.trim();
+    }
+
+    @Override
+    public int getInt(String path, int def) {
+        try {
+            return Integer.parseInt(getString(path, String.valueOf(def)));
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    @Override
+    public long getLong(String path, long def) {
+        try {
+            return Long.parseLong(getString(path, String.valueOf(def)));
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    @Override
+    public double getDouble(String path, double def) {
+        try {
+            return Double.parseDouble(getString(path, String.valueOf(def)));
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String path, boolean def) {
+        String value = getString(path, null);
+        return value == null ? def : Boolean.parseBoolean(value);
+    }
+
+    @Override
+    public List<Map<?, ?>> getMapList(String path) {
+        return List.of();
+    }
+}